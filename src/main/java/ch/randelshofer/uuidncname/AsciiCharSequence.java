@@ -0,0 +1,67 @@
+/*
+ * @(#)AsciiCharSequence.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * A mutable {@link CharSequence} view on a range of ASCII characters in
+ * a byte array.
+ * <p>
+ * This class is used for decoding many ids from an array without creating
+ * a {@link String} for each id. The view can be reused by calling
+ * {@link #set(byte[], int, int)}.
+ */
+final class AsciiCharSequence implements CharSequence {
+    private byte[] array;
+    private int offset;
+    private int length;
+
+    AsciiCharSequence() {
+        this(new byte[0], 0, 0);
+    }
+
+    AsciiCharSequence(byte[] array, int offset, int length) {
+        set(array, offset, length);
+    }
+
+    /**
+     * Sets the range of the view.
+     *
+     * @param array  the array
+     * @param offset the index of the first character
+     * @param length the number of characters
+     * @return this view
+     */
+    AsciiCharSequence set(byte[] array, int offset, int length) {
+        this.array = array;
+        this.offset = offset;
+        this.length = length;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        Objects.checkIndex(index, length);
+        return (char) (array[offset + index] & 0xff);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return new String(array, offset, length, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,485 @@
+/*
+ * @(#)Base58Codec.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+import static ch.randelshofer.uuidncname.ConstantDivision.computeM_u32;
+import static ch.randelshofer.uuidncname.ConstantDivision.fastdiv_u32;
+
+/**
+ * Encodes and decodes byte arrays of arbitrary length to/from the 'base58'
+ * alphabet.
+ * <p>
+ * The encoding is compatible with the Bitcoin base58 encoding: each leading
+ * zero byte of the input is encoded as a leading '1' character, and each
+ * leading '1' character is decoded into a leading zero byte.
+ * <p>
+ * Converting a number to base-58 with the schoolbook algorithm is in
+ * O(N^2). We only use it for short numbers, and improve its performance
+ * as follows:
+ * <ul>
+ *     <li>We store the number in 64-bit limbs and produce 10 digits at once
+ *     per division. We therefore only need one tenth of the iterations.</li>
+ *
+ *     <li>We implement constant division and constant remainder in Java
+ *     with {@link ConstantDivision.Divisor}.</li>
+ *
+ *     <li>For long inputs, we split the number recursively at powers of
+ *     58 until the parts are short enough for the quadratic algorithm
+ *     (divide-and-conquer radix conversion). Only the conversion of the
+ *     leaves is quadratic. The splits use the
+ *     sub-quadratic multiplication and division algorithms of
+ *     {@link BigInteger}.</li>
+ * </ul>
+ *
+ * References:
+ * <dl>
+ *     <dt>draft-msporny-base58-03. The Base58 Encoding Scheme.</dt>
+ *     <dd><a href="https://datatracker.ietf.org/doc/html/draft-msporny-base58-03">datatracker.ietf.org</a></dd>
+ * </dl>
+ */
+public class Base58Codec {
+    /**
+     * Number of bits in a limb of the decoder.
+     * <p>
+     * We multiply a limb by {@code 58^3 < 2^18} in each step, the product
+     * fits into a long.
+     */
+    private static final int LIMB_SHIFT = 24;
+    private static final int LIMB_MASK = (1 << LIMB_SHIFT) - 1;
+    /**
+     * Maximal number of bytes that we convert with the quadratic algorithm
+     * in the encoder.
+     */
+    private static final int LEAF_BYTES = 256;
+    /**
+     * Maximal number of digits that we convert with the quadratic algorithm
+     * in the decoder, and the length of the smallest split in the
+     * divide-and-conquer algorithms.
+     */
+    private static final int LEAF_DIGITS = 384;
+    private static final int D58 = 58;
+    private static final int D58p3 = 58 * 58 * 58;
+    private static final int D58p5 = 58 * 58 * 58 * 58 * 58;
+    private static final long D58p10 = (long) D58p5 * D58p5;
+    private static final long M58 = computeM_u32(D58);
+    private static final ConstantDivision.Divisor DIV58p5 = new ConstantDivision.Divisor(D58p5);
+    private static final ConstantDivision.Divisor DIV58p10 = new ConstantDivision.Divisor(D58p10);
+    private static final byte ZERO_CHAR = FastBase58.ALPHABET[0];
+    private static final BigInteger BIG_58 = BigInteger.valueOf(58);
+    /**
+     * Cache with the powers {@code 58^(LEAF_DIGITS << i)}.
+     */
+    private static volatile BigInteger[] powers = {BIG_58.pow(LEAF_DIGITS)};
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private Base58Codec() {
+    }
+
+    /**
+     * Returns the maximal number of characters that {@link #encode} produces
+     * for the specified number of bytes.
+     *
+     * @param length the number of bytes
+     * @return the maximal number of characters
+     */
+    public static int maxEncodedLength(int length) {
+        // log(256)/log(58) = 1.3657... < 1.38
+        return Math.toIntExact((long) length * 138 / 100 + 1);
+    }
+
+    /**
+     * Returns the maximal number of bytes that {@link #decode} produces
+     * for the specified number of characters.
+     * <p>
+     * Each leading '1' character is decoded into a whole zero byte, and
+     * each other character into less than one byte. Therefore, the bound
+     * is the number of characters.
+     *
+     * @param length the number of characters
+     * @return the maximal number of bytes
+     */
+    public static int maxDecodedLength(int length) {
+        return length;
+    }
+
+    /**
+     * Encodes the specified bytes into a base58 string.
+     *
+     * @param src the bytes
+     * @return the base58 string
+     */
+    public static String encode(byte[] src) {
+        byte[] dst = new byte[maxEncodedLength(src.length)];
+        int length = encode(src, 0, src.length, dst, 0);
+        return new String(dst, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Encodes the specified bytes into base58 characters.
+     * <p>
+     * The destination array must have room for
+     * {@link #maxEncodedLength(int) maxEncodedLength(srcLength)} bytes,
+     * because the exact number of characters is only known after the
+     * conversion.
+     *
+     * @param src       the source array
+     * @param srcOffset the offset of the first byte in the source array
+     * @param srcLength the number of bytes
+     * @param dst       the destination array, receives ASCII characters
+     * @param dstOffset the offset of the first character in the destination array
+     * @return the number of characters written to the destination array
+     */
+    public static int encode(byte[] src, int srcOffset, int srcLength, byte[] dst, int dstOffset) {
+        Objects.checkFromIndexSize(srcOffset, srcLength, src.length);
+        Objects.checkFromIndexSize(dstOffset, maxEncodedLength(srcLength), dst.length);
+
+        // Each leading zero byte is encoded as a leading '1' character.
+        int end = srcOffset + srcLength;
+        int from = srcOffset;
+        while (from < end && src[from] == 0) {
+            from++;
+        }
+        int zeros = from - srcOffset;
+        Arrays.fill(dst, dstOffset, dstOffset + zeros, ZERO_CHAR);
+        if (from == end) {
+            return zeros;
+        }
+
+        // Encode the number with an upper bound of digits, then remove the
+        // superfluous leading '1' characters.
+        int pos = dstOffset + zeros;
+        int width = maxEncodedLength(end - from);
+        if (end - from <= LEAF_BYTES) {
+            encodeLeaf(src, from, end, dst, pos, pos + width);
+        } else {
+            encodeDigits(new BigInteger(1, src, from, end - from), dst, pos, pos + width);
+        }
+        int lead = pos;
+        while (dst[lead] == ZERO_CHAR) {
+            lead++;
+        }
+        int length = pos + width - lead;
+        System.arraycopy(dst, lead, dst, pos, length);
+        return zeros + length;
+    }
+
+    /**
+     * Encodes the remaining bytes of the source buffer into base58 characters
+     * and puts them into the destination buffer.
+     * <p>
+     * The destination buffer must have room for
+     * {@link #maxEncodedLength(int) maxEncodedLength(src.remaining())} bytes.
+     * On return, the position of the source buffer is at its limit, and the
+     * position of the destination buffer is advanced by the number of
+     * characters that have been written.
+     *
+     * @param src the source buffer
+     * @param dst the destination buffer
+     * @return the number of characters written to the destination buffer
+     */
+    public static int encode(ByteBuffer src, ByteBuffer dst) {
+        byte[] in = toArray(src);
+        int capacity = maxEncodedLength(in.length);
+        int length;
+        if (dst.hasArray() && dst.remaining() >= capacity) {
+            length = encode(in, 0, in.length, dst.array(), dst.arrayOffset() + dst.position());
+            dst.position(dst.position() + length);
+        } else {
+            byte[] out = new byte[capacity];
+            length = encode(in, 0, in.length, out, 0);
+            dst.put(out, 0, length);
+        }
+        return length;
+    }
+
+    /**
+     * Decodes the specified base58 string.
+     *
+     * @param src the base58 string
+     * @return the decoded bytes
+     * @throws IllegalArgumentException if the string contains an illegal character
+     */
+    public static byte[] decode(CharSequence src) {
+        int length = src.length();
+        byte[] digits = new byte[length];
+        for (int i = 0; i < length; i++) {
+            digits[i] = (byte) lookupDigit(src.charAt(i));
+        }
+        return decodeDigits(digits, 0, length);
+    }
+
+    /**
+     * Decodes the specified base58 characters.
+     *
+     * @param src       the source array, contains ASCII characters
+     * @param srcOffset the offset of the first character in the source array
+     * @param srcLength the number of characters
+     * @param dst       the destination array
+     * @param dstOffset the offset of the first byte in the destination array
+     * @return the number of bytes written to the destination array
+     * @throws IllegalArgumentException  if the source contains an illegal character
+     * @throws IndexOutOfBoundsException if the destination array is too small
+     */
+    public static int decode(byte[] src, int srcOffset, int srcLength, byte[] dst, int dstOffset) {
+        Objects.checkFromIndexSize(srcOffset, srcLength, src.length);
+        byte[] digits = new byte[srcLength];
+        for (int i = 0; i < srcLength; i++) {
+            digits[i] = (byte) lookupDigit((char) (src[srcOffset + i] & 0xff));
+        }
+        byte[] decoded = decodeDigits(digits, 0, srcLength);
+        Objects.checkFromIndexSize(dstOffset, decoded.length, dst.length);
+        System.arraycopy(decoded, 0, dst, dstOffset, decoded.length);
+        return decoded.length;
+    }
+
+    /**
+     * Decodes the remaining base58 characters of the source buffer and puts
+     * the bytes into the destination buffer.
+     * <p>
+     * On return, the position of the source buffer is at its limit, and the
+     * position of the destination buffer is advanced by the number of
+     * bytes that have been written.
+     *
+     * @param src the source buffer, contains ASCII characters
+     * @param dst the destination buffer
+     * @return the number of bytes written to the destination buffer
+     * @throws IllegalArgumentException if the source contains an illegal character
+     */
+    public static int decode(ByteBuffer src, ByteBuffer dst) {
+        byte[] in = toArray(src);
+        byte[] decoded = decode(new String(in, StandardCharsets.ISO_8859_1));
+        dst.put(decoded);
+        return decoded.length;
+    }
+
+    private static byte[] toArray(ByteBuffer src) {
+        byte[] in = new byte[src.remaining()];
+        src.get(in);
+        return in;
+    }
+
+    private static int lookupDigit(char ch) {
+        int digit = FastBase58.lookupDigit(ch);
+        if (digit < 0) {
+            throw new IllegalArgumentException("Illegal character in base 58: " + ch);
+        }
+        return digit;
+    }
+
+    /**
+     * Returns {@code 58^(LEAF_DIGITS << i)}.
+     */
+    private static BigInteger power(int i) {
+        BigInteger[] p = powers;
+        if (i >= p.length) {
+            BigInteger[] grown = Arrays.copyOf(p, i + 1);
+            for (int j = p.length; j <= i; j++) {
+                grown[j] = grown[j - 1].multiply(grown[j - 1]);
+            }
+            powers = p = grown;
+        }
+        return p[i];
+    }
+
+    /**
+     * Returns the largest {@code i} with {@code (LEAF_DIGITS << i) < width},
+     * so that the low part of a split has at least half of the digits.
+     * The shifted value is computed in {@code long}, so that it does not
+     * overflow for widths close to {@link Integer#MAX_VALUE}.
+     */
+    static int splitIndex(int width) {
+        int i = 0;
+        while (((long) LEAF_DIGITS << (i + 1)) < width) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Encodes the specified number into exactly {@code outTo - outFrom}
+     * digits. Pads with leading '1' characters.
+     */
+    private static void encodeDigits(BigInteger number, byte[] out, int outFrom, int outTo) {
+        int width = outTo - outFrom;
+        if (width <= LEAF_DIGITS || number.bitLength() <= LEAF_BYTES * 8) {
+            byte[] b = number.toByteArray();
+            encodeLeaf(b, 0, b.length, out, outFrom, outTo);
+            return;
+        }
+        int i = splitIndex(width);
+        int k = LEAF_DIGITS << i;
+        BigInteger[] qr = number.divideAndRemainder(power(i));
+        encodeDigits(qr[0], out, outFrom, outTo - k);
+        encodeDigits(qr[1], out, outTo - k, outTo);
+    }
+
+    /**
+     * Encodes the specified big-endian number into exactly {@code outTo - outFrom}
+     * digits with the quadratic algorithm. Pads with leading '1' characters.
+     */
+    private static void encodeLeaf(byte[] src, int from, int to, byte[] out, int outFrom, int outTo) {
+        // Convert the bytes into big-endian 64-bit limbs.
+        int n = (to - from + 7) / 8;
+        long[] limbs = new long[n];
+        int i = to;
+        for (int j = n - 1; j >= 0; j--) {
+            long limb = 0;
+            for (int shift = 0; shift < 64 && i > from; shift += 8) {
+                limb |= (src[--i] & 0xffL) << shift;
+            }
+            limbs[j] = limb;
+        }
+
+        // In each iteration, we produce 10 digits in base 58.
+        int index = outTo;
+        int firstLimb = 0;
+        while (index > outFrom) {
+            while (firstLimb < n && limbs[firstLimb] == 0) {
+                firstLimb++; // optimization - skip leading zeros
+            }
+            if (firstLimb == n) {
+                Arrays.fill(out, outFrom, index, ZERO_CHAR);
+                return;
+            }
+            long remainder = divmod(limbs, firstLimb, n);
+            long high = DIV58p5.div(remainder);
+            index = encodeChunk((int) (remainder - high * D58p5), out, outFrom, index);
+            index = encodeChunk((int) high, out, outFrom, index);
+        }
+    }
+
+    /**
+     * Encodes a chunk {@code < 58^5} into 5 digits, or less if we reach
+     * {@code outFrom}.
+     *
+     * @return the index of the last digit that was written
+     */
+    private static int encodeChunk(int chunk, byte[] out, int outFrom, int index) {
+        for (int i = 0; i < 5 && index > outFrom; i++) {
+            int quotient = fastdiv_u32(chunk, M58);
+            out[--index] = FastBase58.ALPHABET[chunk - quotient * D58];
+            chunk = quotient;
+        }
+        return index;
+    }
+
+    /**
+     * Divides a number that is represented by big-endian 64-bit limbs by
+     * {@code 58^10}. The given number is modified in-place to contain the
+     * quotient, and the return value is the remainder.
+     */
+    private static long divmod(long[] limbs, int firstLimb, int n) {
+        // The remainder is always less than the divisor, so that each
+        // 128-by-64 division yields a 64-bit quotient.
+        long remainder = 0;
+        for (int i = firstLimb; i < n; i++) {
+            long limb = limbs[i];
+            long quotient = DIV58p10.div128(remainder, limb);
+            limbs[i] = quotient;
+            remainder = limb - quotient * D58p10;
+        }
+        return remainder;
+    }
+
+    /**
+     * Decodes the specified digit values into bytes.
+     */
+    private static byte[] decodeDigits(byte[] digits, int from, int to) {
+        // Each leading '1' character is decoded into a leading zero byte.
+        int start = from;
+        while (start < to && digits[start] == 0) {
+            start++;
+        }
+        int zeros = start - from;
+        if (start == to) {
+            return new byte[zeros];
+        }
+        byte[] number;
+        int numberFrom;
+        if (to - start <= LEAF_DIGITS) {
+            number = decodeLeaf(digits, start, to);
+            numberFrom = 0;
+        } else {
+            number = decodeNumber(digits, start, to).toByteArray();
+            numberFrom = number[0] == 0 ? 1 : 0;
+        }
+        while (number[numberFrom] == 0) {
+            numberFrom++;
+        }
+        byte[] result = new byte[zeros + number.length - numberFrom];
+        System.arraycopy(number, numberFrom, result, zeros, number.length - numberFrom);
+        return result;
+    }
+
+    /**
+     * Decodes the specified digit values into a number with the
+     * divide-and-conquer algorithm.
+     */
+    private static BigInteger decodeNumber(byte[] digits, int from, int to) {
+        int width = to - from;
+        if (width <= LEAF_DIGITS) {
+            return new BigInteger(1, decodeLeaf(digits, from, to));
+        }
+        int i = splitIndex(width);
+        int k = LEAF_DIGITS << i;
+        BigInteger high = decodeNumber(digits, from, to - k);
+        BigInteger low = decodeNumber(digits, to - k, to);
+        return high.multiply(power(i)).add(low);
+    }
+
+    /**
+     * Decodes the specified digit values into a big-endian number with
+     * the quadratic algorithm. The number may have leading zero bytes.
+     */
+    private static byte[] decodeLeaf(byte[] digits, int from, int to) {
+        // Each 24-bit limb holds at least 4 digits.
+        int n = (to - from + 3) / 4 + 1;
+        int[] limbs = new int[n];
+        int firstLimb = n - 1;
+
+        // Convert the base58 digits to base 58^3 chunks.
+        // The first chunk has 1 to 3 digits.
+        int i = from;
+        int chunkLength = (to - from) % 3 == 0 ? 3 : (to - from) % 3;
+        while (i < to) {
+            int chunk = 0;
+            int multiplier = 1;
+            for (int j = 0; j < chunkLength; j++) {
+                chunk = chunk * D58 + digits[i++];
+                multiplier *= D58;
+            }
+            chunkLength = 3;
+
+            // limbs = limbs * multiplier + chunk
+            long carry = chunk;
+            for (int j = n - 1; j >= firstLimb; j--) {
+                long temp = (long) limbs[j] * multiplier + carry;
+                limbs[j] = (int) temp & LIMB_MASK;
+                carry = temp >>> LIMB_SHIFT;
+            }
+            if (carry != 0) {
+                limbs[--firstLimb] = (int) carry;
+            }
+        }
+
+        byte[] bytes = new byte[(n - firstLimb) * 3];
+        for (int j = firstLimb, k = 0; j < n; j++) {
+            int limb = limbs[j];
+            bytes[k++] = (byte) (limb >>> 16);
+            bytes[k++] = (byte) (limb >>> 8);
+            bytes[k++] = (byte) limb;
+        }
+        return bytes;
+    }
+}
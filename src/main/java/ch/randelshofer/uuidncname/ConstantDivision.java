@@ -5,16 +5,40 @@
 
 package ch.randelshofer.uuidncname;
 
+import java.math.BigInteger;
+
 /**
  * This is a Java port of fastmod.h.
  * <p>
+ * The functions with suffix {@code _u32} compute exact results for
+ * a dividend {@code a < 2^N} and a divisor {@code d < 2^L}, if
+ * {@code N + L <= 64}.
+ * <p>
+ * The functions with suffix {@code _u64} compute exact results for all
+ * unsigned 64-bit dividends and divisors {@code d > 1}.
+ * <p>
+ * {@link Divisor} caches the constants for a divisor, and also supports
+ * the division of an unsigned 128-bit dividend by an unsigned 64-bit
+ * divisor.
+ * <p>
  * References:
  * <dl>
  *     <dt>constantdivisionbenchmarks. Copyright Daniel Lemire.</dt>
  *     <dd><a href="https://github.com/lemire/constantdivisionbenchmarks/blob/master/collatzbenches/fastmod.h">fastmod.h</a></dd>
+ *
+ *     <dt>Daniel Lemire, Owen Kaser, Nathan Kurz. Faster Remainder by Direct Computation:
+ *     Applications to Compilers and Software Libraries. Software: Practice and Experience 49 (6), 2019.</dt>
+ *     <dd><a href="https://arxiv.org/abs/1902.01961">arxiv.org</a></dd>
+ *
+ *     <dt>Niels Möller, Torbjörn Granlund. Improved division by invariant integers.
+ *     IEEE Transactions on Computers 60 (2), 2011.</dt>
+ *     <dd><a href="https://gmplib.org/~tege/division-paper.pdf">gmplib.org</a></dd>
  * </dl>
  */
 public class ConstantDivision {
+    private static final BigInteger TWO_POW_128 = BigInteger.ONE.shiftLeft(128);
+    private static final BigInteger MASK_64 = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+
     /**
      * Computes {@code M} for unsigned integer division.
      * <p>
@@ -79,4 +103,219 @@ public class ConstantDivision {
     public static long fastdiv_u32L(long a, long M) {
         return Math.unsignedMultiplyHigh(M, a);
     }
+
+    /**
+     * Computes the 64 high bits of the 128-bit {@code M} for unsigned long division.
+     * <p>
+     * Usage:
+     * <pre>
+     *  uint64_t d = ... ; // divisor, should be greater than 1
+     *  __uint128_t M = computeM_u64(d); // do once
+     *  fastmod_u64(a,M,d) is a % d for all 64-bit a.
+     * </pre>
+     *
+     * @param d the divisor (is treated as an unsigned long), must be greater than 1
+     * @return the 64 high bits of M
+     */
+    public static long computeMHigh_u64(long d) {
+        return computeM_u64(d).shiftRight(64).longValue();
+    }
+
+    /**
+     * Computes the 64 low bits of the 128-bit {@code M} for unsigned long division.
+     *
+     * @param d the divisor (is treated as an unsigned long), must be greater than 1
+     * @return the 64 low bits of M
+     * @see #computeMHigh_u64(long)
+     */
+    public static long computeMLow_u64(long d) {
+        return computeM_u64(d).longValue();
+    }
+
+    private static BigInteger computeM_u64(long d) {
+        if (Long.compareUnsigned(d, 1) <= 0) {
+            throw new IllegalArgumentException("Divisor must be greater than 1, d=" + Long.toUnsignedString(d));
+        }
+        // M = ceil( (1<<128) / d ), d > 1
+        BigInteger divisor = toUnsignedBigInteger(d);
+        return TWO_POW_128.add(divisor).subtract(BigInteger.ONE).divide(divisor);
+    }
+
+    /**
+     * Computes (a % d) given precomputed M.
+     * <p>
+     * This method computes the correct result for all unsigned {@code a}.
+     *
+     * @param a     an unsigned value
+     * @param mHigh the 64 high bits of the precomputed M
+     * @param mLow  the 64 low bits of the precomputed M
+     * @param d     the divisor (is treated as an unsigned long), must be greater than 1
+     * @return the modulo
+     */
+    public static long fastmod_u64(long a, long mHigh, long mLow, long d) {
+        // lowbits = M * a, modulo 2^128
+        long lowbitsLow = mLow * a;
+        long lowbitsHigh = Math.unsignedMultiplyHigh(mLow, a) + mHigh * a;
+        return mul128_u64(lowbitsHigh, lowbitsLow, d);
+    }
+
+    /**
+     * Computes (a / d) given precomputed M for d>1.
+     * <p>
+     * This method computes the correct result for all unsigned {@code a}.
+     *
+     * @param a     an unsigned value
+     * @param mHigh the 64 high bits of the precomputed M
+     * @param mLow  the 64 low bits of the precomputed M
+     * @return the quotient
+     */
+    public static long fastdiv_u64(long a, long mHigh, long mLow) {
+        return mul128_u64(mHigh, mLow, a);
+    }
+
+    /**
+     * Computes {@code (x * d) >> 128} for an unsigned 128-bit {@code x}
+     * and an unsigned 64-bit {@code d}.
+     */
+    private static long mul128_u64(long xHigh, long xLow, long d) {
+        long bottomHalf = Math.unsignedMultiplyHigh(xLow, d);
+        long topHalfLow = xHigh * d;
+        long topHalfHigh = Math.unsignedMultiplyHigh(xHigh, d);
+        long bothHalvesLow = topHalfLow + bottomHalf;
+        return topHalfHigh + (Long.compareUnsigned(bothHalvesLow, topHalfLow) < 0 ? 1 : 0);
+    }
+
+    private static BigInteger toUnsignedBigInteger(long value) {
+        return BigInteger.valueOf(value).and(MASK_64);
+    }
+
+    /**
+     * Caches the constants that are needed for dividing by a divisor.
+     * <p>
+     * Usage:
+     * <pre>
+     *  Divisor d = new Divisor(58L * 58 * 58 * 58 * 58 * 58 * 58 * 58 * 58 * 58); // do once
+     *  d.div(a) is a / d for all 64-bit a.
+     *  d.div128(hi, lo) is (hi &lt;&lt; 64 | lo) / d for all 128-bit (hi &lt;&lt; 64 | lo) with hi &lt; d.
+     * </pre>
+     */
+    public static final class Divisor {
+        /**
+         * The divisor.
+         */
+        private final long d;
+        /**
+         * The high and low bits of M for {@link #fastdiv_u64}.
+         */
+        private final long mHigh, mLow;
+        /**
+         * The number of leading zeros of the divisor.
+         */
+        private final int shift;
+        /**
+         * The normalized divisor {@code d << shift}.
+         */
+        private final long dNorm;
+        /**
+         * The reciprocal {@code floor((2^128 - 1) / dNorm) - 2^64} of the
+         * normalized divisor.
+         */
+        private final long v;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param d the divisor (is treated as an unsigned long), must be greater than 1
+         * @throws IllegalArgumentException if the divisor is 0 or 1
+         */
+        public Divisor(long d) {
+            BigInteger m = computeM_u64(d);
+            this.d = d;
+            this.mHigh = m.shiftRight(64).longValue();
+            this.mLow = m.longValue();
+            this.shift = Long.numberOfLeadingZeros(d);
+            this.dNorm = d << shift;
+            this.v = TWO_POW_128.subtract(BigInteger.ONE).divide(toUnsignedBigInteger(dNorm)).longValue();
+        }
+
+        /**
+         * Returns the divisor.
+         *
+         * @return the divisor (is treated as an unsigned long)
+         */
+        public long divisor() {
+            return d;
+        }
+
+        /**
+         * Computes {@code a / d}.
+         *
+         * @param a an unsigned value
+         * @return the unsigned quotient
+         */
+        public long div(long a) {
+            return fastdiv_u64(a, mHigh, mLow);
+        }
+
+        /**
+         * Computes {@code a % d}.
+         *
+         * @param a an unsigned value
+         * @return the unsigned remainder
+         */
+        public long mod(long a) {
+            return fastmod_u64(a, mHigh, mLow, d);
+        }
+
+        /**
+         * Computes {@code (hi << 64 | lo) / d}.
+         * <p>
+         * The quotient only fits into 64 bits, if {@code hi < d}.
+         * The result is undefined if {@code hi >= d}.
+         * <p>
+         * The remainder can be computed with {@code lo - quotient * d}.
+         *
+         * @param hi the 64 high bits of an unsigned 128-bit value, must be less than {@code d}
+         * @param lo the 64 low bits of an unsigned 128-bit value
+         * @return the unsigned quotient
+         */
+        public long div128(long hi, long lo) {
+            // This is algorithm 4 'udiv_qrnnd_preinv' from Möller and Granlund.
+            // We normalize the dividend with the same shift as the divisor.
+            // The expression (lo >>> 1) >>> (63 - shift) yields 0 if shift is 0.
+            long u1 = (hi << shift) | ((lo >>> 1) >>> (63 - shift));
+            long u0 = lo << shift;
+
+            // (q1, q0) = v * u1 + (u1, u0)
+            long q0 = v * u1;
+            long q1 = Math.unsignedMultiplyHigh(v, u1);
+            long sum = q0 + u0;
+            q1 += u1 + (Long.compareUnsigned(sum, q0) < 0 ? 1 : 0);
+            q0 = sum;
+
+            q1++;
+            long r = u0 - q1 * dNorm;
+            if (Long.compareUnsigned(r, q0) > 0) {
+                q1--;
+                r += dNorm;
+            }
+            if (Long.compareUnsigned(r, dNorm) >= 0) {
+                q1++;
+            }
+            return q1;
+        }
+
+        /**
+         * Computes {@code (hi << 64 | lo) % d}.
+         * <p>
+         * The result is undefined if {@code hi >= d}.
+         *
+         * @param hi the 64 high bits of an unsigned 128-bit value, must be less than {@code d}
+         * @param lo the 64 low bits of an unsigned 128-bit value
+         * @return the unsigned remainder
+         */
+        public long mod128(long hi, long lo) {
+            return lo - div128(hi, lo) * d;
+        }
+    }
 }
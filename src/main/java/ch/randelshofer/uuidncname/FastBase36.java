@@ -0,0 +1,145 @@
+/*
+ * @(#)FastBase36.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static ch.randelshofer.uuidncname.ConstantDivision.computeM_u32;
+import static ch.randelshofer.uuidncname.ConstantDivision.fastdiv_u32L;
+
+/**
+ * Encodes and decodes 124-bit integers to/from the 'base36' alphabet.
+ * <p>
+ * The alphabet is in ASCII order. Therefore, the encoding preserves the
+ * lexical order of the numbers. The decoder is not case sensitive.
+ */
+public class FastBase36 {
+    public static final byte[] ALPHABET = "0123456789abcdefghijklmnopqrstuvwxyz".getBytes(StandardCharsets.ISO_8859_1);
+    private static final int[] INVERSE_ALPHABET = new int[128];
+
+    static {
+        Arrays.fill(INVERSE_ALPHABET, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            INVERSE_ALPHABET[ALPHABET[i]] = i;
+            INVERSE_ALPHABET[Character.toUpperCase(ALPHABET[i])] = i;
+        }
+    }
+
+    private static final int D36 = 36;
+    private static final long M36 = computeM_u32(D36);
+    private static final long D36p6 = 36L * 36 * 36 * 36 * 36 * 36;
+    private static final long D36p12 = D36p6 * D36p6;
+    private static final ConstantDivision.Divisor DIV36p6 = new ConstantDivision.Divisor(D36p6);
+    private static final ConstantDivision.Divisor DIV36p12 = new ConstantDivision.Divisor(D36p12);
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private FastBase36() {
+    }
+
+    /**
+     * Encodes an unsigned 124 bit number into 24 characters in base-36
+     * while preserving the lexical order by padding shorter numbers
+     * with '0' characters to the left.
+     * <p>
+     * To improve performance, we do the following:
+     * <ul>
+     *     <li>We divide the number by {@code 36^12} with a single 128-by-64
+     *     division. This yields 2 chunks of 12 digits.</li>
+     *
+     *     <li>We implement constant division and constant remainder in Java
+     *     with {@link ConstantDivision}.</li>
+     * </ul>
+     *
+     * @param high   the 60 most significant bits of the number
+     * @param low    the 64 least significant bits of the number
+     * @param out    the output array
+     * @param offset the offset in the output array
+     */
+    public static void encode36(long high, long low, byte[] out, int offset) {
+        // high < 2^60 < 36^12, and the quotient is less than 2^124 / 36^12 < 36^12.
+        long q = DIV36p12.div128(high, low);
+        long r = low - q * D36p12;
+        encodeChunk(q, out, offset);
+        encodeChunk(r, out, offset + 12);
+    }
+
+    /**
+     * Encodes a chunk {@code < 36^12} into 12 characters.
+     */
+    private static void encodeChunk(long chunk, byte[] out, int offset) {
+        long high = DIV36p6.div(chunk);
+        encodeDigits(chunk - high * D36p6, out, offset + 6);
+        encodeDigits(high, out, offset);
+    }
+
+    /**
+     * Encodes a chunk {@code < 36^6 < 2^32} into 6 characters.
+     */
+    private static void encodeDigits(long chunk, byte[] out, int offset) {
+        for (int i = offset + 5; i >= offset; i--) {
+            long quotient = fastdiv_u32L(chunk, M36);
+            out[i] = ALPHABET[(int) (chunk - quotient * D36)];
+            chunk = quotient;
+        }
+    }
+
+    /**
+     * Decodes 24 base-36 characters into an unsigned 124 bit number.
+     *
+     * @param input     the base36-encoded characters
+     * @param from      the index of the first character in input to be decoded
+     * @param dst       the destination array, receives the 60 most significant
+     *                  bits and the 64 least significant bits of the number
+     * @param dstOffset the offset in the destination array
+     * @throws IllegalArgumentException if the input contains an illegal character,
+     *                                  or if the number has more than 124 bits
+     */
+    public static void decode36(CharSequence input, int from, long[] dst, int dstOffset) {
+        long c1 = decodeChunk(input, from);
+        long c2 = decodeChunk(input, from + 12);
+        if ((c1 | c2) < 0) {
+            throw new IllegalArgumentException("InvalidCharacter in base 36");
+        }
+
+        // n = c1 * 36^12 + c2
+        long product = c1 * D36p12;
+        long nLow = product + c2;
+        long nHigh = Math.unsignedMultiplyHigh(c1, D36p12) + (Long.compareUnsigned(nLow, product) < 0 ? 1 : 0);
+        if ((nHigh >>> 60) != 0) {
+            throw new IllegalArgumentException("Input has more than 124 data bits.");
+        }
+        dst[dstOffset] = nHigh;
+        dst[dstOffset + 1] = nLow;
+    }
+
+    /**
+     * Decodes 12 characters into a chunk {@code < 36^12}.
+     * Returns a value &lt; 0 if a character is not a valid digit.
+     */
+    private static long decodeChunk(CharSequence input, int from) {
+        long chunk = 0;
+        int containsInvalidChar = 0;
+        for (int i = from, end = from + 12; i < end; i++) {
+            int digit = lookupDigit(input.charAt(i));
+            containsInvalidChar |= digit;
+            chunk = chunk * D36 + digit;
+        }
+        return containsInvalidChar < 0 ? -1 : chunk;
+    }
+
+    /**
+     * Looks the digit of the specified character up. Returns a value &lt; 0 if the character is not a valid digit.
+     *
+     * @param ch a character
+     * @return the digit or a value &lt; 0 if the character is not a digit.
+     */
+    static int lookupDigit(char ch) {
+        return ch < 128 ? INVERSE_ALPHABET[ch] : -1;
+    }
+}
@@ -181,6 +181,118 @@ public class FastBase58 {
         out[offset] = ALPHABET[fastdiv_u32(remainder, M58p2)];
     }
 
+    /**
+     * The number of numbers that {@link #encode58Lanes} encodes at once.
+     */
+    public static final int LANES = 4;
+
+    /**
+     * Encodes {@value #LANES} unsigned 120 bit numbers into 21 characters
+     * each in base-58. The output is the same as the output of
+     * {@link #encode58} or {@link #encode58Lex} for each number.
+     * <p>
+     * The conversion of a single number is a long chain of dependent
+     * multiplications, and the CPU mostly waits for their results.
+     * This method converts the numbers in lock-step: it interleaves the
+     * divisions of all numbers, so that the CPU can overlap the independent
+     * chains of multiplications.
+     * <p>
+     * Unlike {@link #encode58}, this method does not use the output array
+     * as scratch space.
+     *
+     * @param numbers the numbers, {@code numbers[2 * k]} holds the 60 most
+     *                significant bits of number {@code k}, and
+     *                {@code numbers[2 * k + 1]} holds the 60 least significant bits
+     * @param out     the output array
+     * @param offset  the offset of the characters of number 0 in the output array
+     * @param stride  the distance between the characters of two numbers
+     * @param lexical whether to pad with '1' characters to the left like
+     *                {@link #encode58Lex}, or with '_' characters to the right
+     *                like {@link #encode58}
+     */
+    public static void encode58Lanes(long[] numbers, byte[] out, int offset, int stride, boolean lexical) {
+        // We store the 4 digits in base 2^30 of each number in little-endian order.
+        // n[4 * k + i] holds digit i of number k.
+        int mask30 = (1 << 30) - 1;
+        long[] n = new long[4 * LANES];
+        for (int k = 0; k < LANES; k++) {
+            long high = numbers[2 * k], low = numbers[2 * k + 1];
+            n[4 * k + 3] = high >> 30;
+            n[4 * k + 2] = high & mask30;
+            n[4 * k + 1] = low >> 30;
+            n[4 * k] = low & mask30;
+        }
+
+        // Like in encode58Lex, we skip the digits that are zero after each division.
+        // The remainders of the numbers are kept in separate variables,
+        // so that their dependency chains are independent of each other.
+        for (int i = 0; i < 7; i++) {
+            long r0 = 0, r1 = 0, r2 = 0, r3 = 0;
+            for (int j = 3 - ((37 * i) >>> 6); j >= 0; j--) {
+                long t0 = (r0 << 30) + n[j];
+                long t1 = (r1 << 30) + n[4 + j];
+                long t2 = (r2 << 30) + n[8 + j];
+                long t3 = (r3 << 30) + n[12 + j];
+                long q0 = fastdiv_u32L(t0, M58p3);
+                long q1 = fastdiv_u32L(t1, M58p3);
+                long q2 = fastdiv_u32L(t2, M58p3);
+                long q3 = fastdiv_u32L(t3, M58p3);
+                n[j] = q0;
+                n[4 + j] = q1;
+                n[8 + j] = q2;
+                n[12 + j] = q3;
+                // The remainder from the quotient takes one multiplication
+                // less than fastmod
+                r0 = t0 - q0 * D58p3;
+                r1 = t1 - q1 * D58p3;
+                r2 = t2 - q2 * D58p3;
+                r3 = t3 - q3 * D58p3;
+            }
+            int index = offset + 20 - 3 * i;
+            writeDigits((int) r0, out, index);
+            writeDigits((int) r1, out, index + stride);
+            writeDigits((int) r2, out, index + 2 * stride);
+            writeDigits((int) r3, out, index + 3 * stride);
+        }
+
+        if (!lexical) {
+            for (int k = 0; k < LANES; k++) {
+                padRight(numbers[2 * k], numbers[2 * k + 1], out, offset + k * stride);
+            }
+        }
+    }
+
+    /**
+     * Writes the 3 base-58 digits of a remainder of the division by 58^3,
+     * with the least significant digit at the specified index.
+     */
+    private static void writeDigits(int remainder, byte[] out, int index) {
+        int d2 = fastdiv_u32(remainder, M58p2);
+        int rest = remainder - d2 * D58p2;
+        int d1 = fastdiv_u32(rest, M58);
+        out[index] = ALPHABET[rest - d1 * D58];
+        out[index - 1] = ALPHABET[d1];
+        out[index - 2] = ALPHABET[d2];
+    }
+
+    /**
+     * Replaces the leading '1' characters of 21 digits by '_' characters to
+     * the right, in the same way as {@link #encode58}.
+     */
+    private static void padRight(long high, long low, byte[] out, int offset) {
+        int leadingZeros = 0;
+        while (leadingZeros < 21 && out[offset + leadingZeros] == ALPHABET[0]) {
+            leadingZeros++;
+        }
+        int leadingZeroBits = Long.numberOfLeadingZeros(high) - 4;
+        if (leadingZeroBits == 60) leadingZeroBits += Long.numberOfLeadingZeros(low) - 4;
+        int padding = Math.max(0, leadingZeros - leadingZeroBits / 8);
+        if (padding > 0) {
+            System.arraycopy(out, offset + padding, out, offset, 21 - padding);
+            Arrays.fill(out, offset + 21 - padding, offset + 21, (byte) '_');
+        }
+    }
+
 
     /**
      * Divides a number that is represented by an array of bytes.
@@ -236,7 +348,7 @@ public class FastBase58 {
      * @param to    the index (exclusive) of the last character in input to be decoded
      * @return the decoded data bytes, 4 chunks with 30 bits each
      */
-    public static int[] decode58Lex(String input, int from, int to) {
+    public static int[] decode58Lex(CharSequence input, int from, int to) {
         int inputLength = to - from;
         if (inputLength == 0) {
             throw new IllegalArgumentException("Input is empty");
@@ -265,7 +377,7 @@ public class FastBase58 {
      * @param ch a character
      * @return the digit or a value &lt; 0 if the character is not a digit.
      */
-    private static int lookupDigit(char ch) {
+    static int lookupDigit(char ch) {
         // The branchy code is faster than the branchless code, because we
         // will almost always have a character that is in the table.
         // Branchless code:  return INDEXES[ch & 127] | (127 - ch) >> 31;
@@ -280,7 +392,7 @@ public class FastBase58 {
      * @param to    the index (exclusive) of the last character in input to be decoded
      * @return the decoded data bytes, 4 chunks with 30 bits each
      */
-    public static int[] decode58(String input, int from, int to) {
+    public static int[] decode58(CharSequence input, int from, int to) {
         int inputLength = to - from;
         if (inputLength == 0) {
             throw new IllegalArgumentException("Input is empty");
@@ -0,0 +1,158 @@
+/*
+ * @(#)FastBase62.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static ch.randelshofer.uuidncname.ConstantDivision.computeM_u32;
+import static ch.randelshofer.uuidncname.ConstantDivision.fastdiv_u32;
+
+/**
+ * Encodes and decodes 124-bit integers to/from the 'base62' alphabet.
+ * <p>
+ * The alphabet is in ASCII order. Therefore, the encoding preserves the
+ * lexical order of the numbers.
+ */
+public class FastBase62 {
+    public static final byte[] ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".getBytes(StandardCharsets.ISO_8859_1);
+    private static final int[] INVERSE_ALPHABET = new int[128];
+
+    static {
+        Arrays.fill(INVERSE_ALPHABET, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            INVERSE_ALPHABET[ALPHABET[i]] = i;
+        }
+    }
+
+    private static final int D62 = 62;
+    private static final long M62 = computeM_u32(D62);
+    private static final int D62p5 = 62 * 62 * 62 * 62 * 62;
+    private static final long D62p10 = (long) D62p5 * D62p5;
+    private static final ConstantDivision.Divisor DIV62p5 = new ConstantDivision.Divisor(D62p5);
+    private static final ConstantDivision.Divisor DIV62p10 = new ConstantDivision.Divisor(D62p10);
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private FastBase62() {
+    }
+
+    /**
+     * Encodes an unsigned 124 bit number into 21 characters in base-62
+     * while preserving the lexical order by padding shorter numbers
+     * with '0' characters to the left.
+     * <p>
+     * To improve performance, we do the following:
+     * <ul>
+     *     <li>We divide the number by {@code 62^10} with 128-by-64 divisions.
+     *     We therefore only need 3 divisions to get 3 chunks of 1, 10 and 10
+     *     digits.</li>
+     *
+     *     <li>We implement constant division and constant remainder in Java
+     *     with {@link ConstantDivision}.</li>
+     * </ul>
+     *
+     * @param high   the 60 most significant bits of the number
+     * @param low    the 64 least significant bits of the number
+     * @param out    the output array
+     * @param offset the offset in the output array
+     */
+    public static void encode62(long high, long low, byte[] out, int offset) {
+        // The quotient (hq:q) of the number divided by 62^10 has more than 64 bits.
+        long hq = DIV62p10.div(high);
+        long q = DIV62p10.div128(high - hq * D62p10, low);
+        long r0 = low - q * D62p10;
+
+        // The quotient of (hq:q) divided by 62^10 is less than 62.
+        long q2 = DIV62p10.div128(hq, q);
+        long r1 = q - q2 * D62p10;
+
+        out[offset] = ALPHABET[(int) q2];
+        encodeChunk(r1, out, offset + 1);
+        encodeChunk(r0, out, offset + 11);
+    }
+
+    /**
+     * Encodes a chunk {@code < 62^10} into 10 characters.
+     */
+    private static void encodeChunk(long chunk, byte[] out, int offset) {
+        long high = DIV62p5.div(chunk);
+        encodeDigits((int) (chunk - high * D62p5), out, offset + 5);
+        encodeDigits((int) high, out, offset);
+    }
+
+    /**
+     * Encodes a chunk {@code < 62^5} into 5 characters.
+     */
+    private static void encodeDigits(int chunk, byte[] out, int offset) {
+        for (int i = offset + 4; i >= offset; i--) {
+            int quotient = fastdiv_u32(chunk, M62);
+            out[i] = ALPHABET[chunk - quotient * D62];
+            chunk = quotient;
+        }
+    }
+
+    /**
+     * Decodes 21 base-62 characters into an unsigned 124 bit number.
+     *
+     * @param input     the base62-encoded characters
+     * @param from      the index of the first character in input to be decoded
+     * @param dst       the destination array, receives the 60 most significant
+     *                  bits and the 64 least significant bits of the number
+     * @param dstOffset the offset in the destination array
+     * @throws IllegalArgumentException if the input contains an illegal character,
+     *                                  or if the number has more than 124 bits
+     */
+    public static void decode62(CharSequence input, int from, long[] dst, int dstOffset) {
+        int d0 = lookupDigit(input.charAt(from));
+        long c1 = decodeChunk(input, from + 1);
+        long c2 = decodeChunk(input, from + 11);
+        if ((d0 | c1 | c2) < 0) {
+            throw new IllegalArgumentException("InvalidCharacter in base 62");
+        }
+
+        // a = d0 * 62^10 + c1
+        long aLow = d0 * D62p10 + c1;
+        long aHigh = Math.unsignedMultiplyHigh(d0, D62p10) + (Long.compareUnsigned(aLow, c1) < 0 ? 1 : 0);
+
+        // n = a * 62^10 + c2
+        long product = aLow * D62p10;
+        long nLow = product + c2;
+        long nHigh = aHigh * D62p10 + Math.unsignedMultiplyHigh(aLow, D62p10)
+                + (Long.compareUnsigned(nLow, product) < 0 ? 1 : 0);
+        if ((nHigh >>> 60) != 0) {
+            throw new IllegalArgumentException("Input has more than 124 data bits.");
+        }
+        dst[dstOffset] = nHigh;
+        dst[dstOffset + 1] = nLow;
+    }
+
+    /**
+     * Decodes 10 characters into a chunk {@code < 62^10}.
+     * Returns a value &lt; 0 if a character is not a valid digit.
+     */
+    private static long decodeChunk(CharSequence input, int from) {
+        long chunk = 0;
+        int containsInvalidChar = 0;
+        for (int i = from, end = from + 10; i < end; i++) {
+            int digit = lookupDigit(input.charAt(i));
+            containsInvalidChar |= digit;
+            chunk = chunk * D62 + digit;
+        }
+        return containsInvalidChar < 0 ? -1 : chunk;
+    }
+
+    /**
+     * Looks the digit of the specified character up. Returns a value &lt; 0 if the character is not a valid digit.
+     *
+     * @param ch a character
+     * @return the digit or a value &lt; 0 if the character is not a digit.
+     */
+    static int lookupDigit(char ch) {
+        return ch < 128 ? INVERSE_ALPHABET[ch] : -1;
+    }
+}
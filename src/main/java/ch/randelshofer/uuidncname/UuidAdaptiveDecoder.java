@@ -0,0 +1,312 @@
+/*
+ * @(#)UuidAdaptiveDecoder.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Parses {@link UUID}s from a stream of strings that are mostly in the same
+ * format, and learns that format.
+ * <p>
+ * {@link UuidNCName#fromString(String)} detects the format of each string
+ * from its length and from its last character. This decoder does the same
+ * until it has seen {@code learningThreshold} consecutive strings in the
+ * same format. Then it pins the format, and parses the following strings
+ * with the {@link UuidNCName.Decoder} of that format directly, after a
+ * guard that only checks the length and the last character. If a string
+ * does not pass the guard, the decoder falls back to the full detection.
+ * If the stream changes its format, the decoder pins the new format after
+ * {@code learningThreshold} consecutive strings in the new format.
+ * <p>
+ * The decoder detects the same formats as {@link UuidNCName#fromString(String)},
+ * and {@link UuidFormat#CANONICAL}. The base36 and base62 formats can not be
+ * told apart by their length, and strings in the base62 formats are misread
+ * as {@link UuidFormat#NCNAME_64} or {@link UuidFormat#NCNAME_64_LEX} by the
+ * detection. They must be pinned in the constructor. The guard of a
+ * format that is pinned this way only checks the length, so a stream in
+ * such a format must not contain ids in other formats of the same length.
+ * <p>
+ * The decoder counts the strings per format, so that the format of a source
+ * can be pinned from the {@link Statistics}. A string is counted in the format
+ * that has been selected for it, also if it turns out to be invalid.
+ * <p>
+ * Instances of this class are not thread-safe.
+ */
+public final class UuidAdaptiveDecoder {
+    /**
+     * The default number of consecutive strings in the same format, after
+     * which the decoder pins the format.
+     */
+    public static final int DEFAULT_LEARNING_THRESHOLD = 8;
+
+    private final int learningThreshold;
+    private UuidNCName.Decoder pinned;
+    private int pinnedLength = -1;
+    private boolean lengthOnlyGuard;
+    private boolean pinnedLexical;
+    private UuidFormat candidate;
+    private int streak;
+
+    private final long[] counts = new long[UuidFormat.values().length];
+    private long fastPathCount;
+    private long fastPathCountAtPin;
+    private long invalidCount;
+    private long pinCount;
+
+    /**
+     * Creates a new decoder that learns the format with the
+     * {@value #DEFAULT_LEARNING_THRESHOLD}.
+     */
+    public UuidAdaptiveDecoder() {
+        this(null, DEFAULT_LEARNING_THRESHOLD);
+    }
+
+    /**
+     * Creates a new decoder.
+     *
+     * @param initialFormat     the format that is pinned from the start,
+     *                          or null
+     * @param learningThreshold the number of consecutive strings in the same
+     *                          format, after which the decoder pins the format
+     * @throws IllegalArgumentException if the learning threshold is not positive
+     */
+    public UuidAdaptiveDecoder(UuidFormat initialFormat, int learningThreshold) {
+        if (learningThreshold <= 0) {
+            throw new IllegalArgumentException("learningThreshold must be positive: " + learningThreshold);
+        }
+        this.learningThreshold = learningThreshold;
+        if (initialFormat != null) {
+            pin(initialFormat);
+        }
+    }
+
+    /**
+     * Returns the format that is currently pinned.
+     *
+     * @return the pinned format, or null if no format is pinned yet
+     */
+    public UuidFormat getPinnedFormat() {
+        return pinned == null ? null : pinned.getFormat();
+    }
+
+    /**
+     * Parses an {@link UUID} from the specified character sequence.
+     *
+     * @param str a character sequence
+     * @return the parsed {@link UUID}
+     * @throws IllegalArgumentException if the character sequence is not in
+     *                                  one of the formats
+     */
+    public UUID decode(CharSequence str) {
+        UuidNCName.Decoder decoder = select(str);
+        try {
+            return decoder.decode(str);
+        } catch (IllegalArgumentException e) {
+            invalidCount++;
+            throw e;
+        }
+    }
+
+    /**
+     * Parses the bits of an {@link UUID} from the specified character
+     * sequence, without creating an {@link UUID} object.
+     *
+     * @param str       a character sequence
+     * @param dst       the destination array, receives the most significant bits
+     *                  at {@code dstOffset}, and the least significant bits at
+     *                  {@code dstOffset + 1}
+     * @param dstOffset the offset in the destination array
+     * @return the format of the character sequence
+     * @throws IllegalArgumentException  if the character sequence is not in
+     *                                   one of the formats
+     * @throws IndexOutOfBoundsException if the destination array is too small
+     */
+    public UuidFormat decode(CharSequence str, long[] dst, int dstOffset) {
+        Objects.checkFromIndexSize(dstOffset, 2, dst.length);
+        UuidNCName.Decoder decoder = select(str);
+        try {
+            decoder.read(str, dst, dstOffset);
+        } catch (IllegalArgumentException e) {
+            invalidCount++;
+            throw e;
+        }
+        return decoder.getFormat();
+    }
+
+    /**
+     * Selects the decoder for the specified character sequence, and updates
+     * the statistics.
+     */
+    private UuidNCName.Decoder select(CharSequence str) {
+        int length = str.length();
+        if (length == pinnedLength
+                && (lengthOnlyGuard || UuidNCName.isLexicalVariant(str.charAt(length - 1)) == pinnedLexical)) {
+            fastPathCount++;
+            streak = 0;
+            return pinned;
+        }
+        UuidFormat format = UuidNCName.detectFormat(str);
+        if (format == null) {
+            if (length != UuidFormat.CANONICAL.length()) {
+                invalidCount++;
+                throw new IllegalArgumentException("Unknown format, length: " + length);
+            }
+            format = UuidFormat.CANONICAL;
+        }
+        counts[format.ordinal()]++;
+        if (format == candidate) {
+            streak++;
+        } else {
+            candidate = format;
+            streak = 1;
+        }
+        if (streak >= learningThreshold) {
+            pin(format);
+        }
+        return UuidNCName.getDecoder(format);
+    }
+
+    private void pin(UuidFormat format) {
+        if (pinned != null) {
+            counts[pinned.getFormat().ordinal()] += fastPathCount - fastPathCountAtPin;
+        }
+        fastPathCountAtPin = fastPathCount;
+        pinned = UuidNCName.getDecoder(format);
+        pinnedLength = format.length();
+        lengthOnlyGuard = switch (format) {
+            case NCNAME_32, NCNAME_58, NCNAME_64, NCNAME_32_LEX, NCNAME_58_LEX, NCNAME_64_LEX -> false;
+            default -> true;
+        };
+        pinnedLexical = switch (format) {
+            case NCNAME_32_LEX, NCNAME_58_LEX, NCNAME_64_LEX -> true;
+            default -> false;
+        };
+        pinCount++;
+        streak = 0;
+    }
+
+    /**
+     * Returns a snapshot of the statistics of this decoder.
+     *
+     * @return the statistics
+     */
+    public Statistics getStatistics() {
+        long[] snapshot = counts.clone();
+        if (pinned != null) {
+            // The fast path only counts the total, add the part of the pinned format
+            snapshot[pinned.getFormat().ordinal()] += fastPathCount - fastPathCountAtPin;
+        }
+        return new Statistics(snapshot, fastPathCount, invalidCount, pinCount, getPinnedFormat());
+    }
+
+    /**
+     * Statistics of an {@link UuidAdaptiveDecoder}.
+     */
+    public static final class Statistics {
+        private final long[] counts;
+        private final long fastPathCount;
+        private final long invalidCount;
+        private final long pinCount;
+        private final UuidFormat pinnedFormat;
+
+        Statistics(long[] counts, long fastPathCount, long invalidCount, long pinCount, UuidFormat pinnedFormat) {
+            this.counts = counts;
+            this.fastPathCount = fastPathCount;
+            this.invalidCount = invalidCount;
+            this.pinCount = pinCount;
+            this.pinnedFormat = pinnedFormat;
+        }
+
+        /**
+         * Returns the number of strings that have been selected for the
+         * specified format.
+         *
+         * @param format the format
+         * @return the number of strings
+         */
+        public long getCount(UuidFormat format) {
+            return counts[format.ordinal()];
+        }
+
+        /**
+         * Returns the number of strings that have been selected for a format.
+         *
+         * @return the number of strings
+         */
+        public long getTotalCount() {
+            return Arrays.stream(counts).sum();
+        }
+
+        /**
+         * Returns the number of strings that have been selected for the pinned
+         * format, without detection.
+         *
+         * @return the number of strings
+         */
+        public long getFastPathCount() {
+            return fastPathCount;
+        }
+
+        /**
+         * Returns the number of strings that could not be parsed, including
+         * strings of an unknown format.
+         *
+         * @return the number of invalid strings
+         */
+        public long getInvalidCount() {
+            return invalidCount;
+        }
+
+        /**
+         * Returns how many times the decoder has pinned a format.
+         *
+         * @return the number of times
+         */
+        public long getPinCount() {
+            return pinCount;
+        }
+
+        /**
+         * Returns the format that was pinned, when the snapshot was taken.
+         *
+         * @return the pinned format, or null
+         */
+        public UuidFormat getPinnedFormat() {
+            return pinnedFormat;
+        }
+
+        /**
+         * Returns the format with the most selected strings.
+         *
+         * @return the dominant format, or null if no string has been selected
+         */
+        public UuidFormat getDominantFormat() {
+            UuidFormat dominant = null;
+            for (UuidFormat format : UuidFormat.values()) {
+                if (counts[format.ordinal()] > 0
+                        && (dominant == null || counts[format.ordinal()] > counts[dominant.ordinal()])) {
+                    dominant = format;
+                }
+            }
+            return dominant;
+        }
+
+        @Override
+        public String toString() {
+            long total = getTotalCount();
+            StringBuilder buf = new StringBuilder("UuidAdaptiveDecoder.Statistics{");
+            for (UuidFormat format : UuidFormat.values()) {
+                if (counts[format.ordinal()] > 0) {
+                    buf.append(String.format("%s=%.1f%%, ", format, 100.0 * counts[format.ordinal()] / total));
+                }
+            }
+            return buf.append(String.format("total=%d, fastPath=%.1f%%, invalid=%d, pins=%d, pinned=%s}",
+                    total, total == 0 ? 0.0 : 100.0 * fastPathCount / total, invalidCount, pinCount, pinnedFormat)).toString();
+        }
+    }
+}
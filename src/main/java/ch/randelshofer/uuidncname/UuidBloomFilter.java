@@ -0,0 +1,229 @@
+/*
+ * @(#)UuidBloomFilter.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A blocked Bloom filter for {@link java.util.UUID}s.
+ * <p>
+ * The bits of the filter are divided into blocks of 512 bits, which is the
+ * size of a cache line on most processors. All bits of an element are set
+ * in the same block, so that each operation touches only one cache line.
+ * This makes the filter considerably faster than a classic Bloom filter,
+ * at the cost of a slightly higher false positive probability.
+ * <p>
+ * The filter works on the hash of {@link UuidHash}. Elements can be
+ * added and queried as strings in any {@link UuidFormat}, without decoding
+ * them into {@link java.util.UUID} objects.
+ * <p>
+ * The bits are stored in a single {@code long} array, so that the filter
+ * can hold up to about 2<sup>37</sup> bits (16 GiB). This is enough for
+ * several billion elements with a false positive probability of 1%.
+ * <p>
+ * Instances of this class are thread-safe. Bits are set with atomic
+ * bitwise-or operations.
+ */
+public final class UuidBloomFilter {
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+    /**
+     * The number of longs in a block.
+     */
+    private static final int BLOCK_LONGS = 8;
+    /**
+     * The number of bits in a block.
+     */
+    private static final int BLOCK_BITS = BLOCK_LONGS * 64;
+    private static final int MAX_BLOCKS = (Integer.MAX_VALUE - 8) / BLOCK_LONGS;
+
+    private final long[] bits;
+    private final long blockCount;
+    private final int hashCount;
+
+    /**
+     * Creates a new filter that is sized for the specified number of
+     * elements and false positive probability.
+     *
+     * @param expectedElements the expected number of elements
+     * @param fpp              the desired false positive probability,
+     *                         in the range (0, 1)
+     * @throws IllegalArgumentException if the number of elements is not
+     *                                  positive, if the probability is out of
+     *                                  range, or if the filter would be too large
+     */
+    public UuidBloomFilter(long expectedElements, double fpp) {
+        this(optimalBitCount(expectedElements, fpp), optimalHashCount(fpp));
+    }
+
+    private UuidBloomFilter(long bitCount, int hashCount) {
+        if (bitCount <= 0 || (bitCount + BLOCK_BITS - 1) / BLOCK_BITS > MAX_BLOCKS) {
+            throw new IllegalArgumentException("Illegal bit count: " + bitCount);
+        }
+        if (hashCount < 1 || hashCount > 16) {
+            throw new IllegalArgumentException("Illegal hash count: " + hashCount);
+        }
+        this.blockCount = (bitCount + BLOCK_BITS - 1) / BLOCK_BITS;
+        this.bits = new long[(int) (blockCount * BLOCK_LONGS)];
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * Creates a new filter with the specified number of bits and hash
+     * functions.
+     *
+     * @param bitCount  the number of bits, is rounded up to a multiple of 512
+     * @param hashCount the number of bits that are set for an element,
+     *                  in the range [1, 16]
+     * @return a new filter
+     * @throws IllegalArgumentException if an argument is out of range
+     */
+    public static UuidBloomFilter ofBitCount(long bitCount, int hashCount) {
+        return new UuidBloomFilter(bitCount, hashCount);
+    }
+
+    private static long optimalBitCount(long n, double fpp) {
+        if (n <= 0) throw new IllegalArgumentException("Illegal number of elements: " + n);
+        if (!(fpp > 0 && fpp < 1)) throw new IllegalArgumentException("Illegal probability: " + fpp);
+        double bits = Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        return (long) Math.min(bits, Long.MAX_VALUE);
+    }
+
+    private static int optimalHashCount(double fpp) {
+        return (int) Math.max(1, Math.min(16, Math.round(-Math.log(fpp) / Math.log(2))));
+    }
+
+    /**
+     * Returns the number of bits of this filter.
+     *
+     * @return the number of bits, a multiple of 512
+     */
+    public long getBitCount() {
+        return blockCount * BLOCK_BITS;
+    }
+
+    /**
+     * Returns the number of bits that are set for an element.
+     *
+     * @return the number of hash functions
+     */
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * Adds the specified {@link java.util.UUID} to this filter.
+     *
+     * @param msb the most significant bits of the {@link java.util.UUID}
+     * @param lsb the least significant bits of the {@link java.util.UUID}
+     * @return true if the filter has changed, which means that the
+     * {@link java.util.UUID} has certainly not been added before
+     */
+    public boolean put(long msb, long lsb) {
+        return putHash(UuidHash.hash(msb, lsb));
+    }
+
+    /**
+     * Adds the {@link java.util.UUID} that is represented by the specified
+     * string to this filter.
+     *
+     * @param str    a string
+     * @param format the format of the string
+     * @return true if the filter has changed, which means that the
+     * {@link java.util.UUID} has certainly not been added before
+     * @throws IllegalArgumentException if the string is not in the specified format
+     */
+    public boolean put(CharSequence str, UuidFormat format) {
+        return putHash(UuidHash.hash(str, format));
+    }
+
+    /**
+     * Returns true if the specified {@link java.util.UUID} might have been
+     * added to this filter, and false if it has certainly not been added.
+     *
+     * @param msb the most significant bits of the {@link java.util.UUID}
+     * @param lsb the least significant bits of the {@link java.util.UUID}
+     * @return whether the {@link java.util.UUID} might be contained
+     */
+    public boolean mightContain(long msb, long lsb) {
+        return mightContainHash(UuidHash.hash(msb, lsb));
+    }
+
+    /**
+     * Returns true if the {@link java.util.UUID} that is represented by the
+     * specified string might have been added to this filter, and false if
+     * it has certainly not been added.
+     *
+     * @param str    a string
+     * @param format the format of the string
+     * @return whether the {@link java.util.UUID} might be contained
+     * @throws IllegalArgumentException if the string is not in the specified format
+     */
+    public boolean mightContain(CharSequence str, UuidFormat format) {
+        return mightContainHash(UuidHash.hash(str, format));
+    }
+
+    /**
+     * Adds an element with the specified hash from {@link UuidHash}.
+     *
+     * @param hash the hash
+     * @return true if the filter has changed
+     */
+    public boolean putHash(long hash) {
+        int base = blockIndex(hash);
+        long probe = hash;
+        boolean changed = false;
+        for (int i = 0; i < hashCount; i++) {
+            probe = nextProbe(probe);
+            int bit = (int) (probe >>> 55);
+            long mask = 1L << bit;
+            int index = base + (bit >>> 6);
+            if ((bits[index] & mask) == 0
+                    && ((long) LONGS.getAndBitwiseOr(bits, index, mask) & mask) == 0) {
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Returns true if an element with the specified hash from {@link UuidHash}
+     * might have been added to this filter.
+     *
+     * @param hash the hash
+     * @return whether the element might be contained
+     */
+    public boolean mightContainHash(long hash) {
+        int base = blockIndex(hash);
+        long probe = hash;
+        for (int i = 0; i < hashCount; i++) {
+            probe = nextProbe(probe);
+            int bit = (int) (probe >>> 55);
+            if (((long) LONGS.getOpaque(bits, base + (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes the next bit position of an element with a multiplicative
+     * congruential step. The bit position is taken from the 9 most significant
+     * bits, which depend on all bits of the hash, and not only on the bits
+     * that select the block.
+     */
+    private static long nextProbe(long probe) {
+        return probe * 0xd1342543de82ef95L + 0x9e3779b97f4a7c15L;
+    }
+
+    /**
+     * Maps the hash to the index of the first long of a block, by
+     * multiplying the hash with the number of blocks.
+     */
+    private int blockIndex(long hash) {
+        return (int) Math.unsignedMultiplyHigh(hash, blockCount) * BLOCK_LONGS;
+    }
+}
@@ -0,0 +1,348 @@
+/*
+ * @(#)UuidChannelCodec.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.ScatteringByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Converts between a stream of binary {@link java.util.UUID}s and a stream
+ * of delimited {@link java.util.UUID} strings in a {@link UuidFormat}.
+ * <p>
+ * A binary record has 16 bytes: the most significant bits followed by the
+ * least significant bits, both in big-endian order.
+ * <p>
+ * A text record consists of the {@link UuidFormat#length()} ASCII characters
+ * of the id, followed by a delimiter character, for example {@code '\n'} or
+ * {@code ','}. When decoding, the delimiter of the last record is optional.
+ * <p>
+ * An instance owns a set of direct buffers and a scratch array, which it
+ * reuses for all calls. It reads as many records as fit into its buffers,
+ * converts them, and then writes the buffers. If the channels are a
+ * {@link ScatteringByteChannel} or a {@link GatheringByteChannel}, all buffers
+ * are read or written with a single call. No objects are created per record,
+ * except for decoding the base58 formats, where {@link FastBase58} creates
+ * small temporary arrays.
+ * <p>
+ * The channels must be in blocking mode.
+ * <p>
+ * Instances of this class are not thread-safe.
+ */
+public final class UuidChannelCodec {
+    /**
+     * The number of bytes of a binary record.
+     */
+    public static final int BINARY_RECORD_LENGTH = 16;
+    private static final VarHandle LONG_BE =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final int SCRATCH = UuidNCName.SCRATCH_LENGTH;
+
+    private final UuidFormat format;
+    private final byte delimiter;
+    private final int textRecordLength;
+    private final int recordsPerBuffer;
+    private final ByteBuffer[] binaryBuffers;
+    private final ByteBuffer[] textBuffers;
+    /**
+     * Holds the text of up to {@code recordsPerBuffer} records, starting
+     * at index {@code SCRATCH}.
+     */
+    private final byte[] scratch;
+    private final long[] bits = new long[2];
+    /**
+     * Holds the bits of up to {@code recordsPerBuffer} records for the
+     * base58 formats, which are encoded in batches, or null.
+     */
+    private final long[] batch;
+    private final AsciiCharSequence view = new AsciiCharSequence();
+
+    /**
+     * Creates a new instance with 4 buffers of about 64 KiB.
+     *
+     * @param format    the format of the text records
+     * @param delimiter the delimiter of the text records
+     * @throws IllegalArgumentException if the delimiter is a letter, a digit,
+     *                                  {@code '-'} or {@code '_'}
+     */
+    public UuidChannelCodec(UuidFormat format, char delimiter) {
+        this(format, delimiter, 64 * 1024, 4);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param format      the format of the text records
+     * @param delimiter   the delimiter of the text records
+     * @param bufferSize  the approximate size of a text buffer in bytes
+     * @param bufferCount the number of buffers that are read or written
+     *                    with one call
+     * @throws IllegalArgumentException if the delimiter is a letter, a digit,
+     *                                  {@code '-'} or {@code '_'}, or if
+     *                                  the buffer size or count is not positive
+     */
+    public UuidChannelCodec(UuidFormat format, char delimiter, int bufferSize, int bufferCount) {
+        if (delimiter > 127 || Character.isLetterOrDigit(delimiter) || delimiter == '-' || delimiter == '_') {
+            throw new IllegalArgumentException("Illegal delimiter: " + delimiter);
+        }
+        if (bufferSize <= 0) throw new IllegalArgumentException("bufferSize must be positive: " + bufferSize);
+        if (bufferCount <= 0) throw new IllegalArgumentException("bufferCount must be positive: " + bufferCount);
+        this.format = format;
+        this.delimiter = (byte) delimiter;
+        this.textRecordLength = format.length() + 1;
+        this.recordsPerBuffer = Math.max(1, bufferSize / textRecordLength);
+        this.binaryBuffers = new ByteBuffer[bufferCount];
+        this.textBuffers = new ByteBuffer[bufferCount];
+        for (int i = 0; i < bufferCount; i++) {
+            binaryBuffers[i] = ByteBuffer.allocateDirect(recordsPerBuffer * BINARY_RECORD_LENGTH);
+            textBuffers[i] = ByteBuffer.allocateDirect(recordsPerBuffer * textRecordLength);
+        }
+        this.scratch = new byte[SCRATCH + recordsPerBuffer * textRecordLength];
+        this.batch = format == UuidFormat.NCNAME_58 || format == UuidFormat.NCNAME_58_LEX
+                ? new long[2 * recordsPerBuffer] : null;
+    }
+
+    /**
+     * Returns the format of the text records.
+     *
+     * @return the format
+     */
+    public UuidFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Returns the delimiter of the text records.
+     *
+     * @return the delimiter
+     */
+    public char getDelimiter() {
+        return (char) delimiter;
+    }
+
+    /**
+     * Reads binary records from the input channel until the end of the stream,
+     * and writes text records to the output channel.
+     *
+     * @param in  the input channel
+     * @param out the output channel
+     * @return the number of records
+     * @throws IOException if an I/O error occurs, or if the input ends
+     *                     with an incomplete record
+     */
+    public long encode(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        long count = 0;
+        boolean eof;
+        clear(binaryBuffers);
+        clear(textBuffers);
+        do {
+            eof = fill(in, binaryBuffers);
+            for (int i = 0; i < binaryBuffers.length; i++) {
+                ByteBuffer src = binaryBuffers[i].flip();
+                ByteBuffer dst = textBuffers[i].clear();
+                count += encode(src, dst);
+                if (src.hasRemaining()) {
+                    throw new IOException("Incomplete binary record at end of input, record=" + count
+                            + ", bytes=" + src.remaining());
+                }
+                src.clear();
+                dst.flip();
+            }
+            drain(out, textBuffers);
+        } while (!eof);
+        return count;
+    }
+
+    /**
+     * Reads text records from the input channel until the end of the stream,
+     * and writes binary records to the output channel.
+     *
+     * @param in  the input channel
+     * @param out the output channel
+     * @return the number of records
+     * @throws IOException              if an I/O error occurs, or if the input
+     *                                  ends with an incomplete record
+     * @throws IllegalArgumentException if a record is not in the format of
+     *                                  this codec, or is not followed by
+     *                                  the delimiter
+     */
+    public long decode(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        long count = 0;
+        boolean eof;
+        clear(binaryBuffers);
+        clear(textBuffers);
+        do {
+            eof = fill(in, textBuffers);
+            for (int i = 0; i < textBuffers.length; i++) {
+                ByteBuffer src = textBuffers[i].flip();
+                ByteBuffer dst = binaryBuffers[i].clear();
+                count += decode(src, dst, eof);
+                if (src.hasRemaining()) {
+                    throw new IOException("Incomplete text record at end of input, record=" + count
+                            + ", bytes=" + src.remaining());
+                }
+                src.clear();
+                dst.flip();
+            }
+            drain(out, binaryBuffers);
+        } while (!eof);
+        return count;
+    }
+
+    /**
+     * Encodes as many whole binary records from the source buffer into text
+     * records in the destination buffer as fit.
+     *
+     * @param src the source buffer
+     * @param dst the destination buffer
+     * @return the number of records
+     */
+    public int encode(ByteBuffer src, ByteBuffer dst) {
+        int n = Math.min(src.remaining() / BINARY_RECORD_LENGTH, dst.remaining() / textRecordLength);
+        int len = format.length();
+        int srcPos = src.position();
+        for (int done = 0; done < n; ) {
+            int chunk = Math.min(n - done, recordsPerBuffer);
+            int p = SCRATCH;
+            if (batch != null) {
+                for (int i = 0; i < chunk; i++) {
+                    batch[2 * i] = (long) LONG_BE.get(src, srcPos);
+                    batch[2 * i + 1] = (long) LONG_BE.get(src, srcPos + 8);
+                    srcPos += BINARY_RECORD_LENGTH;
+                }
+                UuidNCName.writeBase58Batch(batch, 0, scratch, p, textRecordLength, chunk,
+                        format == UuidFormat.NCNAME_58_LEX);
+                for (int i = 0; i < chunk; i++) {
+                    scratch[p + len] = delimiter;
+                    p += textRecordLength;
+                }
+            } else {
+                for (int i = 0; i < chunk; i++) {
+                    long msb = (long) LONG_BE.get(src, srcPos);
+                    long lsb = (long) LONG_BE.get(src, srcPos + 8);
+                    srcPos += BINARY_RECORD_LENGTH;
+                    UuidNCName.encodeWithScratch(msb, lsb, format, scratch, p);
+                    scratch[p + len] = delimiter;
+                    p += textRecordLength;
+                }
+            }
+            dst.put(scratch, SCRATCH, p - SCRATCH);
+            done += chunk;
+        }
+        src.position(srcPos);
+        return n;
+    }
+
+    /**
+     * Decodes as many whole text records from the source buffer into binary
+     * records in the destination buffer as fit.
+     *
+     * @param src        the source buffer
+     * @param dst        the destination buffer
+     * @param endOfInput whether the source buffer contains the end of the
+     *                   input, in this case the last record does not need
+     *                   to be followed by a delimiter
+     * @return the number of records
+     * @throws IllegalArgumentException if a record is not in the format of
+     *                                  this codec, or is not followed by
+     *                                  the delimiter
+     */
+    public int decode(ByteBuffer src, ByteBuffer dst, boolean endOfInput) {
+        int len = format.length();
+        int remaining = src.remaining();
+        int n = remaining / textRecordLength;
+        boolean lastWithoutDelimiter = endOfInput && remaining % textRecordLength == len;
+        if (lastWithoutDelimiter) {
+            n++;
+        }
+        int capacity = dst.remaining() / BINARY_RECORD_LENGTH;
+        if (n > capacity) {
+            n = capacity;
+            lastWithoutDelimiter = false;
+        }
+        int dstPos = dst.position();
+        for (int done = 0; done < n; ) {
+            int chunk = Math.min(n - done, recordsPerBuffer);
+            boolean last = lastWithoutDelimiter && done + chunk == n;
+            int bytes = chunk * textRecordLength - (last ? 1 : 0);
+            src.get(scratch, 0, bytes);
+            for (int i = 0, p = 0; i < chunk; i++, p += textRecordLength) {
+                if (p + len < bytes && scratch[p + len] != delimiter) {
+                    throw new IllegalArgumentException("Missing delimiter after record " + (done + i));
+                }
+                try {
+                    UuidNCName.decode(view.set(scratch, p, len), format, bits, 0);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Illegal record " + (done + i) + ": " + e.getMessage(), e);
+                }
+                LONG_BE.set(dst, dstPos, bits[0]);
+                LONG_BE.set(dst, dstPos + 8, bits[1]);
+                dstPos += BINARY_RECORD_LENGTH;
+            }
+            done += chunk;
+        }
+        dst.position(dstPos);
+        return n;
+    }
+
+    private static void clear(ByteBuffer[] buffers) {
+        for (ByteBuffer b : buffers) {
+            b.clear();
+        }
+    }
+
+    /**
+     * Reads until all buffers are full, or until the end of the stream.
+     *
+     * @return true if the end of the stream has been reached
+     */
+    private static boolean fill(ReadableByteChannel in, ByteBuffer[] buffers) throws IOException {
+        if (in instanceof ScatteringByteChannel sc) {
+            ByteBuffer last = buffers[buffers.length - 1];
+            while (last.hasRemaining()) {
+                if (sc.read(buffers) < 0) {
+                    return true;
+                }
+            }
+        } else {
+            for (ByteBuffer b : buffers) {
+                while (b.hasRemaining()) {
+                    if (in.read(b) < 0) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes all buffers completely.
+     */
+    private static void drain(WritableByteChannel out, ByteBuffer[] buffers) throws IOException {
+        if (out instanceof GatheringByteChannel gc) {
+            long remaining = 0;
+            for (ByteBuffer b : buffers) {
+                remaining += b.remaining();
+            }
+            while (remaining > 0) {
+                remaining -= gc.write(buffers);
+            }
+        } else {
+            for (ByteBuffer b : buffers) {
+                while (b.hasRemaining()) {
+                    out.write(b);
+                }
+            }
+        }
+    }
+}
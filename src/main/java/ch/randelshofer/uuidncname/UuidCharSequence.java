@@ -0,0 +1,218 @@
+/*
+ * @(#)UuidCharSequence.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * An immutable {@link CharSequence} that represents an {@link UUID} in a
+ * {@link UuidFormat}.
+ * <p>
+ * Instances only hold the bits of the {@link UUID} and the format.
+ * The characters are computed when they are needed for the first time,
+ * and are then cached.
+ * <p>
+ * {@link #equals(Object)}, {@link #hashCode()} and {@link #compareTo}
+ * only look at the bits of the {@link UUID}, not at the format.
+ * Therefore, two instances with different formats are equal if they
+ * represent the same {@link UUID}.
+ * {@link #compareTo} compares the bits as unsigned numbers, this is
+ * the same order as the order of the strings in the
+ * {@link UuidFormat#CANONICAL} format. In the lexical formats, it is only
+ * the same order for {@link UUID}s with the same version and variant,
+ * because the lexical formats move the version to the first character and
+ * the variant to the last character.
+ */
+public final class UuidCharSequence implements CharSequence, Comparable<UuidCharSequence> {
+    private final long msb;
+    private final long lsb;
+    private final UuidFormat format;
+    /**
+     * The cached string. We use a string, because it can be safely
+     * published through a data race.
+     */
+    private String text;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param msb    the most significant bits of the {@link UUID}
+     * @param lsb    the least significant bits of the {@link UUID}
+     * @param format the format
+     */
+    public UuidCharSequence(long msb, long lsb, UuidFormat format) {
+        this.msb = msb;
+        this.lsb = lsb;
+        this.format = Objects.requireNonNull(format, "format");
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param uuid   the {@link UUID}
+     * @param format the format
+     */
+    public UuidCharSequence(UUID uuid, UuidFormat format) {
+        this(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), format);
+    }
+
+    /**
+     * Returns the most significant bits of the {@link UUID}.
+     *
+     * @return the most significant bits
+     */
+    public long getMostSignificantBits() {
+        return msb;
+    }
+
+    /**
+     * Returns the least significant bits of the {@link UUID}.
+     *
+     * @return the least significant bits
+     */
+    public long getLeastSignificantBits() {
+        return lsb;
+    }
+
+    /**
+     * Returns the format.
+     *
+     * @return the format
+     */
+    public UuidFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Returns the {@link UUID}.
+     *
+     * @return a new {@link UUID}
+     */
+    public UUID toUUID() {
+        return new UUID(msb, lsb);
+    }
+
+    /**
+     * Returns a new instance that represents the same {@link UUID} in
+     * the specified format.
+     *
+     * @param format the format
+     * @return an instance with the specified format
+     */
+    public UuidCharSequence withFormat(UuidFormat format) {
+        return this.format == format ? this : new UuidCharSequence(msb, lsb, format);
+    }
+
+    /**
+     * Returns the length of the sequence without computing the characters.
+     *
+     * @return {@link UuidFormat#length()}
+     */
+    @Override
+    public int length() {
+        return format.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return toString().charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    /**
+     * Appends the characters to the specified {@link Appendable}.
+     * <p>
+     * If the characters have not been cached yet, this method computes them
+     * into a temporary buffer and does not cache them.
+     *
+     * @param out the appendable
+     * @param <A> the type of the appendable
+     * @return the appendable
+     * @throws IOException if the appendable throws an I/O exception
+     */
+    public <A extends Appendable> A appendTo(A out) throws IOException {
+        String t = text;
+        if (t != null) {
+            out.append(t);
+        } else {
+            byte[] buf = new byte[format.length()];
+            UuidNCName.encode(msb, lsb, format, buf, 0);
+            for (byte b : buf) {
+                out.append((char) b);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Writes the ASCII characters into the specified array.
+     *
+     * @param dst    the destination array
+     * @param offset the offset in the destination array
+     * @return the number of characters written, this is {@link #length()}
+     * @throws IndexOutOfBoundsException if the destination array is too small
+     */
+    public int getBytes(byte[] dst, int offset) {
+        return UuidNCName.encode(msb, lsb, format, dst, offset);
+    }
+
+    /**
+     * Returns the characters as a string. The string is computed only
+     * once and is then cached.
+     *
+     * @return the string
+     */
+    @Override
+    public String toString() {
+        String t = text;
+        if (t == null) {
+            text = t = UuidNCName.toString(msb, lsb, format);
+        }
+        return t;
+    }
+
+    /**
+     * Compares the bits of the {@link UUID}s as unsigned 128-bit numbers.
+     *
+     * @param that the other instance
+     * @return a negative integer, zero, or a positive integer as this instance
+     * is less than, equal to, or greater than the other instance
+     */
+    @Override
+    public int compareTo(UuidCharSequence that) {
+        int c = Long.compareUnsigned(this.msb, that.msb);
+        return c != 0 ? c : Long.compareUnsigned(this.lsb, that.lsb);
+    }
+
+    /**
+     * Returns true if the other object is a {@link UuidCharSequence} with
+     * the same {@link UUID} bits. Ignores the format.
+     *
+     * @param o the other object
+     * @return true if the {@link UUID} bits are equal
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof UuidCharSequence that && this.msb == that.msb && this.lsb == that.lsb;
+    }
+
+    /**
+     * Returns the same hash code as {@link UUID#hashCode()}.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        long hilo = msb ^ lsb;
+        return ((int) (hilo >> 32)) ^ (int) hilo;
+    }
+}
@@ -0,0 +1,21 @@
+/*
+ * @(#)UuidConsumer.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+/**
+ * Accepts the bits of an {@link java.util.UUID}, without requiring an
+ * {@link java.util.UUID} object.
+ */
+@FunctionalInterface
+public interface UuidConsumer {
+    /**
+     * Performs this operation on the specified {@link java.util.UUID} bits.
+     *
+     * @param msb the most significant bits of the {@link java.util.UUID}
+     * @param lsb the least significant bits of the {@link java.util.UUID}
+     */
+    void accept(long msb, long lsb);
+}
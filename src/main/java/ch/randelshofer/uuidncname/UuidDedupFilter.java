@@ -0,0 +1,289 @@
+/*
+ * @(#)UuidDedupFilter.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import java.util.Objects;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * A concurrent set of {@link java.util.UUID}s for removing duplicates from a
+ * stream of ids.
+ * <p>
+ * The set stores the most and least significant bits of each
+ * {@link java.util.UUID} in {@code long} arrays with open addressing and
+ * linear probing, so that an element takes 16 bytes plus the free space of
+ * the table. Elements can be added as strings in any {@link UuidFormat},
+ * without creating {@link java.util.UUID} objects.
+ * <p>
+ * The set is divided into segments. The high bits of the hash of
+ * {@link UuidHash} select the segment, the low bits select the slot in the
+ * segment. Each segment has its own lock, and grows independently when
+ * it is three quarters full. Create the set with the expected number of
+ * elements to avoid growing.
+ * <p>
+ * Elements can not be removed.
+ * <p>
+ * Instances of this class are thread-safe.
+ */
+public final class UuidDedupFilter {
+    /**
+     * The maximal number of slots of a segment. The table of a segment holds
+     * two longs per slot.
+     */
+    private static final int MAX_SEGMENT_SLOTS = 1 << 29;
+    private static final int MIN_SEGMENT_SLOTS = 16;
+
+    private final Segment[] segments;
+    private final int segmentShift;
+    /**
+     * Adds the decoded bits of a string, returns 1 if the set has changed.
+     */
+    private final LongBinaryOperator adder = (msb, lsb) -> add(msb, lsb) ? 1 : 0;
+    /**
+     * Looks up the decoded bits of a string, returns 1 if the set contains them.
+     */
+    private final LongBinaryOperator finder = (msb, lsb) -> contains(msb, lsb) ? 1 : 0;
+
+    /**
+     * Creates a new set with 64 segments, which is sized for about one
+     * million elements.
+     */
+    public UuidDedupFilter() {
+        this(1 << 20, 64);
+    }
+
+    /**
+     * Creates a new set.
+     *
+     * @param expectedElements the expected number of elements
+     * @param segmentCount     the number of segments, is rounded up to a
+     *                         power of two, a good value is a small multiple
+     *                         of the number of threads
+     * @throws IllegalArgumentException if an argument is not positive, or
+     *                                  if the set would be too large
+     */
+    public UuidDedupFilter(long expectedElements, int segmentCount) {
+        this(expectedElements, segmentCount, MAX_SEGMENT_SLOTS);
+    }
+
+    /**
+     * Creates a new set with the specified maximal number of slots per
+     * segment. This constructor is only used by tests.
+     */
+    UuidDedupFilter(long expectedElements, int segmentCount, int maxSegmentSlots) {
+        if (expectedElements <= 0) {
+            throw new IllegalArgumentException("Illegal number of elements: " + expectedElements);
+        }
+        if (segmentCount <= 0 || segmentCount > 1 << 16) {
+            throw new IllegalArgumentException("Illegal segment count: " + segmentCount);
+        }
+        int n = ceilPowerOfTwo(segmentCount);
+        long slotsPerSegment = Math.max(MIN_SEGMENT_SLOTS, (expectedElements / n) * 4 / 3 + 1);
+        if (slotsPerSegment > maxSegmentSlots) {
+            throw new IllegalArgumentException("Too many elements for " + n + " segments: " + expectedElements);
+        }
+        int slots = ceilPowerOfTwo((int) slotsPerSegment);
+        this.segments = new Segment[n];
+        for (int i = 0; i < n; i++) {
+            segments[i] = new Segment(slots, maxSegmentSlots);
+        }
+        this.segmentShift = 64 - Integer.numberOfTrailingZeros(n);
+    }
+
+    private static int ceilPowerOfTwo(int x) {
+        return x <= 1 ? 1 : Integer.highestOneBit(x - 1) << 1;
+    }
+
+    /**
+     * Adds the specified {@link java.util.UUID} to this set.
+     *
+     * @param msb the most significant bits of the {@link java.util.UUID}
+     * @param lsb the least significant bits of the {@link java.util.UUID}
+     * @return true if the set did not contain the {@link java.util.UUID}
+     */
+    public boolean add(long msb, long lsb) {
+        long hash = UuidHash.hash(msb, lsb);
+        return segmentFor(hash).add(msb, lsb, hash);
+    }
+
+    /**
+     * Adds the {@link java.util.UUID} that is represented by the specified
+     * string to this set.
+     *
+     * @param str    a string
+     * @param format the format of the string
+     * @return true if the set did not contain the {@link java.util.UUID}
+     * @throws IllegalArgumentException if the string is not in the specified format
+     */
+    public boolean add(CharSequence str, UuidFormat format) {
+        UuidNCName.checkLength(str, format);
+        return UuidNCName.readFields(str, null, 0, format, adder) != 0;
+    }
+
+    /**
+     * Adds the {@link java.util.UUID} that is represented by the ASCII
+     * characters in the specified array to this set.
+     *
+     * @param str    an array with ASCII characters
+     * @param offset the offset of the first character
+     * @param format the format of the characters
+     * @return true if the set did not contain the {@link java.util.UUID}
+     * @throws IllegalArgumentException  if the characters are not in the specified format
+     * @throws IndexOutOfBoundsException if the array is too small for the format
+     */
+    public boolean add(byte[] str, int offset, UuidFormat format) {
+        Objects.checkFromIndexSize(offset, format.length(), str.length);
+        return UuidNCName.readFields(null, str, offset, format, adder) != 0;
+    }
+
+    /**
+     * Returns true if this set contains the specified {@link java.util.UUID}.
+     *
+     * @param msb the most significant bits of the {@link java.util.UUID}
+     * @param lsb the least significant bits of the {@link java.util.UUID}
+     * @return whether the set contains the {@link java.util.UUID}
+     */
+    public boolean contains(long msb, long lsb) {
+        long hash = UuidHash.hash(msb, lsb);
+        return segmentFor(hash).contains(msb, lsb, hash);
+    }
+
+    /**
+     * Returns true if this set contains the {@link java.util.UUID} that is
+     * represented by the specified string.
+     *
+     * @param str    a string
+     * @param format the format of the string
+     * @return whether the set contains the {@link java.util.UUID}
+     * @throws IllegalArgumentException if the string is not in the specified format
+     */
+    public boolean contains(CharSequence str, UuidFormat format) {
+        UuidNCName.checkLength(str, format);
+        return UuidNCName.readFields(str, null, 0, format, finder) != 0;
+    }
+
+    /**
+     * Returns the number of elements in this set.
+     *
+     * @return the number of elements
+     */
+    public long size() {
+        long size = 0;
+        for (Segment s : segments) {
+            synchronized (s) {
+                size += s.size + (s.containsNil ? 1 : 0);
+            }
+        }
+        return size;
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> segmentShift) & (segments.length - 1)];
+    }
+
+    /**
+     * An open addressing hash table. Slot {@code i} holds the most significant
+     * bits at index {@code 2 * i}, and the least significant bits at index
+     * {@code 2 * i + 1}. A slot with two zeros is empty, the nil
+     * {@link java.util.UUID} is stored in a separate flag.
+     * <p>
+     * The table always keeps at least one empty slot, so that probing
+     * terminates.
+     */
+    private static final class Segment {
+        private final int maxSlots;
+        private long[] table;
+        private int mask;
+        /**
+         * The number of elements in the table, without the nil {@link java.util.UUID}.
+         */
+        private int size;
+        private int threshold;
+        private boolean containsNil;
+
+        Segment(int slots, int maxSlots) {
+            this.maxSlots = maxSlots;
+            allocate(slots);
+        }
+
+        private void allocate(int slots) {
+            table = new long[slots * 2];
+            mask = slots - 1;
+            threshold = (int) ((long) slots * 3 / 4);
+        }
+
+        synchronized boolean add(long msb, long lsb, long hash) {
+            if ((msb | lsb) == 0) {
+                boolean added = !containsNil;
+                containsNil = true;
+                return added;
+            }
+            for (; ; ) {
+                long[] t = table;
+                for (int i = (int) hash & mask; ; i = (i + 1) & mask) {
+                    long m = t[2 * i], l = t[2 * i + 1];
+                    if ((m | l) == 0) {
+                        if (size >= threshold) {
+                            // Grow before inserting, so that the table is
+                            // unchanged if the segment is full
+                            grow();
+                            break;
+                        }
+                        t[2 * i] = msb;
+                        t[2 * i + 1] = lsb;
+                        size++;
+                        return true;
+                    }
+                    if (m == msb && l == lsb) {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        synchronized boolean contains(long msb, long lsb, long hash) {
+            if ((msb | lsb) == 0) {
+                return containsNil;
+            }
+            long[] t = table;
+            for (int i = (int) hash & mask; ; i = (i + 1) & mask) {
+                long m = t[2 * i], l = t[2 * i + 1];
+                if ((m | l) == 0) {
+                    return false;
+                }
+                if (m == msb && l == lsb) {
+                    return true;
+                }
+            }
+        }
+
+        private void grow() {
+            int slots = mask + 1;
+            if (slots >= maxSlots) {
+                if (threshold < slots - 1) {
+                    // Fill the table up to its last empty slot
+                    threshold = slots - 1;
+                    return;
+                }
+                throw new IllegalStateException("Segment is full");
+            }
+            long[] old = table;
+            allocate(slots * 2);
+            for (int j = 0; j < old.length; j += 2) {
+                long msb = old[j], lsb = old[j + 1];
+                if ((msb | lsb) != 0) {
+                    for (int i = (int) UuidHash.hash(msb, lsb) & mask; ; i = (i + 1) & mask) {
+                        if ((table[2 * i] | table[2 * i + 1]) == 0) {
+                            table[2 * i] = msb;
+                            table[2 * i + 1] = lsb;
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
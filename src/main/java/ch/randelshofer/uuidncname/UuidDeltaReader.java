@@ -0,0 +1,240 @@
+/*
+ * @(#)UuidDeltaReader.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Reads a stream of {@link java.util.UUID}s that has been written with
+ * {@link UuidDeltaWriter}.
+ * <p>
+ * The reader works on a {@link ByteBuffer} that holds the whole stream, for
+ * example a memory-mapped file. It uses the restart points of the blocks for
+ * random access: a lookup by position decodes at most one block.
+ * <p>
+ * The methods use absolute positions of the buffer, and do not create
+ * objects per record. Instances of this class are thread-safe.
+ */
+public final class UuidDeltaReader {
+    private final ByteBuffer data;
+    private final int blockSize;
+    private final long size;
+    private final int blockCount;
+    private final int indexOffset;
+
+    private UuidDeltaReader(ByteBuffer data, int blockSize, long size, int indexOffset) {
+        this.data = data;
+        this.blockSize = blockSize;
+        this.size = size;
+        this.blockCount = (int) ((size + blockSize - 1) / blockSize);
+        this.indexOffset = indexOffset;
+    }
+
+    /**
+     * Maps the specified file, and creates a reader for it.
+     *
+     * @param file a file that has been written with {@link UuidDeltaWriter}
+     * @return the reader
+     * @throws IOException if the file can not be read, is larger than 2 GiB,
+     *                     or is not a valid stream
+     */
+    public static UuidDeltaReader open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("File is too large: " + file);
+            }
+            return of(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Creates a reader for the stream in the specified buffer, from its
+     * position to its limit. The position of the buffer is not changed.
+     *
+     * @param buffer a buffer with a stream that has been written with
+     *               {@link UuidDeltaWriter}
+     * @return the reader
+     * @throws IOException if the buffer does not hold a valid stream
+     */
+    public static UuidDeltaReader of(ByteBuffer buffer) throws IOException {
+        ByteBuffer data = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+        int length = data.limit();
+        if (length < UuidDeltaWriter.HEADER_LENGTH + UuidDeltaWriter.FOOTER_LENGTH
+                || data.getLong(0) != UuidDeltaWriter.MAGIC || data.getInt(8) != UuidDeltaWriter.VERSION) {
+            throw new IOException("Not a delta stream");
+        }
+        int blockSize = data.getInt(12);
+        long indexOffset = data.getLong(length - UuidDeltaWriter.FOOTER_LENGTH);
+        long size = data.getLong(length - UuidDeltaWriter.FOOTER_LENGTH + 8);
+        long blockCount = blockSize <= 0 ? -1 : (size + blockSize - 1) / blockSize;
+        if (blockSize <= 0 || size < 0 || indexOffset < UuidDeltaWriter.HEADER_LENGTH
+                || indexOffset + blockCount * UuidDeltaWriter.INDEX_ENTRY_LENGTH
+                != length - UuidDeltaWriter.FOOTER_LENGTH) {
+            throw new IOException("Corrupt delta stream");
+        }
+        return new UuidDeltaReader(data, blockSize, size, (int) indexOffset);
+    }
+
+    /**
+     * Returns the number of {@link java.util.UUID}s in the stream.
+     *
+     * @return the number of {@link java.util.UUID}s
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of records per block.
+     *
+     * @return the block size
+     */
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Returns the number of blocks.
+     *
+     * @return the number of blocks
+     */
+    public int getBlockCount() {
+        return blockCount;
+    }
+
+    /**
+     * Gets the {@link java.util.UUID} at the specified position.
+     *
+     * @param i         the position
+     * @param dst       the destination array, receives the most significant bits
+     *                  at {@code dstOffset}, and the least significant bits at
+     *                  {@code dstOffset + 1}
+     * @param dstOffset the offset in the destination array
+     * @throws IndexOutOfBoundsException if the position is out of range, or
+     *                                   if the destination array is too small
+     */
+    public void get(long i, long[] dst, int dstOffset) {
+        Objects.checkIndex(i, size);
+        Objects.checkFromIndexSize(dstOffset, 2, dst.length);
+        int block = (int) (i / blockSize);
+        int n = (int) (i - (long) block * blockSize) + 1;
+        decodeBlock(block, n, n, null, dst, dstOffset);
+    }
+
+    /**
+     * Performs the specified action for each {@link java.util.UUID} in the
+     * order of the stream.
+     *
+     * @param action the action
+     */
+    public void forEach(UuidConsumer action) {
+        forEach(0, size, action);
+    }
+
+    /**
+     * Performs the specified action for each {@link java.util.UUID} in the
+     * range [{@code from}, {@code to}) of positions.
+     *
+     * @param from   the first position (inclusive)
+     * @param to     the last position (exclusive)
+     * @param action the action
+     * @throws IndexOutOfBoundsException if the range is out of bounds
+     */
+    public void forEach(long from, long to, UuidConsumer action) {
+        Objects.checkFromToIndex(from, to, size);
+        for (long i = from; i < to; ) {
+            int block = (int) (i / blockSize);
+            long first = (long) block * blockSize;
+            int n = (int) Math.min(blockSize, to - first);
+            decodeBlock(block, (int) (i - first), n, action, null, 0);
+            i = first + n;
+        }
+    }
+
+    /**
+     * Writes all {@link java.util.UUID}s as text records in the specified
+     * format. Each record is followed by the delimiter.
+     *
+     * @param out       the output channel, must be in blocking mode
+     * @param format    the format of the text records
+     * @param delimiter the delimiter
+     * @return the number of records
+     * @throws IOException              if an I/O error occurs
+     * @throws IllegalArgumentException if the delimiter is not an ASCII character
+     */
+    public long writeTo(WritableByteChannel out, UuidFormat format, char delimiter) throws IOException {
+        if (delimiter > 127) throw new IllegalArgumentException("Illegal delimiter: " + delimiter);
+        UuidNCName.Encoder encoder = UuidNCName.getEncoder(format);
+        int recordLength = format.length() + 1;
+        int recordsPerBuffer = Math.max(1, 64 * 1024 / recordLength);
+        ByteBuffer buffer = ByteBuffer.allocate(recordsPerBuffer * recordLength);
+        byte d = (byte) delimiter;
+        for (long i = 0; i < size; i += recordsPerBuffer) {
+            forEach(i, Math.min(size, i + recordsPerBuffer), (msb, lsb) -> {
+                encoder.encode(msb, lsb, buffer);
+                buffer.put(d);
+            });
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            buffer.clear();
+        }
+        return size;
+    }
+
+    /**
+     * Decodes the first {@code n} records of the specified block, and performs
+     * the action for the records from index {@code skip} on. If {@code last}
+     * is not null, it receives the bits of the last decoded record at
+     * {@code lastOffset}.
+     */
+    private void decodeBlock(int block, int skip, int n, UuidConsumer action, long[] last, int lastOffset) {
+        ByteBuffer d = data;
+        int pos = (int) d.getLong(indexOffset + block * UuidDeltaWriter.INDEX_ENTRY_LENGTH);
+        if (pos < UuidDeltaWriter.HEADER_LENGTH || pos >= indexOffset) {
+            throw new IllegalStateException("Corrupt delta stream, block=" + block);
+        }
+        long msb = 0, lsb = 0;
+        for (int i = 0; i < n; i++) {
+            int b = d.get(pos++);
+            int flag = b & 1;
+            long delta = (b >>> 1) & 0x3f;
+            for (int shift = 6; b < 0; shift += 7) {
+                b = d.get(pos++);
+                delta |= (long) (b & 0x7f) << shift;
+            }
+            msb += UuidDeltaWriter.unzigzag(delta);
+            if (flag != 0) {
+                delta = 0;
+                int shift = 0;
+                do {
+                    b = d.get(pos++);
+                    delta |= (long) (b & 0x7f) << shift;
+                    shift += 7;
+                } while (b < 0);
+                lsb += UuidDeltaWriter.unzigzag(delta);
+            } else {
+                lsb = d.getLong(pos);
+                pos += 8;
+            }
+            if (i >= skip) {
+                action.accept(msb, lsb);
+            }
+        }
+        if (last != null) {
+            last[lastOffset] = msb;
+            last[lastOffset + 1] = lsb;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * @(#)UuidDeltaWriter.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Writes a stream of {@link java.util.UUID}s in a compact binary format, that
+ * is read with {@link UuidDeltaReader}.
+ * <p>
+ * The format is designed for sorted or nearly sorted ids, such as version 7
+ * {@link java.util.UUID}s, where consecutive ids share most of the bits of
+ * their most significant bits. Each record holds the difference of the most
+ * significant bits to the previous id as a zigzag varint. The least
+ * significant bits are stored as a zigzag varint of the difference to the
+ * previous id, if this takes less than 8 bytes, and otherwise as 8 raw bytes.
+ * A flag in the first varint selects between the two. Random least
+ * significant bits, like the ones of version 4 and version 7
+ * {@link java.util.UUID}s, take 8 bytes, and a counter in the least
+ * significant bits takes 1 or 2 bytes.
+ * <p>
+ * The records are grouped into blocks. The first record of each block is a
+ * restart point: its differences are taken to zero, so that a reader can
+ * start decoding at any block. An index at the end of the stream holds the
+ * offset and the first id of each block.
+ * <p>
+ * The stream has the following layout. All fixed-size numbers are big-endian.
+ * <pre>
+ * header  = magic(8) version(4) block-size(4)
+ * blocks  = block-count * block-size * record   (the last block may be shorter)
+ * record  = varint(zigzag(msb - previous msb) &lt;&lt; 1 | flag)
+ *           (flag = 1: varint(zigzag(lsb - previous lsb)), flag = 0: lsb(8))
+ * index   = block-count * (offset(8) msb(8) lsb(8))
+ * footer  = index-offset(8) record-count(8)
+ * </pre>
+ * The magic is the ASCII string {@code "UUIDNDLT"}. The first varint holds a
+ * 65-bit number: the flag in bit 0, and the zigzag difference above it.
+ * <p>
+ * Instances of this class are not thread-safe.
+ */
+public final class UuidDeltaWriter implements Closeable {
+    /**
+     * The default number of records per block.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 128;
+
+    static final long MAGIC = 0x555549444e444c54L; // "UUIDNDLT"
+    static final int VERSION = 1;
+    static final int HEADER_LENGTH = 16;
+    static final int FOOTER_LENGTH = 16;
+    static final int INDEX_ENTRY_LENGTH = 24;
+    /**
+     * The maximal length of a record: 10 bytes for the 65-bit varint, and
+     * 10 bytes for the 64-bit varint.
+     */
+    static final int MAX_RECORD_LENGTH = 20;
+    /**
+     * The least significant bits are stored as varint, if the zigzag
+     * difference is less than this value, which takes at most 7 bytes.
+     */
+    static final long VARINT_LSB_LIMIT = 1L << 49;
+
+    private final WritableByteChannel channel;
+    private final int blockSize;
+    private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+    private final long[] bits = new long[2];
+    /**
+     * The offset, msb and lsb of the first record of each block.
+     */
+    private long[] index = new long[3 * 64];
+    private long count;
+    private long offset;
+    private long prevMsb, prevLsb;
+    private boolean finished;
+
+    /**
+     * Creates a new writer with {@value #DEFAULT_BLOCK_SIZE} records per block.
+     *
+     * @param channel the output channel, must be in blocking mode
+     * @throws IOException if an I/O error occurs
+     */
+    public UuidDeltaWriter(WritableByteChannel channel) throws IOException {
+        this(channel, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Creates a new writer.
+     *
+     * @param channel   the output channel, must be in blocking mode
+     * @param blockSize the number of records per block, a smaller value gives
+     *                  faster random access, a larger value gives better
+     *                  compression
+     * @throws IOException              if an I/O error occurs
+     * @throws IllegalArgumentException if the block size is not positive
+     */
+    public UuidDeltaWriter(WritableByteChannel channel, int blockSize) throws IOException {
+        if (blockSize <= 0) throw new IllegalArgumentException("blockSize must be positive: " + blockSize);
+        this.channel = channel;
+        this.blockSize = blockSize;
+        buffer.putLong(MAGIC).putInt(VERSION).putInt(blockSize);
+    }
+
+    /**
+     * Adds the specified {@link java.util.UUID}.
+     *
+     * @param msb the most significant bits of the {@link java.util.UUID}
+     * @param lsb the least significant bits of the {@link java.util.UUID}
+     * @throws IOException if an I/O error occurs
+     */
+    public void add(long msb, long lsb) throws IOException {
+        if (finished) throw new IllegalStateException("Writer is finished");
+        if (buffer.remaining() < MAX_RECORD_LENGTH) {
+            flush();
+        }
+        if (count % blockSize == 0) {
+            int block = (int) (count / blockSize);
+            if (3 * block + 3 > index.length) {
+                index = Arrays.copyOf(index, index.length * 2);
+            }
+            index[3 * block] = offset + buffer.position();
+            index[3 * block + 1] = msb;
+            index[3 * block + 2] = lsb;
+            prevMsb = 0;
+            prevLsb = 0;
+        }
+        long msbDelta = zigzag(msb - prevMsb);
+        long lsbDelta = zigzag(lsb - prevLsb);
+        if (Long.compareUnsigned(lsbDelta, VARINT_LSB_LIMIT) < 0) {
+            writeFlaggedVarint(buffer, msbDelta, 1);
+            writeVarint(buffer, lsbDelta);
+        } else {
+            writeFlaggedVarint(buffer, msbDelta, 0);
+            buffer.putLong(lsb);
+        }
+        prevMsb = msb;
+        prevLsb = lsb;
+        count++;
+    }
+
+    /**
+     * Adds the {@link java.util.UUID} that is represented by the specified
+     * string.
+     *
+     * @param str    a string
+     * @param format the format of the string
+     * @throws IllegalArgumentException if the string is not in the specified format
+     * @throws IOException              if an I/O error occurs
+     */
+    public void add(CharSequence str, UuidFormat format) throws IOException {
+        UuidNCName.decode(str, format, bits, 0);
+        add(bits[0], bits[1]);
+    }
+
+    /**
+     * Returns the number of records that have been added.
+     *
+     * @return the number of records
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the number of bytes that have been written so far, including
+     * the bytes in the buffer of this writer.
+     *
+     * @return the number of bytes
+     */
+    public long getByteCount() {
+        return offset + buffer.position();
+    }
+
+    /**
+     * Writes the index and the footer, without closing the channel.
+     * Does nothing if the writer is already finished.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        long indexOffset = offset + buffer.position();
+        long blocks = (count + blockSize - 1) / blockSize;
+        for (int i = 0; i < 3 * blocks; i++) {
+            if (buffer.remaining() < Long.BYTES) {
+                flush();
+            }
+            buffer.putLong(index[i]);
+        }
+        if (buffer.remaining() < FOOTER_LENGTH) {
+            flush();
+        }
+        buffer.putLong(indexOffset).putLong(count);
+        flush();
+    }
+
+    /**
+     * Finishes the stream, and closes the channel.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        try (channel) {
+            finish();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        offset += buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Writes the 65-bit number {@code value << 1 | flag} as varint.
+     */
+    static void writeFlaggedVarint(ByteBuffer buf, long value, int flag) {
+        int first = (int) (value & 0x3f) << 1 | flag;
+        value >>>= 6;
+        if (value == 0) {
+            buf.put((byte) first);
+            return;
+        }
+        buf.put((byte) (first | 0x80));
+        writeVarint(buf, value);
+    }
+
+    static void writeVarint(ByteBuffer buf, long value) {
+        while ((value & ~0x7fL) != 0) {
+            buf.put((byte) (value | 0x80));
+            value >>>= 7;
+        }
+        buf.put((byte) value);
+    }
+}
@@ -0,0 +1,802 @@
+/*
+ * @(#)UuidExternalSorter.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Sorts a text file of {@link java.util.UUID}s that may be larger than the
+ * available memory, and removes duplicates.
+ * <p>
+ * The input file holds one id per line. Lines are separated by {@code '\n'}
+ * or {@code "\r\n"}, empty lines are skipped. The ids can be in one
+ * {@link UuidFormat}, or in mixed formats that are detected per line with the
+ * heuristic of {@link UuidNCName#fromString(String)}. That heuristic does
+ * not detect the base36 and base62 formats, and misreads base62 ids as
+ * base64 ids, so files in these formats must be sorted with an explicit
+ * input format.
+ * <p>
+ * The sorter works in two phases:
+ * <ol>
+ *     <li><b>Run generation.</b> The ids are decoded into a buffer of 16-byte
+ *     binary records, which occupies the memory budget. When the buffer is
+ *     full, it is divided into one slice per thread, and the slices are sorted
+ *     in parallel. The sorted slices are merged without duplicates into a
+ *     temporary run file.</li>
+ *
+ *     <li><b>Merge.</b> The runs are merged with a loser tree, which needs
+ *     {@code log2(k)} comparisons per id for {@code k} runs. Duplicates
+ *     are dropped, and the ids are written in the requested format.
+ *     If there are more runs than read buffers fit into the memory budget,
+ *     groups of runs are merged into longer runs first.</li>
+ * </ol>
+ * The ids are sorted in the order of {@link UuidIndex}, that is by the unsigned
+ * value of the most significant bits, and then by the unsigned value of the
+ * least significant bits. The sorted ids can be added directly to a
+ * {@link UuidIndexWriter}.
+ * <p>
+ * The run files are written and read through {@link FileChannel}s into the
+ * temporary directory, and are deleted when the sort is finished.
+ * <p>
+ * The memory budget covers the record buffer of the run generation and the
+ * read buffers of the merge. On top of the budget, a sort uses a fixed
+ * overhead of up to 3 MiB for the buffers of the input file, the output
+ * file, and the run file that is being written.
+ * <p>
+ * Instances of this class are immutable and thread-safe. Each call to a sort
+ * method uses its own buffers and threads.
+ */
+public final class UuidExternalSorter {
+    private static final int RECORD_LENGTH = 16;
+    /**
+     * The size of the buffer of the input file and of the output file.
+     */
+    private static final int IO_BUFFER_SIZE = 1 << 20;
+    /**
+     * The size of the buffer of each run, when the runs are merged.
+     */
+    private static final int RUN_BUFFER_SIZE = 64 * 1024;
+    private static final int MIN_RECORDS = 1024;
+    /**
+     * The largest number of records that fit into a {@code long} array.
+     */
+    private static final int MAX_RECORDS = (Integer.MAX_VALUE - 8) / 2;
+    /**
+     * Below this number of records, the sort uses insertion sort.
+     */
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private final long memoryBudget;
+    private final int parallelism;
+    private final Path tempDir;
+
+    /**
+     * Creates a new instance with a memory budget of 256 MiB, one thread per
+     * available processor, and the default temporary directory.
+     */
+    public UuidExternalSorter() {
+        this(256L << 20, Runtime.getRuntime().availableProcessors(), null);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param memoryBudget the number of bytes for the record buffer of the run
+     *                     generation, and for the read buffers of the merge,
+     *                     without the fixed overhead of the I/O buffers
+     * @param parallelism  the number of threads for sorting the record buffer
+     * @param tempDir      the directory for the run files, or null for the
+     *                     default temporary directory
+     * @throws IllegalArgumentException if the memory budget is less than 16 KiB,
+     *                                  or if the parallelism is not positive
+     */
+    public UuidExternalSorter(long memoryBudget, int parallelism, Path tempDir) {
+        if (memoryBudget < MIN_RECORDS * RECORD_LENGTH) {
+            throw new IllegalArgumentException("memoryBudget is too small: " + memoryBudget);
+        }
+        if (parallelism <= 0) throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        this.memoryBudget = memoryBudget;
+        this.parallelism = parallelism;
+        this.tempDir = tempDir;
+    }
+
+    /**
+     * Returns the memory budget in bytes.
+     *
+     * @return the memory budget
+     */
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Returns the number of threads for sorting.
+     *
+     * @return the parallelism
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sorts the ids of the input file, removes duplicates, and writes them
+     * into the output file, one id per line. An existing output file is
+     * replaced.
+     *
+     * @param input        the input file
+     * @param inputFormat  the format of the input ids, or null to detect the
+     *                     format of each line
+     * @param output       the output file
+     * @param outputFormat the format of the output ids
+     * @return the statistics of the sort
+     * @throws IOException              if an I/O error occurs
+     * @throws IllegalArgumentException if a line of the input file is not
+     *                                  an id in the input format
+     */
+    public Statistics sort(Path input, UuidFormat inputFormat, Path output, UuidFormat outputFormat) throws IOException {
+        try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            UuidNCName.Encoder encoder = UuidNCName.getEncoder(outputFormat);
+            ByteBuffer buffer = ByteBuffer.allocate(IO_BUFFER_SIZE);
+            Statistics statistics = sort(input, inputFormat, (msb, lsb) -> {
+                if (buffer.remaining() < outputFormat.length() + 1) {
+                    write(out, buffer);
+                }
+                encoder.encode(msb, lsb, buffer);
+                buffer.put((byte) '\n');
+            });
+            long start = System.nanoTime();
+            write(out, buffer);
+            statistics.mergeNanos += System.nanoTime() - start;
+            return statistics;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Sorts the ids of the input file, removes duplicates, and performs the
+     * specified action for each id in ascending order.
+     *
+     * @param input       the input file
+     * @param inputFormat the format of the input ids, or null to detect the
+     *                    format of each line
+     * @param action      the action
+     * @return the statistics of the sort
+     * @throws IOException              if an I/O error occurs
+     * @throws IllegalArgumentException if a line of the input file is not
+     *                                  an id in the input format
+     */
+    public Statistics sort(Path input, UuidFormat inputFormat, UuidConsumer action) throws IOException {
+        Statistics statistics = new Statistics();
+        List<Path> runs = new ArrayList<>();
+        // The runs of the current merge pass, until they replace the merged runs
+        List<Path> merged = new ArrayList<>();
+        try {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                generateRuns(input, inputFormat, pool, runs, statistics);
+            } finally {
+                pool.shutdown();
+            }
+
+            long start = System.nanoTime();
+            int maxFanIn = (int) Math.max(2, Math.min(1 << 16, memoryBudget / RUN_BUFFER_SIZE));
+            while (runs.size() > maxFanIn) {
+                // Merge groups of runs into longer runs
+                for (int i = 0; i < runs.size(); i += maxFanIn) {
+                    List<Path> group = runs.subList(i, Math.min(runs.size(), i + maxFanIn));
+                    Path run = createRun();
+                    merged.add(run);
+                    try (RunWriter writer = new RunWriter(run)) {
+                        merge(openRuns(group), writer::write);
+                    }
+                    for (Path p : group) {
+                        Files.deleteIfExists(p);
+                    }
+                }
+                runs.clear();
+                runs.addAll(merged);
+                merged.clear();
+                statistics.mergePassCount++;
+            }
+            statistics.mergePassCount++;
+            statistics.outputCount = merge(openRuns(runs), action);
+            statistics.mergeNanos += System.nanoTime() - start;
+            return statistics;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+            for (Path run : merged) {
+                Files.deleteIfExists(run);
+            }
+        }
+    }
+
+    /**
+     * Reads the input file, and writes a sorted run without duplicates
+     * whenever the record buffer is full.
+     */
+    private void generateRuns(Path input, UuidFormat inputFormat, ForkJoinPool pool,
+                              List<Path> runs, Statistics statistics) throws IOException {
+        long bufferRecords = memoryBudget / RECORD_LENGTH;
+        int capacity = (int) Math.max(MIN_RECORDS, Math.min(MAX_RECORDS, bufferRecords));
+        long[] records = new long[2 * capacity];
+        long[] bits = new long[2];
+        AsciiCharSequence view = new AsciiCharSequence();
+        int count = 0;
+        long line = 0;
+
+        long start = System.nanoTime();
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(IO_BUFFER_SIZE);
+            byte[] array = buffer.array();
+            boolean eof = false;
+            while (!eof) {
+                eof = in.read(buffer) < 0;
+                int limit = buffer.position();
+                int lineStart = 0;
+                for (int i = 0; i < limit || eof && lineStart < limit; i++) {
+                    if (i < limit && array[i] != '\n') {
+                        continue;
+                    }
+                    line++;
+                    int end = i > lineStart && array[i - 1] == '\r' ? i - 1 : i;
+                    if (end > lineStart) {
+                        decodeLine(view.set(array, lineStart, end - lineStart), inputFormat, bits, line);
+                        if (count == capacity) {
+                            statistics.decodeNanos += System.nanoTime() - start;
+                            spill(records, count, pool, runs, statistics);
+                            start = System.nanoTime();
+                            count = 0;
+                        }
+                        records[2 * count] = bits[0];
+                        records[2 * count + 1] = bits[1];
+                        count++;
+                        statistics.inputCount++;
+                    }
+                    lineStart = i + 1;
+                }
+                if (!eof && lineStart == 0 && limit == array.length) {
+                    throw new IOException("Line is too long, line=" + (line + 1));
+                }
+                // Move the incomplete line to the start of the buffer
+                System.arraycopy(array, lineStart, array, 0, Math.max(0, limit - lineStart));
+                buffer.position(Math.max(0, limit - lineStart));
+            }
+        }
+        statistics.decodeNanos += System.nanoTime() - start;
+        if (count > 0) {
+            spill(records, count, pool, runs, statistics);
+        }
+    }
+
+    private static void decodeLine(CharSequence str, UuidFormat format, long[] bits, long line) {
+        UuidFormat f = format;
+        if (f == null) {
+            f = UuidNCName.detectFormat(str);
+            if (f == null && str.length() == UuidFormat.CANONICAL.length()) {
+                f = UuidFormat.CANONICAL;
+            }
+            if (f == null) {
+                throw new IllegalArgumentException("Unknown format, line=" + line + ", id=" + str);
+            }
+        }
+        try {
+            UuidNCName.decode(str, f, bits, 0);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Illegal id, line=" + line + ", id=" + str, e);
+        }
+    }
+
+    /**
+     * Sorts the records in parallel slices, and merges the slices into a
+     * new run file.
+     */
+    private void spill(long[] records, int count, ForkJoinPool pool,
+                       List<Path> runs, Statistics statistics) throws IOException {
+        long start = System.nanoTime();
+        int slices = Math.max(1, Math.min(parallelism, count / MIN_RECORDS));
+        int[] from = new int[slices];
+        int[] to = new int[slices];
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < slices; i++) {
+            int lo = (int) ((long) count * i / slices), hi = (int) ((long) count * (i + 1) / slices);
+            int slice = i;
+            from[i] = lo;
+            tasks.add(() -> {
+                sort(records, lo, hi);
+                to[slice] = dedup(records, lo, hi);
+                return null;
+            });
+        }
+        for (Future<Void> f : pool.invokeAll(tasks)) {
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while sorting", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        long sorted = System.nanoTime();
+        statistics.sortNanos += sorted - start;
+
+        Run[] sources = new Run[slices];
+        for (int i = 0; i < slices; i++) {
+            sources[i] = new ArrayRun(records, from[i], to[i]);
+        }
+        Path run = createRun();
+        runs.add(run);
+        try (RunWriter writer = new RunWriter(run)) {
+            merge(sources, writer::write);
+        }
+        statistics.runCount++;
+        statistics.spillNanos += System.nanoTime() - sorted;
+    }
+
+    private Path createRun() throws IOException {
+        return tempDir == null
+                ? Files.createTempFile("uuid-run", ".bin")
+                : Files.createTempFile(tempDir, "uuid-run", ".bin");
+    }
+
+    private static Run[] openRuns(List<Path> files) throws IOException {
+        Run[] runs = new Run[files.size()];
+        try {
+            for (int i = 0; i < runs.length; i++) {
+                runs[i] = new FileRun(files.get(i));
+            }
+        } catch (IOException e) {
+            closeRuns(runs);
+            throw e;
+        }
+        return runs;
+    }
+
+    private static void closeRuns(Run[] runs) throws IOException {
+        IOException exception = null;
+        for (Run run : runs) {
+            if (run instanceof FileRun r) {
+                try {
+                    r.channel.close();
+                } catch (IOException e) {
+                    exception = e;
+                }
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    /**
+     * Merges the runs with a loser tree, drops duplicates, and closes the runs.
+     * <p>
+     * {@code tree[0]} holds the index of the run with the smallest id, the
+     * inner nodes {@code tree[1..k-1]} hold the index of the run that lost
+     * the comparison at that node. The leaf of run {@code i} is node
+     * {@code k + i}.
+     *
+     * @return the number of distinct ids
+     */
+    private static long merge(Run[] runs, UuidConsumer action) throws IOException {
+        try {
+            int k = runs.length;
+            if (k == 0) {
+                return 0;
+            }
+            for (Run run : runs) {
+                run.advance();
+            }
+            int[] tree = new int[k];
+            tree[0] = build(runs, tree, 1);
+            long count = 0;
+            long lastMsb = 0, lastLsb = 0;
+            for (int winner = tree[0]; !runs[winner].exhausted; winner = tree[0]) {
+                Run w = runs[winner];
+                if (count == 0 || w.msb != lastMsb || w.lsb != lastLsb) {
+                    lastMsb = w.msb;
+                    lastLsb = w.lsb;
+                    action.accept(lastMsb, lastLsb);
+                    count++;
+                }
+                w.advance();
+                for (int node = (winner + k) >>> 1; node > 0; node >>>= 1) {
+                    int loser = tree[node];
+                    if (less(runs[loser], runs[winner])) {
+                        tree[node] = winner;
+                        winner = loser;
+                    }
+                }
+                tree[0] = winner;
+            }
+            return count;
+        } finally {
+            closeRuns(runs);
+        }
+    }
+
+    /**
+     * Builds the subtree at the specified node, and returns its winner.
+     */
+    private static int build(Run[] runs, int[] tree, int node) {
+        int k = runs.length;
+        if (node >= k) {
+            return node - k;
+        }
+        int left = build(runs, tree, 2 * node);
+        int right = build(runs, tree, 2 * node + 1);
+        if (less(runs[right], runs[left])) {
+            tree[node] = left;
+            return right;
+        }
+        tree[node] = right;
+        return left;
+    }
+
+    /**
+     * Returns true if the current id of run a is less than the current id of
+     * run b. An exhausted run is greater than all ids.
+     */
+    private static boolean less(Run a, Run b) {
+        if (a.exhausted || b.exhausted) {
+            return !a.exhausted;
+        }
+        return UuidIndex.compare(a.msb, a.lsb, b.msb, b.lsb) < 0;
+    }
+
+    /**
+     * Removes adjacent duplicates from the sorted records in [from, to).
+     *
+     * @return the end of the distinct records
+     */
+    static int dedup(long[] a, int from, int to) {
+        if (to - from < 2) {
+            return to;
+        }
+        int j = from + 1;
+        for (int i = from + 1; i < to; i++) {
+            long msb = a[2 * i], lsb = a[2 * i + 1];
+            if (msb != a[2 * j - 2] || lsb != a[2 * j - 1]) {
+                a[2 * j] = msb;
+                a[2 * j + 1] = lsb;
+                j++;
+            }
+        }
+        return j;
+    }
+
+    /**
+     * Sorts the records in [from, to) with introsort: quicksort with a
+     * median-of-three pivot, heapsort when the recursion gets too deep,
+     * and insertion sort for short ranges. Record {@code i} consists of
+     * {@code a[2*i]} and {@code a[2*i+1]}.
+     */
+    static void sort(long[] a, int from, int to) {
+        int depth = 2 * (32 - Integer.numberOfLeadingZeros(Math.max(1, to - from)));
+        introsort(a, from, to, depth);
+    }
+
+    private static void introsort(long[] a, int lo, int hi, int depth) {
+        while (hi - lo > INSERTION_SORT_THRESHOLD) {
+            if (depth-- == 0) {
+                heapsort(a, lo, hi);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            // Median of three into position lo
+            if (less(a, mid, lo)) swap(a, mid, lo);
+            if (less(a, hi - 1, lo)) swap(a, hi - 1, lo);
+            if (less(a, hi - 1, mid)) swap(a, hi - 1, mid);
+            swap(a, lo, mid);
+            long pm = a[2 * lo], pl = a[2 * lo + 1];
+            // Hoare partition around the pivot at lo
+            int i = lo, j = hi;
+            while (true) {
+                do {
+                    i++;
+                } while (i < hi && UuidIndex.compare(a[2 * i], a[2 * i + 1], pm, pl) < 0);
+                do {
+                    j--;
+                } while (UuidIndex.compare(a[2 * j], a[2 * j + 1], pm, pl) > 0);
+                if (i >= j) {
+                    break;
+                }
+                swap(a, i, j);
+            }
+            swap(a, lo, j);
+            // Recurse into the smaller part, loop on the larger part
+            if (j - lo < hi - j - 1) {
+                introsort(a, lo, j, depth);
+                lo = j + 1;
+            } else {
+                introsort(a, j + 1, hi, depth);
+                hi = j;
+            }
+        }
+        for (int i = lo + 1; i < hi; i++) {
+            long m = a[2 * i], l = a[2 * i + 1];
+            int j = i - 1;
+            while (j >= lo && UuidIndex.compare(a[2 * j], a[2 * j + 1], m, l) > 0) {
+                a[2 * j + 2] = a[2 * j];
+                a[2 * j + 3] = a[2 * j + 1];
+                j--;
+            }
+            a[2 * j + 2] = m;
+            a[2 * j + 3] = l;
+        }
+    }
+
+    private static void heapsort(long[] a, int lo, int hi) {
+        int n = hi - lo;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(a, lo, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(a, lo, lo + end);
+            siftDown(a, lo, 0, end);
+        }
+    }
+
+    private static void siftDown(long[] a, int lo, int i, int n) {
+        while (2 * i + 1 < n) {
+            int child = 2 * i + 1;
+            if (child + 1 < n && less(a, lo + child, lo + child + 1)) {
+                child++;
+            }
+            if (!less(a, lo + i, lo + child)) {
+                return;
+            }
+            swap(a, lo + i, lo + child);
+            i = child;
+        }
+    }
+
+    private static boolean less(long[] a, int i, int j) {
+        return UuidIndex.compare(a[2 * i], a[2 * i + 1], a[2 * j], a[2 * j + 1]) < 0;
+    }
+
+    private static void swap(long[] a, int i, int j) {
+        long m = a[2 * i], l = a[2 * i + 1];
+        a[2 * i] = a[2 * j];
+        a[2 * i + 1] = a[2 * j + 1];
+        a[2 * j] = m;
+        a[2 * j + 1] = l;
+    }
+
+    private static void write(FileChannel out, ByteBuffer buffer) {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * A sorted sequence of ids, with the current id in {@link #msb} and
+     * {@link #lsb}.
+     */
+    private abstract static class Run {
+        long msb, lsb;
+        boolean exhausted;
+
+        /**
+         * Moves to the next id, or sets {@link #exhausted}.
+         */
+        abstract void advance() throws IOException;
+    }
+
+    /**
+     * A sorted slice of the record buffer.
+     */
+    private static final class ArrayRun extends Run {
+        private final long[] records;
+        private int next;
+        private final int end;
+
+        ArrayRun(long[] records, int from, int to) {
+            this.records = records;
+            this.next = from;
+            this.end = to;
+        }
+
+        @Override
+        void advance() {
+            if (next < end) {
+                msb = records[2 * next];
+                lsb = records[2 * next + 1];
+                next++;
+            } else {
+                exhausted = true;
+            }
+        }
+    }
+
+    /**
+     * A run file of big-endian 16-byte records.
+     */
+    private static final class FileRun extends Run {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(RUN_BUFFER_SIZE);
+
+        FileRun(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            buffer.flip();
+        }
+
+        @Override
+        void advance() throws IOException {
+            if (buffer.remaining() < RECORD_LENGTH) {
+                buffer.compact();
+                while (buffer.position() < RECORD_LENGTH && channel.read(buffer) >= 0) {
+                    // Read until there is at least one record, or the end of the file
+                }
+                buffer.flip();
+                if (buffer.remaining() < RECORD_LENGTH) {
+                    if (buffer.hasRemaining()) {
+                        throw new IOException("Incomplete record in run file");
+                    }
+                    exhausted = true;
+                    return;
+                }
+            }
+            msb = buffer.getLong();
+            lsb = buffer.getLong();
+        }
+    }
+
+    /**
+     * Writes big-endian 16-byte records into a run file.
+     */
+    private static final class RunWriter implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER_SIZE);
+
+        RunWriter(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        void write(long msb, long lsb) {
+            if (buffer.remaining() < RECORD_LENGTH) {
+                UuidExternalSorter.write(channel, buffer);
+            }
+            buffer.putLong(msb).putLong(lsb);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (channel) {
+                UuidExternalSorter.write(channel, buffer);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * The statistics of a sort.
+     */
+    public static final class Statistics {
+        private long inputCount;
+        private long outputCount;
+        private int runCount;
+        private int mergePassCount;
+        private long decodeNanos;
+        private long sortNanos;
+        private long spillNanos;
+        private long mergeNanos;
+
+        Statistics() {
+        }
+
+        /**
+         * Returns the number of ids in the input file.
+         *
+         * @return the number of input ids
+         */
+        public long getInputCount() {
+            return inputCount;
+        }
+
+        /**
+         * Returns the number of distinct ids in the output.
+         *
+         * @return the number of output ids
+         */
+        public long getOutputCount() {
+            return outputCount;
+        }
+
+        /**
+         * Returns the number of runs that have been written during run
+         * generation.
+         *
+         * @return the number of runs
+         */
+        public int getRunCount() {
+            return runCount;
+        }
+
+        /**
+         * Returns the number of merge passes, including the final merge.
+         *
+         * @return the number of merge passes
+         */
+        public int getMergePassCount() {
+            return mergePassCount;
+        }
+
+        /**
+         * Returns the time for reading and decoding the input file.
+         *
+         * @return the time in nanoseconds
+         */
+        public long getDecodeNanos() {
+            return decodeNanos;
+        }
+
+        /**
+         * Returns the time for sorting the record buffers in memory.
+         *
+         * @return the time in nanoseconds
+         */
+        public long getSortNanos() {
+            return sortNanos;
+        }
+
+        /**
+         * Returns the time for writing the runs.
+         *
+         * @return the time in nanoseconds
+         */
+        public long getSpillNanos() {
+            return spillNanos;
+        }
+
+        /**
+         * Returns the time for merging the runs and writing the output.
+         *
+         * @return the time in nanoseconds
+         */
+        public long getMergeNanos() {
+            return mergeNanos;
+        }
+
+        private static double perSecond(long count, long nanos) {
+            return nanos == 0 ? 0 : count * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("UuidExternalSorter.Statistics{input=%d, output=%d, runs=%d, mergePasses=%d,"
+                            + " decode=%.0f ids/s, sort=%.0f ids/s, spill=%.0f ids/s, merge=%.0f ids/s}",
+                    inputCount, outputCount, runCount, mergePassCount,
+                    perSecond(inputCount, decodeNanos), perSecond(inputCount, sortNanos),
+                    perSecond(inputCount, spillNanos), perSecond(inputCount, mergeNanos));
+        }
+    }
+}
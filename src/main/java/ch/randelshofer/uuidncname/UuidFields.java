@@ -0,0 +1,240 @@
+/*
+ * @(#)UuidFields.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Reads fields of an {@link UUID} directly from its string in a
+ * {@link UuidFormat}, without decoding the whole string and without
+ * creating objects.
+ * <p>
+ * In the NCName formats, the version is stored in the first character, and
+ * the variant in the last character. The timestamp of version 7 is stored
+ * in the leading characters of the data. Therefore, the accessors only read
+ * the characters that they need, except for the formats that are not based
+ * on a power of two ({@link UuidFormat#NCNAME_36}, {@link UuidFormat#NCNAME_58},
+ * {@link UuidFormat#NCNAME_62} and their lexical variants) and the canonical
+ * format, where all characters are read and validated like in
+ * {@link UuidNCName#decode(CharSequence, UuidFormat, long[], int)}.
+ * <p>
+ * The values are the same as the values of the corresponding methods of
+ * {@link UUID}.
+ */
+public final class UuidFields {
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private UuidFields() {
+    }
+
+    /**
+     * Returns the version of the {@link UUID} that is represented by the
+     * specified string.
+     *
+     * @param str    a string
+     * @param format the format of the string
+     * @return the version, see {@link UUID#version()}
+     * @throws IllegalArgumentException if the string does not have the length
+     *                                  of the format, or if a character is illegal
+     */
+    public static int version(CharSequence str, UuidFormat format) {
+        UuidNCName.checkLength(str, format);
+        return version(str, null, 0, format);
+    }
+
+    /**
+     * Returns the version of the {@link UUID} that is represented by the
+     * ASCII characters in the specified array.
+     *
+     * @param str    an array with ASCII characters
+     * @param offset the offset of the first character
+     * @param format the format of the characters
+     * @return the version, see {@link UUID#version()}
+     * @throws IllegalArgumentException  if a character is illegal
+     * @throws IndexOutOfBoundsException if the array is too small for the format
+     */
+    public static int version(byte[] str, int offset, UuidFormat format) {
+        Objects.checkFromIndexSize(offset, format.length(), str.length);
+        return version(null, str, offset, format);
+    }
+
+    /**
+     * Returns the variant of the {@link UUID} that is represented by the
+     * specified string.
+     *
+     * @param str    a string
+     * @param format the format of the string
+     * @return the variant, see {@link UUID#variant()}
+     * @throws IllegalArgumentException if the string does not have the length
+     *                                  of the format, or if a character is illegal
+     */
+    public static int variant(CharSequence str, UuidFormat format) {
+        UuidNCName.checkLength(str, format);
+        return variant(str, null, 0, format);
+    }
+
+    /**
+     * Returns the variant of the {@link UUID} that is represented by the
+     * ASCII characters in the specified array.
+     *
+     * @param str    an array with ASCII characters
+     * @param offset the offset of the first character
+     * @param format the format of the characters
+     * @return the variant, see {@link UUID#variant()}
+     * @throws IllegalArgumentException  if a character is illegal
+     * @throws IndexOutOfBoundsException if the array is too small for the format
+     */
+    public static int variant(byte[] str, int offset, UuidFormat format) {
+        Objects.checkFromIndexSize(offset, format.length(), str.length);
+        return variant(null, str, offset, format);
+    }
+
+    /**
+     * Returns the {@code unix_ts_ms} field of the version 7 {@link UUID} that is
+     * represented by the specified string.
+     *
+     * @param str    a string
+     * @param format the format of the string
+     * @return the number of milliseconds since the Unix epoch
+     * @throws IllegalArgumentException      if the string does not have the length
+     *                                       of the format, or if a character is illegal
+     * @throws UnsupportedOperationException if the version is not 7
+     */
+    public static long unixTsMs(CharSequence str, UuidFormat format) {
+        UuidNCName.checkLength(str, format);
+        return unixTsMs(str, null, 0, format);
+    }
+
+    /**
+     * Returns the {@code unix_ts_ms} field of the version 7 {@link UUID} that is
+     * represented by the ASCII characters in the specified array.
+     *
+     * @param str    an array with ASCII characters
+     * @param offset the offset of the first character
+     * @param format the format of the characters
+     * @return the number of milliseconds since the Unix epoch
+     * @throws IllegalArgumentException      if a character is illegal
+     * @throws IndexOutOfBoundsException     if the array is too small for the format
+     * @throws UnsupportedOperationException if the version is not 7
+     */
+    public static long unixTsMs(byte[] str, int offset, UuidFormat format) {
+        Objects.checkFromIndexSize(offset, format.length(), str.length);
+        return unixTsMs(null, str, offset, format);
+    }
+
+    /**
+     * Returns the 60-bit timestamp of the version 1 or version 6 {@link UUID}
+     * that is represented by the specified string.
+     *
+     * @param str    a string
+     * @param format the format of the string
+     * @return the timestamp in 100-nanosecond units since midnight,
+     * October 15, 1582 UTC, see {@link UUID#timestamp()}
+     * @throws IllegalArgumentException      if the string does not have the length
+     *                                       of the format, or if a character is illegal
+     * @throws UnsupportedOperationException if the version is not 1 or 6
+     */
+    public static long timestamp(CharSequence str, UuidFormat format) {
+        UuidNCName.checkLength(str, format);
+        return timestamp(str, null, 0, format);
+    }
+
+    /**
+     * Returns the 60-bit timestamp of the version 1 or version 6 {@link UUID}
+     * that is represented by the ASCII characters in the specified array.
+     *
+     * @param str    an array with ASCII characters
+     * @param offset the offset of the first character
+     * @param format the format of the characters
+     * @return the timestamp in 100-nanosecond units since midnight,
+     * October 15, 1582 UTC, see {@link UUID#timestamp()}
+     * @throws IllegalArgumentException      if a character is illegal
+     * @throws IndexOutOfBoundsException     if the array is too small for the format
+     * @throws UnsupportedOperationException if the version is not 1 or 6
+     */
+    public static long timestamp(byte[] str, int offset, UuidFormat format) {
+        Objects.checkFromIndexSize(offset, format.length(), str.length);
+        return timestamp(null, str, offset, format);
+    }
+
+    // The following methods read the characters with the field reader of
+    // UuidNCName, either from the character sequence cs, or from the byte
+    // array b, whichever is not null.
+
+    private static int version(CharSequence cs, byte[] b, int off, UuidFormat format) {
+        if (format == UuidFormat.CANONICAL) {
+            return UuidNCName.readDigit(cs, b, off, 14, UuidNCName.BASE_16_INVERSE_ALPHABET);
+        }
+        return UuidNCName.readDigit(cs, b, off, 0, UuidNCName.BASE_32_INVERSE_ALPHABET);
+    }
+
+    private static int variant(CharSequence cs, byte[] b, int off, UuidFormat format) {
+        int last = format.length() - 1;
+        // the 3 most significant bits of the least significant bits of the UUID
+        int top3 = switch (format) {
+            case CANONICAL -> UuidNCName.readDigit(cs, b, off, 19, UuidNCName.BASE_16_INVERSE_ALPHABET) >>> 1;
+            case NCNAME_32, NCNAME_58, NCNAME_64 -> UuidNCName.readDigit(cs, b, off, last, UuidNCName.BASE_32_INVERSE_ALPHABET) >>> 1;
+            case NCNAME_32_LEX, NCNAME_64_LEX -> {
+                // The variant character only holds the 2 most significant bits.
+                // The third bit is the most significant bit of the lexical data.
+                int top2 = UuidNCName.readDigit(cs, b, off, last, UuidNCName.VARIANT_LEXICAL_INVERSE_ALPHABET) >>> 2;
+                int bit61 = top2 != 3 ? 0 : format == UuidFormat.NCNAME_32_LEX
+                        ? UuidNCName.readDigit(cs, b, off, 13, UuidNCName.BASE_32_HEX_INVERSE_ALPHABET) >>> 4
+                        : UuidNCName.readDigit(cs, b, off, 11, UuidNCName.BASE_64_LEXICAL_INVERSE_ALPHABET) >>> 5;
+                yield top2 << 1 | bit61;
+            }
+            // The other formats are not based on a power of two, all characters must be read
+            default -> (int) (UuidNCName.readFields(cs, b, off, format, (msb, lsb) -> lsb) >>> 61);
+        };
+        long lsb = (long) top3 << 61;
+        return (int) ((lsb >>> (64 - (lsb >>> 62))) & (lsb >> 63));
+    }
+
+    private static long unixTsMs(CharSequence cs, byte[] b, int off, UuidFormat format) {
+        if (version(cs, b, off, format) != 7) {
+            throw new UnsupportedOperationException("Not a version 7 UUID");
+        }
+        return msbData(cs, b, off, format, 48);
+    }
+
+    private static long timestamp(CharSequence cs, byte[] b, int off, UuidFormat format) {
+        int version = version(cs, b, off, format);
+        long data = msbData(cs, b, off, format, 60);
+        return switch (version) {
+            // time_low(32) || time_mid(16) || time_hi(12)
+            case 1 -> (data & 0xfff) << 48 | ((data >>> 12) & 0xffff) << 32 | data >>> 28;
+            // time_high(32) || time_mid(16) || time_low(12)
+            case 6 -> data;
+            default -> throw new UnsupportedOperationException("Not a time-based UUID");
+        };
+    }
+
+    /**
+     * Returns the specified number of most significant bits of the 60 data
+     * bits of the most significant bits of the {@link UUID}. These are all
+     * bits except the version.
+     */
+    private static long msbData(CharSequence cs, byte[] b, int off, UuidFormat format, int bits) {
+        return switch (format) {
+            case NCNAME_32 -> readPrefix(cs, b, off, UuidNCName.BASE_32_INVERSE_ALPHABET, 5, bits);
+            case NCNAME_32_LEX -> readPrefix(cs, b, off, UuidNCName.BASE_32_HEX_INVERSE_ALPHABET, 5, bits);
+            case NCNAME_64 -> readPrefix(cs, b, off, UuidNCName.BASE_64_INVERSE_ALPHABET, 6, bits);
+            case NCNAME_64_LEX -> readPrefix(cs, b, off, UuidNCName.BASE_64_LEXICAL_INVERSE_ALPHABET, 6, bits);
+            default -> UuidNCName.getMsb(UuidNCName.readFields(cs, b, off, format, (msb, lsb) -> msb)) >>> (60 - bits);
+        };
+    }
+
+    /**
+     * Reads the specified number of leading bits from the data characters
+     * of a format that is based on a power of two.
+     */
+    private static long readPrefix(CharSequence cs, byte[] b, int off, byte[] inverseAlphabet, int baseShift, int bits) {
+        int len = (bits + baseShift - 1) / baseShift;
+        return UuidNCName.readBits(cs, b, off, 1, len, inverseAlphabet, baseShift) >>> (len * baseShift - bits);
+    }
+}
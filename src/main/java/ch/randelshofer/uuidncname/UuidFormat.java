@@ -11,11 +11,49 @@ import java.util.UUID;
  * Specifies a formatting option for an {@link UUID}.
  */
 public enum UuidFormat {
-    CANONICAL,
-    NCNAME_32,
-    NCNAME_58,
-    NCNAME_64,
-    NCNAME_32_LEX,
-    NCNAME_58_LEX,
-    NCNAME_64_LEX,
+    CANONICAL(36),
+    NCNAME_32(26),
+    NCNAME_58(23),
+    NCNAME_64(22),
+    NCNAME_32_LEX(26),
+    NCNAME_58_LEX(23),
+    NCNAME_64_LEX(22),
+    /**
+     * Not detected by {@link UuidNCName#fromString(String)},
+     * use {@link UuidNCName#fromString(String, UuidFormat)}.
+     */
+    NCNAME_36(25),
+    /**
+     * Not detected by {@link UuidNCName#fromString(String)}, which parses
+     * strings of this length as {@link #NCNAME_64} or {@link #NCNAME_64_LEX},
+     * use {@link UuidNCName#fromString(String, UuidFormat)}.
+     */
+    NCNAME_62(22),
+    /**
+     * Not detected by {@link UuidNCName#fromString(String)},
+     * use {@link UuidNCName#fromString(String, UuidFormat)}.
+     */
+    NCNAME_36_LEX(25),
+    /**
+     * Not detected by {@link UuidNCName#fromString(String)}, which parses
+     * strings of this length as {@link #NCNAME_64} or {@link #NCNAME_64_LEX},
+     * use {@link UuidNCName#fromString(String, UuidFormat)}.
+     */
+    NCNAME_62_LEX(22),
+    ;
+
+    private final int length;
+
+    UuidFormat(int length) {
+        this.length = length;
+    }
+
+    /**
+     * Returns the number of characters of an {@link UUID} in this format.
+     *
+     * @return the number of characters
+     */
+    public int length() {
+        return length;
+    }
 }
@@ -0,0 +1,99 @@
+/*
+ * @(#)UuidHash.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Computes a 64-bit hash of an {@link UUID} directly from its string in a
+ * {@link UuidFormat}, without creating objects.
+ * <p>
+ * The hash only depends on the bits of the {@link UUID}. Therefore, the same
+ * {@link UUID} has the same hash in all formats, and in upper and lower case.
+ * <p>
+ * The hash is computed with two rounds of the 64-bit finalizer of MurmurHash3
+ * over the most and least significant bits. All bits of the {@link UUID}
+ * influence all bits of the hash. Unlike {@link UUID#hashCode()}, the hash is
+ * suitable for hash tables that use the high bits or the low bits of the hash,
+ * and for filters that derive several indices from one hash, such as
+ * {@link UuidBloomFilter}.
+ * <p>
+ * The characters are decoded in a single pass, with the same validation as
+ * {@link UuidNCName#decode(CharSequence, UuidFormat, long[], int)}.
+ */
+public final class UuidHash {
+    private static final long SEED = 0x9e3779b97f4a7c15L;
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private UuidHash() {
+    }
+
+    /**
+     * Returns the hash of the specified {@link UUID} bits.
+     *
+     * @param msb the most significant bits of the {@link UUID}
+     * @param lsb the least significant bits of the {@link UUID}
+     * @return the hash
+     */
+    public static long hash(long msb, long lsb) {
+        return fmix64(msb ^ fmix64(lsb + SEED));
+    }
+
+    /**
+     * Returns the hash of the specified {@link UUID}.
+     *
+     * @param uuid an {@link UUID}
+     * @return the hash, the same as {@link #hash(long, long)}
+     */
+    public static long hash(UUID uuid) {
+        return hash(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * Returns the hash of the {@link UUID} that is represented by the specified
+     * string.
+     *
+     * @param str    a string
+     * @param format the format of the string
+     * @return the hash, the same as {@link #hash(long, long)}
+     * @throws IllegalArgumentException if the string is not in the specified format
+     */
+    public static long hash(CharSequence str, UuidFormat format) {
+        UuidNCName.checkLength(str, format);
+        return UuidNCName.readFields(str, null, 0, format, UuidHash::hash);
+    }
+
+    /**
+     * Returns the hash of the {@link UUID} that is represented by the ASCII
+     * characters in the specified array.
+     *
+     * @param str    an array with ASCII characters
+     * @param offset the offset of the first character
+     * @param format the format of the characters
+     * @return the hash, the same as {@link #hash(long, long)}
+     * @throws IllegalArgumentException  if the characters are not in the specified format
+     * @throws IndexOutOfBoundsException if the array is too small for the format
+     */
+    public static long hash(byte[] str, int offset, UuidFormat format) {
+        Objects.checkFromIndexSize(offset, format.length(), str.length);
+        return UuidNCName.readFields(null, str, offset, format, UuidHash::hash);
+    }
+
+    /**
+     * The finalizer of MurmurHash3. This is a bijection with full avalanche.
+     */
+    private static long fmix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * @(#)UuidIndex.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * A read-only sorted set of {@link java.util.UUID}s in a memory-mapped file.
+ * <p>
+ * The file is created with {@link UuidIndexWriter}. It holds the
+ * {@link java.util.UUID}s as 16-byte records, sorted by the unsigned value of
+ * the most significant bits, and then by the unsigned value of the least
+ * significant bits. This is the order of the strings in the
+ * {@link UuidFormat#CANONICAL} format. A sparse index holds the first record
+ * of each block of records.
+ * <p>
+ * Opening an index only reads the header and maps the file. The operating
+ * system loads the pages of the file on demand, and keeps them in its page
+ * cache. A lookup first searches the sparse index, and then the records of
+ * one block. Both searches alternate between interpolation steps and
+ * bisection steps, so that they need about {@code log log n} steps for
+ * evenly distributed {@link java.util.UUID}s, and at most about
+ * {@code 2 log n} steps for any distribution.
+ * <p>
+ * The lookup methods that take a string decode it without creating objects,
+ * and do not allocate memory on the heap.
+ * <p>
+ * The mapping is released when the index is garbage collected.
+ * <p>
+ * Instances of this class are thread-safe.
+ */
+public final class UuidIndex {
+    static final long MAGIC = 0x555549444e494458L; // "UUIDNIDX"
+    static final int VERSION = 1;
+    static final int HEADER_LENGTH = 32;
+    static final int RECORD_LENGTH = 16;
+    /**
+     * The number of records in a mapped chunk of the file: 2<sup>26</sup>
+     * records, or 1 GiB.
+     */
+    private static final int DEFAULT_CHUNK_SHIFT = 26;
+    /**
+     * Below this number of records, the search scans linearly.
+     */
+    private static final int LINEAR_SEARCH_THRESHOLD = 8;
+
+    private final long size;
+    private final int blockSize;
+    private final long blockCount;
+    private final int chunkShift;
+    private final long chunkMask;
+    private final ByteBuffer[] chunks;
+    private final ByteBuffer index;
+    private final LongBinaryOperator rankOp = this::rank;
+    private final LongBinaryOperator containsOp = (msb, lsb) -> contains(msb, lsb) ? 1 : 0;
+
+    private UuidIndex(long size, int blockSize, int chunkShift, ByteBuffer[] chunks, ByteBuffer index) {
+        this.size = size;
+        this.blockSize = blockSize;
+        this.blockCount = (size + blockSize - 1) / blockSize;
+        this.chunkShift = chunkShift;
+        this.chunkMask = (1L << chunkShift) - 1;
+        this.chunks = chunks;
+        this.index = index;
+    }
+
+    /**
+     * Opens the specified index file.
+     *
+     * @param file a file that has been written with {@link UuidIndexWriter}
+     * @return the index
+     * @throws IOException if the file can not be read, or is not a valid index file
+     */
+    public static UuidIndex open(Path file) throws IOException {
+        return open(file, DEFAULT_CHUNK_SHIFT);
+    }
+
+    static UuidIndex open(Path file, int chunkShift) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("Not an index file: " + file);
+                }
+            }
+            header.flip();
+            long magic = header.getLong();
+            int version = header.getInt();
+            int blockSize = header.getInt();
+            long size = header.getLong();
+            long indexOffset = header.getLong();
+            long blockCount = blockSize <= 0 ? -1 : (size + blockSize - 1) / blockSize;
+            if (magic != MAGIC || version != VERSION) {
+                throw new IOException("Not an index file: " + file);
+            }
+            if (blockSize <= 0 || size < 0 || indexOffset != HEADER_LENGTH + size * RECORD_LENGTH
+                    || blockCount * RECORD_LENGTH > Integer.MAX_VALUE
+                    || channel.size() != indexOffset + blockCount * RECORD_LENGTH) {
+                throw new IOException("Corrupt index file: " + file);
+            }
+
+            int chunkCount = (int) ((size + (1L << chunkShift) - 1) >>> chunkShift);
+            ByteBuffer[] chunks = new ByteBuffer[chunkCount];
+            for (int i = 0; i < chunkCount; i++) {
+                long first = (long) i << chunkShift;
+                long records = Math.min(size - first, 1L << chunkShift);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        HEADER_LENGTH + first * RECORD_LENGTH, records * RECORD_LENGTH);
+            }
+            MappedByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY,
+                    indexOffset, blockCount * RECORD_LENGTH);
+            return new UuidIndex(size, blockSize, chunkShift, chunks, index);
+        }
+    }
+
+    /**
+     * Compares two {@link java.util.UUID}s in the order of the index.
+     */
+    static int compare(long msb1, long lsb1, long msb2, long lsb2) {
+        int cmp = Long.compareUnsigned(msb1, msb2);
+        return cmp != 0 ? cmp : Long.compareUnsigned(lsb1, lsb2);
+    }
+
+    /**
+     * Returns the number of {@link java.util.UUID}s in this index.
+     *
+     * @return the number of {@link java.util.UUID}s
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns the most significant bits of the {@link java.util.UUID} at the
+     * specified position.
+     *
+     * @param i the position
+     * @return the most significant bits
+     * @throws IndexOutOfBoundsException if the position is out of range
+     */
+    public long getMostSignificantBits(long i) {
+        return msbAt(Objects.checkIndex(i, size));
+    }
+
+    /**
+     * Returns the least significant bits of the {@link java.util.UUID} at the
+     * specified position.
+     *
+     * @param i the position
+     * @return the least significant bits
+     * @throws IndexOutOfBoundsException if the position is out of range
+     */
+    public long getLeastSignificantBits(long i) {
+        return lsbAt(Objects.checkIndex(i, size));
+    }
+
+    /**
+     * Returns true if this index contains the specified {@link java.util.UUID}.
+     *
+     * @param msb the most significant bits of the {@link java.util.UUID}
+     * @param lsb the least significant bits of the {@link java.util.UUID}
+     * @return whether the index contains the {@link java.util.UUID}
+     */
+    public boolean contains(long msb, long lsb) {
+        long r = rank(msb, lsb);
+        return r < size && msbAt(r) == msb && lsbAt(r) == lsb;
+    }
+
+    /**
+     * Returns true if this index contains the {@link java.util.UUID} that is
+     * represented by the specified string.
+     *
+     * @param str    a string
+     * @param format the format of the string
+     * @return whether the index contains the {@link java.util.UUID}
+     * @throws IllegalArgumentException if the string is not in the specified format
+     */
+    public boolean contains(CharSequence str, UuidFormat format) {
+        UuidNCName.checkLength(str, format);
+        return UuidNCName.readFields(str, null, 0, format, containsOp) != 0;
+    }
+
+    /**
+     * Returns the number of {@link java.util.UUID}s in this index that are less
+     * than the specified {@link java.util.UUID}. If the index contains the
+     * {@link java.util.UUID}, this is its position.
+     *
+     * @param msb the most significant bits of the {@link java.util.UUID}
+     * @param lsb the least significant bits of the {@link java.util.UUID}
+     * @return the rank, in the range [0, {@link #size()}]
+     */
+    public long rank(long msb, long lsb) {
+        // Find the number of blocks that start with a key less than the UUID
+        long blocks = lowerBound(true, 0, blockCount, msb, lsb);
+        if (blocks == 0) {
+            return 0;
+        }
+        long from = (blocks - 1) * blockSize;
+        return lowerBound(false, from + 1, Math.min(size, from + blockSize), msb, lsb);
+    }
+
+    /**
+     * Returns the number of {@link java.util.UUID}s in this index that are less
+     * than the {@link java.util.UUID} that is represented by the specified string.
+     *
+     * @param str    a string
+     * @param format the format of the string
+     * @return the rank, in the range [0, {@link #size()}]
+     * @throws IllegalArgumentException if the string is not in the specified format
+     */
+    public long rank(CharSequence str, UuidFormat format) {
+        UuidNCName.checkLength(str, format);
+        return UuidNCName.readFields(str, null, 0, format, rankOp);
+    }
+
+    /**
+     * Performs the specified action for each {@link java.util.UUID} in the
+     * range [{@code from}, {@code to}) in ascending order.
+     *
+     * @param from   the lower bound (inclusive)
+     * @param to     the upper bound (exclusive)
+     * @param format the format of the bounds
+     * @param action the action
+     * @return the number of {@link java.util.UUID}s in the range
+     * @throws IllegalArgumentException if a bound is not in the specified format
+     */
+    public long forEachInRange(CharSequence from, CharSequence to, UuidFormat format, UuidConsumer action) {
+        long start = rank(from, format);
+        long end = rank(to, format);
+        for (long i = start; i < end; i++) {
+            action.accept(msbAt(i), lsbAt(i));
+        }
+        return Math.max(0, end - start);
+    }
+
+    /**
+     * Returns the number of {@link java.util.UUID}s in the range
+     * [{@code from}, {@code to}).
+     *
+     * @param from   the lower bound (inclusive)
+     * @param to     the upper bound (exclusive)
+     * @param format the format of the bounds
+     * @return the number of {@link java.util.UUID}s in the range
+     * @throws IllegalArgumentException if a bound is not in the specified format
+     */
+    public long countInRange(CharSequence from, CharSequence to, UuidFormat format) {
+        return Math.max(0, rank(to, format) - rank(from, format));
+    }
+
+    /**
+     * Returns the first position in [lo, hi) of the sparse index or of the
+     * records, whose key is greater than or equal to the specified key,
+     * or hi if there is no such position.
+     */
+    private long lowerBound(boolean inIndex, long lo, long hi, long msb, long lsb) {
+        boolean interpolate = true;
+        while (hi - lo > LINEAR_SEARCH_THRESHOLD) {
+            long mid = -1;
+            if (interpolate) {
+                double low = unsigned(keyMsb(inIndex, lo));
+                double high = unsigned(keyMsb(inIndex, hi - 1));
+                double target = unsigned(msb);
+                if (high > low) {
+                    double fraction = (target - low) / (high - low);
+                    mid = lo + (long) (Math.max(0, Math.min(1, fraction)) * (hi - 1 - lo));
+                }
+            }
+            if (mid < 0) {
+                mid = (lo + hi) >>> 1;
+            }
+            interpolate = !interpolate;
+            if (compare(keyMsb(inIndex, mid), keyLsb(inIndex, mid), msb, lsb) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        while (lo < hi && compare(keyMsb(inIndex, lo), keyLsb(inIndex, lo), msb, lsb) < 0) {
+            lo++;
+        }
+        return lo;
+    }
+
+    private static double unsigned(long x) {
+        return (x >>> 1) * 2.0 + (x & 1);
+    }
+
+    private long keyMsb(boolean inIndex, long i) {
+        return inIndex ? index.getLong((int) i * RECORD_LENGTH) : msbAt(i);
+    }
+
+    private long keyLsb(boolean inIndex, long i) {
+        return inIndex ? index.getLong((int) i * RECORD_LENGTH + 8) : lsbAt(i);
+    }
+
+    private long msbAt(long i) {
+        return chunks[(int) (i >>> chunkShift)].getLong((int) (i & chunkMask) * RECORD_LENGTH);
+    }
+
+    private long lsbAt(long i) {
+        return chunks[(int) (i >>> chunkShift)].getLong((int) (i & chunkMask) * RECORD_LENGTH + 8);
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * @(#)UuidIndexWriter.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Writes a file for {@link UuidIndex}.
+ * <p>
+ * The {@link java.util.UUID}s must be added in ascending order, see
+ * {@link UuidIndex} for the definition of the order. Duplicates are skipped.
+ * {@link UuidExternalSorter} sorts files that do not fit into memory.
+ * <p>
+ * The file has the following layout. All numbers are big-endian.
+ * <pre>
+ * header  = magic(8) version(4) block-size(4) record-count(8) index-offset(8)
+ * records = record-count * (msb(8) lsb(8))
+ * index   = block-count * (msb(8) lsb(8))
+ * </pre>
+ * The magic is the ASCII string {@code "UUIDNIDX"}. The index holds the first
+ * record of each block of {@code block-size} records.
+ * <p>
+ * Instances of this class are not thread-safe.
+ */
+public final class UuidIndexWriter implements Closeable {
+    /**
+     * The default number of records per block. A block of 256 records
+     * occupies one 4 KiB page.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 256;
+
+    private final FileChannel channel;
+    private final int blockSize;
+    private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+    private final long[] bits = new long[2];
+    /**
+     * The first key of each block, two longs per block.
+     */
+    private long[] blockKeys = new long[64];
+    private long count;
+    private long lastMsb, lastLsb;
+    private boolean closed;
+
+    /**
+     * Creates a new writer with {@value #DEFAULT_BLOCK_SIZE} records per
+     * block. An existing file is replaced.
+     *
+     * @param file the file
+     * @throws IOException if the file can not be created
+     */
+    public UuidIndexWriter(Path file) throws IOException {
+        this(file, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Creates a new writer. An existing file is replaced.
+     *
+     * @param file      the file
+     * @param blockSize the number of records per block of the sparse index
+     * @throws IOException              if the file can not be created
+     * @throws IllegalArgumentException if the block size is not positive
+     */
+    public UuidIndexWriter(Path file, int blockSize) throws IOException {
+        if (blockSize <= 0) throw new IllegalArgumentException("blockSize must be positive: " + blockSize);
+        this.blockSize = blockSize;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.position(UuidIndex.HEADER_LENGTH);
+    }
+
+    /**
+     * Adds the specified {@link java.util.UUID}.
+     *
+     * @param msb the most significant bits of the {@link java.util.UUID}
+     * @param lsb the least significant bits of the {@link java.util.UUID}
+     * @return true if the {@link java.util.UUID} has been added, false if it
+     * is a duplicate of the previous one
+     * @throws IllegalArgumentException if the {@link java.util.UUID} is less
+     *                                  than the previous one
+     * @throws IOException              if an I/O error occurs
+     */
+    public boolean add(long msb, long lsb) throws IOException {
+        if (closed) throw new IllegalStateException("Writer is closed");
+        if (count > 0) {
+            int cmp = UuidIndex.compare(msb, lsb, lastMsb, lastLsb);
+            if (cmp == 0) {
+                return false;
+            }
+            if (cmp < 0) {
+                throw new IllegalArgumentException("UUIDs are not in ascending order at record " + count);
+            }
+        }
+        if (count % blockSize == 0) {
+            int block = (int) (count / blockSize);
+            if (2 * block + 2 > blockKeys.length) {
+                blockKeys = Arrays.copyOf(blockKeys, blockKeys.length * 2);
+            }
+            blockKeys[2 * block] = msb;
+            blockKeys[2 * block + 1] = lsb;
+        }
+        if (buffer.remaining() < UuidIndex.RECORD_LENGTH) {
+            flush();
+        }
+        buffer.putLong(msb).putLong(lsb);
+        lastMsb = msb;
+        lastLsb = lsb;
+        count++;
+        return true;
+    }
+
+    /**
+     * Adds the {@link java.util.UUID} that is represented by the specified
+     * string.
+     *
+     * @param str    a string
+     * @param format the format of the string
+     * @return true if the {@link java.util.UUID} has been added, false if it
+     * is a duplicate of the previous one
+     * @throws IllegalArgumentException if the string is not in the specified
+     *                                  format, or if the {@link java.util.UUID}
+     *                                  is less than the previous one
+     * @throws IOException              if an I/O error occurs
+     */
+    public boolean add(CharSequence str, UuidFormat format) throws IOException {
+        UuidNCName.decode(str, format, bits, 0);
+        return add(bits[0], bits[1]);
+    }
+
+    /**
+     * Returns the number of records that have been added.
+     *
+     * @return the number of records
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Writes the sparse index and the header, and closes the file.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try (channel) {
+            flush();
+            long indexOffset = UuidIndex.HEADER_LENGTH + count * UuidIndex.RECORD_LENGTH;
+            long blocks = (count + blockSize - 1) / blockSize;
+            for (int i = 0; i < 2 * blocks; i++) {
+                if (buffer.remaining() < Long.BYTES) {
+                    flush();
+                }
+                buffer.putLong(blockKeys[i]);
+            }
+            flush();
+            buffer.putLong(UuidIndex.MAGIC).putInt(UuidIndex.VERSION).putInt(blockSize)
+                    .putLong(count).putLong(indexOffset);
+            buffer.flip();
+            long position = 0;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
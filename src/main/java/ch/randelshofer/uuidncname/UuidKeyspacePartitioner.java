@@ -0,0 +1,235 @@
+/*
+ * @(#)UuidKeyspacePartitioner.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Splits the keyspace of the {@link java.util.UUID}s of one version into contiguous
+ * ranges of equal size, and represents the boundaries of the ranges as
+ * strings in a lexical format.
+ * <p>
+ * In the lexical formats {@link UuidFormat#NCNAME_32_LEX},
+ * {@link UuidFormat#NCNAME_36_LEX}, {@link UuidFormat#NCNAME_58_LEX},
+ * {@link UuidFormat#NCNAME_62_LEX} and {@link UuidFormat#NCNAME_64_LEX},
+ * the strings of all {@link java.util.UUID}s with the same version are sorted in the
+ * same order as the following 124-bit number:
+ * <pre>
+ * key = msb-data(60) || lsb-data-lex(60) || variant-lex(4)
+ * </pre>
+ * This class splits a range of these numbers into partitions, and
+ * finds the partition of a string by comparing it with the lower bounds
+ * of the partitions, without decoding the string.
+ * <p>
+ * The range is either the whole keyspace of a version, or, for version 7,
+ * the {@link java.util.UUID}s with a {@code unix_ts_ms} field in a time window.
+ * <p>
+ * The string comparison requires that the strings are in the canonical
+ * case of their format, as produced by {@link UuidNCName#toString(java.util.UUID, UuidFormat)}.
+ * The version character of a string is not compared.
+ */
+public final class UuidKeyspacePartitioner {
+    private static final Set<UuidFormat> LEX_FORMATS = EnumSet.of(UuidFormat.NCNAME_32_LEX,
+            UuidFormat.NCNAME_36_LEX, UuidFormat.NCNAME_58_LEX, UuidFormat.NCNAME_62_LEX,
+            UuidFormat.NCNAME_64_LEX);
+    private static final int KEY_BITS = 124;
+    /**
+     * The position of the {@code unix_ts_ms} field of version 7 in the key.
+     */
+    private static final int UNIX_TS_MS_SHIFT = KEY_BITS - 48;
+
+    private final UuidFormat format;
+    private final int version;
+    /**
+     * The inclusive lower bounds of the partitions, as ASCII strings.
+     */
+    private final byte[][] lowerBounds;
+    /**
+     * The exclusive upper bound of the last partition as ASCII string,
+     * or null if the last partition extends to the end of the keyspace.
+     */
+    private final byte[] upperBound;
+
+    private UuidKeyspacePartitioner(UuidFormat format, int version, BigInteger from, BigInteger to, int partitions) {
+        if (!LEX_FORMATS.contains(Objects.requireNonNull(format, "format"))) {
+            throw new IllegalArgumentException("Format is not lexical: " + format);
+        }
+        if (version < 0 || version > 15) {
+            throw new IllegalArgumentException("Illegal version: " + version);
+        }
+        BigInteger size = to.subtract(from);
+        if (partitions <= 0 || size.compareTo(BigInteger.valueOf(partitions)) < 0) {
+            throw new IllegalArgumentException("Illegal number of partitions: " + partitions);
+        }
+        this.format = format;
+        this.version = version;
+        this.lowerBounds = new byte[partitions][];
+        BigInteger n = BigInteger.valueOf(partitions);
+        for (int i = 0; i < partitions; i++) {
+            lowerBounds[i] = encodeKey(from.add(size.multiply(BigInteger.valueOf(i)).divide(n)));
+        }
+        this.upperBound = to.bitLength() > KEY_BITS ? null : encodeKey(to);
+    }
+
+    /**
+     * Splits the whole keyspace of the specified version into partitions.
+     *
+     * @param format     a lexical format
+     * @param version    the version of the {@link java.util.UUID}s
+     * @param partitions the number of partitions
+     * @return a new partitioner
+     * @throws IllegalArgumentException if the format is not lexical, if the
+     *                                  version is not in the range [0, 15],
+     *                                  or if the number of partitions is not positive
+     */
+    public static UuidKeyspacePartitioner ofKeyspace(UuidFormat format, int version, int partitions) {
+        return new UuidKeyspacePartitioner(format, version, BigInteger.ZERO,
+                BigInteger.ONE.shiftLeft(KEY_BITS), partitions);
+    }
+
+    /**
+     * Splits the keyspace of version 7 {@link java.util.UUID}s with a
+     * {@code unix_ts_ms} field in the specified time window into partitions.
+     *
+     * @param format          a lexical format
+     * @param fromUnixTsMs    the start of the time window (inclusive), in
+     *                        milliseconds since the Unix epoch
+     * @param toUnixTsMs      the end of the time window (exclusive), in
+     *                        milliseconds since the Unix epoch
+     * @param partitions      the number of partitions
+     * @return a new partitioner
+     * @throws IllegalArgumentException if the format is not lexical, if the
+     *                                  time window is empty or does not fit
+     *                                  into 48 bits, or if the number of
+     *                                  partitions is not positive
+     */
+    public static UuidKeyspacePartitioner ofTimeWindow(UuidFormat format, long fromUnixTsMs, long toUnixTsMs, int partitions) {
+        if (fromUnixTsMs < 0 || toUnixTsMs <= fromUnixTsMs || toUnixTsMs > 1L << 48) {
+            throw new IllegalArgumentException("Illegal time window: [" + fromUnixTsMs + ", " + toUnixTsMs + ")");
+        }
+        return new UuidKeyspacePartitioner(format, 7,
+                BigInteger.valueOf(fromUnixTsMs).shiftLeft(UNIX_TS_MS_SHIFT),
+                BigInteger.valueOf(toUnixTsMs).shiftLeft(UNIX_TS_MS_SHIFT), partitions);
+    }
+
+    /**
+     * Encodes a 124-bit key as a string in the format of this partitioner.
+     */
+    private byte[] encodeKey(BigInteger key) {
+        long high = key.shiftRight(64).longValue();
+        long low = key.longValue();
+        long msb = UuidNCName.readMsb(high, version);
+        long lsb = UuidNCName.readLsbLex(low >>> 4, (int) low & 15);
+        byte[] str = new byte[format.length()];
+        UuidNCName.encode(msb, lsb, format, str, 0);
+        return str;
+    }
+
+    /**
+     * Returns the format of the boundary strings.
+     *
+     * @return the format
+     */
+    public UuidFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Returns the version of the {@link java.util.UUID}s.
+     *
+     * @return the version
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the number of partitions.
+     *
+     * @return the number of partitions
+     */
+    public int getPartitionCount() {
+        return lowerBounds.length;
+    }
+
+    /**
+     * Returns the inclusive lower bound of the specified partition.
+     *
+     * @param partition the index of the partition
+     * @return the lower bound
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public String getLowerBound(int partition) {
+        return new String(lowerBounds[partition], StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Returns the exclusive upper bound of the specified partition.
+     *
+     * @param partition the index of the partition
+     * @return the upper bound, or null if the partition extends to the end
+     * of the keyspace
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public String getUpperBound(int partition) {
+        Objects.checkIndex(partition, lowerBounds.length);
+        if (partition + 1 < lowerBounds.length) {
+            return getLowerBound(partition + 1);
+        }
+        return upperBound == null ? null : new String(upperBound, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Returns the index of the partition that contains the specified string.
+     * <p>
+     * This method performs a binary search over the lower bounds of the
+     * partitions. Each comparison stops at the first character that differs.
+     *
+     * @param id a string in the format of this partitioner
+     * @return the index of the partition, or -1 if the string is less than
+     * the lower bound of the first partition, or {@link #getPartitionCount()}
+     * if the string is greater than or equal to the upper bound of the last
+     * partition
+     * @throws IllegalArgumentException if the string does not have the length
+     *                                  of the format
+     */
+    public int partitionOf(CharSequence id) {
+        if (id.length() != format.length()) {
+            throw new IllegalArgumentException("Illegal length for " + format + ": " + id.length());
+        }
+        if (upperBound != null && compare(id, upperBound) >= 0) {
+            return lowerBounds.length;
+        }
+        // Find the last lower bound that is less than or equal to the id.
+        int low = 0, high = lowerBounds.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (compare(id, lowerBounds[mid]) < 0) {
+                high = mid - 1;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return high;
+    }
+
+    /**
+     * Compares the id with a bound, ignoring the version character.
+     */
+    private static int compare(CharSequence id, byte[] bound) {
+        for (int i = 1; i < bound.length; i++) {
+            int diff = id.charAt(i) - bound[i];
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return 0;
+    }
+}
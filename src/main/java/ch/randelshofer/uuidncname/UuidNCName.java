@@ -5,15 +5,21 @@
 
 package ch.randelshofer.uuidncname;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.LongBinaryOperator;
 
 /**
  * Converts {@link UUID}s to/from valid NCName productions for use in (X|HT)ML.
  */
 public class UuidNCName {
-    private static final byte[] BASE_32_HEX_INVERSE_ALPHABET = new byte[128];
+    private static final byte[] BASE_16_LOWER_CASE_ALPHABET =
+            "0123456789abcdef".getBytes(StandardCharsets.ISO_8859_1);
+    static final byte[] BASE_16_INVERSE_ALPHABET = new byte[128];
+    static final byte[] BASE_32_HEX_INVERSE_ALPHABET = new byte[128];
     /**
      * See RFC 4648, Section 7, Table 4: The "Extended Hex" Base 32 Alphabet.
      * <p>
@@ -28,7 +34,7 @@ public class UuidNCName {
      */
     private static final byte[] BASE_32_HEX_UPPER_CASE_ALPHABET =
             "0123456789ABCDEFGHIJKLMNOPQRSTUV".getBytes(StandardCharsets.ISO_8859_1);
-    private static final byte[] BASE_32_INVERSE_ALPHABET = new byte[128];
+    static final byte[] BASE_32_INVERSE_ALPHABET = new byte[128];
 
     ;
     /**
@@ -45,20 +51,39 @@ public class UuidNCName {
      */
     private static final byte[] BASE_32_UPPER_CASE_ALPHABET =
             "ABCDEFGHIJKLMNOPQRSTUVWXYZ234567".getBytes(StandardCharsets.ISO_8859_1);
-    private static final byte[] BASE_64_INVERSE_ALPHABET = new byte[128];
+    static final byte[] BASE_64_INVERSE_ALPHABET = new byte[128];
     private static final byte[] BASE_64_LEXICAL_ALPHABET =
             "-0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ_abcdefghijklmnopqrstuvwxyz".getBytes(StandardCharsets.ISO_8859_1);
-    private static final byte[] BASE_64_LEXICAL_INVERSE_ALPHABET = new byte[128];
+    static final byte[] BASE_64_LEXICAL_INVERSE_ALPHABET = new byte[128];
     private static final byte[] BASE_64_URL_SAFE_ALPHABET =
             "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes(StandardCharsets.ISO_8859_1);
     private static final byte OTHER_CLASS = -1;
-    private static final byte[] VARIANT_LEXICAL_INVERSE_ALPHABET = new byte[128];
+    /**
+     * The number of bytes that {@link FastBase58} uses as scratch space
+     * at the start of an output array.
+     */
+    static final int SCRATCH_LENGTH = 16;
+    static final byte[] VARIANT_LEXICAL_INVERSE_ALPHABET = new byte[128];
     private static final byte[] VARIANT_LEXICAL_LOWER_CASE_ALPHABET =
             toLowerCase("234567QRSTUVWXYZ".getBytes(StandardCharsets.ISO_8859_1));
     private static final byte[] VARIANT_LEXICAL_UPPER_CASE_ALPHABET =
             "234567QRSTUVWXYZ".getBytes(StandardCharsets.ISO_8859_1);
+    /**
+     * Wide tables for the data fields, or null if the narrow alphabets are used.
+     * See {@link WideTableEncoder}.
+     */
+    private static final short[] BASE_32_HEX_LOWER_CASE_WIDE_TABLE =
+            WideTableEncoder.WIDE_BASE_32 ? WideTableEncoder.createTable(BASE_32_HEX_LOWER_CASE_ALPHABET, 5) : null;
+    private static final short[] BASE_32_LOWER_CASE_WIDE_TABLE =
+            WideTableEncoder.WIDE_BASE_32 ? WideTableEncoder.createTable(BASE_32_LOWER_CASE_ALPHABET, 5) : null;
+    private static final short[] BASE_64_LEXICAL_WIDE_TABLE =
+            WideTableEncoder.WIDE_BASE_64 ? WideTableEncoder.createTable(BASE_64_LEXICAL_ALPHABET, 6) : null;
+    private static final short[] BASE_64_URL_SAFE_WIDE_TABLE =
+            WideTableEncoder.WIDE_BASE_64 ? WideTableEncoder.createTable(BASE_64_URL_SAFE_ALPHABET, 6) : null;
 
     static {
+        computeInverseAlphabet(BASE_16_LOWER_CASE_ALPHABET, BASE_16_INVERSE_ALPHABET, true);
+        computeInverseAlphabet("0123456789ABCDEF".getBytes(StandardCharsets.ISO_8859_1), BASE_16_INVERSE_ALPHABET, false);
         computeInverseAlphabet(BASE_64_URL_SAFE_ALPHABET, BASE_64_INVERSE_ALPHABET, true);
         computeInverseAlphabet(BASE_64_LEXICAL_ALPHABET, BASE_64_LEXICAL_INVERSE_ALPHABET, true);
         computeInverseAlphabet(BASE_32_LOWER_CASE_ALPHABET, BASE_32_INVERSE_ALPHABET, true);
@@ -85,94 +110,422 @@ public class UuidNCName {
         }
     }
 
-    private static UUID fromBase32(String str) {
+    private static void decodeBase32(CharSequence str, long[] dst, int dstOffset) {
         long msb = readUInt60(str, 1, 12, BASE_32_INVERSE_ALPHABET, 5);
         long lsb = readUInt60(str, 13, 12, BASE_32_INVERSE_ALPHABET, 5);
         int version = readVersion(str);
         int variant = readVariant(str, BASE_32_INVERSE_ALPHABET);
-        return new UUID(readMsb(msb, version), readLsb(lsb, variant));
+        dst[dstOffset] = readMsb(msb, version);
+        dst[dstOffset + 1] = readLsb(lsb, variant);
     }
 
-    private static UUID fromBase32Lex(String str) {
+    private static void decodeBase32Lex(CharSequence str, long[] dst, int dstOffset) {
         long msb = readUInt60(str, 1, 12, BASE_32_HEX_INVERSE_ALPHABET, 5);
         long lsb = readUInt60(str, 13, 12, BASE_32_HEX_INVERSE_ALPHABET, 5);
         int version = readVersion(str);
         int variantLex = readVariant(str, VARIANT_LEXICAL_INVERSE_ALPHABET);
-        return new UUID(readMsb(msb, version), readLsbLex(lsb, variantLex));
+        dst[dstOffset] = readMsb(msb, version);
+        dst[dstOffset + 1] = readLsbLex(lsb, variantLex);
     }
 
-    private static UUID fromBase58(String str) {
+    private static void decodeBase36(CharSequence str, long[] dst, int dstOffset) {
+        int version = readVersion(str);
+        FastBase36.decode36(str, 1, dst, dstOffset);
+        long low = dst[dstOffset + 1];
+        dst[dstOffset] = readMsb(dst[dstOffset], version);
+        dst[dstOffset + 1] = readLsb(low >>> 4, (int) low & 15);
+    }
+
+    private static void decodeBase36Lex(CharSequence str, long[] dst, int dstOffset) {
+        int version = readVersion(str);
+        FastBase36.decode36(str, 1, dst, dstOffset);
+        long low = dst[dstOffset + 1];
+        dst[dstOffset] = readMsb(dst[dstOffset], version);
+        dst[dstOffset + 1] = readLsbLex(low >>> 4, (int) low & 15);
+    }
+
+    private static void decodeBase58(CharSequence str, long[] dst, int dstOffset) {
         int version = readVersion(str);
         int variant = readVariant(str, BASE_32_INVERSE_ALPHABET);
-        int endIndex = 22;
-        while (str.charAt(endIndex - 1) == '_' && endIndex > 0) {
-            endIndex--;
-        }
-        if (endIndex < 16)
-            throw new IllegalArgumentException("UUID string has too many '_' characters.");
+        int endIndex = base58End(str, null, 0);
         int[] uint30 = FastBase58.decode58(str, 1, endIndex);
         long msb = readMsb((((long) uint30[0] << 30) | uint30[1]), version);
         long lsb = readLsb(((long) uint30[2] << 30) | uint30[3], variant);
-        return new UUID(msb, lsb);
+        dst[dstOffset] = msb;
+        dst[dstOffset + 1] = lsb;
     }
 
-    private static UUID fromBase58Lex(String str) {
+    private static void decodeBase58Lex(CharSequence str, long[] dst, int dstOffset) {
         int version = readVersion(str);
         int variantLex = readVariant(str, VARIANT_LEXICAL_INVERSE_ALPHABET);
         int[] uint30 = FastBase58.decode58Lex(str, 1, 21);
         long msb = readMsb((((long) uint30[0] << 30) | uint30[1]), version);
         long lsb = readLsbLex(((long) uint30[2] << 30) | uint30[3], variantLex);
-        return new UUID(msb, lsb);
+        dst[dstOffset] = msb;
+        dst[dstOffset + 1] = lsb;
+    }
+
+    private static void decodeBase62(CharSequence str, long[] dst, int dstOffset) {
+        int version = readVersion(str);
+        FastBase62.decode62(str, 1, dst, dstOffset);
+        long low = dst[dstOffset + 1];
+        dst[dstOffset] = readMsb(dst[dstOffset], version);
+        dst[dstOffset + 1] = readLsb(low >>> 4, (int) low & 15);
+    }
+
+    private static void decodeBase62Lex(CharSequence str, long[] dst, int dstOffset) {
+        int version = readVersion(str);
+        FastBase62.decode62(str, 1, dst, dstOffset);
+        long low = dst[dstOffset + 1];
+        dst[dstOffset] = readMsb(dst[dstOffset], version);
+        dst[dstOffset + 1] = readLsbLex(low >>> 4, (int) low & 15);
     }
 
-    private static UUID fromBase64(String str) {
+    private static void decodeBase64(CharSequence str, long[] dst, int dstOffset) {
         long msb = readUInt60(str, 1, 10, BASE_64_INVERSE_ALPHABET, 6);
         long lsb = readUInt60(str, 11, 10, BASE_64_INVERSE_ALPHABET, 6);
         int version = readVersion(str);
         int variant = readVariant(str, BASE_32_INVERSE_ALPHABET);
-        return new UUID(readMsb(msb, version), readLsb(lsb, variant));
+        dst[dstOffset] = readMsb(msb, version);
+        dst[dstOffset + 1] = readLsb(lsb, variant);
     }
 
-    private static UUID fromBase64Lex(String str) {
+    private static void decodeBase64Lex(CharSequence str, long[] dst, int dstOffset) {
         long msb = readUInt60(str, 1, 10, BASE_64_LEXICAL_INVERSE_ALPHABET, 6);
         long lsb = readUInt60(str, 11, 10, BASE_64_LEXICAL_INVERSE_ALPHABET, 6);
         int version = readVersion(str);
         int variantLex = readVariant(str, VARIANT_LEXICAL_INVERSE_ALPHABET);
-        return new UUID(readMsb(msb, version), readLsbLex(lsb, variantLex));
+        dst[dstOffset] = readMsb(msb, version);
+        dst[dstOffset + 1] = readLsbLex(lsb, variantLex);
     }
 
+    /**
+     * Parses an {@link UUID} from a string in one of the formats
+     * {@link UuidFormat#CANONICAL}, {@link UuidFormat#NCNAME_32},
+     * {@link UuidFormat#NCNAME_58}, {@link UuidFormat#NCNAME_64},
+     * {@link UuidFormat#NCNAME_32_LEX}, {@link UuidFormat#NCNAME_58_LEX}
+     * or {@link UuidFormat#NCNAME_64_LEX}.
+     * <p>
+     * The format is detected from the length of the string and from the
+     * last character of the string.
+     * <p>
+     * The formats {@link UuidFormat#NCNAME_36}, {@link UuidFormat#NCNAME_62},
+     * {@link UuidFormat#NCNAME_36_LEX} and {@link UuidFormat#NCNAME_62_LEX}
+     * are not detected. A string in the formats {@code NCNAME_36} or
+     * {@code NCNAME_36_LEX} is rejected, because no detected format has 25
+     * characters. A string in the formats {@code NCNAME_62} or
+     * {@code NCNAME_62_LEX} has the same length as {@code NCNAME_64}, and
+     * its characters are in the {@code base64-url} alphabet. It is parsed as
+     * {@code NCNAME_64} or {@code NCNAME_64_LEX} depending on its last
+     * character, which yields a <b>different</b> {@link UUID} without an
+     * exception for most strings. Strings in these formats must be parsed
+     * with {@link #fromString(String, UuidFormat)}.
+     *
+     * @param str a string
+     * @return the parsed {@link UUID}
+     * @throws IllegalArgumentException if the string is not in one of the formats
+     */
     public static UUID fromString(String str) {
-        char variantChar = str.charAt(str.length() - 1);
-        int isLexical = (variantChar < 128) && VARIANT_LEXICAL_INVERSE_ALPHABET[variantChar] >= 0 ? -22 : 0;
-        return switch (str.length() + isLexical) {
-            case 0 -> fromBase64Lex(str);
-            case 1 -> fromBase58Lex(str);
-            case 4 -> fromBase32Lex(str);
-            case 22 -> fromBase64(str);
-            case 23 -> fromBase58(str);
-            case 26 -> fromBase32(str);
-            default -> UUID.fromString(str);
+        UuidFormat format = detectFormat(str);
+        return format == null ? UUID.fromString(str) : fromString(str, format);
+    }
+
+    /**
+     * Detects the format of the specified string with the heuristic of
+     * {@link #fromString(String)}. Never returns one of the base36 or base62
+     * formats, see {@link #fromString(String)}.
+     *
+     * @param str a string
+     * @return the detected format, or null if the string is not in one of
+     * the NCName formats
+     */
+    static UuidFormat detectFormat(CharSequence str) {
+        int length = str.length();
+        if (length == 0) {
+            return null;
+        }
+        int isLexical = isLexicalVariant(str.charAt(length - 1)) ? -22 : 0;
+        return switch (length + isLexical) {
+            case 0 -> UuidFormat.NCNAME_64_LEX;
+            case 1 -> UuidFormat.NCNAME_58_LEX;
+            case 4 -> UuidFormat.NCNAME_32_LEX;
+            case 22 -> UuidFormat.NCNAME_64;
+            case 23 -> UuidFormat.NCNAME_58;
+            case 26 -> UuidFormat.NCNAME_32;
+            default -> null;
         };
     }
 
-    private static long getLsb(UUID uuid) {
-        return uuid.getLeastSignificantBits() & 0x0fff_ffffffffffffL;
+    /**
+     * Returns true if the specified character is in the bookend-lex alphabet,
+     * which the heuristic of {@link #fromString(String)} takes as the variant
+     * character of a lexical format.
+     */
+    static boolean isLexicalVariant(char variantChar) {
+        return variantChar < 128 && VARIANT_LEXICAL_INVERSE_ALPHABET[variantChar] >= 0;
+    }
+
+    /**
+     * Parses an {@link UUID} from a string in the specified format.
+     *
+     * @param str    a string
+     * @param format the format of the string
+     * @return the parsed {@link UUID}
+     * @throws IllegalArgumentException if the string is not in the specified format
+     */
+    public static UUID fromString(String str, UuidFormat format) {
+        long[] bits = new long[2];
+        decode(str, format, bits, 0);
+        return new UUID(bits[0], bits[1]);
+    }
+
+    /**
+     * Parses the bits of an {@link UUID} from a character sequence in the
+     * specified format, without creating an {@link UUID} object.
+     *
+     * @param str       a character sequence
+     * @param format    the format of the character sequence
+     * @param dst       the destination array, receives the most significant bits
+     *                  at {@code dstOffset}, and the least significant bits at
+     *                  {@code dstOffset + 1}
+     * @param dstOffset the offset in the destination array
+     * @throws IllegalArgumentException  if the character sequence is not in the specified format
+     * @throws IndexOutOfBoundsException if the destination array is too small
+     */
+    public static void decode(CharSequence str, UuidFormat format, long[] dst, int dstOffset) {
+        checkLength(str, format);
+        Objects.checkFromIndexSize(dstOffset, 2, dst.length);
+        switch (format) {
+            case CANONICAL -> decodeCanonical(str, dst, dstOffset);
+            case NCNAME_32 -> decodeBase32(str, dst, dstOffset);
+            case NCNAME_58 -> decodeBase58(str, dst, dstOffset);
+            case NCNAME_64 -> decodeBase64(str, dst, dstOffset);
+            case NCNAME_32_LEX -> decodeBase32Lex(str, dst, dstOffset);
+            case NCNAME_58_LEX -> decodeBase58Lex(str, dst, dstOffset);
+            case NCNAME_64_LEX -> decodeBase64Lex(str, dst, dstOffset);
+            case NCNAME_36 -> decodeBase36(str, dst, dstOffset);
+            case NCNAME_62 -> decodeBase62(str, dst, dstOffset);
+            case NCNAME_36_LEX -> decodeBase36Lex(str, dst, dstOffset);
+            case NCNAME_62_LEX -> decodeBase62Lex(str, dst, dstOffset);
+        }
+    }
+
+    /**
+     * Parses the canonical format with exactly 36 characters.
+     * Accepts upper and lower case hex digits.
+     */
+    private static void decodeCanonical(CharSequence str, long[] dst, int dstOffset) {
+        checkCanonicalDashes(str);
+        dst[dstOffset] = readCanonicalMsb(str);
+        dst[dstOffset + 1] = readCanonicalLsb(str);
+    }
+
+    private static void checkCanonicalDashes(CharSequence str) {
+        if (str.charAt(8) != '-' || str.charAt(13) != '-' || str.charAt(18) != '-' || str.charAt(23) != '-') {
+            throw new IllegalArgumentException("Illegal canonical UUID: " + str);
+        }
+    }
+
+    private static long readCanonicalMsb(CharSequence str) {
+        return readUInt60(str, 0, 8, BASE_16_INVERSE_ALPHABET, 4) << 32
+                | readUInt60(str, 9, 4, BASE_16_INVERSE_ALPHABET, 4) << 16
+                | readUInt60(str, 14, 4, BASE_16_INVERSE_ALPHABET, 4);
+    }
+
+    private static long readCanonicalLsb(CharSequence str) {
+        return readUInt60(str, 19, 4, BASE_16_INVERSE_ALPHABET, 4) << 48
+                | readUInt60(str, 24, 12, BASE_16_INVERSE_ALPHABET, 4);
+    }
+
+    /**
+     * Throws an {@link IllegalArgumentException} if the specified character
+     * sequence does not have the length of the specified format.
+     */
+    static void checkLength(CharSequence str, UuidFormat format) {
+        if (str.length() != format.length()) {
+            throw new IllegalArgumentException("Illegal length for " + format + ": " + str.length());
+        }
+    }
+
+    // The field reader. The following methods read the characters either from
+    // the character sequence cs, or from the byte array b at offset off,
+    // whichever is not null. This avoids creating a wrapper object for the
+    // byte array. The caller must have checked the length of the input.
+    // The field reader accepts exactly the same strings as decode.
+
+    /**
+     * Decodes the most and least significant bits of an {@link UUID} without
+     * creating objects, and passes them to the specified operator.
+     *
+     * @return the value of the operator
+     * @throws IllegalArgumentException if the input is not in the format
+     */
+    static long readFields(CharSequence cs, byte[] b, int off, UuidFormat format, LongBinaryOperator op) {
+        return switch (format) {
+            case CANONICAL -> {
+                if (charAt(cs, b, off, 8) != '-' || charAt(cs, b, off, 13) != '-'
+                        || charAt(cs, b, off, 18) != '-' || charAt(cs, b, off, 23) != '-') {
+                    throw new IllegalArgumentException("Illegal canonical UUID");
+                }
+                long msb = readBits(cs, b, off, 0, 8, BASE_16_INVERSE_ALPHABET, 4) << 32
+                        | readBits(cs, b, off, 9, 4, BASE_16_INVERSE_ALPHABET, 4) << 16
+                        | readBits(cs, b, off, 14, 4, BASE_16_INVERSE_ALPHABET, 4);
+                long lsb = readBits(cs, b, off, 19, 4, BASE_16_INVERSE_ALPHABET, 4) << 48
+                        | readBits(cs, b, off, 24, 12, BASE_16_INVERSE_ALPHABET, 4);
+                yield op.applyAsLong(msb, lsb);
+            }
+            case NCNAME_32 -> readPowerOfTwo(cs, b, off, 12, BASE_32_INVERSE_ALPHABET, 5, false, op);
+            case NCNAME_32_LEX -> readPowerOfTwo(cs, b, off, 12, BASE_32_HEX_INVERSE_ALPHABET, 5, true, op);
+            case NCNAME_64 -> readPowerOfTwo(cs, b, off, 10, BASE_64_INVERSE_ALPHABET, 6, false, op);
+            case NCNAME_64_LEX -> readPowerOfTwo(cs, b, off, 10, BASE_64_LEXICAL_INVERSE_ALPHABET, 6, true, op);
+            case NCNAME_58 -> readBase58(cs, b, off, base58End(cs, b, off), BASE_32_INVERSE_ALPHABET, false, op);
+            case NCNAME_58_LEX -> readBase58(cs, b, off, 22, VARIANT_LEXICAL_INVERSE_ALPHABET, true, op);
+            case NCNAME_36 -> readBase36Or62(cs, b, off, 25, 36, false, op);
+            case NCNAME_36_LEX -> readBase36Or62(cs, b, off, 25, 36, true, op);
+            case NCNAME_62 -> readBase36Or62(cs, b, off, 22, 62, false, op);
+            case NCNAME_62_LEX -> readBase36Or62(cs, b, off, 22, 62, true, op);
+        };
     }
 
-    private static long getLsbLex(UUID uuid) {
-         return Long.compress(uuid.getLeastSignificantBits(), 0x3fff_fffffffffffcL);
+    /**
+     * Returns the index after the last base58 digit of a {@link UuidFormat#NCNAME_58}
+     * string. The digits are padded to the right with at most 6 '_' characters.
+     */
+    static int base58End(CharSequence cs, byte[] b, int off) {
+        int end = 22;
+        while (end > 1 && charAt(cs, b, off, end - 1) == '_') {
+            end--;
+        }
+        if (end < 16) {
+            throw new IllegalArgumentException("UUID string has too many '_' characters.");
+        }
+        return end;
     }
 
-    private static long getMsb(UUID uuid) {
-        return Long.compress(uuid.getMostSignificantBits(), 0xffffffff_ffff_0fffL);
+    /**
+     * Reads a format with a version character, two data fields with
+     * {@code fieldLength} characters each, and a variant character.
+     */
+    private static long readPowerOfTwo(CharSequence cs, byte[] b, int off, int fieldLength, byte[] inv, int baseShift,
+                                       boolean lexical, LongBinaryOperator op) {
+        int version = readDigit(cs, b, off, 0, BASE_32_INVERSE_ALPHABET);
+        long msbData = readBits(cs, b, off, 1, fieldLength, inv, baseShift);
+        long lsbData = readBits(cs, b, off, 1 + fieldLength, fieldLength, inv, baseShift);
+        int last = 1 + 2 * fieldLength;
+        return op.applyAsLong(readMsb(msbData, version), lexical
+                ? readLsbLex(lsbData, readDigit(cs, b, off, last, VARIANT_LEXICAL_INVERSE_ALPHABET))
+                : readLsb(lsbData, readDigit(cs, b, off, last, BASE_32_INVERSE_ALPHABET)));
     }
 
-    private static int getVariant(UUID uuid) {
-        return (int) (uuid.getLeastSignificantBits() >>> 60);
+    /**
+     * Reads a base58 format, where the characters in the range [1, end)
+     * represent the 120-bit number {@code msb-data(60) || lsb-data(60)}.
+     */
+    private static long readBase58(CharSequence cs, byte[] b, int off, int end, byte[] variantInv,
+                                   boolean lexical, LongBinaryOperator op) {
+        int version = readDigit(cs, b, off, 0, BASE_32_INVERSE_ALPHABET);
+        int variant = readDigit(cs, b, off, 22, variantInv);
+        long hi = 0, lo = 0;
+        for (int i = 1; i < end; i++) {
+            int d = readPositionalDigit(cs, b, off, i, 58);
+            hi = hi * 58 + Math.unsignedMultiplyHigh(lo, 58);
+            lo = lo * 58 + d;
+            if (Long.compareUnsigned(lo, d) < 0) {
+                hi++;
+            }
+        }
+        if ((hi >>> 56) != 0) {
+            throw new IllegalArgumentException("Input has more than 120 data bits.");
+        }
+        long msbData = hi << 4 | lo >>> 60;
+        long lsbData = lo & 0x0fff_ffffffffffffL;
+        return op.applyAsLong(readMsb(msbData, version), lexical
+                ? readLsbLex(lsbData, variant)
+                : readLsb(lsbData, variant));
     }
 
-    private static int getVariantLex(UUID uuid) {
-        return (int) Long.compress(uuid.getLeastSignificantBits(), 0xc000_000000000003L);
+    /**
+     * Reads a base36 or base62 format, where the characters in the range
+     * [1, end) represent the 124-bit number
+     * {@code msb-data(60) || lsb-data(60) || variant(4)}.
+     */
+    private static long readBase36Or62(CharSequence cs, byte[] b, int off, int end, int radix,
+                                       boolean lexical, LongBinaryOperator op) {
+        int version = readDigit(cs, b, off, 0, BASE_32_INVERSE_ALPHABET);
+        long hi = 0, lo = 0;
+        for (int i = 1; i < end; i++) {
+            int d = readPositionalDigit(cs, b, off, i, radix);
+            hi = hi * radix + Math.unsignedMultiplyHigh(lo, radix);
+            lo = lo * radix + d;
+            if (Long.compareUnsigned(lo, d) < 0) {
+                hi++;
+            }
+        }
+        if ((hi >>> 60) != 0) {
+            throw new IllegalArgumentException("Input has more than 124 data bits.");
+        }
+        int variant = (int) lo & 15;
+        long lsbData = lo >>> 4;
+        return op.applyAsLong(readMsb(hi, version), lexical
+                ? readLsbLex(lsbData, variant)
+                : readLsb(lsbData, variant));
+    }
+
+    /**
+     * Reads {@code len} digits of a format that is based on a power of two.
+     */
+    static long readBits(CharSequence cs, byte[] b, int off, int from, int len, byte[] inv, int baseShift) {
+        long bits = 0;
+        for (int i = from, end = from + len; i < end; i++) {
+            bits = (bits << baseShift) | readDigit(cs, b, off, i, inv);
+        }
+        return bits;
+    }
+
+    private static int readPositionalDigit(CharSequence cs, byte[] b, int off, int i, int radix) {
+        char ch = charAt(cs, b, off, i);
+        int d = switch (radix) {
+            case 36 -> FastBase36.lookupDigit(ch);
+            case 58 -> FastBase58.lookupDigit(ch);
+            default -> FastBase62.lookupDigit(ch);
+        };
+        if (d < 0) throw new IllegalArgumentException("Illegal character " + ch);
+        return d;
+    }
+
+    static int readDigit(CharSequence cs, byte[] b, int off, int i, byte[] inv) {
+        char ch = charAt(cs, b, off, i);
+        int d = lookupDigit(inv, ch);
+        if (d < 0) throw new IllegalArgumentException("Illegal character " + ch);
+        return d;
+    }
+
+    private static char charAt(CharSequence cs, byte[] b, int off, int i) {
+        return cs != null ? cs.charAt(i) : (char) (b[off + i] & 0xff);
+    }
+
+    private static long getLsb(long lsb) {
+        return lsb & 0x0fff_ffffffffffffL;
+    }
+
+    static long getLsbLex(long lsb) {
+         return Long.compress(lsb, 0x3fff_fffffffffffcL);
+    }
+
+    static long getMsb(long msb) {
+        return Long.compress(msb, 0xffffffff_ffff_0fffL);
+    }
+
+    private static int getVariant(long lsb) {
+        return (int) (lsb >>> 60);
+    }
+
+    static int getVariantLex(long lsb) {
+        return (int) Long.compress(lsb, 0xc000_000000000003L);
+    }
+
+    private static int getVersion(long msb) {
+        return (int) (msb >>> 12) & 0xf;
     }
 
     /**
@@ -194,16 +547,16 @@ public class UuidNCName {
         return ((long) variant << 60) | bits;
     }
 
-    private static long readLsbLex(long bits, int variant) {
+    static long readLsbLex(long bits, int variant) {
         return Long.expand(variant, 0xc000_000000000003L)
                 | bits << 2;
     }
 
-    private static long readMsb(long bits, int version) {
+    static long readMsb(long bits, int version) {
         return ((long) version << 12) | Long.expand(bits, 0xffffffff_ffff_0fffL);
     }
 
-    private static long readUInt60(String str, int offset, int len, byte[] inverseAlphabet, int baseShift) {
+    private static long readUInt60(CharSequence str, int offset, int len, byte[] inverseAlphabet, int baseShift) {
         long bits = 0;
         for (int i = 0; i < len; i++) {
             char ch = str.charAt(offset + i);
@@ -214,80 +567,201 @@ public class UuidNCName {
         return bits;
     }
 
-    private static int readVariant(String str, byte[] charToBaseMap) {
+    private static int readVariant(CharSequence str, byte[] charToBaseMap) {
         char ch = str.charAt(str.length() - 1);
         int variant = lookupDigit(charToBaseMap, ch);
         if (variant < 0) throw new IllegalArgumentException("Illegal variant character: " + (char) ch);
         return variant;
     }
 
-    private static int readVersion(String str) {
+    private static int readVersion(CharSequence str) {
         char ch = str.charAt(0);
         int version = lookupDigit(BASE_32_INVERSE_ALPHABET, ch);
         if (version < 0) throw new IllegalArgumentException("Illegal version character: " + (char) ch);
         return version;
     }
 
-    private static String toBase32(UUID uuid) {
-        byte[] str = new byte[26];
-        str[0] = BASE_32_LOWER_CASE_ALPHABET[uuid.version()];
-        str[25] = BASE_32_LOWER_CASE_ALPHABET[getVariant(uuid)];
-        writeUInt60(str, 1, 12, getMsb(uuid), BASE_32_LOWER_CASE_ALPHABET, 5, 31);
-        writeUInt60(str, 13, 12, getLsb(uuid), BASE_32_LOWER_CASE_ALPHABET, 5, 31);
-        return new String(str, StandardCharsets.ISO_8859_1);
+    private static void writeBase32(long msb, long lsb, byte[] str, int offset) {
+        writeBase32(getVersion(msb), getMsb(msb), getLsb(lsb), getVariant(lsb), str, offset);
     }
 
-    private static String toBase32Lex(UUID uuid) {
-        byte[] str = new byte[26];
-        str[0] = BASE_32_LOWER_CASE_ALPHABET[uuid.version()];
-        str[25] = VARIANT_LEXICAL_LOWER_CASE_ALPHABET[getVariantLex(uuid)];
-        writeUInt60(str, 1, 12, getMsb(uuid), BASE_32_HEX_LOWER_CASE_ALPHABET, 5, 31);
-        writeUInt60(str, 13, 12, getLsbLex(uuid), BASE_32_HEX_LOWER_CASE_ALPHABET, 5, 31);
-        return new String(str, StandardCharsets.ISO_8859_1);
+    private static void writeBase32(int version, long msb60, long lsb60, int variant, byte[] str, int offset) {
+        str[offset] = BASE_32_LOWER_CASE_ALPHABET[version];
+        str[offset + 25] = BASE_32_LOWER_CASE_ALPHABET[variant];
+        if (WideTableEncoder.WIDE_BASE_32) {
+            WideTableEncoder.write(str, offset + 1, 12, msb60, BASE_32_LOWER_CASE_WIDE_TABLE, 10, 1023);
+            WideTableEncoder.write(str, offset + 13, 12, lsb60, BASE_32_LOWER_CASE_WIDE_TABLE, 10, 1023);
+        } else {
+            writeUInt60(str, offset + 1, 12, msb60, BASE_32_LOWER_CASE_ALPHABET, 5, 31);
+            writeUInt60(str, offset + 13, 12, lsb60, BASE_32_LOWER_CASE_ALPHABET, 5, 31);
+        }
     }
 
-    private static String toBase58(UUID uuid) {
-        int offset = 2;
-        byte[] b = new byte[23 + offset];
-        long msb = getMsb(uuid);
-        long lsb = getLsb(uuid);
-        FastBase58.encode58(msb, lsb, b, offset + 1);
-        b[offset + 22] = BASE_32_UPPER_CASE_ALPHABET[getVariant(uuid)];
-        b[offset] = BASE_32_UPPER_CASE_ALPHABET[uuid.version()];
-        return new String(b, offset, 23, StandardCharsets.ISO_8859_1);
-    }
-
-    private static String toBase58Lex(UUID uuid) {
-        int offset = 2;
-        byte[] b = new byte[23 + offset];
-        long msb = getMsb(uuid);
-        long lsb = getLsbLex(uuid);
-        FastBase58.encode58Lex(msb, lsb, b, offset + 1);
-        b[offset + 22] = VARIANT_LEXICAL_UPPER_CASE_ALPHABET[getVariantLex(uuid)];
-        b[offset] = BASE_32_UPPER_CASE_ALPHABET[uuid.version()];
-        return new String(b, offset, 23, StandardCharsets.ISO_8859_1);
-    }
-
-    private static String toBase64(UUID uuid) {
-        byte[] str = new byte[22];
-        str[0] = BASE_32_UPPER_CASE_ALPHABET[uuid.version()];
-        str[21] = BASE_32_UPPER_CASE_ALPHABET[getVariant(uuid)];
-        writeUInt60(str, 1, 10, getMsb(uuid), BASE_64_URL_SAFE_ALPHABET, 6, 63);
-        writeUInt60(str, 11, 10, getLsb(uuid), BASE_64_URL_SAFE_ALPHABET, 6, 63);
-        return new String(str, StandardCharsets.ISO_8859_1);
+    private static void writeBase32Lex(long msb, long lsb, byte[] str, int offset) {
+        writeBase32Lex(getVersion(msb), getMsb(msb), getLsbLex(lsb), getVariantLex(lsb), str, offset);
     }
 
-    private static String toBase64Lex(UUID uuid) {
-        byte[] str = new byte[22];
-        str[0] = BASE_32_UPPER_CASE_ALPHABET[uuid.version()];
-        str[21] = VARIANT_LEXICAL_UPPER_CASE_ALPHABET[getVariantLex(uuid)];
-        writeUInt60(str, 1, 10, getMsb(uuid), BASE_64_LEXICAL_ALPHABET, 6, 63);
-        writeUInt60(str, 11, 10, getLsbLex(uuid), BASE_64_LEXICAL_ALPHABET, 6, 63);
-        return new String(str, StandardCharsets.ISO_8859_1);
+    private static void writeBase32Lex(int version, long msb60, long lsbLex60, int variantLex, byte[] str, int offset) {
+        str[offset] = BASE_32_LOWER_CASE_ALPHABET[version];
+        str[offset + 25] = VARIANT_LEXICAL_LOWER_CASE_ALPHABET[variantLex];
+        if (WideTableEncoder.WIDE_BASE_32) {
+            WideTableEncoder.write(str, offset + 1, 12, msb60, BASE_32_HEX_LOWER_CASE_WIDE_TABLE, 10, 1023);
+            WideTableEncoder.write(str, offset + 13, 12, lsbLex60, BASE_32_HEX_LOWER_CASE_WIDE_TABLE, 10, 1023);
+        } else {
+            writeUInt60(str, offset + 1, 12, msb60, BASE_32_HEX_LOWER_CASE_ALPHABET, 5, 31);
+            writeUInt60(str, offset + 13, 12, lsbLex60, BASE_32_HEX_LOWER_CASE_ALPHABET, 5, 31);
+        }
     }
 
-    private static String toCanonical(UUID uuid) {
-        return uuid.toString();
+    private static void writeBase36(long msb, long lsb, byte[] str, int offset) {
+        str[offset] = BASE_32_LOWER_CASE_ALPHABET[getVersion(msb)];
+        FastBase36.encode36(getMsb(msb), getLsb(lsb) << 4 | getVariant(lsb), str, offset + 1);
+    }
+
+    private static void writeBase36Lex(long msb, long lsb, byte[] str, int offset) {
+        str[offset] = BASE_32_LOWER_CASE_ALPHABET[getVersion(msb)];
+        FastBase36.encode36(getMsb(msb), getLsbLex(lsb) << 4 | getVariantLex(lsb), str, offset + 1);
+    }
+
+    /**
+     * Returns an array with the base58 string at offset 2.
+     * <p>
+     * {@link FastBase58} uses the first 16 bytes of the array as scratch space.
+     */
+    private static byte[] toBase58(long msb, long lsb) {
+        byte[] b = new byte[23 + 2];
+        writeBase58(msb, lsb, b, 2);
+        return b;
+    }
+
+    /**
+     * Returns an array with the base58-lex string at offset 2.
+     * <p>
+     * {@link FastBase58} uses the first 16 bytes of the array as scratch space.
+     */
+    private static byte[] toBase58Lex(long msb, long lsb) {
+        byte[] b = new byte[23 + 2];
+        writeBase58Lex(msb, lsb, b, 2);
+        return b;
+    }
+
+    /**
+     * Writes the base58 string at the specified offset.
+     * <p>
+     * {@link FastBase58} uses the first 16 bytes of the array as scratch space.
+     */
+    private static void writeBase58(long msb, long lsb, byte[] b, int offset) {
+        FastBase58.encode58(getMsb(msb), getLsb(lsb), b, offset + 1);
+        b[offset + 22] = BASE_32_UPPER_CASE_ALPHABET[getVariant(lsb)];
+        b[offset] = BASE_32_UPPER_CASE_ALPHABET[getVersion(msb)];
+    }
+
+    /**
+     * Writes the base58-lex string at the specified offset.
+     * <p>
+     * {@link FastBase58} uses the first 16 bytes of the array as scratch space.
+     */
+    private static void writeBase58Lex(long msb, long lsb, byte[] b, int offset) {
+        FastBase58.encode58Lex(getMsb(msb), getLsbLex(lsb), b, offset + 1);
+        b[offset + 22] = VARIANT_LEXICAL_UPPER_CASE_ALPHABET[getVariantLex(lsb)];
+        b[offset] = BASE_32_UPPER_CASE_ALPHABET[getVersion(msb)];
+    }
+
+    /**
+     * Writes a batch of base58 or base58-lex strings with the specified
+     * distance between the strings, with {@link FastBase58#encode58Lanes}
+     * for {@value FastBase58#LANES} strings at a time.
+     */
+    static void writeBase58Batch(long[] src, int srcOffset, byte[] dst, int dstOffset, int stride,
+                                 int count, boolean lexical) {
+        final int lanes = FastBase58.LANES, length = 23;
+        long[] numbers = new long[2 * lanes];
+        byte[] tail = null;
+        for (int i = 0; i < count; i += lanes) {
+            int n = Math.min(lanes, count - i);
+            for (int k = 0; k < lanes; k++) {
+                // Unused lanes of the last batch encode zeros
+                long msb = k < n ? src[srcOffset + 2 * (i + k)] : 0;
+                long lsb = k < n ? src[srcOffset + 2 * (i + k) + 1] : 0;
+                numbers[2 * k] = getMsb(msb);
+                numbers[2 * k + 1] = lexical ? getLsbLex(lsb) : getLsb(lsb);
+            }
+            byte[] out = dst;
+            int offset = dstOffset + i * stride, outStride = stride;
+            if (n < lanes) {
+                if (tail == null) {
+                    tail = new byte[lanes * length];
+                }
+                out = tail;
+                offset = 0;
+                outStride = length;
+            }
+            FastBase58.encode58Lanes(numbers, out, offset + 1, outStride, lexical);
+            for (int k = 0; k < n; k++) {
+                long msb = src[srcOffset + 2 * (i + k)], lsb = src[srcOffset + 2 * (i + k) + 1];
+                out[offset + k * outStride] = BASE_32_UPPER_CASE_ALPHABET[getVersion(msb)];
+                out[offset + k * outStride + 22] = lexical
+                        ? VARIANT_LEXICAL_UPPER_CASE_ALPHABET[getVariantLex(lsb)]
+                        : BASE_32_UPPER_CASE_ALPHABET[getVariant(lsb)];
+                if (out == tail) {
+                    System.arraycopy(tail, k * length, dst, dstOffset + (i + k) * stride, length);
+                }
+            }
+        }
+    }
+
+    private static void writeBase62(long msb, long lsb, byte[] str, int offset) {
+        str[offset] = BASE_32_UPPER_CASE_ALPHABET[getVersion(msb)];
+        FastBase62.encode62(getMsb(msb), getLsb(lsb) << 4 | getVariant(lsb), str, offset + 1);
+    }
+
+    private static void writeBase62Lex(long msb, long lsb, byte[] str, int offset) {
+        str[offset] = BASE_32_UPPER_CASE_ALPHABET[getVersion(msb)];
+        FastBase62.encode62(getMsb(msb), getLsbLex(lsb) << 4 | getVariantLex(lsb), str, offset + 1);
+    }
+
+    private static void writeBase64(long msb, long lsb, byte[] str, int offset) {
+        writeBase64(getVersion(msb), getMsb(msb), getLsb(lsb), getVariant(lsb), str, offset);
+    }
+
+    private static void writeBase64(int version, long msb60, long lsb60, int variant, byte[] str, int offset) {
+        str[offset] = BASE_32_UPPER_CASE_ALPHABET[version];
+        str[offset + 21] = BASE_32_UPPER_CASE_ALPHABET[variant];
+        if (WideTableEncoder.WIDE_BASE_64) {
+            WideTableEncoder.write(str, offset + 1, 10, msb60, BASE_64_URL_SAFE_WIDE_TABLE, 12, 4095);
+            WideTableEncoder.write(str, offset + 11, 10, lsb60, BASE_64_URL_SAFE_WIDE_TABLE, 12, 4095);
+        } else {
+            writeUInt60(str, offset + 1, 10, msb60, BASE_64_URL_SAFE_ALPHABET, 6, 63);
+            writeUInt60(str, offset + 11, 10, lsb60, BASE_64_URL_SAFE_ALPHABET, 6, 63);
+        }
+    }
+
+    private static void writeBase64Lex(long msb, long lsb, byte[] str, int offset) {
+        writeBase64Lex(getVersion(msb), getMsb(msb), getLsbLex(lsb), getVariantLex(lsb), str, offset);
+    }
+
+    private static void writeBase64Lex(int version, long msb60, long lsbLex60, int variantLex, byte[] str, int offset) {
+        str[offset] = BASE_32_UPPER_CASE_ALPHABET[version];
+        str[offset + 21] = VARIANT_LEXICAL_UPPER_CASE_ALPHABET[variantLex];
+        if (WideTableEncoder.WIDE_BASE_64) {
+            WideTableEncoder.write(str, offset + 1, 10, msb60, BASE_64_LEXICAL_WIDE_TABLE, 12, 4095);
+            WideTableEncoder.write(str, offset + 11, 10, lsbLex60, BASE_64_LEXICAL_WIDE_TABLE, 12, 4095);
+        } else {
+            writeUInt60(str, offset + 1, 10, msb60, BASE_64_LEXICAL_ALPHABET, 6, 63);
+            writeUInt60(str, offset + 11, 10, lsbLex60, BASE_64_LEXICAL_ALPHABET, 6, 63);
+        }
+    }
+
+    private static void writeCanonical(long msb, long lsb, byte[] str, int offset) {
+        writeUInt60(str, offset, 8, msb >>> 32, BASE_16_LOWER_CASE_ALPHABET, 4, 15);
+        str[offset + 8] = '-';
+        writeUInt60(str, offset + 9, 4, msb >>> 16, BASE_16_LOWER_CASE_ALPHABET, 4, 15);
+        str[offset + 13] = '-';
+        writeUInt60(str, offset + 14, 4, msb, BASE_16_LOWER_CASE_ALPHABET, 4, 15);
+        str[offset + 18] = '-';
+        writeUInt60(str, offset + 19, 4, lsb >>> 48, BASE_16_LOWER_CASE_ALPHABET, 4, 15);
+        str[offset + 23] = '-';
+        writeUInt60(str, offset + 24, 12, lsb, BASE_16_LOWER_CASE_ALPHABET, 4, 15);
     }
 
     private static byte[] toLowerCase(byte[] bytes) {
@@ -298,18 +772,921 @@ public class UuidNCName {
     }
 
     public static String toString(UUID uuid, UuidFormat format) {
+        if (format == UuidFormat.CANONICAL) {
+            return uuid.toString();
+        }
+        return toString(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), format);
+    }
+
+    /**
+     * Formats the specified {@link UUID} bits in the specified format.
+     *
+     * @param msb    the most significant bits of the {@link UUID}
+     * @param lsb    the least significant bits of the {@link UUID}
+     * @param format the format
+     * @return the formatted string
+     */
+    public static String toString(long msb, long lsb, UuidFormat format) {
+        return switch (format) {
+            case NCNAME_58 -> new String(toBase58(msb, lsb), 2, 23, StandardCharsets.ISO_8859_1);
+            case NCNAME_58_LEX -> new String(toBase58Lex(msb, lsb), 2, 23, StandardCharsets.ISO_8859_1);
+            default -> {
+                byte[] str = new byte[format.length()];
+                encode(msb, lsb, format, str, 0);
+                yield new String(str, StandardCharsets.ISO_8859_1);
+            }
+        };
+    }
+
+    /**
+     * Formats the specified {@link UUID} bits in the specified format,
+     * and writes the ASCII characters into the specified array.
+     *
+     * @param msb    the most significant bits of the {@link UUID}
+     * @param lsb    the least significant bits of the {@link UUID}
+     * @param format the format
+     * @param dst    the destination array
+     * @param offset the offset in the destination array
+     * @return the number of characters written, this is {@link UuidFormat#length()}
+     * @throws IndexOutOfBoundsException if the destination array is too small
+     */
+    public static int encode(long msb, long lsb, UuidFormat format, byte[] dst, int offset) {
+        Objects.checkFromIndexSize(offset, format.length(), dst.length);
+        switch (format) {
+            case CANONICAL -> writeCanonical(msb, lsb, dst, offset);
+            case NCNAME_32 -> writeBase32(msb, lsb, dst, offset);
+            case NCNAME_58 -> System.arraycopy(toBase58(msb, lsb), 2, dst, offset, 23);
+            case NCNAME_64 -> writeBase64(msb, lsb, dst, offset);
+            case NCNAME_32_LEX -> writeBase32Lex(msb, lsb, dst, offset);
+            case NCNAME_58_LEX -> System.arraycopy(toBase58Lex(msb, lsb), 2, dst, offset, 23);
+            case NCNAME_64_LEX -> writeBase64Lex(msb, lsb, dst, offset);
+            case NCNAME_36 -> writeBase36(msb, lsb, dst, offset);
+            case NCNAME_62 -> writeBase62(msb, lsb, dst, offset);
+            case NCNAME_36_LEX -> writeBase36Lex(msb, lsb, dst, offset);
+            case NCNAME_62_LEX -> writeBase62Lex(msb, lsb, dst, offset);
+        }
+        return format.length();
+    }
+
+    /**
+     * Like {@link #encode(long, long, UuidFormat, byte[], int)}, but uses the
+     * first {@value #SCRATCH_LENGTH} bytes of the destination array as scratch
+     * space for the base58 formats, instead of allocating a temporary array.
+     * <p>
+     * The offset must be at least {@value #SCRATCH_LENGTH}, and the caller must
+     * not keep data in the first {@value #SCRATCH_LENGTH} bytes of the array.
+     */
+    static void encodeWithScratch(long msb, long lsb, UuidFormat format, byte[] dst, int offset) {
+        switch (format) {
+            case NCNAME_58 -> writeBase58(msb, lsb, dst, offset);
+            case NCNAME_58_LEX -> writeBase58Lex(msb, lsb, dst, offset);
+            default -> encode(msb, lsb, format, dst, offset);
+        }
+    }
+
+    /**
+     * Converts a character sequence from one format to another.
+     *
+     * @param src       a character sequence
+     * @param srcFormat the format of the character sequence
+     * @param dstFormat the format of the result
+     * @return the converted string
+     * @throws IllegalArgumentException if the character sequence is not in the source format
+     * @see #transcode(CharSequence, UuidFormat, UuidFormat, byte[], int)
+     */
+    public static String transcode(CharSequence src, UuidFormat srcFormat, UuidFormat dstFormat) {
+        byte[] str = new byte[dstFormat.length()];
+        transcode(src, srcFormat, dstFormat, str, 0);
+        return new String(str, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Converts a character sequence from one format to another, and writes
+     * the ASCII characters into the specified array.
+     * <p>
+     * From the NCName formats with a power of two base, that is
+     * {@link UuidFormat#NCNAME_32}, {@link UuidFormat#NCNAME_64},
+     * {@link UuidFormat#NCNAME_32_LEX} and {@link UuidFormat#NCNAME_64_LEX},
+     * to these formats or to {@link UuidFormat#CANONICAL}, the digits are
+     * remapped directly: the 60-bit data fields are carried over as they are,
+     * and only the bits of the variant are moved with shifts, if the lexical
+     * layout of the source and the target differ. The bits of the
+     * {@link UUID} are not assembled. All other conversions decode the bits
+     * of the {@link UUID}, and encode them again.
+     *
+     * @param src       a character sequence
+     * @param srcFormat the format of the character sequence
+     * @param dstFormat the format of the result
+     * @param dst       the destination array
+     * @param offset    the offset in the destination array
+     * @return the number of characters written, this is {@code dstFormat.length()}
+     * @throws IllegalArgumentException  if the character sequence is not in the source format
+     * @throws IndexOutOfBoundsException if the destination array is too small
+     */
+    public static int transcode(CharSequence src, UuidFormat srcFormat, UuidFormat dstFormat, byte[] dst, int offset) {
+        checkLength(src, srcFormat);
+        Objects.checkFromIndexSize(offset, dstFormat.length(), dst.length);
+        if (srcFormat == UuidFormat.CANONICAL) {
+            checkCanonicalDashes(src);
+            encode(readCanonicalMsb(src), readCanonicalLsb(src), dstFormat, dst, offset);
+        } else if (isPowerOfTwo(srcFormat) && isPowerOfTwo(dstFormat)) {
+            writeFields(readHighFields(src, srcFormat), readLowFields(src, srcFormat), dstFormat, dst, offset);
+        } else {
+            long[] bits = new long[2];
+            decode(src, srcFormat, bits, 0);
+            encode(bits[0], bits[1], dstFormat, dst, offset);
+        }
+        return dstFormat.length();
+    }
+
+    private static boolean isPowerOfTwo(UuidFormat format) {
+        return switch (format) {
+            case CANONICAL, NCNAME_32, NCNAME_64, NCNAME_32_LEX, NCNAME_64_LEX -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Reads the version and the most significant data bits of a NCName format
+     * with a power of two base.
+     * <p>
+     * Returns the version in the upper 4 bits, and the 60 data bits without
+     * the version in the lower bits.
+     */
+    private static long readHighFields(CharSequence str, UuidFormat format) {
+        long msb60 = switch (format) {
+            case NCNAME_32 -> readUInt60(str, 1, 12, BASE_32_INVERSE_ALPHABET, 5);
+            case NCNAME_32_LEX -> readUInt60(str, 1, 12, BASE_32_HEX_INVERSE_ALPHABET, 5);
+            case NCNAME_64 -> readUInt60(str, 1, 10, BASE_64_INVERSE_ALPHABET, 6);
+            default -> readUInt60(str, 1, 10, BASE_64_LEXICAL_INVERSE_ALPHABET, 6);
+        };
+        int version = readVersion(str);
+        // Like readMsb, a version character beyond 15 sets a data bit
+        return (long) (version & 15) << 60 | msb60 | (long) (version >>> 4) << 12;
+    }
+
+    /**
+     * Reads the variant and the least significant data bits of a NCName
+     * format with a power of two base.
+     * <p>
+     * Returns the least significant bits of the {@link UUID}. They consist of
+     * the variant in the upper 4 bits, and the 60 data bits of the
+     * non-lexical formats. The lexical formats take bits 2 to 61 as data
+     * bits, and bits 0, 1, 62 and 63 as variant.
+     */
+    private static long readLowFields(CharSequence str, UuidFormat format) {
+        return switch (format) {
+            case NCNAME_32 -> readUInt60(str, 13, 12, BASE_32_INVERSE_ALPHABET, 5)
+                    | (long) readVariant(str, BASE_32_INVERSE_ALPHABET) << 60;
+            case NCNAME_64 -> readUInt60(str, 11, 10, BASE_64_INVERSE_ALPHABET, 6)
+                    | (long) readVariant(str, BASE_32_INVERSE_ALPHABET) << 60;
+            case NCNAME_32_LEX -> fromLex(readUInt60(str, 13, 12, BASE_32_HEX_INVERSE_ALPHABET, 5),
+                    readVariant(str, VARIANT_LEXICAL_INVERSE_ALPHABET));
+            default -> fromLex(readUInt60(str, 11, 10, BASE_64_LEXICAL_INVERSE_ALPHABET, 6),
+                    readVariant(str, VARIANT_LEXICAL_INVERSE_ALPHABET));
+        };
+    }
+
+    /**
+     * Writes the fields of {@link #readHighFields} and {@link #readLowFields}
+     * in a format with a power of two base.
+     */
+    private static void writeFields(long high, long lsb, UuidFormat format, byte[] dst, int offset) {
+        int version = (int) (high >>> 60);
+        long msb60 = high & 0x0fff_ffffffffffffL;
+        switch (format) {
+            case CANONICAL -> writeCanonical(msb60 >>> 12 << 16 | (long) version << 12 | msb60 & 0xfff, lsb, dst, offset);
+            case NCNAME_32 -> writeBase32(version, msb60, getLsb(lsb), getVariant(lsb), dst, offset);
+            case NCNAME_64 -> writeBase64(version, msb60, getLsb(lsb), getVariant(lsb), dst, offset);
+            case NCNAME_32_LEX -> writeBase32Lex(version, msb60, lsb >>> 2 & 0x0fff_ffffffffffffL,
+                    (int) (lsb >>> 60 & 0xc | lsb & 3), dst, offset);
+            default -> writeBase64Lex(version, msb60, lsb >>> 2 & 0x0fff_ffffffffffffL,
+                    (int) (lsb >>> 60 & 0xc | lsb & 3), dst, offset);
+        }
+    }
+
+    /**
+     * Assembles the least significant bits from the lexical data bits and the
+     * lexical variant with shifts. Equivalent to {@link #readLsbLex(long, int)}.
+     */
+    private static long fromLex(long lsbLex60, int variantLex) {
+        return (long) (variantLex & 0xc) << 60 | lsbLex60 << 2 | variantLex & 3;
+    }
+
+    /**
+     * Converts a batch of strings from one format to another.
+     * <p>
+     * The characters of the whole batch are encoded into a single buffer,
+     * from which the resulting strings are created. Each string is converted
+     * with {@link #transcode(CharSequence, UuidFormat, UuidFormat, byte[], int)}.
+     * <p>
+     * If no source format is specified, the format is detected for each
+     * string separately, with the heuristic of {@link #fromString(String)},
+     * so that a batch can hold strings in mixed formats. A string of 36
+     * characters is taken as {@link UuidFormat#CANONICAL}. The detection only
+     * looks at the length and at the last character of the string.
+     *
+     * @param src          the source strings
+     * @param srcPos       the index of the first source string
+     * @param srcFormat    the format of the source strings, or null to detect
+     *                     the format of each string
+     * @param dst          the destination array, may be the same as the source array
+     * @param dstPos       the index of the first destination string
+     * @param length       the number of strings
+     * @param dstFormat    the format of the destination strings
+     * @throws IllegalArgumentException  if a source string is not in the source format
+     * @throws IndexOutOfBoundsException if a range is outside its array
+     */
+    public static void transcode(String[] src, int srcPos, UuidFormat srcFormat,
+                                 String[] dst, int dstPos, int length, UuidFormat dstFormat) {
+        Objects.checkFromIndexSize(srcPos, length, src.length);
+        Objects.checkFromIndexSize(dstPos, length, dst.length);
+        int len = dstFormat.length();
+        byte[] buf = new byte[length * len];
+        for (int i = 0; i < length; i++) {
+            String str = src[srcPos + i];
+            UuidFormat format = srcFormat;
+            if (format == null) {
+                format = detectFormat(str);
+                if (format == null) {
+                    format = UuidFormat.CANONICAL;
+                }
+            }
+            transcode(str, format, dstFormat, buf, i * len);
+        }
+        for (int i = 0; i < length; i++) {
+            dst[dstPos + i] = new String(buf, i * len, len, StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    /**
+     * The encoders, indexed by the ordinal of the format.
+     */
+    private static final Encoder[] ENCODERS = new Encoder[UuidFormat.values().length];
+    /**
+     * The upper case encoders, indexed by the ordinal of the format, or null
+     * if the format is case-sensitive.
+     */
+    private static final Encoder[] UPPER_CASE_ENCODERS = new Encoder[UuidFormat.values().length];
+    /**
+     * The decoders, indexed by the ordinal of the format.
+     */
+    private static final Decoder[] DECODERS = new Decoder[UuidFormat.values().length];
+
+    static {
+        for (UuidFormat format : UuidFormat.values()) {
+            ENCODERS[format.ordinal()] = newEncoder(format, false);
+            if (isCaseInsensitive(format)) {
+                UPPER_CASE_ENCODERS[format.ordinal()] = newEncoder(format, true);
+            }
+            DECODERS[format.ordinal()] = newDecoder(format);
+        }
+    }
+
+    /**
+     * Returns true if the decoder of the specified format accepts upper and
+     * lower case characters.
+     */
+    private static boolean isCaseInsensitive(UuidFormat format) {
         return switch (format) {
-            case CANONICAL -> toCanonical(uuid);
-            case NCNAME_32 -> toBase32(uuid);
-            case NCNAME_58 -> toBase58(uuid);
-            case NCNAME_64 -> toBase64(uuid);
-            case NCNAME_32_LEX -> toBase32Lex(uuid);
-            case NCNAME_58_LEX -> toBase58Lex(uuid);
-            case NCNAME_64_LEX -> toBase64Lex(uuid);
+            case CANONICAL, NCNAME_32, NCNAME_32_LEX, NCNAME_36, NCNAME_36_LEX -> true;
+            default -> false;
         };
     }
 
-    private static void writeUInt60(byte[] str, int offset, int len, long val, byte[] alphabet, int baseShift, int mask) {
+    /**
+     * Returns an {@link Encoder} for the specified format, which writes the
+     * characters in the case of {@link #toString(long, long, UuidFormat)}.
+     *
+     * @param format the format
+     * @return the encoder
+     */
+    public static Encoder getEncoder(UuidFormat format) {
+        return ENCODERS[format.ordinal()];
+    }
+
+    /**
+     * Returns an {@link Encoder} for the specified format, and the specified
+     * case of the letters.
+     * <p>
+     * Only the formats, that are decoded case-insensitively can be written in
+     * upper case: {@link UuidFormat#CANONICAL}, {@link UuidFormat#NCNAME_32},
+     * {@link UuidFormat#NCNAME_32_LEX}, {@link UuidFormat#NCNAME_36} and
+     * {@link UuidFormat#NCNAME_36_LEX}.
+     *
+     * @param format    the format
+     * @param upperCase whether the encoder writes upper case letters
+     * @return the encoder
+     * @throws IllegalArgumentException if upper case is requested for a
+     *                                  case-sensitive format
+     */
+    public static Encoder getEncoder(UuidFormat format, boolean upperCase) {
+        if (!upperCase) {
+            return ENCODERS[format.ordinal()];
+        }
+        Encoder encoder = UPPER_CASE_ENCODERS[format.ordinal()];
+        if (encoder == null) {
+            throw new IllegalArgumentException("Format is case-sensitive: " + format);
+        }
+        return encoder;
+    }
+
+    /**
+     * Returns a {@link Decoder} for the specified format.
+     *
+     * @param format the format
+     * @return the decoder
+     */
+    public static Decoder getDecoder(UuidFormat format) {
+        return DECODERS[format.ordinal()];
+    }
+
+    private static Encoder newEncoder(UuidFormat format, boolean upperCase) {
+        return switch (format) {
+            case CANONICAL -> new Encoder(format, upperCase) {
+                @Override
+                void write(long msb, long lsb, byte[] dst, int offset) {
+                    writeCanonical(msb, lsb, dst, offset);
+                }
+            };
+            case NCNAME_32 -> new Encoder(format, upperCase) {
+                @Override
+                void write(long msb, long lsb, byte[] dst, int offset) {
+                    writeBase32(msb, lsb, dst, offset);
+                }
+            };
+            case NCNAME_58 -> new Encoder(format, upperCase) {
+                @Override
+                void write(long msb, long lsb, byte[] dst, int offset) {
+                    System.arraycopy(toBase58(msb, lsb), 2, dst, offset, 23);
+                }
+
+                @Override
+                void writeWithScratch(long msb, long lsb, byte[] dst, int offset) {
+                    writeBase58(msb, lsb, dst, offset);
+                }
+
+                @Override
+                void writeBatch(long[] src, int srcOffset, byte[] dst, int dstOffset, int count) {
+                    writeBase58Batch(src, srcOffset, dst, dstOffset, 23, count, false);
+                }
+
+                @Override
+                void writeBatchWithScratch(long[] src, int srcOffset, byte[] dst, int dstOffset, int count) {
+                    writeBase58Batch(src, srcOffset, dst, dstOffset, 23, count, false);
+                }
+
+                @Override
+                public String encodeToString(long msb, long lsb) {
+                    return new String(toBase58(msb, lsb), 2, 23, StandardCharsets.ISO_8859_1);
+                }
+            };
+            case NCNAME_64 -> new Encoder(format, upperCase) {
+                @Override
+                void write(long msb, long lsb, byte[] dst, int offset) {
+                    writeBase64(msb, lsb, dst, offset);
+                }
+            };
+            case NCNAME_32_LEX -> new Encoder(format, upperCase) {
+                @Override
+                void write(long msb, long lsb, byte[] dst, int offset) {
+                    writeBase32Lex(msb, lsb, dst, offset);
+                }
+            };
+            case NCNAME_58_LEX -> new Encoder(format, upperCase) {
+                @Override
+                void write(long msb, long lsb, byte[] dst, int offset) {
+                    System.arraycopy(toBase58Lex(msb, lsb), 2, dst, offset, 23);
+                }
+
+                @Override
+                void writeWithScratch(long msb, long lsb, byte[] dst, int offset) {
+                    writeBase58Lex(msb, lsb, dst, offset);
+                }
+
+                @Override
+                void writeBatch(long[] src, int srcOffset, byte[] dst, int dstOffset, int count) {
+                    writeBase58Batch(src, srcOffset, dst, dstOffset, 23, count, true);
+                }
+
+                @Override
+                void writeBatchWithScratch(long[] src, int srcOffset, byte[] dst, int dstOffset, int count) {
+                    writeBase58Batch(src, srcOffset, dst, dstOffset, 23, count, true);
+                }
+
+                @Override
+                public String encodeToString(long msb, long lsb) {
+                    return new String(toBase58Lex(msb, lsb), 2, 23, StandardCharsets.ISO_8859_1);
+                }
+            };
+            case NCNAME_64_LEX -> new Encoder(format, upperCase) {
+                @Override
+                void write(long msb, long lsb, byte[] dst, int offset) {
+                    writeBase64Lex(msb, lsb, dst, offset);
+                }
+            };
+            case NCNAME_36 -> new Encoder(format, upperCase) {
+                @Override
+                void write(long msb, long lsb, byte[] dst, int offset) {
+                    writeBase36(msb, lsb, dst, offset);
+                }
+            };
+            case NCNAME_62 -> new Encoder(format, upperCase) {
+                @Override
+                void write(long msb, long lsb, byte[] dst, int offset) {
+                    writeBase62(msb, lsb, dst, offset);
+                }
+            };
+            case NCNAME_36_LEX -> new Encoder(format, upperCase) {
+                @Override
+                void write(long msb, long lsb, byte[] dst, int offset) {
+                    writeBase36Lex(msb, lsb, dst, offset);
+                }
+            };
+            case NCNAME_62_LEX -> new Encoder(format, upperCase) {
+                @Override
+                void write(long msb, long lsb, byte[] dst, int offset) {
+                    writeBase62Lex(msb, lsb, dst, offset);
+                }
+            };
+        };
+    }
+
+    private static Decoder newDecoder(UuidFormat format) {
+        return switch (format) {
+            case CANONICAL -> new Decoder(format) {
+                @Override
+                void read(CharSequence str, long[] dst, int dstOffset) {
+                    decodeCanonical(str, dst, dstOffset);
+                }
+            };
+            case NCNAME_32 -> new Decoder(format) {
+                @Override
+                void read(CharSequence str, long[] dst, int dstOffset) {
+                    decodeBase32(str, dst, dstOffset);
+                }
+            };
+            case NCNAME_58 -> new Decoder(format) {
+                @Override
+                void read(CharSequence str, long[] dst, int dstOffset) {
+                    decodeBase58(str, dst, dstOffset);
+                }
+            };
+            case NCNAME_64 -> new Decoder(format) {
+                @Override
+                void read(CharSequence str, long[] dst, int dstOffset) {
+                    decodeBase64(str, dst, dstOffset);
+                }
+            };
+            case NCNAME_32_LEX -> new Decoder(format) {
+                @Override
+                void read(CharSequence str, long[] dst, int dstOffset) {
+                    decodeBase32Lex(str, dst, dstOffset);
+                }
+            };
+            case NCNAME_58_LEX -> new Decoder(format) {
+                @Override
+                void read(CharSequence str, long[] dst, int dstOffset) {
+                    decodeBase58Lex(str, dst, dstOffset);
+                }
+            };
+            case NCNAME_64_LEX -> new Decoder(format) {
+                @Override
+                void read(CharSequence str, long[] dst, int dstOffset) {
+                    decodeBase64Lex(str, dst, dstOffset);
+                }
+            };
+            case NCNAME_36 -> new Decoder(format) {
+                @Override
+                void read(CharSequence str, long[] dst, int dstOffset) {
+                    decodeBase36(str, dst, dstOffset);
+                }
+            };
+            case NCNAME_62 -> new Decoder(format) {
+                @Override
+                void read(CharSequence str, long[] dst, int dstOffset) {
+                    decodeBase62(str, dst, dstOffset);
+                }
+            };
+            case NCNAME_36_LEX -> new Decoder(format) {
+                @Override
+                void read(CharSequence str, long[] dst, int dstOffset) {
+                    decodeBase36Lex(str, dst, dstOffset);
+                }
+            };
+            case NCNAME_62_LEX -> new Decoder(format) {
+                @Override
+                void read(CharSequence str, long[] dst, int dstOffset) {
+                    decodeBase62Lex(str, dst, dstOffset);
+                }
+            };
+        };
+    }
+
+    /**
+     * Formats {@link UUID}s in one {@link UuidFormat}.
+     * <p>
+     * Instances are obtained with {@link UuidNCName#getEncoder(UuidFormat)}.
+     * Each format has its own subclass, which calls the encoding code of the
+     * format directly, without dispatching on the format for each call.
+     * Store the encoder in a {@code static final} field, so that the JIT knows
+     * the exact class of the encoder, and can inline its methods.
+     * <p>
+     * Instances of this class are immutable and thread-safe.
+     */
+    public abstract static class Encoder {
+        private final UuidFormat format;
+        private final int length;
+        private final boolean upperCase;
+
+        Encoder(UuidFormat format, boolean upperCase) {
+            this.format = format;
+            this.length = format.length();
+            this.upperCase = upperCase;
+        }
+
+        /**
+         * Writes the characters of the format at the specified offset,
+         * in lower case for the case-insensitive formats.
+         */
+        abstract void write(long msb, long lsb, byte[] dst, int offset);
+
+        /**
+         * Like {@link #write}, but may use the first {@value UuidNCName#SCRATCH_LENGTH}
+         * bytes of the array as scratch space.
+         */
+        void writeWithScratch(long msb, long lsb, byte[] dst, int offset) {
+            write(msb, lsb, dst, offset);
+        }
+
+        /**
+         * Writes the characters of a batch of {@link UUID}s back to back,
+         * in lower case for the case-insensitive formats.
+         */
+        void writeBatch(long[] src, int srcOffset, byte[] dst, int dstOffset, int count) {
+            for (int i = 0; i < count; i++) {
+                write(src[srcOffset + 2 * i], src[srcOffset + 2 * i + 1], dst, dstOffset + i * length);
+            }
+        }
+
+        /**
+         * Like {@link #writeBatch}, but may use the first
+         * {@value UuidNCName#SCRATCH_LENGTH} bytes of the array as scratch space.
+         */
+        void writeBatchWithScratch(long[] src, int srcOffset, byte[] dst, int dstOffset, int count) {
+            for (int i = 0; i < count; i++) {
+                writeWithScratch(src[srcOffset + 2 * i], src[srcOffset + 2 * i + 1], dst, dstOffset + i * length);
+            }
+        }
+
+        private void writeInCase(long msb, long lsb, byte[] dst, int offset) {
+            write(msb, lsb, dst, offset);
+            if (upperCase) {
+                toUpperCase(dst, offset, length);
+            }
+        }
+
+        /**
+         * Returns the format of this encoder.
+         *
+         * @return the format
+         */
+        public UuidFormat getFormat() {
+            return format;
+        }
+
+        /**
+         * Returns true if this encoder writes upper case letters.
+         *
+         * @return whether the letters are in upper case
+         */
+        public boolean isUpperCase() {
+            return upperCase;
+        }
+
+        /**
+         * Formats the specified {@link UUID}.
+         *
+         * @param uuid the {@link UUID}
+         * @return the formatted string
+         */
+        public String encodeToString(UUID uuid) {
+            return encodeToString(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        }
+
+        /**
+         * Formats the specified {@link UUID} bits.
+         *
+         * @param msb the most significant bits of the {@link UUID}
+         * @param lsb the least significant bits of the {@link UUID}
+         * @return the formatted string
+         */
+        public String encodeToString(long msb, long lsb) {
+            byte[] str = new byte[length];
+            writeInCase(msb, lsb, str, 0);
+            return new String(str, StandardCharsets.ISO_8859_1);
+        }
+
+        /**
+         * Formats the specified {@link UUID} bits, and writes the ASCII
+         * characters into the specified array.
+         *
+         * @param msb    the most significant bits of the {@link UUID}
+         * @param lsb    the least significant bits of the {@link UUID}
+         * @param dst    the destination array
+         * @param offset the offset in the destination array
+         * @return the number of characters written, this is {@link UuidFormat#length()}
+         * @throws IndexOutOfBoundsException if the destination array is too small
+         */
+        public int encode(long msb, long lsb, byte[] dst, int offset) {
+            Objects.checkFromIndexSize(offset, length, dst.length);
+            writeInCase(msb, lsb, dst, offset);
+            return length;
+        }
+
+        /**
+         * Formats the specified {@link UUID} bits, and puts the ASCII
+         * characters into the specified buffer.
+         * <p>
+         * On return, the position of the buffer is advanced by
+         * {@link UuidFormat#length()}.
+         *
+         * @param msb the most significant bits of the {@link UUID}
+         * @param lsb the least significant bits of the {@link UUID}
+         * @param dst the destination buffer
+         * @return the number of characters written, this is {@link UuidFormat#length()}
+         * @throws java.nio.BufferOverflowException if the buffer has not enough
+         *                                          remaining space
+         */
+        public int encode(long msb, long lsb, ByteBuffer dst) {
+            if (dst.hasArray() && dst.remaining() >= length) {
+                writeInCase(msb, lsb, dst.array(), dst.arrayOffset() + dst.position());
+                dst.position(dst.position() + length);
+            } else {
+                byte[] str = new byte[length];
+                writeInCase(msb, lsb, str, 0);
+                dst.put(str);
+            }
+            return length;
+        }
+
+        /**
+         * Formats a batch of {@link UUID}s, and writes the ASCII characters
+         * back to back into the specified array.
+         *
+         * @param src       the source array, holds the most and least significant
+         *                  bits of {@code count} {@link UUID}s in pairs
+         * @param srcOffset the offset of the first pair in the source array
+         * @param dst       the destination array
+         * @param dstOffset the offset in the destination array
+         * @param count     the number of {@link UUID}s
+         * @return the number of characters written
+         * @throws IndexOutOfBoundsException if a range is outside its array
+         */
+        public int encode(long[] src, int srcOffset, byte[] dst, int dstOffset, int count) {
+            Objects.checkFromIndexSize(srcOffset, count * 2, src.length);
+            Objects.checkFromIndexSize(dstOffset, count * length, dst.length);
+            writeBatch(src, srcOffset, dst, dstOffset, count);
+            if (upperCase) {
+                toUpperCase(dst, dstOffset, count * length);
+            }
+            return count * length;
+        }
+
+        /**
+         * Formats a batch of {@link UUID}s into strings.
+         * <p>
+         * The characters of the whole batch are encoded into a single buffer,
+         * from which the resulting strings are created.
+         *
+         * @param src       the source array, holds the most and least significant
+         *                  bits of {@code count} {@link UUID}s in pairs
+         * @param srcOffset the offset of the first pair in the source array
+         * @param dst       the destination array
+         * @param dstOffset the index of the first destination string
+         * @param count     the number of {@link UUID}s
+         * @throws IndexOutOfBoundsException if a range is outside its array
+         */
+        public void encode(long[] src, int srcOffset, String[] dst, int dstOffset, int count) {
+            Objects.checkFromIndexSize(srcOffset, count * 2, src.length);
+            Objects.checkFromIndexSize(dstOffset, count, dst.length);
+            byte[] buf = new byte[SCRATCH_LENGTH + count * length];
+            writeBatchWithScratch(src, srcOffset, buf, SCRATCH_LENGTH, count);
+            if (upperCase) {
+                toUpperCase(buf, SCRATCH_LENGTH, count * length);
+            }
+            for (int i = 0; i < count; i++) {
+                dst[dstOffset + i] = new String(buf, SCRATCH_LENGTH + i * length, length, StandardCharsets.ISO_8859_1);
+            }
+        }
+
+        private static void toUpperCase(byte[] str, int offset, int len) {
+            for (int i = offset, end = offset + len; i < end; i++) {
+                byte ch = str[i];
+                if (ch >= 'a') {
+                    str[i] = (byte) (ch - ('a' - 'A'));
+                }
+            }
+        }
+    }
+
+    /**
+     * Parses {@link UUID}s in one {@link UuidFormat}.
+     * <p>
+     * Instances are obtained with {@link UuidNCName#getDecoder(UuidFormat)}.
+     * Each format has its own subclass, which calls the decoding code of the
+     * format directly, without dispatching on the format for each call.
+     * Store the decoder in a {@code static final} field, so that the JIT knows
+     * the exact class of the decoder, and can inline its methods.
+     * <p>
+     * Instances of this class are immutable and thread-safe.
+     */
+    public abstract static class Decoder {
+        private final UuidFormat format;
+        private final int length;
+
+        Decoder(UuidFormat format) {
+            this.format = format;
+            this.length = format.length();
+        }
+
+        /**
+         * Parses a character sequence of the length of the format.
+         */
+        abstract void read(CharSequence str, long[] dst, int dstOffset);
+
+        /**
+         * Returns the format of this decoder.
+         *
+         * @return the format
+         */
+        public UuidFormat getFormat() {
+            return format;
+        }
+
+        /**
+         * Parses an {@link UUID} from the specified character sequence.
+         *
+         * @param str a character sequence
+         * @return the parsed {@link UUID}
+         * @throws IllegalArgumentException if the character sequence is not in the format
+         */
+        public UUID decode(CharSequence str) {
+            long[] bits = new long[2];
+            decode(str, bits, 0);
+            return new UUID(bits[0], bits[1]);
+        }
+
+        /**
+         * Parses the bits of an {@link UUID} from the specified character
+         * sequence, without creating an {@link UUID} object.
+         *
+         * @param str       a character sequence
+         * @param dst       the destination array, receives the most significant bits
+         *                  at {@code dstOffset}, and the least significant bits at
+         *                  {@code dstOffset + 1}
+         * @param dstOffset the offset in the destination array
+         * @throws IllegalArgumentException  if the character sequence is not in the format
+         * @throws IndexOutOfBoundsException if the destination array is too small
+         */
+        public void decode(CharSequence str, long[] dst, int dstOffset) {
+            if (str.length() != length) {
+                throw new IllegalArgumentException("Illegal length for " + format + ": " + str.length());
+            }
+            Objects.checkFromIndexSize(dstOffset, 2, dst.length);
+            read(str, dst, dstOffset);
+        }
+
+        /**
+         * Parses the bits of an {@link UUID} from the ASCII characters in the
+         * specified array.
+         *
+         * @param src       an array with ASCII characters
+         * @param srcOffset the offset of the first character
+         * @param dst       the destination array, receives the most significant bits
+         *                  at {@code dstOffset}, and the least significant bits at
+         *                  {@code dstOffset + 1}
+         * @param dstOffset the offset in the destination array
+         * @throws IllegalArgumentException  if the characters are not in the format
+         * @throws IndexOutOfBoundsException if an array is too small
+         */
+        public void decode(byte[] src, int srcOffset, long[] dst, int dstOffset) {
+            Objects.checkFromIndexSize(srcOffset, length, src.length);
+            Objects.checkFromIndexSize(dstOffset, 2, dst.length);
+            read(new AsciiCharSequence(src, srcOffset, length), dst, dstOffset);
+        }
+
+        /**
+         * Parses the bits of an {@link UUID} from the ASCII characters at the
+         * position of the specified buffer.
+         * <p>
+         * On return, the position of the buffer is advanced by
+         * {@link UuidFormat#length()}.
+         *
+         * @param src       the source buffer, contains ASCII characters
+         * @param dst       the destination array, receives the most significant bits
+         *                  at {@code dstOffset}, and the least significant bits at
+         *                  {@code dstOffset + 1}
+         * @param dstOffset the offset in the destination array
+         * @throws IllegalArgumentException         if the characters are not in the format
+         * @throws java.nio.BufferUnderflowException if the buffer has less than
+         *                                          {@link UuidFormat#length()}
+         *                                          remaining characters
+         * @throws IndexOutOfBoundsException        if the destination array is too small
+         */
+        public void decode(ByteBuffer src, long[] dst, int dstOffset) {
+            if (src.hasArray() && src.remaining() >= length) {
+                decode(src.array(), src.arrayOffset() + src.position(), dst, dstOffset);
+                src.position(src.position() + length);
+            } else {
+                byte[] str = new byte[length];
+                src.get(str);
+                decode(str, 0, dst, dstOffset);
+            }
+        }
+
+        /**
+         * Parses a batch of {@link UUID}s from ASCII characters, that are
+         * stored back to back in the specified array.
+         *
+         * @param src       an array with ASCII characters
+         * @param srcOffset the offset of the first character
+         * @param dst       the destination array, receives the most and least
+         *                  significant bits of {@code count} {@link UUID}s in pairs
+         * @param dstOffset the offset of the first pair in the destination array
+         * @param count     the number of {@link UUID}s
+         * @throws IllegalArgumentException  if the characters are not in the format
+         * @throws IndexOutOfBoundsException if a range is outside its array
+         */
+        public void decode(byte[] src, int srcOffset, long[] dst, int dstOffset, int count) {
+            Objects.checkFromIndexSize(srcOffset, count * length, src.length);
+            Objects.checkFromIndexSize(dstOffset, count * 2, dst.length);
+            AsciiCharSequence view = new AsciiCharSequence();
+            for (int i = 0; i < count; i++) {
+                read(view.set(src, srcOffset + i * length, length), dst, dstOffset + 2 * i);
+            }
+        }
+
+        /**
+         * Parses a batch of {@link UUID}s from character sequences.
+         *
+         * @param src       the source character sequences
+         * @param srcOffset the index of the first source character sequence
+         * @param dst       the destination array, receives the most and least
+         *                  significant bits of {@code count} {@link UUID}s in pairs
+         * @param dstOffset the offset of the first pair in the destination array
+         * @param count     the number of {@link UUID}s
+         * @throws IllegalArgumentException  if a character sequence is not in the format
+         * @throws IndexOutOfBoundsException if a range is outside its array
+         */
+        public void decode(CharSequence[] src, int srcOffset, long[] dst, int dstOffset, int count) {
+            Objects.checkFromIndexSize(srcOffset, count, src.length);
+            Objects.checkFromIndexSize(dstOffset, count * 2, dst.length);
+            for (int i = 0; i < count; i++) {
+                CharSequence str = src[srcOffset + i];
+                if (str.length() != length) {
+                    throw new IllegalArgumentException("Illegal length for " + format + ": " + str.length());
+                }
+                read(str, dst, dstOffset + 2 * i);
+            }
+        }
+
+        /**
+         * Parses the bits of an {@link UUID} from the specified character
+         * sequence, and reports malformed input with the return value instead
+         * of an exception.
+         * <p>
+         * A character sequence with the wrong length is rejected without
+         * parsing it. The destination array is only written to, if the
+         * character sequence is in the format.
+         *
+         * @param str       a character sequence, may be null
+         * @param dst       the destination array, receives the most significant bits
+         *                  at {@code dstOffset}, and the least significant bits at
+         *                  {@code dstOffset + 1}
+         * @param dstOffset the offset in the destination array
+         * @return true if the character sequence is in the format
+         * @throws IndexOutOfBoundsException if the destination array is too small
+         */
+        public boolean tryDecode(CharSequence str, long[] dst, int dstOffset) {
+            Objects.checkFromIndexSize(dstOffset, 2, dst.length);
+            if (str == null || str.length() != length) {
+                return false;
+            }
+            long msb = dst[dstOffset], lsb = dst[dstOffset + 1];
+            try {
+                read(str, dst, dstOffset);
+                return true;
+            } catch (IllegalArgumentException e) {
+                // Leave the destination unchanged
+                dst[dstOffset] = msb;
+                dst[dstOffset + 1] = lsb;
+                return false;
+            }
+        }
+    }
+
+    static void writeUInt60(byte[] str, int offset, int len, long val, byte[] alphabet, int baseShift, int mask) {
         int i = offset + len;
         do {
             str[--i] = alphabet[(int) val & mask];
@@ -0,0 +1,22 @@
+/*
+ * @(#)UuidPredicate.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+/**
+ * Tests the bits of an {@link java.util.UUID}, without requiring an
+ * {@link java.util.UUID} object.
+ */
+@FunctionalInterface
+public interface UuidPredicate {
+    /**
+     * Evaluates this predicate on the specified {@link java.util.UUID} bits.
+     *
+     * @param msb the most significant bits of the {@link java.util.UUID}
+     * @param lsb the least significant bits of the {@link java.util.UUID}
+     * @return whether the {@link java.util.UUID} matches the predicate
+     */
+    boolean test(long msb, long lsb);
+}
@@ -0,0 +1,293 @@
+/*
+ * @(#)UuidRecordSpliterator.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A {@link Spliterator} over fixed-width text records of one
+ * {@link UuidFormat}, that are stored back to back without delimiters in a
+ * byte array or in a {@link ByteBuffer}, for example a column file with
+ * 22-byte {@link UuidFormat#NCNAME_64_LEX} records.
+ * <p>
+ * The methods that take an {@link UuidConsumer} hand the bits of each record
+ * to the consumer, without creating an {@link UUID} or a {@link String}.
+ * The methods of the {@link Spliterator} interface create an {@link UUID}
+ * for each record.
+ * <p>
+ * {@link #trySplit()} splits the remaining records in halves on record
+ * boundaries, so that parallel streams distribute the records evenly over
+ * the threads. {@link #mapToLong} and {@link #count} create a
+ * {@link LongStream} over the records, that does not create objects per
+ * record either.
+ * <p>
+ * Instances of this class are not thread-safe. The spliterators that are
+ * split off share the underlying storage, which must not be modified while
+ * they are in use.
+ */
+public final class UuidRecordSpliterator implements Spliterator<UUID> {
+    private static final int CHARACTERISTICS = ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL;
+
+    private final byte[] array;
+    private final ByteBuffer buffer;
+    private final UuidNCName.Decoder decoder;
+    private final int length;
+    /**
+     * The index of the next record in the array or buffer.
+     */
+    private int index;
+    /**
+     * The index after the last record in the array or buffer.
+     */
+    private final int end;
+
+    private final long[] bits = new long[2];
+    private final AsciiCharSequence view = new AsciiCharSequence();
+    private byte[] record;
+
+    private UuidRecordSpliterator(byte[] array, ByteBuffer buffer, UuidFormat format, int index, int end) {
+        this.array = array;
+        this.buffer = buffer;
+        this.decoder = UuidNCName.getDecoder(format);
+        this.length = format.length();
+        this.index = index;
+        this.end = end;
+    }
+
+    /**
+     * Creates a spliterator over the records in the specified range of an
+     * array.
+     *
+     * @param array  an array with ASCII characters
+     * @param offset the index of the first record
+     * @param length the number of bytes, must be a multiple of the length of
+     *               the format
+     * @param format the format of the records
+     * @return the spliterator
+     * @throws IndexOutOfBoundsException if the range is outside the array
+     * @throws IllegalArgumentException  if the length is not a multiple of the
+     *                                   length of the format
+     */
+    public static UuidRecordSpliterator of(byte[] array, int offset, int length, UuidFormat format) {
+        Objects.checkFromIndexSize(offset, length, array.length);
+        checkLength(length, format);
+        return new UuidRecordSpliterator(array, null, format, offset, offset + length);
+    }
+
+    /**
+     * Creates a spliterator over the records from the position to the limit
+     * of the specified buffer. The position of the buffer is not changed.
+     *
+     * @param buffer a buffer with ASCII characters
+     * @param format the format of the records
+     * @return the spliterator
+     * @throws IllegalArgumentException if the number of remaining bytes is
+     *                                  not a multiple of the length of the format
+     */
+    public static UuidRecordSpliterator of(ByteBuffer buffer, UuidFormat format) {
+        checkLength(buffer.remaining(), format);
+        if (buffer.hasArray()) {
+            int offset = buffer.arrayOffset() + buffer.position();
+            return new UuidRecordSpliterator(buffer.array(), null, format, offset, offset + buffer.remaining());
+        }
+        return new UuidRecordSpliterator(null, buffer, format, buffer.position(), buffer.limit());
+    }
+
+    private static void checkLength(int length, UuidFormat format) {
+        if (length % format.length() != 0) {
+            throw new IllegalArgumentException("Length " + length + " is not a multiple of " + format.length()
+                    + " for " + format);
+        }
+    }
+
+    /**
+     * Returns the format of the records.
+     *
+     * @return the format
+     */
+    public UuidFormat getFormat() {
+        return decoder.getFormat();
+    }
+
+    /**
+     * Performs the specified action on the next record, if there is one.
+     *
+     * @param action the action
+     * @return false if there are no remaining records
+     * @throws IllegalArgumentException if the record is not in the format
+     */
+    public boolean tryAdvance(UuidConsumer action) {
+        if (index >= end) {
+            return false;
+        }
+        read(index);
+        index += length;
+        action.accept(bits[0], bits[1]);
+        return true;
+    }
+
+    /**
+     * Performs the specified action on each remaining record.
+     *
+     * @param action the action
+     * @throws IllegalArgumentException if a record is not in the format
+     */
+    public void forEachRemaining(UuidConsumer action) {
+        for (int i = index; i < end; i += length) {
+            read(i);
+            action.accept(bits[0], bits[1]);
+        }
+        index = end;
+    }
+
+    /**
+     * Performs the specified action on the next record, if there is one.
+     * This method creates an {@link UUID}.
+     *
+     * @param action the action
+     * @return false if there are no remaining records
+     * @throws IllegalArgumentException if the record is not in the format
+     */
+    @Override
+    public boolean tryAdvance(Consumer<? super UUID> action) {
+        return tryAdvance((msb, lsb) -> action.accept(new UUID(msb, lsb)));
+    }
+
+    /**
+     * Performs the specified action on each remaining record.
+     * This method creates an {@link UUID} for each record.
+     *
+     * @param action the action
+     * @throws IllegalArgumentException if a record is not in the format
+     */
+    @Override
+    public void forEachRemaining(Consumer<? super UUID> action) {
+        forEachRemaining((msb, lsb) -> action.accept(new UUID(msb, lsb)));
+    }
+
+    /**
+     * Splits off the first half of the remaining records.
+     *
+     * @return a spliterator over the first half of the remaining records,
+     * or null if less than two records remain
+     */
+    @Override
+    public UuidRecordSpliterator trySplit() {
+        long remaining = estimateSize();
+        if (remaining < 2) {
+            return null;
+        }
+        int mid = index + (int) (remaining / 2) * length;
+        UuidRecordSpliterator prefix = new UuidRecordSpliterator(array, buffer, decoder.getFormat(), index, mid);
+        index = mid;
+        return prefix;
+    }
+
+    /**
+     * Returns the number of remaining records.
+     *
+     * @return the number of remaining records
+     */
+    @Override
+    public long estimateSize() {
+        return (end - index) / length;
+    }
+
+    @Override
+    public long getExactSizeIfKnown() {
+        return estimateSize();
+    }
+
+    @Override
+    public int characteristics() {
+        return CHARACTERISTICS;
+    }
+
+    /**
+     * Returns a {@link LongStream} that holds the result of the specified
+     * function for each remaining record. The stream takes over the records
+     * of this spliterator.
+     *
+     * @param mapper   a function that maps the most and least significant
+     *                 bits of a record to a long
+     * @param parallel whether the stream is parallel
+     * @return the stream
+     */
+    public LongStream mapToLong(LongBinaryOperator mapper, boolean parallel) {
+        return StreamSupport.longStream(new MappingSpliterator(this, mapper), parallel);
+    }
+
+    /**
+     * Returns the number of remaining records that match the specified
+     * predicate.
+     *
+     * @param predicate the predicate
+     * @param parallel  whether the records are tested in parallel
+     * @return the number of matching records
+     */
+    public long count(UuidPredicate predicate, boolean parallel) {
+        return mapToLong((msb, lsb) -> predicate.test(msb, lsb) ? 1 : 0, parallel).sum();
+    }
+
+    private void read(int i) {
+        if (array != null) {
+            decoder.read(view.set(array, i, length), bits, 0);
+        } else {
+            if (record == null) {
+                record = new byte[length];
+            }
+            buffer.get(i, record);
+            decoder.read(view.set(record, 0, length), bits, 0);
+        }
+    }
+
+    /**
+     * Maps the records of an {@link UuidRecordSpliterator} to longs.
+     */
+    private static final class MappingSpliterator implements Spliterator.OfLong {
+        private final UuidRecordSpliterator records;
+        private final LongBinaryOperator mapper;
+
+        MappingSpliterator(UuidRecordSpliterator records, LongBinaryOperator mapper) {
+            this.records = records;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            return records.tryAdvance((msb, lsb) -> action.accept(mapper.applyAsLong(msb, lsb)));
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            records.forEachRemaining((msb, lsb) -> action.accept(mapper.applyAsLong(msb, lsb)));
+        }
+
+        @Override
+        public OfLong trySplit() {
+            UuidRecordSpliterator prefix = records.trySplit();
+            return prefix == null ? null : new MappingSpliterator(prefix, mapper);
+        }
+
+        @Override
+        public long estimateSize() {
+            return records.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+}
@@ -0,0 +1,491 @@
+/*
+ * @(#)UuidTranscodingProcessor.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+
+/**
+ * A {@link Flow.Processor} that converts UUID strings from one
+ * {@link UuidFormat} to another.
+ * <p>
+ * Incoming strings are collected into batches, and each batch is converted
+ * with {@link UuidNCName#transcode} on the executor. When the executor is idle,
+ * a batch is handed over as soon as it contains one string. When the executor
+ * is busy, strings accumulate until the batch is full. Thus, a burst of
+ * incoming strings is converted in a few large batches instead of one
+ * conversion per string.
+ * <p>
+ * The processor requests at most {@code batchSize * maxPendingBatches} strings
+ * from upstream that have not been published downstream yet. Converted strings
+ * are published into a buffer of {@link Flow#defaultBufferSize()} strings per
+ * downstream subscriber. While the buffer of a subscriber is full, publishing
+ * pauses, and resumes when the subscriber has consumed a string. Therefore,
+ * downstream demand limits how many strings are requested from upstream.
+ * <p>
+ * The executor can be any {@link Executor}, for example
+ * {@code Executors.newVirtualThreadPerTaskExecutor()} or a single thread
+ * executor. The same executor is used to deliver the converted strings to the
+ * downstream subscribers. No task of the processor blocks a thread of the
+ * executor.
+ * <p>
+ * Subscribe the downstream subscribers before subscribing this processor to
+ * its upstream publisher; like with {@link SubmissionPublisher}, strings that
+ * are published while there is no subscriber are dropped.
+ * <p>
+ * If a string can not be converted, the upstream subscription is cancelled,
+ * and the downstream subscribers receive an {@link IllegalArgumentException}.
+ *
+ * @see UuidNCName#transcode
+ */
+public class UuidTranscodingProcessor implements Flow.Processor<String, String> {
+    /**
+     * The capacity of the buffer per downstream subscriber.
+     */
+    private static final int BUFFER_CAPACITY = Flow.defaultBufferSize();
+
+    private final SubmissionPublisher<String> publisher;
+    private final UuidFormat sourceFormat;
+    private final UuidFormat targetFormat;
+    private final Executor executor;
+    private final int batchSize;
+    private final int maxPendingBatches;
+
+    /**
+     * Guards all mutable fields below.
+     */
+    private final Object lock = new Object();
+    private Flow.Subscription upstream;
+    private String[] batch;
+    private int batchLength;
+    private final ArrayDeque<String[]> readyBatches = new ArrayDeque<>();
+    private boolean draining;
+    /**
+     * Whether the drain task has stopped, because the buffer of a
+     * downstream subscriber is full.
+     */
+    private boolean waitingForSpace;
+    private boolean upstreamCompleted;
+    private Throwable upstreamError;
+    private boolean terminated;
+    /**
+     * The number of strings that have been received but not yet published.
+     */
+    private int queueDepth;
+
+    /**
+     * The batch that is being published, and the index of the next string
+     * to publish. Only accessed by the drain task.
+     */
+    private String[] publishing;
+    private int publishingIndex;
+
+    // Metrics, only written by the draining thread
+    private volatile long batchCount;
+    private volatile long elementCount;
+    private volatile int lastBatchSize;
+    private volatile int maxBatchSize;
+
+    /**
+     * Creates a new instance that runs on {@link ForkJoinPool#commonPool()},
+     * with a batch size of 256 and at most 4 pending batches.
+     *
+     * @param sourceFormat the format of the incoming strings, or null to
+     *                     detect the format of each string, see
+     *                     {@link UuidNCName#transcode(String[], int, UuidFormat, String[], int, int, UuidFormat)}
+     * @param targetFormat the format of the outgoing strings
+     */
+    public UuidTranscodingProcessor(UuidFormat sourceFormat, UuidFormat targetFormat) {
+        this(sourceFormat, targetFormat, ForkJoinPool.commonPool(), 256, 4);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param sourceFormat      the format of the incoming strings, or null to
+     *                          detect the format of each string, see
+     *                          {@link UuidNCName#transcode(String[], int, UuidFormat, String[], int, int, UuidFormat)}
+     * @param targetFormat      the format of the outgoing strings
+     * @param executor          the executor for converting and publishing
+     * @param batchSize         the maximal number of strings in a batch
+     * @param maxPendingBatches the maximal number of batches that have been
+     *                          requested from upstream but not yet published
+     * @throws IllegalArgumentException if batchSize or maxPendingBatches is not positive
+     */
+    public UuidTranscodingProcessor(UuidFormat sourceFormat, UuidFormat targetFormat,
+                                    Executor executor, int batchSize, int maxPendingBatches) {
+        if (batchSize <= 0) throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        if (maxPendingBatches <= 0)
+            throw new IllegalArgumentException("maxPendingBatches must be positive: " + maxPendingBatches);
+        this.sourceFormat = sourceFormat;
+        this.targetFormat = Objects.requireNonNull(targetFormat, "targetFormat");
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.maxPendingBatches = maxPendingBatches;
+        this.batch = new String[batchSize];
+        this.publisher = new SubmissionPublisher<>(executor, BUFFER_CAPACITY);
+    }
+
+    /**
+     * Adds the specified subscriber, which receives the converted strings.
+     *
+     * @param subscriber the subscriber
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super String> subscriber) {
+        publisher.subscribe(new DownstreamSubscriber(Objects.requireNonNull(subscriber, "subscriber")));
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        synchronized (lock) {
+            if (upstream != null || terminated) {
+                subscription.cancel();
+                return;
+            }
+            upstream = subscription;
+        }
+        subscription.request((long) batchSize * maxPendingBatches);
+    }
+
+    @Override
+    public void onNext(String item) {
+        Objects.requireNonNull(item, "item");
+        boolean startDrain;
+        synchronized (lock) {
+            if (terminated) {
+                return;
+            }
+            batch[batchLength++] = item;
+            queueDepth++;
+            if (batchLength == batchSize || !draining) {
+                readyBatches.add(takeBatch());
+            }
+            startDrain = startDraining();
+        }
+        if (startDrain) {
+            executor.execute(this::drain);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        boolean startDrain;
+        synchronized (lock) {
+            upstreamError = Objects.requireNonNull(throwable, "throwable");
+            upstreamCompleted = true;
+            startDrain = startDraining();
+        }
+        if (startDrain) {
+            executor.execute(this::drain);
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        boolean startDrain;
+        synchronized (lock) {
+            upstreamCompleted = true;
+            startDrain = startDraining();
+        }
+        if (startDrain) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Returns true if the caller must start the drain task.
+     * Must be called while holding the lock.
+     */
+    private boolean startDraining() {
+        if (draining || terminated) {
+            return false;
+        }
+        draining = true;
+        return true;
+    }
+
+    /**
+     * Takes the current batch, and replaces it by an empty one.
+     * Must be called while holding the lock.
+     */
+    private String[] takeBatch() {
+        String[] b = batchLength == batchSize ? batch : Arrays.copyOf(batch, batchLength);
+        if (b == batch) {
+            batch = new String[batchSize];
+        } else {
+            Arrays.fill(batch, 0, batchLength, null);
+        }
+        batchLength = 0;
+        return b;
+    }
+
+    /**
+     * Converts and publishes batches until there are no more batches, or
+     * until the buffer of a downstream subscriber is full.
+     * Only one drain task runs at any time.
+     */
+    private void drain() {
+        while (true) {
+            String[] b = publishing;
+            int i = publishingIndex;
+            Flow.Subscription subscription;
+            synchronized (lock) {
+                subscription = upstream;
+            }
+            if (b == null) {
+                synchronized (lock) {
+                    b = readyBatches.poll();
+                    if (b == null && batchLength > 0) {
+                        b = takeBatch();
+                    }
+                    if (b == null) {
+                        if (upstreamCompleted) {
+                            terminated = true;
+                        } else {
+                            draining = false;
+                            return;
+                        }
+                    }
+                }
+                if (b == null) {
+                    Throwable error;
+                    synchronized (lock) {
+                        error = upstreamError;
+                    }
+                    if (error == null) {
+                        publisher.close();
+                    } else {
+                        publisher.closeExceptionally(error);
+                    }
+                    return;
+                }
+
+                try {
+                    UuidNCName.transcode(b, 0, sourceFormat, b, 0, b.length, targetFormat);
+                } catch (RuntimeException e) {
+                    synchronized (lock) {
+                        terminated = true;
+                        readyBatches.clear();
+                        queueDepth = 0;
+                    }
+                    if (subscription != null) {
+                        subscription.cancel();
+                    }
+                    publisher.closeExceptionally(e);
+                    return;
+                }
+                i = 0;
+            }
+
+            // Publishing never blocks: we are the only producer, so the
+            // buffers have at least 'room' free slots.
+            int room = 0;
+            while (i < b.length) {
+                if (room <= 0) {
+                    room = BUFFER_CAPACITY - publisher.estimateMaximumLag();
+                    if (room <= 0) {
+                        publishing = b;
+                        publishingIndex = i;
+                        if (!awaitSpace()) {
+                            return;
+                        }
+                        continue;
+                    }
+                }
+                publisher.submit(b[i++]);
+                room--;
+            }
+            publishing = null;
+
+            batchCount++;
+            elementCount += b.length;
+            lastBatchSize = b.length;
+            if (b.length > maxBatchSize) {
+                maxBatchSize = b.length;
+            }
+            synchronized (lock) {
+                queueDepth -= b.length;
+            }
+            if (subscription != null) {
+                subscription.request(b.length);
+            }
+        }
+    }
+
+    /**
+     * Called by the drain task when the buffer of a downstream subscriber is
+     * full. Returns true if the drain task can continue, because a
+     * subscriber has consumed a string in the meantime. Returns false if
+     * the drain task must return; it is restarted by
+     * {@link #onSpaceAvailable()}.
+     */
+    private boolean awaitSpace() {
+        synchronized (lock) {
+            waitingForSpace = true;
+        }
+        // Check again, in case the last string was consumed before the flag was set
+        if (publisher.estimateMaximumLag() < BUFFER_CAPACITY) {
+            synchronized (lock) {
+                if (!waitingForSpace) {
+                    return false;
+                }
+                waitingForSpace = false;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Called when a downstream subscriber has consumed a string, or has
+     * left. Restarts the drain task if it waits for space.
+     */
+    private void onSpaceAvailable() {
+        synchronized (lock) {
+            if (!waitingForSpace) {
+                return;
+            }
+            waitingForSpace = false;
+        }
+        executor.execute(this::drain);
+    }
+
+    /**
+     * Returns the format of the incoming strings.
+     *
+     * @return the source format, or null if the format is detected
+     */
+    public UuidFormat getSourceFormat() {
+        return sourceFormat;
+    }
+
+    /**
+     * Returns the format of the outgoing strings.
+     *
+     * @return the target format
+     */
+    public UuidFormat getTargetFormat() {
+        return targetFormat;
+    }
+
+    /**
+     * Returns the maximal number of strings in a batch.
+     *
+     * @return the batch size
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Returns the number of strings that have been received from upstream,
+     * but have not been published yet.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        synchronized (lock) {
+            return queueDepth;
+        }
+    }
+
+    /**
+     * Returns the number of batches that have been published.
+     *
+     * @return the number of batches
+     */
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    /**
+     * Returns the number of strings that have been published.
+     *
+     * @return the number of strings
+     */
+    public long getElementCount() {
+        return elementCount;
+    }
+
+    /**
+     * Returns the size of the most recently published batch.
+     *
+     * @return the size of the last batch, 0 if no batch has been published
+     */
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    /**
+     * Returns the size of the largest published batch.
+     *
+     * @return the size of the largest batch, 0 if no batch has been published
+     */
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * Returns the average size of the published batches.
+     *
+     * @return the average batch size, 0 if no batch has been published
+     */
+    public double getAverageBatchSize() {
+        long batches = batchCount;
+        return batches == 0 ? 0 : (double) elementCount / batches;
+    }
+
+    /**
+     * Passes the strings to a downstream subscriber, and notifies the
+     * processor when the subscriber has consumed a string or has left.
+     */
+    private final class DownstreamSubscriber implements Flow.Subscriber<String> {
+        private final Flow.Subscriber<? super String> subscriber;
+
+        DownstreamSubscriber(Flow.Subscriber<? super String> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    subscription.request(n);
+                }
+
+                @Override
+                public void cancel() {
+                    subscription.cancel();
+                    onSpaceAvailable();
+                }
+            });
+        }
+
+        @Override
+        public void onNext(String item) {
+            subscriber.onNext(item);
+            onSpaceAvailable();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            subscriber.onError(throwable);
+            onSpaceAvailable();
+        }
+
+        @Override
+        public void onComplete() {
+            subscriber.onComplete();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * @(#)WideTableEncoder.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Encodes the 60-bit data fields of the base32 and base64 formats with a
+ * wide lookup table that maps two digits to two characters at once.
+ * <p>
+ * For base32, the table has 2<sup>10</sup> entries, for base64 it has
+ * 2<sup>12</sup> entries. Each entry holds two ASCII characters, which are
+ * written with a single 16-bit store. This halves the number of iterations
+ * compared to the narrow table, which has one entry per digit.
+ * <p>
+ * Whether the wide table is faster than the narrow table depends on
+ * the cache pressure in the host application: the base64 table occupies
+ * 8 KiB, the base32 table 2 KiB, whereas a narrow table fits into a single
+ * cache line.
+ * <p>
+ * The strategy is selected once per format family, when this class is
+ * initialized, with the following system properties:
+ * <dl>
+ *     <dt>{@value #PROPERTY_PREFIX}</dt>
+ *     <dd>The default strategy for all format families.</dd>
+ *     <dt>{@value #PROPERTY_PREFIX}.base32</dt>
+ *     <dd>The strategy for {@link UuidFormat#NCNAME_32} and {@link UuidFormat#NCNAME_32_LEX}.</dd>
+ *     <dt>{@value #PROPERTY_PREFIX}.base64</dt>
+ *     <dd>The strategy for {@link UuidFormat#NCNAME_64} and {@link UuidFormat#NCNAME_64_LEX}.</dd>
+ * </dl>
+ * The value of a property is either {@code narrow} or {@code wide}. If no
+ * property is set, or if the value is not recognized, the narrow strategy
+ * is used. A timing loop at startup can not reproduce the cache pressure of
+ * the host application, so the strategy is not measured at runtime. Use
+ * {@code JmhWideTableEncoder} in the test sources, which encodes under a
+ * configurable cache pressure, to decide which strategy to configure.
+ */
+final class WideTableEncoder {
+    /**
+     * The prefix of the system properties that select the encoder strategy.
+     */
+    static final String PROPERTY_PREFIX = "ch.randelshofer.uuidncname.encoder";
+    /**
+     * Writes two ASCII characters with a single 16-bit store.
+     * The first character goes into the lower address.
+     */
+    private static final VarHandle SHORT =
+            MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+    /**
+     * Whether the base32 formats use the wide table.
+     */
+    static final boolean WIDE_BASE_32 = select("base32");
+    /**
+     * Whether the base64 formats use the wide table.
+     */
+    static final boolean WIDE_BASE_64 = select("base64");
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private WideTableEncoder() {
+    }
+
+    /**
+     * Creates a wide table for the specified alphabet.
+     *
+     * @param alphabet  the alphabet, must have {@code 1 << baseShift} entries
+     * @param baseShift the number of bits per digit
+     * @return a table with {@code 1 << (2 * baseShift)} entries
+     */
+    static short[] createTable(byte[] alphabet, int baseShift) {
+        int mask = (1 << baseShift) - 1;
+        short[] table = new short[1 << (2 * baseShift)];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (short) ((alphabet[i >>> baseShift] & 0xff) << 8 | (alphabet[i & mask] & 0xff));
+        }
+        return table;
+    }
+
+    /**
+     * Writes {@code len} digits of the specified value, two digits at a time.
+     *
+     * @param str       the destination array
+     * @param offset    the offset of the first digit
+     * @param len       the number of digits, must be even
+     * @param val       the value
+     * @param table     the wide table
+     * @param pairShift the number of bits per pair of digits
+     * @param pairMask  the bit mask for a pair of digits
+     */
+    static void write(byte[] str, int offset, int len, long val, short[] table, int pairShift, int pairMask) {
+        int i = offset + len;
+        do {
+            i -= 2;
+            SHORT.set(str, i, table[(int) val & pairMask]);
+            val >>>= pairShift;
+        } while (i > offset);
+    }
+
+    /**
+     * Selects the strategy for the specified format family.
+     *
+     * @param family the name of the format family
+     * @return true if the wide table shall be used
+     */
+    private static boolean select(String family) {
+        String value = System.getProperty(PROPERTY_PREFIX + "." + family,
+                System.getProperty(PROPERTY_PREFIX, "narrow"));
+        return value.equals("wide");
+    }
+}
@@ -0,0 +1,396 @@
+/*
+ * @(#)UuidHttpService.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname.http;
+
+import ch.randelshofer.uuidncname.UuidFormat;
+import ch.randelshofer.uuidncname.UuidNCName;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A small HTTP service that mints and transcodes {@link java.util.UUID}s in
+ * the formats of {@link UuidNCName}.
+ * <p>
+ * The service runs on the {@code com.sun.net.httpserver} server of the JDK.
+ * By default, each request is handled on its own virtual thread. When virtual
+ * threads are not available on the running JDK, a cached thread pool is used
+ * instead.
+ * <p>
+ * The service has the following endpoints:
+ * <dl>
+ *     <dt>{@code GET /mint?version=4&format=NCNAME_64&count=1}</dt>
+ *     <dd>Mints {@code count} new ids of version 4 (random) or version 7
+ *     (Unix Epoch time-based), and returns them in the specified
+ *     {@link UuidFormat}. All parameters are optional, the defaults are
+ *     shown above. The count must not exceed {@value #MAX_COUNT}.</dd>
+ *     <dt>{@code POST /transcode?from=NCNAME_64&to=CANONICAL}</dt>
+ *     <dd>Converts the ids in the request body from one format into another.
+ *     If the {@code from} parameter is absent, the format of each id is
+ *     detected with {@link UuidNCName#fromString(String)}, which does not
+ *     detect the base36 and base62 formats, and misreads base62 ids as
+ *     base64 ids. The {@code to} parameter is required.</dd>
+ * </dl>
+ * The request and response bodies consist of ASCII text with one id per line.
+ * Empty lines in the request body are skipped.
+ * <p>
+ * Responses are streamed: the ids are encoded in blocks into a reusable
+ * buffer, and each block is written as soon as it is full. The response of
+ * {@code /mint} has a {@code Content-Length}, the response of
+ * {@code /transcode} uses chunked transfer encoding. If a malformed id is found in the
+ * request body of {@code /transcode} after the first block has been written,
+ * the connection is closed without terminating the chunked response, so that
+ * the client sees an incomplete response instead of a truncated result.
+ * <p>
+ * Errors in the request parameters are answered with status 400, unknown
+ * paths with status 404, and wrong request methods with status 405. The
+ * response body of an error contains a message.
+ * <p>
+ * For low latency, start the JVM with {@code -Dsun.net.httpserver.nodelay=true},
+ * so that the server disables the Nagle algorithm on its sockets.
+ */
+public final class UuidHttpService implements AutoCloseable {
+    /**
+     * The maximal number of ids that can be minted with one request.
+     */
+    public static final int MAX_COUNT = 1 << 20;
+    /**
+     * The maximal length of a line in the request body of {@code /transcode}.
+     */
+    private static final int MAX_LINE_LENGTH = 256;
+    /**
+     * The number of ids that are encoded into the output buffer before
+     * it is written.
+     */
+    private static final int BLOCK_SIZE = 1024;
+    private static final int MAX_FORMAT_LENGTH = UuidFormat.CANONICAL.length();
+    private static final VarHandle LONG_BE =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final HttpServer server;
+    /**
+     * The executor that is shut down on {@link #close()}, or null if the
+     * executor is owned by the caller.
+     */
+    private final ExecutorService ownedExecutor;
+    private final SecureRandom random = new SecureRandom();
+
+    private UuidHttpService(HttpServer server, ExecutorService ownedExecutor) {
+        this.server = server;
+        this.ownedExecutor = ownedExecutor;
+        server.createContext("/mint", this::handleMint);
+        server.createContext("/transcode", this::handleTranscode);
+        server.createContext("/", exchange -> sendError(exchange, 404, "Not found: " + exchange.getRequestURI().getPath()));
+    }
+
+    /**
+     * Starts a new service on the specified address, which handles each
+     * request on its own virtual thread, or on a cached thread pool if
+     * virtual threads are not available.
+     *
+     * @param address the address, use port 0 to bind to an ephemeral port
+     * @return the started service
+     * @throws IOException if the server can not be bound to the address
+     */
+    public static UuidHttpService start(InetSocketAddress address) throws IOException {
+        ExecutorService executor = newVirtualThreadExecutor();
+        try {
+            return start(address, executor, executor);
+        } catch (IOException | RuntimeException e) {
+            executor.shutdown();
+            throw e;
+        }
+    }
+
+    /**
+     * Starts a new service on the specified address, which handles
+     * requests on the specified executor.
+     * <p>
+     * The executor is not shut down when the service is closed.
+     *
+     * @param address  the address, use port 0 to bind to an ephemeral port
+     * @param executor the executor
+     * @return the started service
+     * @throws IOException if the server can not be bound to the address
+     */
+    public static UuidHttpService start(InetSocketAddress address, Executor executor) throws IOException {
+        return start(address, executor, null);
+    }
+
+    private static UuidHttpService start(InetSocketAddress address, Executor executor,
+                                         ExecutorService ownedExecutor) throws IOException {
+        HttpServer server = HttpServer.create(address, 0);
+        server.setExecutor(executor);
+        UuidHttpService service = new UuidHttpService(server, ownedExecutor);
+        server.start();
+        return service;
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for each task.
+     * <p>
+     * The executor is looked up reflectively, so that this class can be
+     * compiled for a Java version where virtual threads are a preview
+     * feature. If virtual threads are not available, a cached thread pool
+     * is returned.
+     *
+     * @return a new executor
+     */
+    static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * Returns the address that the service is bound to.
+     *
+     * @return the address
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Stops the service. Requests that are in progress are aborted.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    private void handleMint(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Method not allowed: " + exchange.getRequestMethod());
+                return;
+            }
+            Map<String, String> params = parseQuery(exchange);
+            int version;
+            int count;
+            UuidFormat format;
+            try {
+                version = Integer.parseInt(params.getOrDefault("version", "4"));
+                count = Integer.parseInt(params.getOrDefault("count", "1"));
+                format = UuidFormat.valueOf(params.getOrDefault("format", UuidFormat.NCNAME_64.name()));
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, "Illegal parameter: " + e.getMessage());
+                return;
+            }
+            if (version != 4 && version != 7) {
+                sendError(exchange, 400, "Unsupported version: " + version);
+                return;
+            }
+            if (count < 1 || count > MAX_COUNT) {
+                sendError(exchange, 400, "Illegal count: " + count);
+                return;
+            }
+            mint(exchange, version, count, format);
+        }
+    }
+
+    /**
+     * Writes the specified number of new ids in blocks of {@value #BLOCK_SIZE}.
+     */
+    private void mint(HttpExchange exchange, int version, int count, UuidFormat format) throws IOException {
+        int recordLength = format.length() + 1;
+        int blockSize = Math.min(count, BLOCK_SIZE);
+        byte[] randomBytes = new byte[blockSize * 16];
+        byte[] out = new byte[blockSize * recordLength];
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=US-ASCII");
+        exchange.sendResponseHeaders(200, (long) count * recordLength);
+        OutputStream body = exchange.getResponseBody();
+        for (int done = 0; done < count; ) {
+            int n = Math.min(count - done, blockSize);
+            random.nextBytes(randomBytes);
+            long unixTsMs = System.currentTimeMillis();
+            for (int i = 0, p = 0; i < n; i++, p += recordLength) {
+                long msb = (long) LONG_BE.get(randomBytes, i * 16);
+                long lsb = (long) LONG_BE.get(randomBytes, i * 16 + 8);
+                if (version == 7) {
+                    msb = unixTsMs << 16 | msb & 0x0fffL | 0x7000L;
+                } else {
+                    msb = msb & ~0xf000L | 0x4000L;
+                }
+                lsb = lsb & 0x3fffffff_ffffffffL | 0x80000000_00000000L;
+                UuidNCName.encode(msb, lsb, format, out, p);
+                out[p + recordLength - 1] = '\n';
+            }
+            body.write(out, 0, n * recordLength);
+            done += n;
+        }
+    }
+
+    private void handleTranscode(HttpExchange exchange) throws IOException {
+        // The exchange is not closed with try-with-resources, because closing
+        // terminates the chunked response of a transcoding that has failed
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            sendError(exchange, 405, "Method not allowed: " + exchange.getRequestMethod());
+            return;
+        }
+        Map<String, String> params = parseQuery(exchange);
+        UuidFormat from;
+        UuidFormat to;
+        try {
+            String fromName = params.get("from");
+            String toName = params.get("to");
+            if (toName == null) {
+                sendError(exchange, 400, "Missing parameter: to");
+                return;
+            }
+            from = fromName == null ? null : UuidFormat.valueOf(fromName);
+            to = UuidFormat.valueOf(toName);
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, "Illegal parameter: " + e.getMessage());
+            return;
+        }
+        transcode(exchange, from, to);
+    }
+
+    /**
+     * Reads the request body in blocks, and writes the converted ids in
+     * blocks of up to {@value #BLOCK_SIZE}.
+     * <p>
+     * The response headers are sent when the first block of output is
+     * written, or when the input ends. Therefore, malformed ids in the
+     * first block of input are answered with status 400.
+     */
+    private void transcode(HttpExchange exchange, UuidFormat from, UuidFormat to) throws IOException {
+        InputStream in = exchange.getRequestBody();
+        byte[] inBytes = new byte[BLOCK_SIZE * (MAX_FORMAT_LENGTH + 1)];
+        char[] chars = new char[MAX_LINE_LENGTH + inBytes.length];
+        CharBuffer line = CharBuffer.wrap(chars);
+        int recordLength = to.length() + 1;
+        byte[] out = new byte[BLOCK_SIZE * recordLength];
+        long[] bits = new long[2];
+        OutputStream body = null;
+        int outPos = 0;
+        int carry = 0;
+        long lineNumber = 0;
+        boolean eof = false;
+        while (!eof) {
+            int n = in.read(inBytes);
+            eof = n < 0;
+            n = Math.max(n, 0);
+            for (int i = 0; i < n; i++) {
+                chars[carry + i] = (char) (inBytes[i] & 0xff);
+            }
+            int end = carry + n;
+            if (eof && end > 0) {
+                // Terminate the last line
+                chars[end++] = '\n';
+            }
+            int start = 0;
+            for (int i = 0; i < end; i++) {
+                if (chars[i] != '\n') {
+                    continue;
+                }
+                int lineEnd = i > start && chars[i - 1] == '\r' ? i - 1 : i;
+                lineNumber++;
+                if (lineEnd > start) {
+                    line.clear().position(start).limit(lineEnd);
+                    try {
+                        decode(line, from, bits);
+                    } catch (IllegalArgumentException e) {
+                        String message = "Illegal id in line " + lineNumber + ": " + e.getMessage();
+                        if (body == null) {
+                            sendError(exchange, 400, message);
+                            return;
+                        }
+                        throw new IOException(message, e);
+                    }
+                    if (outPos + recordLength > out.length) {
+                        if (body == null) {
+                            body = sendStreamingHeaders(exchange);
+                        }
+                        body.write(out, 0, outPos);
+                        outPos = 0;
+                    }
+                    UuidNCName.encode(bits[0], bits[1], to, out, outPos);
+                    out[outPos + recordLength - 1] = '\n';
+                    outPos += recordLength;
+                }
+                start = i + 1;
+            }
+            carry = end - start;
+            if (carry > MAX_LINE_LENGTH) {
+                String message = "Line " + (lineNumber + 1) + " is too long";
+                if (body == null) {
+                    sendError(exchange, 400, message);
+                    return;
+                }
+                throw new IOException(message);
+            }
+            System.arraycopy(chars, start, chars, 0, carry);
+        }
+        if (body == null) {
+            body = sendStreamingHeaders(exchange);
+        }
+        body.write(out, 0, outPos);
+        exchange.close();
+    }
+
+    private static void decode(CharBuffer line, UuidFormat format, long[] bits) {
+        if (format == null) {
+            UUID uuid = UuidNCName.fromString(line.toString());
+            bits[0] = uuid.getMostSignificantBits();
+            bits[1] = uuid.getLeastSignificantBits();
+        } else {
+            UuidNCName.decode(line, format, bits, 0);
+        }
+    }
+
+    private static OutputStream sendStreamingHeaders(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=US-ASCII");
+        exchange.sendResponseHeaders(200, 0);
+        return exchange.getResponseBody();
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] bytes = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+
+    private static Map<String, String> parseQuery(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String param : query.split("&")) {
+                int eq = param.indexOf('=');
+                String name = eq < 0 ? param : param.substring(0, eq);
+                String value = eq < 0 ? "" : param.substring(eq + 1);
+                params.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                        URLDecoder.decode(value, StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+}
@@ -1,6 +1,12 @@
 /**
  * Converts UUIDs to/from valid NCName productions for use in (X|HT)ML.
+ * <p>
+ * The package {@code ch.randelshofer.uuidncname.http} requires the module
+ * {@code jdk.httpserver}, which is optional for all other packages.
  */
 module ch.randelshofer.uuidncname {
+    requires static jdk.httpserver;
+
     exports ch.randelshofer.uuidncname;
-}
\ No newline at end of file
+    exports ch.randelshofer.uuidncname.http;
+}
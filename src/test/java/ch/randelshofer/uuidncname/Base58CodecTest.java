@@ -0,0 +1,129 @@
+/*
+ * @(#)Base58CodecTest.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+class Base58CodecTest {
+    /**
+     * Reference implementation with {@link BigInteger}.
+     */
+    private static String referenceEncode(byte[] bytes) {
+        StringBuilder b = new StringBuilder();
+        BigInteger n = new BigInteger(1, bytes);
+        BigInteger base = BigInteger.valueOf(58);
+        while (n.signum() > 0) {
+            BigInteger[] qr = n.divideAndRemainder(base);
+            b.append((char) FastBase58.ALPHABET[qr[1].intValue()]);
+            n = qr[0];
+        }
+        for (int i = 0; i < bytes.length && bytes[i] == 0; i++) {
+            b.append('1');
+        }
+        return b.reverse().toString();
+    }
+
+    @TestFactory
+    public List<DynamicTest> dynamicTests_knownValues() {
+        return List.of(
+                dynamicTest("empty", () -> testBase58("", "")),
+                dynamicTest("zero", () -> testBase58("00", "1")),
+                dynamicTest("zeros", () -> testBase58("000000", "111")),
+                dynamicTest("ten zeros", () -> testBase58("00000000000000000000", "1111111111")),
+                dynamicTest("leading '1's", () -> testMaxDecodedLength("1111111111z")),
+                dynamicTest("leading zeros", () -> testBase58("0000287fb4cd", "11233QC4")),
+                dynamicTest("Hello World!", () -> testBase58(hex("Hello World!"), "2NEpo7TZRRrLZSi2U")),
+                dynamicTest("The quick brown fox", () -> testBase58(hex("The quick brown fox jumps over the lazy dog."),
+                        "USm3fpXnKG5EUBx2ndxBDMPVciP5hGey2Jh4NDv6gmeo1LkMeiKrLJUUBk6Z")),
+                dynamicTest("Illegal", () -> assertThrows(IllegalArgumentException.class, () -> Base58Codec.decode("2NEpo0TZRRrLZSi2U")))
+        );
+    }
+
+    private void testMaxDecodedLength(String str) {
+        byte[] src = str.getBytes(StandardCharsets.ISO_8859_1);
+        byte[] dst = new byte[Base58Codec.maxDecodedLength(src.length)];
+        int length = Base58Codec.decode(src, 0, src.length, dst, 0);
+        assertArrayEquals(Base58Codec.decode(str), Arrays.copyOf(dst, length));
+    }
+
+    @TestFactory
+    public List<DynamicTest> dynamicTests_splitIndex() {
+        return List.of(
+                dynamicTest("385", () -> assertEquals(0, Base58Codec.splitIndex(385))),
+                dynamicTest("769", () -> assertEquals(1, Base58Codec.splitIndex(769))),
+                dynamicTest("2^30", () -> testSplitIndex(1 << 30)),
+                dynamicTest("MAX_VALUE", () -> testSplitIndex(Integer.MAX_VALUE))
+        );
+    }
+
+    private void testSplitIndex(int width) {
+        int i = Base58Codec.splitIndex(width);
+        assertTrue((384L << i) < width);
+        assertTrue((384L << (i + 1)) >= width);
+    }
+
+    @TestFactory
+    public List<DynamicTest> dynamicTests_random() {
+        return List.of(
+                dynamicTest("1..64 bytes", () -> testRandom(1, 64, 1_000)),
+                dynamicTest("250..300 bytes", () -> testRandom(250, 300, 200)),
+                dynamicTest("1000..5000 bytes", () -> testRandom(1000, 5000, 20))
+        );
+    }
+
+    private static String hex(String str) {
+        return HexFormat.of().formatHex(str.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void testBase58(String hex, String expected) {
+        byte[] bytes = HexFormat.of().parseHex(hex);
+        assertEquals(expected, Base58Codec.encode(bytes));
+        assertArrayEquals(bytes, Base58Codec.decode(expected));
+
+        ByteBuffer encoded = ByteBuffer.allocateDirect(Base58Codec.maxEncodedLength(bytes.length));
+        Base58Codec.encode(ByteBuffer.wrap(bytes), encoded);
+        encoded.flip();
+        ByteBuffer decoded = ByteBuffer.allocate(Base58Codec.maxDecodedLength(encoded.remaining()));
+        Base58Codec.decode(encoded, decoded);
+        assertEquals(ByteBuffer.wrap(bytes), decoded.flip());
+    }
+
+    private void testRandom(int minLength, int maxLength, int count) {
+        Random rng = new Random(minLength);
+        for (int i = 0; i < count; i++) {
+            byte[] bytes = new byte[minLength + rng.nextInt(maxLength - minLength + 1)];
+            rng.nextBytes(bytes);
+            for (int j = Math.min(bytes.length, rng.nextInt(4)) - 1; j >= 0; j--) {
+                bytes[j] = 0;
+            }
+            String expected = referenceEncode(bytes);
+            assertEquals(expected, Base58Codec.encode(bytes));
+            assertArrayEquals(bytes, Base58Codec.decode(expected));
+
+            byte[] dst = new byte[Base58Codec.maxEncodedLength(bytes.length) + 3];
+            int length = Base58Codec.encode(bytes, 0, bytes.length, dst, 3);
+            assertEquals(expected, new String(dst, 3, length, StandardCharsets.ISO_8859_1));
+            byte[] decoded = new byte[bytes.length + 2];
+            assertEquals(bytes.length, Base58Codec.decode(dst, 3, length, decoded, 2));
+            assertArrayEquals(bytes, Arrays.copyOfRange(decoded, 2, decoded.length));
+        }
+    }
+}
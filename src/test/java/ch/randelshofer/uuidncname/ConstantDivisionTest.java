@@ -0,0 +1,181 @@
+/*
+ * @(#)ConstantDivisionTest.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+class ConstantDivisionTest {
+    private static final BigInteger MASK_64 = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+
+    /**
+     * Divisors that are used by the base conversions in this library,
+     * and divisors at the edges of the value range.
+     */
+    private static List<Long> divisors() {
+        List<Long> list = new ArrayList<>();
+        for (long base : new long[]{10, 36, 58, 62}) {
+            for (long p = base; p > 0 && Long.compareUnsigned(p, Long.MAX_VALUE / base) <= 0; p *= base) {
+                list.add(p);
+            }
+        }
+        for (int shift = 1; shift < 64; shift++) {
+            list.add((1L << shift) | 1);
+            list.add(1L << shift);
+            list.add((1L << shift) + 1);
+        }
+        list.add(-1L);
+        list.add(-2L);
+        Random rng = new Random(0);
+        for (int i = 0; i < 200; i++) {
+            list.add(rng.nextLong() >>> rng.nextInt(63) | 2);
+        }
+        return list;
+    }
+
+    private static List<Long> dividends(long d, Random rng) {
+        List<Long> list = new ArrayList<>(List.of(0L, 1L, -1L, Long.MAX_VALUE, Long.MIN_VALUE, d, d - 1, d + 1));
+        for (int i = 0; i < 200; i++) {
+            long a = rng.nextLong() >>> rng.nextInt(64);
+            list.add(a);
+            // Values near multiples of the divisor.
+            long q = Long.divideUnsigned(a, d);
+            list.add(q * d);
+            list.add(q * d - 1);
+        }
+        return list;
+    }
+
+    private static BigInteger unsigned(long value) {
+        return BigInteger.valueOf(value).and(MASK_64);
+    }
+
+    @TestFactory
+    public List<DynamicTest> dynamicTests_u32() {
+        return List.of(
+                dynamicTest("exhaustive a < 2^16, d < 2^10", () -> testExhaustive_u32(1 << 16, 1 << 10)),
+                dynamicTest("property N + L <= 64", this::testProperty_u32)
+        );
+    }
+
+    @TestFactory
+    public List<DynamicTest> dynamicTests_u64() {
+        return List.of(
+                dynamicTest("exhaustive a < 2^14, d < 2^10", () -> testExhaustive_u64(1 << 14, 1 << 10)),
+                dynamicTest("property", this::testProperty_u64),
+                dynamicTest("illegal divisor 0", () -> assertThrows(IllegalArgumentException.class, () -> new ConstantDivision.Divisor(0))),
+                dynamicTest("illegal divisor 1", () -> assertThrows(IllegalArgumentException.class, () -> new ConstantDivision.Divisor(1)))
+        );
+    }
+
+    @TestFactory
+    public List<DynamicTest> dynamicTests_u128() {
+        return List.of(
+                dynamicTest("exhaustive hi < d < 2^8, lo < 2^10", this::testExhaustive_u128),
+                dynamicTest("property", this::testProperty_u128)
+        );
+    }
+
+    private void testExhaustive_u32(int maxA, int maxD) {
+        for (int d = 2; d < maxD; d++) {
+            long M = ConstantDivision.computeM_u32(d);
+            for (int a = 0; a < maxA; a++) {
+                if (a % d != ConstantDivision.fastmod_u32(a, M, d) || a / d != ConstantDivision.fastdiv_u32(a, M)) {
+                    fail("a=" + a + ", d=" + d);
+                }
+            }
+        }
+    }
+
+    private void testProperty_u32() {
+        Random rng = new Random(1);
+        for (int i = 0; i < 100_000; i++) {
+            int d = 2 + rng.nextInt(Integer.MAX_VALUE - 2);
+            int L = 64 - Integer.numberOfLeadingZeros(d);
+            int N = Math.min(63, 64 - L);
+            long a = rng.nextLong() >>> (64 - N);
+            long M = ConstantDivision.computeM_u32(d);
+            assertEquals(a % d, ConstantDivision.fastmod_u32L(a, M, d), "a=" + a + ", d=" + d);
+            assertEquals(a / d, ConstantDivision.fastdiv_u32L(a, M), "a=" + a + ", d=" + d);
+        }
+    }
+
+    private void testExhaustive_u64(int maxA, int maxD) {
+        for (long d = 2; d < maxD; d++) {
+            long mHigh = ConstantDivision.computeMHigh_u64(d);
+            long mLow = ConstantDivision.computeMLow_u64(d);
+            for (long a = 0; a < maxA; a++) {
+                if (a % d != ConstantDivision.fastmod_u64(a, mHigh, mLow, d) || a / d != ConstantDivision.fastdiv_u64(a, mHigh, mLow)) {
+                    fail("a=" + a + ", d=" + d);
+                }
+            }
+        }
+    }
+
+    private void testProperty_u64() {
+        Random rng = new Random(2);
+        for (long d : divisors()) {
+            ConstantDivision.Divisor divisor = new ConstantDivision.Divisor(d);
+            for (long a : dividends(d, rng)) {
+                String msg = "a=" + Long.toUnsignedString(a) + ", d=" + Long.toUnsignedString(d);
+                assertEquals(Long.remainderUnsigned(a, d), divisor.mod(a), msg);
+                assertEquals(Long.divideUnsigned(a, d), divisor.div(a), msg);
+            }
+        }
+    }
+
+    private void testExhaustive_u128() {
+        for (long d = 2; d < 1 << 8; d++) {
+            ConstantDivision.Divisor divisor = new ConstantDivision.Divisor(d);
+            for (long hi = 0; hi < d; hi++) {
+                for (long lo = 0; lo < 1 << 10; lo++) {
+                    // We check that q * d + r == (hi << 64 | lo) and r < d.
+                    for (long l : new long[]{lo, -lo}) {
+                        long q = divisor.div128(hi, l);
+                        long r = divisor.mod128(hi, l);
+                        if (Long.compareUnsigned(r, d) >= 0
+                                || Math.unsignedMultiplyHigh(q, d) + (Long.compareUnsigned(q * d + r, q * d) < 0 ? 1 : 0) != hi
+                                || q * d + r != l) {
+                            fail("hi=" + hi + ", lo=" + Long.toUnsignedString(l) + ", d=" + d);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void testProperty_u128() {
+        Random rng = new Random(3);
+        for (long d : divisors()) {
+            ConstantDivision.Divisor divisor = new ConstantDivision.Divisor(d);
+            for (long hi : dividends(d, rng)) {
+                hi = Long.remainderUnsigned(hi, d);
+                assert128(divisor, hi, rng.nextLong());
+                assert128(divisor, hi, 0);
+                assert128(divisor, hi, -1);
+                assert128(divisor, d - 1, -1);
+            }
+        }
+    }
+
+    private static void assert128(ConstantDivision.Divisor divisor, long hi, long lo) {
+        BigInteger[] expected = unsigned(hi).shiftLeft(64).or(unsigned(lo)).divideAndRemainder(unsigned(divisor.divisor()));
+        String msg = "hi=" + Long.toUnsignedString(hi) + ", lo=" + Long.toUnsignedString(lo)
+                + ", d=" + Long.toUnsignedString(divisor.divisor());
+        assertEquals(expected[0].longValue(), divisor.div128(hi, lo), msg);
+        assertEquals(expected[1].longValue(), divisor.mod128(hi, lo), msg);
+    }
+}
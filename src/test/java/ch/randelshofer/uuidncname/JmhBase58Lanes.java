@@ -0,0 +1,82 @@
+/*
+ * @(#)JmhBase58Lanes.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the bulk encoding of base58 ids with
+ * {@link FastBase58#encode58Lanes}, against encoding one id after the
+ * other. The score is the time per id.
+ * <pre>
+ * # JMH version: 1.36
+ * # VM version: JDK 21.0.1, OpenJDK 64-Bit Server VM, 21.0.1+12-LTS
+ * # Intel(R) Xeon(R) Processor (shared, noisy host)
+ *
+ * Benchmark                   (format)  Mode  Cnt    Score    Error  Units
+ * JmhBase58Lanes.lanes       NCNAME_58  avgt   12   60.578 ±  8.622  ns/op
+ * JmhBase58Lanes.lanes   NCNAME_58_LEX  avgt   12   69.611 ± 17.886  ns/op
+ * JmhBase58Lanes.scalar      NCNAME_58  avgt   12  108.224 ± 22.187  ns/op
+ * JmhBase58Lanes.scalar  NCNAME_58_LEX  avgt   12  101.143 ± 12.619  ns/op
+ * </pre>
+ */
+@Fork(value = 1, jvmArgsAppend = {
+        "-Xmx4g"
+})
+@Warmup(iterations = 4)
+@Measurement(iterations = 4)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Benchmark)
+public class JmhBase58Lanes {
+    private static final int COUNT = 1024;
+
+    @Param({"NCNAME_58", "NCNAME_58_LEX"})
+    public UuidFormat format;
+
+    private UuidNCName.Encoder encoder;
+    private final long[] bits = new long[2 * COUNT];
+    private final byte[] chars = new byte[UuidNCName.SCRATCH_LENGTH + COUNT * 23];
+
+    @Setup
+    public void setup() {
+        encoder = UuidNCName.getEncoder(format);
+        Random rng = new Random(0);
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = rng.nextLong();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public byte[] lanes() {
+        encoder.encode(bits, 0, chars, UuidNCName.SCRATCH_LENGTH, COUNT);
+        return chars;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public byte[] scalar() {
+        for (int i = 0; i < COUNT; i++) {
+            UuidNCName.encodeWithScratch(bits[2 * i], bits[2 * i + 1], format, chars, UuidNCName.SCRATCH_LENGTH + i * 23);
+        }
+        return chars;
+    }
+}
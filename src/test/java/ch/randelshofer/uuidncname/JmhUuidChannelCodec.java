@@ -0,0 +1,127 @@
+/*
+ * @(#)JmhUuidChannelCodec.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link UuidChannelCodec} on an in-memory dump of 1 million ids.
+ * The score is the time per id.
+ */
+@Fork(value = 1, jvmArgsAppend = {
+        "-Xmx4g"
+})
+@Warmup(iterations = 4)
+@Measurement(iterations = 4)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Benchmark)
+public class JmhUuidChannelCodec {
+    private static final int COUNT = 1_000_000;
+
+    @Param({"NCNAME_32_LEX", "NCNAME_58", "NCNAME_64"})
+    public UuidFormat format;
+
+    private UuidChannelCodec codec;
+    private ByteBuffer binary;
+    private ByteBuffer text;
+
+    @Setup
+    public void setup() throws IOException {
+        codec = new UuidChannelCodec(format, '\n');
+        Random rng = new Random(0);
+        binary = ByteBuffer.allocateDirect(COUNT * 16);
+        while (binary.hasRemaining()) {
+            binary.putLong(rng.nextLong());
+        }
+        text = ByteBuffer.allocateDirect(COUNT * (format.length() + 1));
+        codec.encode(new BufferChannel(binary.clear()), new BufferChannel(text.clear()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public long encode() throws IOException {
+        return codec.encode(new BufferChannel(binary.clear()), new NullChannel());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public long decode() throws IOException {
+        return codec.decode(new BufferChannel(text.clear()), new NullChannel());
+    }
+
+    /**
+     * Reads from or writes to a byte buffer.
+     */
+    private record BufferChannel(ByteBuffer buffer) implements ReadableByteChannel, WritableByteChannel {
+        @Override
+        public int read(ByteBuffer dst) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(dst.remaining(), buffer.remaining());
+            dst.put(dst.position(), buffer, buffer.position(), n);
+            dst.position(dst.position() + n);
+            buffer.position(buffer.position() + n);
+            return n;
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            int n = src.remaining();
+            buffer.put(src);
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Discards all bytes.
+     */
+    private static class NullChannel implements WritableByteChannel {
+        @Override
+        public int write(ByteBuffer src) {
+            int n = src.remaining();
+            src.position(src.limit());
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -64,6 +64,40 @@ import java.util.concurrent.TimeUnit;
  * JmhUuidNcName.wCanonical  avgt        26.324          ns/op
  * [
  * </pre>
+ *
+ * <pre>
+ * # JMH version: 1.36
+ * # VM version: JDK 21.0.1, OpenJDK 64-Bit Server VM, 21.0.1+12-LTS
+ * # Intel(R) Xeon(R) Processor (shared, noisy host)
+ *
+ * Benchmark                                      Mode  Cnt   Score    Error  Units
+ * JmhUuidNcName.tBase32LexToBase64Lex            avgt   12  92.266 ± 11.195  ns/op
+ * JmhUuidNcName.tBase32LexToBase64LexIntoBuffer  avgt   12  66.298 ± 10.424  ns/op
+ * JmhUuidNcName.tBase32LexToBase64LexViaUuid     avgt   12  61.482 ± 10.389  ns/op
+ * JmhUuidNcName.tCanonicalToBase32Lex            avgt   12  79.450 ± 17.426  ns/op
+ * JmhUuidNcName.tCanonicalToBase32LexViaUuid     avgt   12  77.700 ±  3.349  ns/op
+ * </pre>
+ * The fused transcoding paths are not faster than the round trip via
+ * {@link UUID}: the 32-lex to 64-lex path is slower even when it writes into
+ * a buffer, and the canonical source, which is now read with the strict
+ * hex reader instead of {@link UUID#fromString}, is slightly slower than
+ * {@code UUID.fromString} followed by encoding.
+ *
+ * <pre>
+ * # JMH version: 1.36
+ * # VM version: JDK 21.0.1, OpenJDK 64-Bit Server VM, 21.0.1+12-LTS
+ * # Intel(R) Xeon(R) Processor (shared, noisy host)
+ *
+ * Benchmark                         Mode  Cnt   Score   Error  Units
+ * JmhUuidNcName.dBase32Adaptive     avgt   12  46.292 ± 7.091  ns/op
+ * JmhUuidNcName.dBase32Detected     avgt   12  40.605 ± 7.304  ns/op
+ * JmhUuidNcName.dBase64LexAdaptive  avgt   12  28.486 ± 7.693  ns/op
+ * JmhUuidNcName.dBase64LexDetected  avgt   12  28.653 ± 6.664  ns/op
+ * JmhUuidNcName.dCanonicalAdaptive  avgt   12  43.701 ± 7.456  ns/op
+ * JmhUuidNcName.dCanonicalDetected  avgt   12  31.809 ± 4.288  ns/op
+ * </pre>
+ * Both canonical benchmarks use the strict canonical reader. The adaptive
+ * decoder is not faster than format detection for a single format.
  */
 @Fork(value = 1, jvmArgsAppend = {
         "-Xmx4g"
@@ -84,6 +118,10 @@ public class JmhUuidNcName {
     private String base58Lex = UuidNCName.toString(uuid, UuidFormat.NCNAME_58_LEX);
     private String base64 = UuidNCName.toString(uuid, UuidFormat.NCNAME_64);
     private String base64Lex = UuidNCName.toString(uuid, UuidFormat.NCNAME_64_LEX);
+    private String base36 = UuidNCName.toString(uuid, UuidFormat.NCNAME_36);
+    private String base36Lex = UuidNCName.toString(uuid, UuidFormat.NCNAME_36_LEX);
+    private String base62 = UuidNCName.toString(uuid, UuidFormat.NCNAME_62);
+    private String base62Lex = UuidNCName.toString(uuid, UuidFormat.NCNAME_62_LEX);
 
     /*
     @Benchmark
@@ -115,6 +153,26 @@ public class JmhUuidNcName {
         return UuidNCName.fromString(base64Lex);
     }
 
+    @Benchmark
+    public UUID rBase36() {
+        return UuidNCName.fromString(base36, UuidFormat.NCNAME_36);
+    }
+
+    @Benchmark
+    public UUID rBase36Lex() {
+        return UuidNCName.fromString(base36Lex, UuidFormat.NCNAME_36_LEX);
+    }
+
+    @Benchmark
+    public UUID rBase62() {
+        return UuidNCName.fromString(base62, UuidFormat.NCNAME_62);
+    }
+
+    @Benchmark
+    public UUID rBase62Lex() {
+        return UuidNCName.fromString(base62Lex, UuidFormat.NCNAME_62_LEX);
+    }
+
     @Benchmark
     public UUID rCanonical() {
         return UUID.fromString(canonical);
@@ -152,8 +210,87 @@ public class JmhUuidNcName {
         return UuidNCName.toString(uuid, UuidFormat.NCNAME_64_LEX);
     }
 
+    @Benchmark
+    public String wBase36() {
+        return UuidNCName.toString(uuid, UuidFormat.NCNAME_36);
+    }
+
+    @Benchmark
+    public String wBase36Lex() {
+        return UuidNCName.toString(uuid, UuidFormat.NCNAME_36_LEX);
+    }
+
+    @Benchmark
+    public String wBase62() {
+        return UuidNCName.toString(uuid, UuidFormat.NCNAME_62);
+    }
+
+    @Benchmark
+    public String wBase62Lex() {
+        return UuidNCName.toString(uuid, UuidFormat.NCNAME_62_LEX);
+    }
+
     @Benchmark
     public String wCanonical() {
         return uuid.toString();
     }
-}
\ No newline at end of file
+
+    private final byte[] transcodeBuffer = new byte[36];
+
+    @Benchmark
+    public String tBase32LexToBase64LexViaUuid() {
+        return UuidNCName.toString(UuidNCName.fromString(base32Lex, UuidFormat.NCNAME_32_LEX), UuidFormat.NCNAME_64_LEX);
+    }
+
+    @Benchmark
+    public String tBase32LexToBase64Lex() {
+        return UuidNCName.transcode(base32Lex, UuidFormat.NCNAME_32_LEX, UuidFormat.NCNAME_64_LEX);
+    }
+
+    @Benchmark
+    public int tBase32LexToBase64LexIntoBuffer() {
+        return UuidNCName.transcode(base32Lex, UuidFormat.NCNAME_32_LEX, UuidFormat.NCNAME_64_LEX, transcodeBuffer, 0);
+    }
+
+    @Benchmark
+    public String tCanonicalToBase32LexViaUuid() {
+        return UuidNCName.toString(UUID.fromString(canonical), UuidFormat.NCNAME_32_LEX);
+    }
+
+    @Benchmark
+    public String tCanonicalToBase32Lex() {
+        return UuidNCName.transcode(canonical, UuidFormat.CANONICAL, UuidFormat.NCNAME_32_LEX);
+    }
+
+    private final UuidAdaptiveDecoder adaptiveDecoder = new UuidAdaptiveDecoder();
+
+    @Benchmark
+    public UUID dBase64LexDetected() {
+        return UuidNCName.fromString(base64Lex);
+    }
+
+    @Benchmark
+    public UUID dBase64LexAdaptive() {
+        return adaptiveDecoder.decode(base64Lex);
+    }
+
+    @Benchmark
+    public UUID dBase32Detected() {
+        return UuidNCName.fromString(base32);
+    }
+
+    @Benchmark
+    public UUID dBase32Adaptive() {
+        return adaptiveDecoder.decode(base32);
+    }
+
+    @Benchmark
+    public UUID dCanonicalDetected() {
+        return UuidNCName.fromString(canonical);
+    }
+
+    @Benchmark
+    public UUID dCanonicalAdaptive() {
+        return adaptiveDecoder.decode(canonical);
+    }
+}
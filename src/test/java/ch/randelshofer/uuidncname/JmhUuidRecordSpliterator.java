@@ -0,0 +1,84 @@
+/*
+ * @(#)JmhUuidRecordSpliterator.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks counting the version 7 ids in a direct buffer with
+ * {@link UuidRecordSpliterator}, sequentially and in parallel. The score is
+ * the time per id. The results below were measured on a single core, where
+ * the parallel stream can only show its overhead.
+ * <pre>
+ * # JMH version: 1.36
+ * # VM version: JDK 21.0.1, OpenJDK 64-Bit Server VM, 21.0.1+12-LTS
+ * # Intel(R) Xeon(R) Processor (shared, noisy host), 1 core
+ *
+ * Benchmark                                 (format)  Mode  Cnt   Score     Error  Units
+ * JmhUuidRecordSpliterator.parallel    NCNAME_64_LEX  avgt    4  51.989 ±  20.057  ns/op
+ * JmhUuidRecordSpliterator.parallel        CANONICAL  avgt    4  79.471 ±   2.989  ns/op
+ * JmhUuidRecordSpliterator.sequential  NCNAME_64_LEX  avgt    4  61.990 ±  11.234  ns/op
+ * JmhUuidRecordSpliterator.sequential      CANONICAL  avgt    4  69.231 ± 108.541  ns/op
+ * </pre>
+ */
+@Fork(value = 1, jvmArgsAppend = {
+        "-Xmx4g"
+})
+@Warmup(iterations = 4)
+@Measurement(iterations = 4)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Benchmark)
+public class JmhUuidRecordSpliterator {
+    private static final int COUNT = 1 << 20;
+
+    @Param({"NCNAME_64_LEX", "CANONICAL"})
+    public UuidFormat format;
+
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setup() {
+        buffer = ByteBuffer.allocateDirect(COUNT * format.length());
+        UuidNCName.Encoder encoder = UuidNCName.getEncoder(format);
+        long[] bits = new long[2];
+        Random rng = new Random(0);
+        for (int i = 0; i < COUNT; i++) {
+            bits[0] = rng.nextLong() & ~0xf000L | (i % 3 == 0 ? 0x7000L : 0x4000L);
+            bits[1] = rng.nextLong();
+            buffer.put(encoder.encodeToString(bits[0], bits[1]).getBytes(StandardCharsets.ISO_8859_1));
+        }
+        buffer.flip();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public long sequential() {
+        return UuidRecordSpliterator.of(buffer, format).count((msb, lsb) -> (msb >>> 12 & 0xf) == 7, false);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public long parallel() {
+        return UuidRecordSpliterator.of(buffer, format).count((msb, lsb) -> (msb >>> 12 & 0xf) == 7, true);
+    }
+}
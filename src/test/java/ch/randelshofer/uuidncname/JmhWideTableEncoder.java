@@ -0,0 +1,110 @@
+/*
+ * @(#)JmhWideTableEncoder.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the narrow and the wide lookup table for the 60-bit data fields
+ * of the base32 and base64 formats, under cache pressure.
+ * <p>
+ * Before each encoding, the benchmark walks {@code LINES_PER_OP} cache lines
+ * of a buffer with {@code pressureKiB} kibibytes. This evicts the lookup
+ * tables from the L1 cache when the buffer is large. The {@code pressureOnly}
+ * benchmark measures the walk alone, so that it can be subtracted.
+ */
+@Fork(value = 1, jvmArgsAppend = {
+        "-Xmx4g"
+})
+@Warmup(iterations = 4)
+@Measurement(iterations = 4)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Benchmark)
+public class JmhWideTableEncoder {
+    private static final int LINES_PER_OP = 16;
+    private static final byte[] BASE_32_ALPHABET =
+            "abcdefghijklmnopqrstuvwxyz234567".getBytes(StandardCharsets.ISO_8859_1);
+    private static final byte[] BASE_64_ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes(StandardCharsets.ISO_8859_1);
+
+    @Param({"0", "64", "4096"})
+    public int pressureKiB;
+
+    private final short[] base32Table = WideTableEncoder.createTable(BASE_32_ALPHABET, 5);
+    private final short[] base64Table = WideTableEncoder.createTable(BASE_64_ALPHABET, 6);
+    private final long[] values = new Random(0).longs(1024).toArray();
+    private final byte[] str = new byte[12];
+    private byte[] pressure;
+    private int pressureIndex;
+    private int valueIndex;
+
+    @Setup
+    public void setup() {
+        pressure = new byte[Math.max(64, pressureKiB * 1024)];
+    }
+
+    private long next() {
+        int sum = 0;
+        if (pressureKiB != 0) {
+            byte[] p = pressure;
+            int j = pressureIndex;
+            for (int i = 0; i < LINES_PER_OP; i++) {
+                sum += p[j];
+                p[j] = (byte) sum;
+                j += 64;
+                if (j >= p.length) {
+                    j -= p.length;
+                }
+            }
+            pressureIndex = j;
+        }
+        return values[valueIndex++ & 1023] + sum;
+    }
+
+    @Benchmark
+    public long pressureOnly() {
+        return next();
+    }
+
+    @Benchmark
+    public byte[] narrowBase32() {
+        UuidNCName.writeUInt60(str, 0, 12, next(), BASE_32_ALPHABET, 5, 31);
+        return str;
+    }
+
+    @Benchmark
+    public byte[] wideBase32() {
+        WideTableEncoder.write(str, 0, 12, next(), base32Table, 10, 1023);
+        return str;
+    }
+
+    @Benchmark
+    public byte[] narrowBase64() {
+        UuidNCName.writeUInt60(str, 0, 10, next(), BASE_64_ALPHABET, 6, 63);
+        return str;
+    }
+
+    @Benchmark
+    public byte[] wideBase64() {
+        WideTableEncoder.write(str, 0, 10, next(), base64Table, 12, 4095);
+        return str;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * @(#)UuidAdaptiveDecoderTest.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+class UuidAdaptiveDecoderTest {
+    private static final UuidFormat[] DETECTED_FORMATS = {UuidFormat.CANONICAL,
+            UuidFormat.NCNAME_32, UuidFormat.NCNAME_58, UuidFormat.NCNAME_64,
+            UuidFormat.NCNAME_32_LEX, UuidFormat.NCNAME_58_LEX, UuidFormat.NCNAME_64_LEX};
+
+    @TestFactory
+    public Stream<DynamicTest> dynamicTests_homogeneousStream() {
+        return Arrays.stream(DETECTED_FORMATS).map(format -> dynamicTest(format.name(), () -> {
+            UuidAdaptiveDecoder decoder = new UuidAdaptiveDecoder();
+            Random rng = new Random(format.ordinal());
+            long[] bits = new long[2];
+            for (int i = 0; i < 1000; i++) {
+                UUID expected = new UUID(rng.nextLong(), rng.nextLong());
+                assertEquals(format, decoder.decode(UuidNCName.toString(expected, format), bits, 0));
+                assertEquals(expected, new UUID(bits[0], bits[1]));
+                assertEquals(i < UuidAdaptiveDecoder.DEFAULT_LEARNING_THRESHOLD - 1 ? null : format,
+                        decoder.getPinnedFormat());
+            }
+            UuidAdaptiveDecoder.Statistics stats = decoder.getStatistics();
+            assertEquals(1000, stats.getTotalCount());
+            assertEquals(1000, stats.getCount(format));
+            assertEquals(1000 - UuidAdaptiveDecoder.DEFAULT_LEARNING_THRESHOLD, stats.getFastPathCount());
+            assertEquals(1, stats.getPinCount());
+            assertEquals(format, stats.getDominantFormat());
+        }));
+    }
+
+    @Test
+    public void testMixedStreamAndFormatChange() {
+        UuidAdaptiveDecoder decoder = new UuidAdaptiveDecoder(null, 4);
+        Random rng = new Random(1);
+        for (int i = 0; i < 2000; i++) {
+            // Mostly NCNAME_64_LEX, with a few ids in other formats of the same length,
+            // or in the same alphabet, which must not pass the guard
+            UuidFormat format = i % 50 == 0 ? UuidFormat.NCNAME_64 : i % 30 == 0 ? UuidFormat.NCNAME_32_LEX
+                    : i % 70 == 0 ? UuidFormat.CANONICAL : UuidFormat.NCNAME_64_LEX;
+            UUID expected = new UUID(rng.nextLong(), rng.nextLong());
+            assertEquals(expected, decoder.decode(UuidNCName.toString(expected, format)));
+        }
+        assertEquals(UuidFormat.NCNAME_64_LEX, decoder.getPinnedFormat());
+        UuidAdaptiveDecoder.Statistics stats = decoder.getStatistics();
+        assertEquals(UuidFormat.NCNAME_64_LEX, stats.getDominantFormat());
+        assertEquals(1, stats.getPinCount());
+        assertEquals(2000, stats.getTotalCount());
+        assertEquals(stats.getCount(UuidFormat.NCNAME_64_LEX), stats.getFastPathCount() + 4);
+
+        // The stream switches to another format
+        for (int i = 0; i < 10; i++) {
+            UUID expected = new UUID(rng.nextLong(), rng.nextLong());
+            assertEquals(expected, decoder.decode(UuidNCName.toString(expected, UuidFormat.NCNAME_58)));
+        }
+        assertEquals(UuidFormat.NCNAME_58, decoder.getPinnedFormat());
+        assertEquals(2, decoder.getStatistics().getPinCount());
+        assertTrue(decoder.getStatistics().toString().contains("NCNAME_58="), decoder.getStatistics().toString());
+    }
+
+    @Test
+    public void testInitialFormatAndInvalidInput() {
+        UuidAdaptiveDecoder decoder = new UuidAdaptiveDecoder(UuidFormat.NCNAME_62_LEX, 8);
+        UUID expected = UUID.randomUUID();
+        assertEquals(expected, decoder.decode(UuidNCName.toString(expected, UuidFormat.NCNAME_62_LEX)));
+        assertEquals(1, decoder.getStatistics().getFastPathCount());
+
+        assertThrows(IllegalArgumentException.class, () -> decoder.decode("abc"));
+        assertThrows(IllegalArgumentException.class, () -> decoder.decode("!".repeat(22)));
+        assertThrows(IllegalArgumentException.class, () -> decoder.decode("!".repeat(26)));
+        assertThrows(IndexOutOfBoundsException.class, () -> decoder.decode(UuidNCName.toString(expected, UuidFormat.NCNAME_62_LEX), new long[2], 1));
+        assertThrows(IllegalArgumentException.class, () -> new UuidAdaptiveDecoder(null, 0));
+        assertEquals(3, decoder.getStatistics().getInvalidCount());
+        // Invalid strings of a known length are counted in their format
+        assertEquals(3, decoder.getStatistics().getTotalCount());
+
+        assertNull(new UuidAdaptiveDecoder().getStatistics().getDominantFormat());
+    }
+
+    @Test
+    public void testLenientCanonicalInput() {
+        // UUID.fromString accepts these strings, the canonical decoder must not
+        UuidAdaptiveDecoder decoder = new UuidAdaptiveDecoder();
+        UuidNCName.Decoder canonicalDecoder = UuidNCName.getDecoder(UuidFormat.CANONICAL);
+        for (String str : new String[]{"+0000000-0000-0000-0000-00000000000a", "0-0000000000-0000-0000-0000000000000"}) {
+            assertThrows(IllegalArgumentException.class, () -> canonicalDecoder.decode(str));
+            assertThrows(IllegalArgumentException.class, () -> decoder.decode(str));
+            assertThrows(IllegalArgumentException.class, () -> decoder.decode(str, new long[2], 0));
+        }
+        assertEquals(4, decoder.getStatistics().getInvalidCount());
+    }
+}
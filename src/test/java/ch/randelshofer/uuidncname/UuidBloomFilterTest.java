@@ -0,0 +1,75 @@
+/*
+ * @(#)UuidBloomFilterTest.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UuidBloomFilterTest {
+
+    @Test
+    public void testNoFalseNegativesAndFalsePositiveRate() {
+        int n = 200_000;
+        UuidBloomFilter filter = new UuidBloomFilter(n, 0.01);
+        assertEquals(7, filter.getHashCount());
+        assertEquals(0, filter.getBitCount() % 512);
+
+        Random rng = new Random(0);
+        long[] bits = rng.longs(2L * n).toArray();
+        for (int i = 0; i < n; i++) {
+            filter.put(bits[2 * i], bits[2 * i + 1]);
+        }
+        for (int i = 0; i < n; i++) {
+            assertTrue(filter.mightContain(bits[2 * i], bits[2 * i + 1]));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < n; i++) {
+            if (filter.mightContain(rng.nextLong(), rng.nextLong())) {
+                falsePositives++;
+            }
+        }
+        // A blocked filter has a somewhat higher rate than a classic filter
+        assertTrue(falsePositives < n * 0.02, "false positives: " + falsePositives);
+    }
+
+    @Test
+    public void testStringsInAnyFormat() {
+        UuidBloomFilter filter = UuidBloomFilter.ofBitCount(1 << 16, 4);
+        UUID uuid = UUID.fromString("017F22E2-79B0-7CC3-98C4-DC0C0C07398F");
+        assertTrue(filter.put(UuidNCName.toString(uuid, UuidFormat.NCNAME_58), UuidFormat.NCNAME_58));
+        assertFalse(filter.put(UuidNCName.toString(uuid, UuidFormat.NCNAME_36_LEX), UuidFormat.NCNAME_36_LEX));
+        for (UuidFormat format : UuidFormat.values()) {
+            assertTrue(filter.mightContain(UuidNCName.toString(uuid, format), format), format.toString());
+        }
+        assertTrue(filter.mightContain(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()));
+    }
+
+    @Test
+    public void testConcurrentPut() {
+        int n = 400_000;
+        UuidBloomFilter filter = new UuidBloomFilter(n, 0.001);
+        IntStream.range(0, n).parallel().forEach(i -> filter.put(i, ~i));
+        for (int i = 0; i < n; i++) {
+            assertTrue(filter.mightContain(i, ~i));
+        }
+    }
+
+    @Test
+    public void testIllegalArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new UuidBloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new UuidBloomFilter(10, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> UuidBloomFilter.ofBitCount(1024, 0));
+        assertThrows(IllegalArgumentException.class, () -> UuidBloomFilter.ofBitCount(1L << 40, 4));
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * @(#)UuidChannelCodecTest.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+class UuidChannelCodecTest {
+    @TempDir
+    Path tempDir;
+
+    @TestFactory
+    public Iterable<DynamicTest> dynamicTests_streams() {
+        List<DynamicTest> list = new ArrayList<>();
+        for (UuidFormat format : UuidFormat.values()) {
+            list.add(dynamicTest(format + " newline", () -> testStreams(format, '\n', 1000)));
+            list.add(dynamicTest(format + " comma", () -> testStreams(format, ',', 7)));
+        }
+        return list;
+    }
+
+    @TestFactory
+    public Iterable<DynamicTest> dynamicTests_files() {
+        return Arrays.stream(UuidFormat.values())
+                .map(format -> dynamicTest(format.toString(), () -> testFiles(format)))
+                .toList();
+    }
+
+    @Test
+    public void testLastRecordWithoutDelimiter() throws IOException {
+        UUID uuid = UUID.fromString("017F22E2-79B0-7CC3-98C4-DC0C0C07398F");
+        String text = UuidNCName.toString(uuid, UuidFormat.NCNAME_64) + "\n" + UuidNCName.toString(uuid, UuidFormat.NCNAME_64);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = new UuidChannelCodec(UuidFormat.NCNAME_64, '\n').decode(
+                Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.ISO_8859_1))),
+                Channels.newChannel(out));
+        assertEquals(2, count);
+        ByteBuffer b = ByteBuffer.wrap(out.toByteArray());
+        assertEquals(uuid, new UUID(b.getLong(), b.getLong()));
+        assertEquals(uuid, new UUID(b.getLong(), b.getLong()));
+    }
+
+    @Test
+    public void testIllegalInput() {
+        UuidChannelCodec codec = new UuidChannelCodec(UuidFormat.NCNAME_32, '\n');
+        assertThrows(IOException.class, () -> codec.encode(
+                Channels.newChannel(new ByteArrayInputStream(new byte[17])),
+                Channels.newChannel(new ByteArrayOutputStream())));
+        String wrongDelimiter = UuidNCName.toString(new UUID(1, 2), UuidFormat.NCNAME_32) + ","
+                + UuidNCName.toString(new UUID(1, 2), UuidFormat.NCNAME_32) + "\n";
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(
+                Channels.newChannel(new ByteArrayInputStream(wrongDelimiter.getBytes(StandardCharsets.ISO_8859_1))),
+                Channels.newChannel(new ByteArrayOutputStream())));
+        assertThrows(IllegalArgumentException.class, () -> new UuidChannelCodec(UuidFormat.NCNAME_32, 'a'));
+    }
+
+    private void testStreams(UuidFormat format, char delimiter, int n) throws IOException {
+        byte[] binary = createBinary(n);
+        byte[] expectedText = createText(binary, format, delimiter);
+        UuidChannelCodec codec = new UuidChannelCodec(format, delimiter, 100, 3);
+
+        ByteArrayOutputStream text = new ByteArrayOutputStream();
+        assertEquals(n, codec.encode(Channels.newChannel(new ByteArrayInputStream(binary)), Channels.newChannel(text)));
+        assertArrayEquals(expectedText, text.toByteArray());
+
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        assertEquals(n, codec.decode(Channels.newChannel(new ByteArrayInputStream(text.toByteArray())), Channels.newChannel(decoded)));
+        assertArrayEquals(binary, decoded.toByteArray());
+    }
+
+    private void testFiles(UuidFormat format) throws IOException {
+        int n = 5000;
+        byte[] binary = createBinary(n);
+        Path binaryFile = tempDir.resolve("binary");
+        Path textFile = tempDir.resolve("text");
+        Path decodedFile = tempDir.resolve("decoded");
+        Files.write(binaryFile, binary);
+        UuidChannelCodec codec = new UuidChannelCodec(format, '\n', 1000, 4);
+        try (FileChannel in = FileChannel.open(binaryFile);
+             FileChannel out = FileChannel.open(textFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            assertEquals(n, codec.encode(in, out));
+        }
+        assertArrayEquals(createText(binary, format, '\n'), Files.readAllBytes(textFile));
+        try (FileChannel in = FileChannel.open(textFile);
+             FileChannel out = FileChannel.open(decodedFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            assertEquals(n, codec.decode(in, out));
+        }
+        assertArrayEquals(binary, Files.readAllBytes(decodedFile));
+    }
+
+    private static byte[] createBinary(int n) {
+        Random rng = new Random(n);
+        ByteBuffer b = ByteBuffer.allocate(n * 16);
+        for (int i = 0; i < n; i++) {
+            b.putLong(rng.nextLong()).putLong(rng.nextLong());
+        }
+        return b.array();
+    }
+
+    private static byte[] createText(byte[] binary, UuidFormat format, char delimiter) {
+        StringBuilder buf = new StringBuilder();
+        ByteBuffer b = ByteBuffer.wrap(binary);
+        while (b.hasRemaining()) {
+            buf.append(UuidNCName.toString(b.getLong(), b.getLong(), format)).append(delimiter);
+        }
+        return buf.toString().getBytes(StandardCharsets.ISO_8859_1);
+    }
+}
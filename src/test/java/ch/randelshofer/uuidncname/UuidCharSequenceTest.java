@@ -0,0 +1,72 @@
+/*
+ * @(#)UuidCharSequenceTest.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+class UuidCharSequenceTest {
+    private static final UUID UUID_7 = UUID.fromString("017F22E2-79B0-7CC3-98C4-DC0C0C07398F");
+
+    @TestFactory
+    public Iterable<DynamicTest> dynamicTests_formats() {
+        return Arrays.stream(UuidFormat.values())
+                .map(format -> dynamicTest(format.toString(), () -> testFormat(UUID_7, format)))
+                .toList();
+    }
+
+    @TestFactory
+    public Iterable<DynamicTest> dynamicTests_equalsAndCompare() {
+        UUID low = UUID.fromString("017F22E2-79B0-7CC3-98C4-DC0C0C07398F");
+        UUID high = UUID.fromString("F17F22E2-79B0-7CC3-98C4-DC0C0C07398F");
+        return Arrays.asList(
+                dynamicTest("equal across formats", () -> {
+                    UuidCharSequence a = new UuidCharSequence(low, UuidFormat.NCNAME_32);
+                    UuidCharSequence b = new UuidCharSequence(low, UuidFormat.NCNAME_64_LEX);
+                    assertEquals(a, b);
+                    assertEquals(low.hashCode(), a.hashCode());
+                    assertEquals(0, a.compareTo(b));
+                }),
+                dynamicTest("unsigned order", () -> {
+                    UuidCharSequence a = new UuidCharSequence(low, UuidFormat.NCNAME_64_LEX);
+                    UuidCharSequence b = new UuidCharSequence(high, UuidFormat.NCNAME_64_LEX);
+                    assertNotEquals(a, b);
+                    assertTrue(a.compareTo(b) < 0);
+                    assertTrue(a.toString().compareTo(b.toString()) < 0);
+                })
+        );
+    }
+
+    private void testFormat(UUID uuid, UuidFormat format) throws IOException {
+        String expected = UuidNCName.toString(uuid, format);
+        assertEquals(expected, new UuidCharSequence(uuid, format).appendTo(new StringBuilder()).toString());
+
+        UuidCharSequence seq = new UuidCharSequence(uuid, format);
+        assertEquals(expected.length(), seq.length());
+        for (int i = 0; i < expected.length(); i++) {
+            assertEquals(expected.charAt(i), seq.charAt(i));
+        }
+        assertEquals(expected, seq.toString());
+        assertEquals(expected.substring(1, 5), seq.subSequence(1, 5).toString());
+        assertEquals(expected, seq.appendTo(new StringBuilder()).toString());
+        assertEquals(uuid, seq.toUUID());
+        assertEquals(uuid, UuidNCName.fromString(expected, format));
+
+        byte[] bytes = new byte[format.length() + 2];
+        assertEquals(format.length(), seq.getBytes(bytes, 2));
+        assertEquals(expected, new String(bytes, 2, format.length(), StandardCharsets.ISO_8859_1));
+    }
+}
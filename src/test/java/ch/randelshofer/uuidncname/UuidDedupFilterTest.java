@@ -0,0 +1,101 @@
+/*
+ * @(#)UuidDedupFilterTest.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UuidDedupFilterTest {
+
+    @Test
+    public void testAddAndGrow() {
+        UuidDedupFilter filter = new UuidDedupFilter(16, 4);
+        Random rng = new Random(0);
+        long[] bits = rng.longs(200_000).toArray();
+        for (int i = 0; i < bits.length; i += 2) {
+            assertTrue(filter.add(bits[i], bits[i + 1]));
+        }
+        for (int i = 0; i < bits.length; i += 2) {
+            assertFalse(filter.add(bits[i], bits[i + 1]));
+            assertTrue(filter.contains(bits[i], bits[i + 1]));
+            assertFalse(filter.contains(bits[i], ~bits[i + 1]));
+        }
+        assertEquals(bits.length / 2, filter.size());
+    }
+
+    @Test
+    public void testNilUuid() {
+        UuidDedupFilter filter = new UuidDedupFilter();
+        assertFalse(filter.contains(0, 0));
+        assertTrue(filter.add(0, 0));
+        assertFalse(filter.add(UuidNCName.toString(new UUID(0, 0), UuidFormat.NCNAME_64), UuidFormat.NCNAME_64));
+        assertTrue(filter.contains(0, 0));
+        assertEquals(1, filter.size());
+    }
+
+    @Test
+    public void testStringsInAnyFormat() {
+        UuidDedupFilter filter = new UuidDedupFilter();
+        UUID uuid = UUID.fromString("017F22E2-79B0-7CC3-98C4-DC0C0C07398F");
+        assertTrue(filter.add(UuidNCName.toString(uuid, UuidFormat.NCNAME_32_LEX), UuidFormat.NCNAME_32_LEX));
+        for (UuidFormat format : UuidFormat.values()) {
+            String str = UuidNCName.toString(uuid, format);
+            assertTrue(filter.contains(str, format), format.toString());
+            assertFalse(filter.add(str, format), format.toString());
+            assertFalse(filter.add(str.getBytes(StandardCharsets.ISO_8859_1), 0, format), format.toString());
+        }
+        assertEquals(1, filter.size());
+    }
+
+    @Test
+    public void testConcurrentAdd() {
+        UuidDedupFilter filter = new UuidDedupFilter(1000, 8);
+        int n = 300_000;
+        AtomicLong added = new AtomicLong();
+        // Every id is added by two threads, only one of them must succeed
+        IntStream.range(0, 2 * n).parallel().forEach(i -> {
+            if (filter.add(i % n, 7)) {
+                added.incrementAndGet();
+            }
+        });
+        assertEquals(n, added.get());
+        assertEquals(n, filter.size());
+    }
+
+    @Test
+    public void testFullSegment() {
+        UuidDedupFilter filter = new UuidDedupFilter(1, 1, 16);
+        // One slot stays empty
+        for (int i = 1; i < 16; i++) {
+            assertTrue(filter.add(i, i));
+        }
+        assertThrows(IllegalStateException.class, () -> filter.add(16, 16));
+        assertFalse(filter.contains(16, 16));
+        assertFalse(filter.add(15, 15));
+        // The nil UUID is not stored in the table
+        assertTrue(filter.add(0, 0));
+        assertEquals(16, filter.size());
+        assertThrows(IllegalStateException.class, () -> filter.add(17, 17));
+        assertEquals(16, filter.size());
+    }
+
+    @Test
+    public void testIllegalArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new UuidDedupFilter(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new UuidDedupFilter(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new UuidDedupFilter(1L << 40, 1));
+    }
+}
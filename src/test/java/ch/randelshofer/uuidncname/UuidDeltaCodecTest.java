@@ -0,0 +1,180 @@
+/*
+ * @(#)UuidDeltaCodecTest.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UuidDeltaCodecTest {
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Creates version 7 ids with a millisecond timestamp that advances
+     * slowly, and random bits in rand_a and rand_b.
+     */
+    static UUID[] createVersion7Ids(int n, Random rng) {
+        UUID[] uuids = new UUID[n];
+        long millis = 1_700_000_000_000L;
+        for (int i = 0; i < n; i++) {
+            millis += rng.nextInt(10) == 0 ? 1 : 0;
+            long msb = millis << 16 | 0x7000 | rng.nextInt(0x1000);
+            long lsb = rng.nextLong() & 0x3fff_ffff_ffff_ffffL | 0x8000_0000_0000_0000L;
+            uuids[i] = new UUID(msb, lsb);
+        }
+        return uuids;
+    }
+
+    @Test
+    public void testVersion7Ids() throws IOException {
+        UUID[] uuids = createVersion7Ids(10_000, new Random(0));
+        UuidDeltaReader reader = roundTrip(uuids, UuidDeltaWriter.DEFAULT_BLOCK_SIZE, new Random(1));
+        // 8 bytes for the random least significant bits, and 2 to 3 bytes for the
+        // difference of the most significant bits, instead of 16 bytes
+        long bytes = writeToArray(uuids, UuidDeltaWriter.DEFAULT_BLOCK_SIZE).length;
+        assertTrue(bytes < 11.5 * uuids.length, "bytes per id: " + (double) bytes / uuids.length);
+        assertEquals((uuids.length + 127) / 128, reader.getBlockCount());
+    }
+
+    @Test
+    public void testSequentialAndRandomIds() throws IOException {
+        Random rng = new Random(2);
+        UUID[] sequential = new UUID[5000];
+        for (int i = 0; i < sequential.length; i++) {
+            sequential[i] = new UUID(42, i * 3L - 100);
+        }
+        roundTrip(sequential, 64, rng);
+        // A counter in the least significant bits takes 1 byte
+        assertTrue(writeToArray(sequential, 64).length < 3 * sequential.length);
+
+        UUID[] random = new UUID[5000];
+        for (int i = 0; i < random.length; i++) {
+            random[i] = new UUID(rng.nextLong(), rng.nextLong());
+        }
+        roundTrip(random, 7, rng);
+
+        UUID[] extremes = {new UUID(0, 0), new UUID(-1, -1), new UUID(Long.MIN_VALUE, Long.MAX_VALUE),
+                new UUID(Long.MAX_VALUE, Long.MIN_VALUE), new UUID(0, 0), new UUID(1, 1L << 48),
+                new UUID(1, -(1L << 48)), new UUID(1, 1L << 49)};
+        roundTrip(extremes, 3, rng);
+    }
+
+    @Test
+    public void testEmptyAndFile() throws IOException {
+        assertEquals(0, roundTrip(new UUID[0], 16, new Random(3)).size());
+
+        Path file = tempDir.resolve("ids.dlt");
+        UUID[] uuids = createVersion7Ids(1000, new Random(4));
+        try (UuidDeltaWriter writer = new UuidDeltaWriter(Files.newByteChannel(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE))) {
+            for (UUID u : uuids) {
+                writer.add(UuidNCName.toString(u, UuidFormat.NCNAME_32), UuidFormat.NCNAME_32);
+            }
+            assertEquals(uuids.length, writer.getCount());
+        }
+        UuidDeltaReader reader = UuidDeltaReader.open(file);
+        List<UUID> actual = new ArrayList<>();
+        reader.forEach((msb, lsb) -> actual.add(new UUID(msb, lsb)));
+        assertEquals(Arrays.asList(uuids), actual);
+    }
+
+    @Test
+    public void testWriteTo() throws IOException {
+        UUID[] uuids = createVersion7Ids(5000, new Random(5));
+        UuidDeltaReader reader = UuidDeltaReader.of(ByteBuffer.wrap(writeToArray(uuids, 100)));
+        for (UuidFormat format : UuidFormat.values()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertEquals(uuids.length, reader.writeTo(Channels.newChannel(out), format, '\n'));
+            StringBuilder expected = new StringBuilder();
+            for (UUID u : uuids) {
+                expected.append(UuidNCName.toString(u, format)).append('\n');
+            }
+            assertEquals(expected.toString(), out.toString(StandardCharsets.US_ASCII), format.name());
+        }
+        assertThrows(IllegalArgumentException.class, () -> reader.writeTo(Channels.newChannel(new ByteArrayOutputStream()), UuidFormat.CANONICAL, 'é'));
+    }
+
+    @Test
+    public void testInvalidInput() throws IOException {
+        assertThrows(IllegalArgumentException.class, () -> new UuidDeltaWriter(Channels.newChannel(new ByteArrayOutputStream()), 0));
+        assertThrows(IOException.class, () -> UuidDeltaReader.of(ByteBuffer.allocate(100)));
+        assertThrows(IOException.class, () -> UuidDeltaReader.of(ByteBuffer.allocate(3)));
+        byte[] valid = writeToArray(createVersion7Ids(10, new Random(6)), 4);
+        assertThrows(IOException.class, () -> UuidDeltaReader.of(ByteBuffer.wrap(Arrays.copyOf(valid, valid.length - 1))));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        UuidDeltaWriter writer = new UuidDeltaWriter(Channels.newChannel(out));
+        writer.finish();
+        assertThrows(IllegalStateException.class, () -> writer.add(1, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> UuidDeltaReader.of(ByteBuffer.wrap(out.toByteArray())).get(0, new long[2], 0));
+    }
+
+    @Test
+    public void testVarints() {
+        ByteBuffer buf = ByteBuffer.allocate(UuidDeltaWriter.MAX_RECORD_LENGTH);
+        for (long value : new long[]{0, 1, -1, 63, 64, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            assertEquals(value, UuidDeltaWriter.unzigzag(UuidDeltaWriter.zigzag(value)));
+            buf.clear();
+            UuidDeltaWriter.writeFlaggedVarint(buf, value, 1);
+            UuidDeltaWriter.writeVarint(buf, value);
+            assertTrue(buf.position() <= UuidDeltaWriter.MAX_RECORD_LENGTH);
+        }
+    }
+
+    private UuidDeltaReader roundTrip(UUID[] uuids, int blockSize, Random rng) throws IOException {
+        UuidDeltaReader reader = UuidDeltaReader.of(ByteBuffer.wrap(writeToArray(uuids, blockSize)));
+        assertEquals(uuids.length, reader.size());
+        assertEquals(blockSize, reader.getBlockSize());
+
+        List<UUID> actual = new ArrayList<>();
+        reader.forEach((msb, lsb) -> actual.add(new UUID(msb, lsb)));
+        assertEquals(Arrays.asList(uuids), actual);
+
+        long[] bits = new long[3];
+        for (int k = 0; k < Math.min(500, uuids.length); k++) {
+            int i = rng.nextInt(uuids.length);
+            reader.get(i, bits, 1);
+            assertEquals(uuids[i], new UUID(bits[1], bits[2]));
+
+            int j = rng.nextInt(uuids.length + 1);
+            int from = Math.min(i, j), to = Math.max(i, j);
+            actual.clear();
+            reader.forEach(from, to, (msb, lsb) -> actual.add(new UUID(msb, lsb)));
+            assertEquals(Arrays.asList(uuids).subList(from, to), actual);
+        }
+        return reader;
+    }
+
+    private static byte[] writeToArray(UUID[] uuids, int blockSize) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (UuidDeltaWriter writer = new UuidDeltaWriter(Channels.newChannel(out), blockSize)) {
+            for (UUID u : uuids) {
+                writer.add(u.getMostSignificantBits(), u.getLeastSignificantBits());
+            }
+            writer.finish();
+            assertEquals(out.size(), writer.getByteCount());
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * @(#)UuidEncoderDecoderTest.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+class UuidEncoderDecoderTest {
+
+    @TestFactory
+    public Iterable<DynamicTest> dynamicTests_encodeDecode() {
+        return Arrays.stream(UuidFormat.values())
+                .map(format -> dynamicTest(format.toString(), () -> testEncodeDecode(format)))
+                .toList();
+    }
+
+    private void testEncodeDecode(UuidFormat format) {
+        UuidNCName.Encoder encoder = UuidNCName.getEncoder(format);
+        UuidNCName.Decoder decoder = UuidNCName.getDecoder(format);
+        assertEquals(format, encoder.getFormat());
+        assertEquals(format, decoder.getFormat());
+        assertFalse(encoder.isUpperCase());
+
+        int len = format.length();
+        int n = 200;
+        Random rng = new Random(format.ordinal());
+        long[] bits = new long[2 * n];
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = i < 2 ? 0 : i < 4 ? -1 : rng.nextLong();
+        }
+        long[] decoded = new long[2];
+        for (int i = 0; i < n; i++) {
+            long msb = bits[2 * i], lsb = bits[2 * i + 1];
+            UUID uuid = new UUID(msb, lsb);
+            String expected = UuidNCName.toString(uuid, format);
+            assertEquals(expected, encoder.encodeToString(uuid));
+            assertEquals(expected, encoder.encodeToString(msb, lsb));
+
+            byte[] str = new byte[len + 3];
+            assertEquals(len, encoder.encode(msb, lsb, str, 3));
+            assertEquals(expected, new String(str, 3, len, StandardCharsets.ISO_8859_1));
+
+            ByteBuffer heap = ByteBuffer.allocate(len + 1).position(1);
+            ByteBuffer direct = ByteBuffer.allocateDirect(len);
+            assertEquals(len, encoder.encode(msb, lsb, heap));
+            assertEquals(len, encoder.encode(msb, lsb, direct));
+            assertEquals(len + 1, heap.position());
+            assertEquals(len, direct.position());
+            assertEquals(expected, new String(heap.array(), 1, len, StandardCharsets.ISO_8859_1));
+
+            assertEquals(uuid, decoder.decode(expected));
+            Arrays.fill(decoded, 0);
+            decoder.decode(str, 3, decoded, 0);
+            assertArrayEquals(new long[]{msb, lsb}, decoded);
+            Arrays.fill(decoded, 0);
+            decoder.decode(direct.flip(), decoded, 0);
+            assertArrayEquals(new long[]{msb, lsb}, decoded);
+            assertFalse(direct.hasRemaining());
+            Arrays.fill(decoded, 0);
+            assertTrue(decoder.tryDecode(expected, decoded, 0));
+            assertArrayEquals(new long[]{msb, lsb}, decoded);
+        }
+
+        // Bulk operations
+        byte[] chars = new byte[n * len + 1];
+        assertEquals(n * len, encoder.encode(bits, 0, chars, 1, n));
+        String[] strings = new String[n + 1];
+        encoder.encode(bits, 0, strings, 1, n);
+        long[] fromChars = new long[2 * n];
+        long[] fromStrings = new long[2 * n + 2];
+        decoder.decode(chars, 1, fromChars, 0, n);
+        decoder.decode(strings, 1, fromStrings, 2, n);
+        for (int i = 0; i < n; i++) {
+            String expected = UuidNCName.toString(bits[2 * i], bits[2 * i + 1], format);
+            assertEquals(expected, strings[i + 1]);
+            assertEquals(expected, new String(chars, 1 + i * len, len, StandardCharsets.ISO_8859_1));
+        }
+        assertArrayEquals(bits, fromChars);
+        assertArrayEquals(bits, Arrays.copyOfRange(fromStrings, 2, 2 * n + 2));
+    }
+
+    @Test
+    public void testBase58Lanes() {
+        Random rng = new Random(58);
+        for (boolean lexical : new boolean[]{false, true}) {
+            for (int iter = 0; iter < 2000; iter++) {
+                long[] numbers = new long[2 * FastBase58.LANES];
+                for (int i = 0; i < numbers.length; i++) {
+                    // Include small numbers, which are padded
+                    int bits = rng.nextInt(4) == 0 ? rng.nextInt(61) : 60;
+                    numbers[i] = bits == 0 ? 0 : rng.nextLong() >>> (64 - bits);
+                }
+                int stride = 21 + iter % 3;
+                byte[] actual = new byte[3 + FastBase58.LANES * stride];
+                FastBase58.encode58Lanes(numbers, actual, 3, stride, lexical);
+                for (int k = 0; k < FastBase58.LANES; k++) {
+                    byte[] expected = new byte[16 + 21];
+                    if (lexical) {
+                        FastBase58.encode58Lex(numbers[2 * k], numbers[2 * k + 1], expected, 16);
+                    } else {
+                        FastBase58.encode58(numbers[2 * k], numbers[2 * k + 1], expected, 16);
+                    }
+                    assertEquals(new String(expected, 16, 21, StandardCharsets.ISO_8859_1),
+                            new String(actual, 3 + k * stride, 21, StandardCharsets.ISO_8859_1));
+                }
+            }
+        }
+
+        // Bulk encoding with a partial batch at the end
+        for (UuidFormat format : new UuidFormat[]{UuidFormat.NCNAME_58, UuidFormat.NCNAME_58_LEX}) {
+            UuidNCName.Encoder encoder = UuidNCName.getEncoder(format);
+            for (int n = 0; n < 10; n++) {
+                long[] bits = new long[2 * n];
+                for (int i = 0; i < bits.length; i++) {
+                    bits[i] = i % 3 == 0 ? rng.nextInt(1000) : rng.nextLong();
+                }
+                byte[] chars = new byte[n * 23 + 2];
+                encoder.encode(bits, 0, chars, 2, n);
+                String[] strings = new String[n];
+                encoder.encode(bits, 0, strings, 0, n);
+                for (int i = 0; i < n; i++) {
+                    String expected = UuidNCName.toString(bits[2 * i], bits[2 * i + 1], format);
+                    assertEquals(expected, new String(chars, 2 + i * 23, 23, StandardCharsets.ISO_8859_1));
+                    assertEquals(expected, strings[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testUpperCase() {
+        Random rng = new Random(0);
+        for (UuidFormat format : UuidFormat.values()) {
+            UuidNCName.Encoder lower = UuidNCName.getEncoder(format, false);
+            assertSame(UuidNCName.getEncoder(format), lower);
+            boolean caseInsensitive = switch (format) {
+                case CANONICAL, NCNAME_32, NCNAME_32_LEX, NCNAME_36, NCNAME_36_LEX -> true;
+                default -> false;
+            };
+            if (!caseInsensitive) {
+                assertThrows(IllegalArgumentException.class, () -> UuidNCName.getEncoder(format, true));
+                continue;
+            }
+            UuidNCName.Encoder upper = UuidNCName.getEncoder(format, true);
+            assertNotSame(lower, upper);
+            assertTrue(upper.isUpperCase());
+            UuidNCName.Decoder decoder = UuidNCName.getDecoder(format);
+            for (int i = 0; i < 100; i++) {
+                long msb = rng.nextLong(), lsb = rng.nextLong();
+                String expected = lower.encodeToString(msb, lsb).toUpperCase(Locale.ROOT);
+                assertEquals(expected, upper.encodeToString(msb, lsb));
+                String[] strings = new String[1];
+                upper.encode(new long[]{msb, lsb}, 0, strings, 0, 1);
+                assertEquals(expected, strings[0]);
+                assertEquals(new UUID(msb, lsb), decoder.decode(expected));
+            }
+        }
+    }
+
+    @Test
+    public void testIllegalInput() {
+        UuidNCName.Decoder decoder = UuidNCName.getDecoder(UuidFormat.NCNAME_64);
+        String str = UuidNCName.toString(new UUID(1, 2), UuidFormat.NCNAME_64);
+        long[] bits = {7, 8};
+        assertFalse(decoder.tryDecode(null, bits, 0));
+        assertFalse(decoder.tryDecode(str.substring(1), bits, 0));
+        assertFalse(decoder.tryDecode("!" + str.substring(1), bits, 0));
+        assertFalse(decoder.tryDecode(str.substring(0, 21) + "!", bits, 0));
+        assertFalse(UuidNCName.getDecoder(UuidFormat.NCNAME_36).tryDecode("zzzzzzzzzzzzzzzzzzzzzzzzz", bits, 0));
+        assertArrayEquals(new long[]{7, 8}, bits);
+        assertThrows(IndexOutOfBoundsException.class, () -> decoder.tryDecode(str, bits, 1));
+
+        assertThrows(IllegalArgumentException.class, () -> decoder.decode(str.substring(1)));
+        assertThrows(IllegalArgumentException.class, () -> decoder.decode("!" + str.substring(1)));
+        assertThrows(IndexOutOfBoundsException.class, () -> decoder.decode(new byte[10], 0, bits, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> decoder.decode(new String[]{str}, 0, bits, 0, 2));
+
+        UuidNCName.Encoder encoder = UuidNCName.getEncoder(UuidFormat.NCNAME_58);
+        assertThrows(IndexOutOfBoundsException.class, () -> encoder.encode(1, 2, new byte[22], 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> encoder.encode(bits, 0, new byte[46], 0, 2));
+        assertThrows(java.nio.BufferOverflowException.class, () -> encoder.encode(1, 2, ByteBuffer.allocate(22)));
+    }
+}
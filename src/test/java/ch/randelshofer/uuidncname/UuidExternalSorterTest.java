@@ -0,0 +1,131 @@
+/*
+ * @(#)UuidExternalSorterTest.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UuidExternalSorterTest {
+    private static final Comparator<UUID> UNSIGNED = (a, b) -> UuidIndex.compare(
+            a.getMostSignificantBits(), a.getLeastSignificantBits(),
+            b.getMostSignificantBits(), b.getLeastSignificantBits());
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testSortMixedFormatsWithSeveralMergePasses() throws IOException {
+        Random rng = new Random(0);
+        List<UUID> uuids = new ArrayList<>();
+        StringBuilder buf = new StringBuilder();
+        UuidFormat[] detectable = {UuidFormat.CANONICAL, UuidFormat.NCNAME_32, UuidFormat.NCNAME_58,
+                UuidFormat.NCNAME_64, UuidFormat.NCNAME_32_LEX, UuidFormat.NCNAME_58_LEX, UuidFormat.NCNAME_64_LEX};
+        for (int i = 0; i < 30_000; i++) {
+            UUID uuid = i >= 10_000 && i % 3 == 0 ? uuids.get(rng.nextInt(uuids.size()))
+                    : new UUID(rng.nextInt(4) == 0 ? 7 : rng.nextLong(), rng.nextLong());
+            uuids.add(uuid);
+            buf.append(UuidNCName.toString(uuid, detectable[rng.nextInt(detectable.length)]))
+                    .append(i % 5 == 0 ? "\r\n" : "\n");
+            if (i % 1000 == 0) {
+                buf.append('\n');
+            }
+        }
+        buf.setLength(buf.length() - 1); // last line without line break
+        Path input = tempDir.resolve("input.txt");
+        Files.writeString(input, buf, StandardCharsets.ISO_8859_1);
+
+        UUID[] expected = uuids.stream().sorted(UNSIGNED).distinct().toArray(UUID[]::new);
+        Path output = tempDir.resolve("output.txt");
+        // The smallest budget gives runs of 1024 ids and a fan-in of 2
+        UuidExternalSorter sorter = new UuidExternalSorter(16 * 1024, 3, tempDir);
+        UuidExternalSorter.Statistics statistics = sorter.sort(input, null, output, UuidFormat.NCNAME_32_LEX);
+
+        assertEquals(uuids.size(), statistics.getInputCount());
+        assertEquals(expected.length, statistics.getOutputCount());
+        assertEquals((uuids.size() + 1023) / 1024, statistics.getRunCount());
+        assertTrue(statistics.getMergePassCount() > 1, statistics.toString());
+        List<String> lines = Files.readAllLines(output, StandardCharsets.ISO_8859_1);
+        assertArrayEquals(expected, lines.stream()
+                .map(s -> UuidNCName.fromString(s, UuidFormat.NCNAME_32_LEX)).toArray(UUID[]::new));
+
+        // The run files have been deleted
+        try (var files = Files.list(tempDir)) {
+            assertEquals(2, files.count());
+        }
+
+        List<UUID> visited = new ArrayList<>();
+        statistics = new UuidExternalSorter().sort(input, null, (msb, lsb) -> visited.add(new UUID(msb, lsb)));
+        assertEquals(1, statistics.getRunCount());
+        assertArrayEquals(expected, visited.toArray());
+    }
+
+    @Test
+    public void testSortSingleFormat() throws IOException {
+        Path input = tempDir.resolve("input.txt");
+        Files.writeString(input, "");
+        Path output = tempDir.resolve("output.txt");
+        UuidExternalSorter sorter = new UuidExternalSorter(1 << 20, 1, tempDir);
+        assertEquals(0, sorter.sort(input, UuidFormat.NCNAME_62, output, UuidFormat.CANONICAL).getOutputCount());
+        assertEquals(0, Files.size(output));
+
+        UUID a = new UUID(-1, 5), b = new UUID(1, 5);
+        Files.writeString(input, UuidNCName.toString(a, UuidFormat.NCNAME_62) + "\n"
+                + UuidNCName.toString(b, UuidFormat.NCNAME_62) + "\n");
+        sorter.sort(input, UuidFormat.NCNAME_62, output, UuidFormat.CANONICAL);
+        assertEquals(List.of(b.toString(), a.toString()), Files.readAllLines(output));
+    }
+
+    @Test
+    public void testIllegalInput() throws IOException {
+        Path input = tempDir.resolve("input.txt");
+        Path output = tempDir.resolve("output.txt");
+        UuidExternalSorter sorter = new UuidExternalSorter(1 << 20, 1, tempDir);
+        Files.writeString(input, UuidNCName.toString(new UUID(1, 2), UuidFormat.NCNAME_64) + "\nxyz\n");
+        assertThrows(IllegalArgumentException.class, () -> sorter.sort(input, null, output, UuidFormat.CANONICAL));
+        assertThrows(IllegalArgumentException.class,
+                () -> sorter.sort(input, UuidFormat.NCNAME_64, output, UuidFormat.CANONICAL));
+        assertThrows(IllegalArgumentException.class, () -> new UuidExternalSorter(1000, 1, tempDir));
+        assertThrows(IllegalArgumentException.class, () -> new UuidExternalSorter(1 << 20, 0, tempDir));
+    }
+
+    @Test
+    public void testSortAndDedup() {
+        Random rng = new Random(1);
+        for (int n : new int[]{0, 1, 2, 17, 1000, 5000}) {
+            long[] a = new long[2 * n + 4];
+            List<UUID> list = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                // Few distinct values, so that there are many equal keys
+                UUID u = new UUID(rng.nextInt(3) - 1L, rng.nextInt(n / 3 + 2) - 1L);
+                a[2 * i + 2] = u.getMostSignificantBits();
+                a[2 * i + 3] = u.getLeastSignificantBits();
+                list.add(u);
+            }
+            UuidExternalSorter.sort(a, 1, n + 1);
+            int end = UuidExternalSorter.dedup(a, 1, n + 1);
+            UUID[] expected = list.stream().sorted(UNSIGNED).distinct().toArray(UUID[]::new);
+            assertEquals(expected.length, end - 1);
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[i], new UUID(a[2 * i + 2], a[2 * i + 3]));
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * @(#)UuidFieldsTest.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+class UuidFieldsTest {
+
+    @TestFactory
+    public Iterable<DynamicTest> dynamicTests_fields() {
+        return Arrays.stream(UuidFormat.values())
+                .map(format -> dynamicTest(format.toString(), () -> testFields(format)))
+                .toList();
+    }
+
+    @Test
+    public void testUnsupportedVersion() {
+        UUID v4 = UUID.fromString("df521e0a-9d57-4f04-9a95-fc2888decc5a");
+        String str = UuidNCName.toString(v4, UuidFormat.NCNAME_64);
+        assertThrows(UnsupportedOperationException.class, () -> UuidFields.unixTsMs(str, UuidFormat.NCNAME_64));
+        assertThrows(UnsupportedOperationException.class, () -> UuidFields.timestamp(str, UuidFormat.NCNAME_64));
+        assertThrows(IllegalArgumentException.class, () -> UuidFields.version(str, UuidFormat.NCNAME_32));
+    }
+
+    @TestFactory
+    public Iterable<DynamicTest> dynamicTests_malformedInput() {
+        // UuidFields, UuidHash and UuidNCName.decode must reject the same strings
+        return Arrays.asList(
+                dynamicTest("base58 with 7 '_'", () -> testMalformedInput("H" + "2".repeat(14) + "_".repeat(7) + "J", UuidFormat.NCNAME_58)),
+                dynamicTest("canonical with '+'", () -> testMalformedInput("+0000000-0000-7000-8000-00000000000a", UuidFormat.CANONICAL)),
+                dynamicTest("canonical without dash", () -> testMalformedInput("000000000000007000080000000000000000", UuidFormat.CANONICAL)),
+                dynamicTest("base36 overflow", () -> testMalformedInput("h" + "z".repeat(24), UuidFormat.NCNAME_36))
+        );
+    }
+
+    private void testMalformedInput(String str, UuidFormat format) {
+        byte[] bytes = str.getBytes(StandardCharsets.ISO_8859_1);
+        assertThrows(IllegalArgumentException.class, () -> UuidNCName.fromString(str, format));
+        assertThrows(IllegalArgumentException.class, () -> UuidNCName.getDecoder(format).decode(bytes, 0, new long[2], 0));
+        assertThrows(IllegalArgumentException.class, () -> UuidHash.hash(str, format));
+        assertThrows(IllegalArgumentException.class, () -> UuidHash.hash(bytes, 0, format));
+        assertThrows(IllegalArgumentException.class, () -> UuidFields.unixTsMs(str, format));
+        assertThrows(IllegalArgumentException.class, () -> UuidFields.unixTsMs(bytes, 0, format));
+    }
+
+    private void testFields(UuidFormat format) {
+        Random rng = new Random(format.ordinal());
+        for (int i = 0; i < 2000; i++) {
+            int version = i % 16;
+            long msb = rng.nextLong() & ~0xf000L | (long) version << 12;
+            long lsb = rng.nextLong();
+            UUID uuid = new UUID(msb, lsb);
+            String str = UuidNCName.toString(uuid, format);
+            byte[] bytes = ("xx" + str).getBytes(StandardCharsets.ISO_8859_1);
+
+            assertEquals(uuid.version(), UuidFields.version(str, format), str);
+            assertEquals(uuid.version(), UuidFields.version(bytes, 2, format), str);
+            assertEquals(uuid.variant(), UuidFields.variant(str, format), str);
+            assertEquals(uuid.variant(), UuidFields.variant(bytes, 2, format), str);
+            switch (version) {
+                case 1 -> {
+                    long expected = (msb & 0x0fffL) << 48 | ((msb >> 16) & 0xffffL) << 32 | msb >>> 32;
+                    assertEquals(expected, UuidFields.timestamp(str, format), str);
+                    assertEquals(expected, UuidFields.timestamp(bytes, 2, format), str);
+                }
+                case 6 -> {
+                    long expected = (msb >>> 16) << 12 | msb & 0xfff;
+                    assertEquals(expected, UuidFields.timestamp(str, format), str);
+                    assertEquals(expected, UuidFields.timestamp(bytes, 2, format), str);
+                }
+                case 7 -> {
+                    assertEquals(msb >>> 16, UuidFields.unixTsMs(str, format), str);
+                    assertEquals(msb >>> 16, UuidFields.unixTsMs(bytes, 2, format), str);
+                }
+            }
+        }
+    }
+}
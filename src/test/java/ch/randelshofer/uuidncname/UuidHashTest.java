@@ -0,0 +1,80 @@
+/*
+ * @(#)UuidHashTest.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+class UuidHashTest {
+
+    @TestFactory
+    public Iterable<DynamicTest> dynamicTests_hash() {
+        return Arrays.stream(UuidFormat.values())
+                .map(format -> dynamicTest(format.toString(), () -> testHash(format)))
+                .toList();
+    }
+
+    private void testHash(UuidFormat format) {
+        Random rng = new Random(format.ordinal());
+        for (int i = 0; i < 2000; i++) {
+            UUID uuid = switch (i) {
+                case 0 -> new UUID(0, 0);
+                case 1 -> new UUID(-1, -1);
+                default -> new UUID(rng.nextLong(), rng.nextLong());
+            };
+            String str = UuidNCName.toString(uuid, format);
+            byte[] bytes = ("xx" + str).getBytes(StandardCharsets.ISO_8859_1);
+            long expected = UuidHash.hash(uuid);
+            assertEquals(expected, UuidHash.hash(str, format), str);
+            assertEquals(expected, UuidHash.hash(bytes, 2, format), str);
+            if (format == UuidFormat.CANONICAL || format == UuidFormat.NCNAME_32 || format == UuidFormat.NCNAME_32_LEX) {
+                assertEquals(expected, UuidHash.hash(str.toUpperCase(), format), str);
+            }
+        }
+    }
+
+    @Test
+    public void testIllegalInput() {
+        String str = UuidNCName.toString(new UUID(1, 2), UuidFormat.NCNAME_64);
+        assertThrows(IllegalArgumentException.class, () -> UuidHash.hash(str.substring(1), UuidFormat.NCNAME_64));
+        assertThrows(IllegalArgumentException.class, () -> UuidHash.hash("!" + str.substring(1), UuidFormat.NCNAME_64));
+        assertThrows(IllegalArgumentException.class, () -> UuidHash.hash(str, UuidFormat.NCNAME_64_LEX));
+        assertThrows(IllegalArgumentException.class, () -> UuidHash.hash("zzzzzzzzzzzzzzzzzzzzzzzzz", UuidFormat.NCNAME_36));
+        assertThrows(IndexOutOfBoundsException.class, () -> UuidHash.hash(new byte[10], 0, UuidFormat.NCNAME_64));
+    }
+
+    @Test
+    public void testAvalanche() {
+        // Flipping one input bit must flip about half of the output bits
+        Random rng = new Random(0);
+        long flipped = 0;
+        int trials = 0;
+        for (int i = 0; i < 200; i++) {
+            long msb = rng.nextLong(), lsb = rng.nextLong();
+            long h = UuidHash.hash(msb, lsb);
+            for (int bit = 0; bit < 64; bit++) {
+                flipped += Long.bitCount(h ^ UuidHash.hash(msb ^ 1L << bit, lsb));
+                flipped += Long.bitCount(h ^ UuidHash.hash(msb, lsb ^ 1L << bit));
+                trials += 2;
+            }
+        }
+        double average = (double) flipped / trials;
+        assertTrue(average > 31 && average < 33, "average flipped bits: " + average);
+        assertNotEquals(UuidHash.hash(1, 0), UuidHash.hash(0, 1));
+    }
+}
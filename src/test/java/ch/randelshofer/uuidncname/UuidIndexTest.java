@@ -0,0 +1,135 @@
+/*
+ * @(#)UuidIndexTest.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UuidIndexTest {
+    private static final Comparator<UUID> UNSIGNED = (a, b) -> UuidIndex.compare(
+            a.getMostSignificantBits(), a.getLeastSignificantBits(),
+            b.getMostSignificantBits(), b.getLeastSignificantBits());
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testRandomIds() throws IOException {
+        Random rng = new Random(0);
+        UUID[] uuids = new UUID[20_000];
+        for (int i = 0; i < uuids.length; i++) {
+            uuids[i] = new UUID(rng.nextLong(), rng.nextLong());
+        }
+        testIndex(uuids, 64, 10, rng);
+    }
+
+    @Test
+    public void testClusteredIdsWithSharedMostSignificantBits() throws IOException {
+        // Version 7 ids from a few milliseconds, and many ids with equal msb,
+        // so that interpolation on the msb does not help
+        Random rng = new Random(1);
+        UUID[] uuids = new UUID[20_000];
+        for (int i = 0; i < uuids.length; i++) {
+            long msb = i < 5000 ? 42 : (1_700_000_000_000L + rng.nextInt(5)) << 16 | 0x7000 | rng.nextInt(16);
+            uuids[i] = new UUID(msb, rng.nextLong());
+        }
+        testIndex(uuids, 16, 8, rng);
+    }
+
+    @Test
+    public void testEmptyAndDuplicates() throws IOException {
+        Path file = tempDir.resolve("empty.idx");
+        new UuidIndexWriter(file).close();
+        UuidIndex index = UuidIndex.open(file);
+        assertEquals(0, index.size());
+        assertFalse(index.contains(1, 2));
+        assertEquals(0, index.rank(1, 2));
+
+        try (UuidIndexWriter writer = new UuidIndexWriter(file, 2)) {
+            assertTrue(writer.add(1, 2));
+            assertFalse(writer.add(1, 2));
+            assertTrue(writer.add(1, -1));
+            assertThrows(IllegalArgumentException.class, () -> writer.add(1, 3));
+            assertEquals(2, writer.getCount());
+        }
+        index = UuidIndex.open(file);
+        assertEquals(2, index.size());
+        assertEquals(1, index.rank(1, 3));
+        assertTrue(index.contains(1, -1));
+    }
+
+    @Test
+    public void testInvalidFile() throws IOException {
+        Path file = tempDir.resolve("invalid.idx");
+        Files.write(file, new byte[100]);
+        assertThrows(IOException.class, () -> UuidIndex.open(file));
+        Files.write(file, new byte[3]);
+        assertThrows(IOException.class, () -> UuidIndex.open(file));
+    }
+
+    private void testIndex(UUID[] uuids, int blockSize, int chunkShift, Random rng) throws IOException {
+        UUID[] sorted = Arrays.stream(uuids).sorted(UNSIGNED).distinct().toArray(UUID[]::new);
+        Path file = tempDir.resolve("test.idx");
+        try (UuidIndexWriter writer = new UuidIndexWriter(file, blockSize)) {
+            for (UUID u : sorted) {
+                writer.add(UuidNCName.toString(u, UuidFormat.NCNAME_64), UuidFormat.NCNAME_64);
+            }
+        }
+        // Use small chunks, so that the test covers several mapped chunks
+        UuidIndex index = UuidIndex.open(file, chunkShift);
+        assertEquals(sorted.length, index.size());
+
+        for (int i = 0; i < sorted.length; i++) {
+            UUID u = sorted[i];
+            long msb = u.getMostSignificantBits(), lsb = u.getLeastSignificantBits();
+            assertEquals(msb, index.getMostSignificantBits(i));
+            assertEquals(lsb, index.getLeastSignificantBits(i));
+            assertEquals(i, index.rank(msb, lsb));
+            assertTrue(index.contains(msb, lsb));
+            UuidFormat format = UuidFormat.values()[i % UuidFormat.values().length];
+            String str = UuidNCName.toString(u, format);
+            assertTrue(index.contains(str, format), str);
+            assertEquals(i, index.rank(str, format), str);
+        }
+
+        // Ranks of absent ids
+        for (int i = 0; i < 2000; i++) {
+            UUID u = new UUID(rng.nextLong(), rng.nextLong());
+            int expected = Arrays.binarySearch(sorted, u, UNSIGNED);
+            assertEquals(expected < 0 ? -expected - 1 : expected, index.rank(u.getMostSignificantBits(), u.getLeastSignificantBits()));
+        }
+        assertEquals(0, index.rank(0, 0));
+        assertEquals(sorted.length, index.rank(-1, -1) + (index.contains(-1, -1) ? 1 : 0));
+
+        // Range queries
+        UuidFormat format = UuidFormat.NCNAME_32_LEX;
+        int from = sorted.length / 3, to = 2 * sorted.length / 3;
+        List<UUID> visited = new ArrayList<>();
+        long count = index.forEachInRange(UuidNCName.toString(sorted[from], format),
+                UuidNCName.toString(sorted[to], format), format, (msb, lsb) -> visited.add(new UUID(msb, lsb)));
+        assertEquals(to - from, count);
+        assertEquals(Arrays.asList(sorted).subList(from, to), visited);
+        assertEquals(to - from, index.countInRange(UuidNCName.toString(sorted[from], format),
+                UuidNCName.toString(sorted[to], format), format));
+        assertEquals(0, index.countInRange(UuidNCName.toString(sorted[to], format),
+                UuidNCName.toString(sorted[from], format), format));
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * @(#)UuidKeyspacePartitionerTest.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+class UuidKeyspacePartitionerTest {
+    private static final UuidFormat[] LEX_FORMATS = {UuidFormat.NCNAME_32_LEX, UuidFormat.NCNAME_36_LEX,
+            UuidFormat.NCNAME_58_LEX, UuidFormat.NCNAME_62_LEX, UuidFormat.NCNAME_64_LEX};
+
+    @TestFactory
+    public Iterable<DynamicTest> dynamicTests_keyspace() {
+        List<DynamicTest> list = new ArrayList<>();
+        for (UuidFormat format : LEX_FORMATS) {
+            for (int partitions : new int[]{1, 3, 16, 1000}) {
+                list.add(dynamicTest(format + " " + partitions, () -> testKeyspace(format, partitions)));
+            }
+        }
+        return list;
+    }
+
+    @TestFactory
+    public Iterable<DynamicTest> dynamicTests_timeWindow() {
+        List<DynamicTest> list = new ArrayList<>();
+        for (UuidFormat format : LEX_FORMATS) {
+            list.add(dynamicTest(format.toString(), () -> testTimeWindow(format)));
+        }
+        return list;
+    }
+
+    @Test
+    public void testIllegalArguments() {
+        assertThrows(IllegalArgumentException.class, () -> UuidKeyspacePartitioner.ofKeyspace(UuidFormat.NCNAME_64, 4, 2));
+        assertThrows(IllegalArgumentException.class, () -> UuidKeyspacePartitioner.ofKeyspace(UuidFormat.NCNAME_64_LEX, 16, 2));
+        assertThrows(IllegalArgumentException.class, () -> UuidKeyspacePartitioner.ofKeyspace(UuidFormat.NCNAME_64_LEX, 4, 0));
+        assertThrows(IllegalArgumentException.class, () -> UuidKeyspacePartitioner.ofTimeWindow(UuidFormat.NCNAME_64_LEX, 10, 10, 2));
+    }
+
+    private void testKeyspace(UuidFormat format, int partitions) {
+        UuidKeyspacePartitioner p = UuidKeyspacePartitioner.ofKeyspace(format, 4, partitions);
+        assertEquals(partitions, p.getPartitionCount());
+        assertNull(p.getUpperBound(partitions - 1));
+        BigInteger size = BigInteger.ONE.shiftLeft(124);
+        for (int i = 0; i < partitions; i++) {
+            BigInteger expected = size.multiply(BigInteger.valueOf(i)).divide(BigInteger.valueOf(partitions));
+            assertEquals(expected, key(UuidNCName.fromString(p.getLowerBound(i), format)));
+            assertEquals(i, p.partitionOf(p.getLowerBound(i)));
+            if (i > 0) {
+                assertTrue(p.getLowerBound(i - 1).compareTo(p.getLowerBound(i)) < 0);
+            }
+        }
+
+        Random rng = new Random(partitions);
+        for (int i = 0; i < 1000; i++) {
+            UUID uuid = version(new UUID(rng.nextLong(), rng.nextLong()), 4);
+            int expected = key(uuid).multiply(BigInteger.valueOf(partitions)).divide(size).intValueExact();
+            // The integer division may round down to the previous boundary
+            int actual = p.partitionOf(UuidNCName.toString(uuid, format));
+            BigInteger lower = key(UuidNCName.fromString(p.getLowerBound(actual), format));
+            assertTrue(lower.compareTo(key(uuid)) <= 0);
+            assertTrue(actual == expected || actual == expected - 1 || actual == expected + 1);
+            if (actual + 1 < partitions) {
+                assertTrue(key(UuidNCName.fromString(p.getLowerBound(actual + 1), format)).compareTo(key(uuid)) > 0);
+            }
+        }
+    }
+
+    private void testTimeWindow(UuidFormat format) {
+        long from = 1_700_000_000_000L, to = from + 3_600_000L;
+        UuidKeyspacePartitioner p = UuidKeyspacePartitioner.ofTimeWindow(format, from, to, 60);
+        assertEquals(7, p.getVersion());
+        for (int i = 0; i < 60; i++) {
+            UUID lower = UuidNCName.fromString(p.getLowerBound(i), format);
+            assertEquals(7, lower.version());
+            assertEquals(from + i * 60_000L, lower.getMostSignificantBits() >>> 16);
+        }
+        assertEquals(to, UuidNCName.fromString(p.getUpperBound(59), format).getMostSignificantBits() >>> 16);
+
+        Random rng = new Random(0);
+        for (int i = 0; i < 1000; i++) {
+            long ts = from - 60_000 + (long) (rng.nextDouble() * (to - from + 120_000));
+            UUID uuid = version(new UUID(ts << 16 | (rng.nextLong() & 0xffff), rng.nextLong()), 7);
+            int expected = ts < from ? -1 : ts >= to ? 60 : (int) ((ts - from) / 60_000);
+            assertEquals(expected, p.partitionOf(UuidNCName.toString(uuid, format)));
+        }
+    }
+
+    private static UUID version(UUID uuid, int version) {
+        return new UUID(uuid.getMostSignificantBits() & ~0xf000L | (long) version << 12,
+                uuid.getLeastSignificantBits() & ~(3L << 62) | 2L << 62);
+    }
+
+    private static BigInteger key(UUID uuid) {
+        long msb = uuid.getMostSignificantBits(), lsb = uuid.getLeastSignificantBits();
+        return BigInteger.valueOf(UuidNCName.getMsb(msb)).shiftLeft(64)
+                .or(new BigInteger(Long.toUnsignedString(UuidNCName.getLsbLex(lsb) << 4 | UuidNCName.getVariantLex(lsb))));
+    }
+}
@@ -8,11 +8,15 @@ package ch.randelshofer.uuidncname;
 import org.junit.jupiter.api.DynamicTest;
 import org.junit.jupiter.api.TestFactory;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.DynamicTest.dynamicTest;
 
 class UuidNCNameTest {
@@ -142,6 +146,82 @@ class UuidNCNameTest {
         );
     }
 
+    @TestFactory
+    public List<DynamicTest> dynamicTests_base36() {
+        return List.of(
+                dynamicTest("0 Nil,       00000000-0000-0000-0000-000000000000", () -> testUuidNCNameWithFormat("00000000-0000-0000-0000-000000000000", "a000000000000000000000000", UuidFormat.NCNAME_36)),
+                dynamicTest("1 Timestamp, ca6be4c8-cbaf-11ea-b2ab-00045a86c8a1", () -> testUuidNCNameWithFormat("ca6be4c8-cbaf-11ea-b2ab-00045a86c8a1", "bqyovmdictl8ascgissl9m0pn", UuidFormat.NCNAME_36)),
+                dynamicTest("1 Timestamp, C232AB00-9414-11EC-B3C8-9E6BDECED846", () -> testUuidNCNameWithFormat("C232AB00-9414-11EC-B3C8-9E6BDECED846", "bpv97pcxb84jc7aopy3d27d63", UuidFormat.NCNAME_36)),
+                dynamicTest("2 DCE,       000003e8-cbb9-21ea-b201-00045a86c8a1", () -> testUuidNCNameWithFormat("000003e8-cbb9-21ea-b201-00045a86c8a1", "c0000dcgo7ebtsmhmiankv1nf", UuidFormat.NCNAME_36)),
+                dynamicTest("3 MD5,       3d813cbb-47fb-32ba-91df-831e1593ac29", () -> testUuidNCNameWithFormat("3d813cbb-47fb-32ba-91df-831e1593ac29", "d86xua555nyxaysjrlipgtxg9", UuidFormat.NCNAME_36)),
+                dynamicTest("4 Random,    01867b2c-a0dd-459c-98d7-89e545538d6c", () -> testUuidNCNameWithFormat("01867b2c-a0dd-459c-98d7-89e545538d6c", "e07bbl9na79spxjekt3ne9n0p", UuidFormat.NCNAME_36)),
+                dynamicTest("5 SHA-1,     21f7f8de-8051-5b89-8680-0195ef798b6a", () -> testUuidNCNameWithFormat("21f7f8de-8051-5b89-8680-0195ef798b6a", "f4iw5fvvkf1kuv6kjazlxf73c", UuidFormat.NCNAME_36)),
+                dynamicTest("6 Timestamp, 1EC9414C-232A-6B00-B3C8-9E6BDECED846", () -> testUuidNCNameWithFormat("1EC9414C-232A-6B00-B3C8-9E6BDECED846", "g43mqszqltu6mx9pqyy82pzzf", UuidFormat.NCNAME_36)),
+                dynamicTest("7 Timestamp, 017F22E2-79B0-7CC3-98C4-DC0C0C07398F", () -> testUuidNCNameWithFormat("017F22E2-79B0-7CC3-98C4-DC0C0C07398F", "h076da4mkjscojqty49hj1oft", UuidFormat.NCNAME_36)),
+                dynamicTest("8 Custom,    320C3D4D-CC00-875B-8EC9-32D5F69181C0", () -> testUuidNCNameWithFormat("320C3D4D-CC00-875B-8EC9-32D5F69181C0", "i6nzysp0r5vnyesxg7vg2mcqw", UuidFormat.NCNAME_36)),
+                dynamicTest("15 Max,      ffffffff-ffff-ffff-ffff-ffffffffffff", () -> testUuidNCNameWithFormat("ffffffff-ffff-ffff-ffff-ffffffffffff", "py3mdbdhy3uqaqwzejcdh6akf", UuidFormat.NCNAME_36)),
+                dynamicTest("one more than Max", () -> testIllegalUuidNCNameWithFormat("pz3mdbdhy3uqaqwzejcdh6akf", UuidFormat.NCNAME_36)),
+                dynamicTest("Illegal", () -> testIllegalUuidNCNameWithFormat("py3mdbdhy3uqaqwzejcdh6äkf", UuidFormat.NCNAME_36))
+        );
+    }
+
+    @TestFactory
+    public List<DynamicTest> dynamicTests_base36_lex() {
+        return List.of(
+                dynamicTest("0 Nil,       00000000-0000-0000-0000-000000000000", () -> testUuidNCNameWithFormat("00000000-0000-0000-0000-000000000000", "a000000000000000000000000", UuidFormat.NCNAME_36_LEX)),
+                dynamicTest("1 Timestamp, ca6be4c8-cbaf-11ea-b2ab-00045a86c8a1", () -> testUuidNCNameWithFormat("ca6be4c8-cbaf-11ea-b2ab-00045a86c8a1", "bqyovmdictl8d7xip9k38m0zt", UuidFormat.NCNAME_36_LEX)),
+                dynamicTest("1 Timestamp, C232AB00-9414-11EC-B3C8-9E6BDECED846", () -> testUuidNCNameWithFormat("C232AB00-9414-11EC-B3C8-9E6BDECED846", "bpv97pcxb84jefjvqlk8xe1p6", UuidFormat.NCNAME_36_LEX)),
+                dynamicTest("2 DCE,       000003e8-cbb9-21ea-b201-00045a86c8a1", () -> testUuidNCNameWithFormat("000003e8-cbb9-21ea-b201-00045a86c8a1", "c0000dcgo7ebwcklp25akfxc9", UuidFormat.NCNAME_36_LEX)),
+                dynamicTest("3 MD5,       3d813cbb-47fb-32ba-91df-831e1593ac29", () -> testUuidNCNameWithFormat("3d813cbb-47fb-32ba-91df-831e1593ac29", "d86xua555nyxbliwki4fqs2ax", UuidFormat.NCNAME_36_LEX)),
+                dynamicTest("4 Random,    01867b2c-a0dd-459c-98d7-89e545538d6c", () -> testUuidNCNameWithFormat("01867b2c-a0dd-459c-98d7-89e545538d6c", "e07bbl9na79spahlweoafk6ns", UuidFormat.NCNAME_36_LEX)),
+                dynamicTest("5 SHA-1,     21f7f8de-8051-5b89-8680-0195ef798b6a", () -> testUuidNCNameWithFormat("21f7f8de-8051-5b89-8680-0195ef798b6a", "f4iw5fvvkf1ktohapmys6xhnu", UuidFormat.NCNAME_36_LEX)),
+                dynamicTest("6 Timestamp, 1EC9414C-232A-6B00-B3C8-9E6BDECED846", () -> testUuidNCNameWithFormat("1EC9414C-232A-6B00-B3C8-9E6BDECED846", "g43mqszqltu6p5iwrmf3xwoii", UuidFormat.NCNAME_36_LEX)),
+                dynamicTest("7 Timestamp, 017F22E2-79B0-7CC3-98C4-DC0C0C07398F", () -> testUuidNCNameWithFormat("017F22E2-79B0-7CC3-98C4-DC0C0C07398F", "h076da4mkjscnx6ai3jv9zqkb", UuidFormat.NCNAME_36_LEX)),
+                dynamicTest("8 Custom,    320C3D4D-CC00-875B-8EC9-32D5F69181C0", () -> testUuidNCNameWithFormat("320C3D4D-CC00-875B-8EC9-32D5F69181C0", "i6nzysp0r5vnvpo0mbgtj9hc8", UuidFormat.NCNAME_36_LEX)),
+                dynamicTest("15 Max,      ffffffff-ffff-ffff-ffff-ffffffffffff", () -> testUuidNCNameWithFormat("ffffffff-ffff-ffff-ffff-ffffffffffff", "py3mdbdhy3uqaqwzejcdh6akf", UuidFormat.NCNAME_36_LEX)),
+                dynamicTest("one more than Max", () -> testIllegalUuidNCNameWithFormat("pzzzzzzzzzzzzzzzzzzzzzzzz", UuidFormat.NCNAME_36_LEX)),
+                dynamicTest("Illegal", () -> testIllegalUuidNCNameWithFormat("py3mdbdhy3uqaqwzejcdh6äkf", UuidFormat.NCNAME_36_LEX))
+        );
+    }
+
+    @TestFactory
+    public List<DynamicTest> dynamicTests_base62() {
+        return List.of(
+                dynamicTest("0 Nil,       00000000-0000-0000-0000-000000000000", () -> testUuidNCNameWithFormat("00000000-0000-0000-0000-000000000000", "A000000000000000000000", UuidFormat.NCNAME_62)),
+                dynamicTest("1 Timestamp, ca6be4c8-cbaf-11ea-b2ab-00045a86c8a1", () -> testUuidNCNameWithFormat("ca6be4c8-cbaf-11ea-b2ab-00045a86c8a1", "BNs6oGP4m0zUg04VBeOwrz", UuidFormat.NCNAME_62)),
+                dynamicTest("1 Timestamp, C232AB00-9414-11EC-B3C8-9E6BDECED846", () -> testUuidNCNameWithFormat("C232AB00-9414-11EC-B3C8-9E6BDECED846", "BMtyhwJIM87dEmA85Zf0Xb", UuidFormat.NCNAME_62)),
+                dynamicTest("2 DCE,       000003e8-cbb9-21ea-b201-00045a86c8a1", () -> testUuidNCNameWithFormat("000003e8-cbb9-21ea-b201-00045a86c8a1", "C0001fx6GNY9n2py5pVZYx", UuidFormat.NCNAME_62)),
+                dynamicTest("3 MD5,       3d813cbb-47fb-32ba-91df-831e1593ac29", () -> testUuidNCNameWithFormat("3d813cbb-47fb-32ba-91df-831e1593ac29", "D7FivLNH8nLFeEcDfFem4H", UuidFormat.NCNAME_62)),
+                dynamicTest("4 Random,    01867b2c-a0dd-459c-98d7-89e545538d6c", () -> testUuidNCNameWithFormat("01867b2c-a0dd-459c-98d7-89e545538d6c", "E0B9UhhFXrHmc8emQ1DkJF", UuidFormat.NCNAME_62)),
+                dynamicTest("5 SHA-1,     21f7f8de-8051-5b89-8680-0195ef798b6a", () -> testUuidNCNameWithFormat("21f7f8de-8051-5b89-8680-0195ef798b6a", "F40NWPJC4HO32AQ7B9g008", UuidFormat.NCNAME_62)),
+                dynamicTest("6 Timestamp, 1EC9414C-232A-6B00-B3C8-9E6BDECED846", () -> testUuidNCNameWithFormat("1EC9414C-232A-6B00-B3C8-9E6BDECED846", "G3d6kuHSEJcdG813WK6BnH", UuidFormat.NCNAME_62)),
+                dynamicTest("7 Timestamp, 017F22E2-79B0-7CC3-98C4-DC0C0C07398F", () -> testUuidNCNameWithFormat("017F22E2-79B0-7CC3-98C4-DC0C0C07398F", "H0AwUH9zGi0rlvDVOjFLbN", UuidFormat.NCNAME_62)),
+                dynamicTest("8 Custom,    320C3D4D-CC00-875B-8EC9-32D5F69181C0", () -> testUuidNCNameWithFormat("320C3D4D-CC00-875B-8EC9-32D5F69181C0", "I5tww9bY4oxv2PeoeHKGBk", UuidFormat.NCNAME_62)),
+                dynamicTest("15 Max,      ffffffff-ffff-ffff-ffff-ffffffffffff", () -> testUuidNCNameWithFormat("ffffffff-ffff-ffff-ffff-ffffffffffff", "PUBsO4td5jEbl6wfnwZr6F", UuidFormat.NCNAME_62)),
+                dynamicTest("one more than Max", () -> testIllegalUuidNCNameWithFormat("PUBsO4td5jEbl6wfnwZr6G", UuidFormat.NCNAME_62)),
+                dynamicTest("Illegal", () -> testIllegalUuidNCNameWithFormat("PUBsO4td5jEbl6wfnwZräF", UuidFormat.NCNAME_62))
+        );
+    }
+
+    @TestFactory
+    public List<DynamicTest> dynamicTests_base62_lex() {
+        return List.of(
+                dynamicTest("0 Nil,       00000000-0000-0000-0000-000000000000", () -> testUuidNCNameWithFormat("00000000-0000-0000-0000-000000000000", "A000000000000000000000", UuidFormat.NCNAME_62_LEX)),
+                dynamicTest("1 Timestamp, ca6be4c8-cbaf-11ea-b2ab-00045a86c8a1", () -> testUuidNCNameWithFormat("ca6be4c8-cbaf-11ea-b2ab-00045a86c8a1", "BNs6oGP4m0ziPaqDOlA2m1", UuidFormat.NCNAME_62_LEX)),
+                dynamicTest("1 Timestamp, C232AB00-9414-11EC-B3C8-9E6BDECED846", () -> testUuidNCNameWithFormat("C232AB00-9414-11EC-B3C8-9E6BDECED846", "BMtyhwJIM87pp6RDf4g9IA", UuidFormat.NCNAME_62_LEX)),
+                dynamicTest("2 DCE,       000003e8-cbb9-21ea-b201-00045a86c8a1", () -> testUuidNCNameWithFormat("000003e8-cbb9-21ea-b201-00045a86c8a1", "C0001fx6GNYOD3UQv2esED", UuidFormat.NCNAME_62_LEX)),
+                dynamicTest("3 MD5,       3d813cbb-47fb-32ba-91df-831e1593ac29", () -> testUuidNCNameWithFormat("3d813cbb-47fb-32ba-91df-831e1593ac29", "D7FivLNH8nLJDGBGElxQ5p", UuidFormat.NCNAME_62_LEX)),
+                dynamicTest("4 Random,    01867b2c-a0dd-459c-98d7-89e545538d6c", () -> testUuidNCNameWithFormat("01867b2c-a0dd-459c-98d7-89e545538d6c", "E0B9UhhFXrHj01VfM9xcQS", UuidFormat.NCNAME_62_LEX)),
+                dynamicTest("5 SHA-1,     21f7f8de-8051-5b89-8680-0195ef798b6a", () -> testUuidNCNameWithFormat("21f7f8de-8051-5b89-8680-0195ef798b6a", "F40NWPJC4HNwKyPTPdJHnG", UuidFormat.NCNAME_62_LEX)),
+                dynamicTest("6 Timestamp, 1EC9414C-232A-6B00-B3C8-9E6BDECED846", () -> testUuidNCNameWithFormat("1EC9414C-232A-6B00-B3C8-9E6BDECED846", "G3d6kuHSEJcpqSI95p7KXq", UuidFormat.NCNAME_62_LEX)),
+                dynamicTest("7 Timestamp, 017F22E2-79B0-7CC3-98C4-DC0C0C07398F", () -> testUuidNCNameWithFormat("017F22E2-79B0-7CC3-98C4-DC0C0C07398F", "H0AwUH9zGi0oET290d8hH1", UuidFormat.NCNAME_62_LEX)),
+                dynamicTest("8 Custom,    320C3D4D-CC00-875B-8EC9-32D5F69181C0", () -> testUuidNCNameWithFormat("320C3D4D-CC00-875B-8EC9-32D5F69181C0", "I5tww9bY4oxfnx0n4Xk9pg", UuidFormat.NCNAME_62_LEX)),
+                dynamicTest("15 Max,      ffffffff-ffff-ffff-ffff-ffffffffffff", () -> testUuidNCNameWithFormat("ffffffff-ffff-ffff-ffff-ffffffffffff", "PUBsO4td5jEbl6wfnwZr6F", UuidFormat.NCNAME_62_LEX)),
+                dynamicTest("one more than Max", () -> testIllegalUuidNCNameWithFormat("Pzzzzzzzzzzzzzzzzzzzzz", UuidFormat.NCNAME_62_LEX)),
+                dynamicTest("Illegal", () -> testIllegalUuidNCNameWithFormat("PUBsO4td5jEbl6wfnwZräF", UuidFormat.NCNAME_62_LEX))
+        );
+    }
+
     @TestFactory
     public List<DynamicTest> dynamicTests_illegalInput() {
         return List.of(
@@ -158,6 +238,79 @@ class UuidNCNameTest {
         );
     }
 
+    @TestFactory
+    public List<DynamicTest> dynamicTests_undetectedFormats() {
+        return List.of(
+                dynamicTest("NCNAME_36", () -> testUndetectedFormat(UuidFormat.NCNAME_36)),
+                dynamicTest("NCNAME_36_LEX", () -> testUndetectedFormat(UuidFormat.NCNAME_36_LEX)),
+                dynamicTest("NCNAME_62", () -> testUndetectedFormat(UuidFormat.NCNAME_62)),
+                dynamicTest("NCNAME_62_LEX", () -> testUndetectedFormat(UuidFormat.NCNAME_62_LEX))
+        );
+    }
+
+    private void testUndetectedFormat(UuidFormat format) {
+        Random rng = new Random(format.ordinal());
+        for (int i = 0; i < 1000; i++) {
+            UUID uuid = new UUID(rng.nextLong(), rng.nextLong());
+            String str = UuidNCName.toString(uuid, format);
+            UuidFormat detected = UuidNCName.detectFormat(str);
+            if (format.length() == 25) {
+                assertNull(detected, str);
+                assertThrows(IllegalArgumentException.class, () -> UuidNCName.fromString(str));
+            } else {
+                // base62 strings are read as base64 strings, as documented in fromString(String)
+                assertTrue(detected == UuidFormat.NCNAME_64 || detected == UuidFormat.NCNAME_64_LEX, str);
+            }
+            assertEquals(uuid, UuidNCName.fromString(str, format));
+        }
+    }
+
+    @TestFactory
+    public List<DynamicTest> dynamicTests_transcode() {
+        List<DynamicTest> tests = new ArrayList<>();
+        for (UuidFormat src : UuidFormat.values()) {
+            for (UuidFormat dst : UuidFormat.values()) {
+                tests.add(dynamicTest(src + " -> " + dst, () -> testTranscode(src, dst)));
+            }
+        }
+        return tests;
+    }
+
+    private void testTranscode(UuidFormat srcFormat, UuidFormat dstFormat) {
+        Random rng = new Random(srcFormat.ordinal() * 31 + dstFormat.ordinal());
+        byte[] buf = new byte[dstFormat.length() + 2];
+        for (int i = 0; i < 500; i++) {
+            UUID uuid = switch (i) {
+                case 0 -> new UUID(0, 0);
+                case 1 -> new UUID(-1, -1);
+                default -> new UUID(rng.nextLong(), rng.nextLong());
+            };
+            String src = UuidNCName.toString(uuid, srcFormat);
+            String expected = UuidNCName.toString(uuid, dstFormat);
+            assertEquals(expected, UuidNCName.transcode(src, srcFormat, dstFormat), src);
+            assertEquals(dstFormat.length(), UuidNCName.transcode(src, srcFormat, dstFormat, buf, 2));
+            assertEquals(expected, new String(buf, 2, dstFormat.length(), java.nio.charset.StandardCharsets.ISO_8859_1));
+        }
+        if (srcFormat != UuidFormat.CANONICAL) {
+            // A version character beyond 15 must give the same result as decoding and encoding
+            String src = "z" + UuidNCName.toString(new UUID(rng.nextLong(), rng.nextLong()), srcFormat).substring(1);
+            assertEquals(UuidNCName.toString(UuidNCName.fromString(src, srcFormat), dstFormat),
+                    UuidNCName.transcode(src, srcFormat, dstFormat), src);
+        }
+        String illegal = "!" + UuidNCName.toString(new UUID(1, 2), srcFormat).substring(1);
+        assertThrows(IllegalArgumentException.class, () -> UuidNCName.transcode(illegal, srcFormat, dstFormat));
+        if (srcFormat == UuidFormat.CANONICAL) {
+            // UUID.fromString accepts these strings, transcode must not
+            for (String lenient : new String[]{"+0000000-0000-0000-0000-00000000000a", "0-0000000000-0000-0000-0000000000000"}) {
+                assertThrows(IllegalArgumentException.class, () -> UuidNCName.transcode(lenient, srcFormat, dstFormat));
+                assertThrows(IllegalArgumentException.class, () -> UuidNCName.transcode(lenient, srcFormat, dstFormat, buf, 2));
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> UuidNCName.transcode("", srcFormat, dstFormat));
+        assertThrows(IndexOutOfBoundsException.class, () -> UuidNCName.transcode(
+                UuidNCName.toString(new UUID(1, 2), srcFormat), srcFormat, dstFormat, buf, 3));
+    }
+
     private void testIllegalInput(String inputString) {
         assertThrows(IllegalArgumentException.class, () -> UuidNCName.fromString(inputString));
     }
@@ -172,6 +325,22 @@ class UuidNCNameTest {
         assertEquals(expectedUuid, UuidNCName.fromString(toLowerCase(expectedString)));
     }
 
+    private void testUuidNCNameWithFormat(String canonicalString, String expectedString, UuidFormat format) {
+        UUID expectedUuid = UUID.fromString(canonicalString);
+        String actual = UuidNCName.toString(expectedUuid, format);
+        UUID actualUuid = UuidNCName.fromString(expectedString, format);
+        assertEquals(expectedString, actual);
+        assertEquals(format.length(), actual.length());
+        assertEquals(expectedUuid, actualUuid);
+        // Changing the case of the first character must yield the same uuid
+        assertEquals(expectedUuid, UuidNCName.fromString(Character.toUpperCase(expectedString.charAt(0)) + expectedString.substring(1), format));
+        assertEquals(expectedUuid, UuidNCName.fromString(Character.toLowerCase(expectedString.charAt(0)) + expectedString.substring(1), format));
+    }
+
+    private void testIllegalUuidNCNameWithFormat(String illegalInputString, UuidFormat format) {
+        assertThrows(IllegalArgumentException.class, () -> UuidNCName.fromString(illegalInputString, format));
+    }
+
     private void testIllegalUuidNCName(String illegalInputString) {
         assertThrows(IllegalArgumentException.class, () -> UuidNCName.fromString(illegalInputString));
     }
@@ -0,0 +1,99 @@
+/*
+ * @(#)UuidRecordSpliteratorTest.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+class UuidRecordSpliteratorTest {
+    @TestFactory
+    public Iterable<DynamicTest> dynamicTests_records() {
+        return Arrays.stream(UuidFormat.values())
+                .map(format -> dynamicTest(format.toString(), () -> testRecords(format)))
+                .toList();
+    }
+
+    private void testRecords(UuidFormat format) {
+        Random rng = new Random(format.ordinal());
+        UUID[] uuids = new UUID[1001];
+        StringBuilder buf = new StringBuilder("xx");
+        for (int i = 0; i < uuids.length; i++) {
+            uuids[i] = new UUID(rng.nextLong(), rng.nextLong());
+            buf.append(UuidNCName.toString(uuids[i], format));
+        }
+        byte[] array = buf.toString().getBytes(StandardCharsets.ISO_8859_1);
+        int len = array.length - 2;
+        ByteBuffer direct = ByteBuffer.allocateDirect(array.length).put(array).position(2);
+
+        for (UuidRecordSpliterator records : List.of(
+                UuidRecordSpliterator.of(array, 2, len, format),
+                UuidRecordSpliterator.of(ByteBuffer.wrap(array, 2, len), format),
+                UuidRecordSpliterator.of(ByteBuffer.wrap(array).position(2).slice(), format),
+                UuidRecordSpliterator.of(direct, format))) {
+            assertEquals(format, records.getFormat());
+            assertEquals(uuids.length, records.estimateSize());
+            assertTrue(records.hasCharacteristics(Spliterator.SUBSIZED));
+
+            // Sequential, with splits
+            UuidRecordSpliterator prefix = records.trySplit();
+            assertEquals(uuids.length / 2, prefix.estimateSize());
+            assertEquals(uuids.length - uuids.length / 2, records.estimateSize());
+            List<UUID> actual = new ArrayList<>();
+            assertTrue(prefix.tryAdvance((msb, lsb) -> actual.add(new UUID(msb, lsb))));
+            prefix.forEachRemaining((msb, lsb) -> actual.add(new UUID(msb, lsb)));
+            assertFalse(prefix.tryAdvance((msb, lsb) -> actual.add(new UUID(msb, lsb))));
+            assertTrue(records.tryAdvance((UUID u) -> actual.add(u)));
+            records.forEachRemaining((UUID u) -> actual.add(u));
+            assertEquals(Arrays.asList(uuids), actual);
+        }
+        assertEquals(2, direct.position());
+
+        // Parallel streams
+        assertEquals(Arrays.asList(uuids),
+                StreamSupport.stream(UuidRecordSpliterator.of(array, 2, len, format), true).toList());
+        long expectedCount = Arrays.stream(uuids).filter(u -> u.getMostSignificantBits() < 0).count();
+        assertEquals(expectedCount, UuidRecordSpliterator.of(direct, format).count((msb, lsb) -> msb < 0, true));
+        long[] lsbs = UuidRecordSpliterator.of(array, 2, len, format).mapToLong((msb, lsb) -> lsb, true).toArray();
+        assertEquals(Arrays.stream(uuids).map(UUID::getLeastSignificantBits).toList(),
+                Arrays.stream(lsbs).boxed().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testEmptyAndInvalidInput() {
+        UuidRecordSpliterator empty = UuidRecordSpliterator.of(new byte[0], 0, 0, UuidFormat.NCNAME_64_LEX);
+        assertEquals(0, empty.estimateSize());
+        assertNull(empty.trySplit());
+        assertFalse(empty.tryAdvance((msb, lsb) -> {
+        }));
+        assertEquals(0, empty.count((msb, lsb) -> true, true));
+
+        assertThrows(IllegalArgumentException.class, () -> UuidRecordSpliterator.of(new byte[23], 0, 23, UuidFormat.NCNAME_64_LEX));
+        assertThrows(IllegalArgumentException.class, () -> UuidRecordSpliterator.of(ByteBuffer.allocate(21), UuidFormat.NCNAME_64_LEX));
+        assertThrows(IndexOutOfBoundsException.class, () -> UuidRecordSpliterator.of(new byte[22], 1, 22, UuidFormat.NCNAME_64_LEX));
+        byte[] invalid = "!".repeat(44).getBytes(StandardCharsets.ISO_8859_1);
+        assertThrows(IllegalArgumentException.class, () -> UuidRecordSpliterator.of(invalid, 0, 44, UuidFormat.NCNAME_64_LEX)
+                .count((msb, lsb) -> true, true));
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * @(#)UuidTranscodingProcessorTest.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UuidTranscodingProcessorTest {
+
+    @Test
+    public void testTranscodeWithSlowSubscriber() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Random rng = new Random(0);
+            List<String> input = new ArrayList<>();
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < 10_000; i++) {
+                UUID uuid = new UUID(rng.nextLong(), rng.nextLong());
+                input.add(UuidNCName.toString(uuid, UuidFormat.NCNAME_32));
+                expected.add(UuidNCName.toString(uuid, UuidFormat.NCNAME_64_LEX));
+            }
+
+            UuidTranscodingProcessor processor = new UuidTranscodingProcessor(
+                    UuidFormat.NCNAME_32, UuidFormat.NCNAME_64_LEX, executor, 64, 2);
+            CollectingSubscriber subscriber = new CollectingSubscriber(3);
+            processor.subscribe(subscriber);
+            try (SubmissionPublisher<String> upstream = new SubmissionPublisher<>(executor, 32)) {
+                upstream.subscribe(processor);
+                input.forEach(upstream::submit);
+            }
+
+            assertEquals(expected, subscriber.result.get(30, TimeUnit.SECONDS));
+            assertEquals(input.size(), processor.getElementCount());
+            assertEquals(0, processor.getQueueDepth());
+            assertTrue(processor.getMaxBatchSize() <= 64);
+            assertTrue(processor.getBatchCount() >= input.size() / 64);
+            assertTrue(processor.getAverageBatchSize() >= 1);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @Timeout(60)
+    public void testSingleThreadExecutor() throws Exception {
+        // Publishing must not block the only thread, which also delivers to the subscribers
+        for (long n : new long[]{Long.MAX_VALUE, 1}) {
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                Random rng = new Random(n);
+                List<String> input = new ArrayList<>();
+                List<String> expected = new ArrayList<>();
+                for (int i = 0; i < 5000; i++) {
+                    UUID uuid = new UUID(rng.nextLong(), rng.nextLong());
+                    input.add(UuidNCName.toString(uuid, UuidFormat.NCNAME_58));
+                    expected.add(UuidNCName.toString(uuid, UuidFormat.CANONICAL));
+                }
+
+                UuidTranscodingProcessor processor = new UuidTranscodingProcessor(
+                        UuidFormat.NCNAME_58, UuidFormat.CANONICAL, executor, 256, 4);
+                CollectingSubscriber subscriber = new CollectingSubscriber(n);
+                processor.subscribe(subscriber);
+                try (SubmissionPublisher<String> upstream = new SubmissionPublisher<>(executor, 256)) {
+                    upstream.subscribe(processor);
+                    input.forEach(upstream::submit);
+                }
+
+                assertEquals(expected, subscriber.result.get(30, TimeUnit.SECONDS));
+                assertEquals(0, processor.getQueueDepth());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    public void testDetectFormat() throws Exception {
+        UUID uuid = UUID.fromString("017F22E2-79B0-7CC3-98C4-DC0C0C07398F");
+        List<String> input = new ArrayList<>();
+        for (UuidFormat format : new UuidFormat[]{UuidFormat.CANONICAL, UuidFormat.NCNAME_32,
+                UuidFormat.NCNAME_58_LEX, UuidFormat.NCNAME_64}) {
+            input.add(UuidNCName.toString(uuid, format));
+        }
+        String expected = UuidNCName.toString(uuid, UuidFormat.NCNAME_62);
+
+        UuidTranscodingProcessor processor = new UuidTranscodingProcessor(null, UuidFormat.NCNAME_62);
+        CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+        processor.subscribe(subscriber);
+        try (SubmissionPublisher<String> upstream = new SubmissionPublisher<>()) {
+            upstream.subscribe(processor);
+            input.forEach(upstream::submit);
+        }
+        assertEquals(List.of(expected, expected, expected, expected), subscriber.result.get(30, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testIllegalInput() throws Exception {
+        UuidTranscodingProcessor processor = new UuidTranscodingProcessor(UuidFormat.NCNAME_32, UuidFormat.NCNAME_64);
+        CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+        processor.subscribe(subscriber);
+        try (SubmissionPublisher<String> upstream = new SubmissionPublisher<>()) {
+            upstream.subscribe(processor);
+            upstream.submit("not a uuid");
+        }
+        CompletableFuture<List<String>> result = subscriber.result;
+        Throwable t = result.handle((r, e) -> e).get(30, TimeUnit.SECONDS);
+        assertInstanceOf(IllegalArgumentException.class, t);
+    }
+
+    /**
+     * Requests {@code n} strings at a time.
+     */
+    private static class CollectingSubscriber implements Flow.Subscriber<String> {
+        private final long n;
+        private final List<String> list = new ArrayList<>();
+        private final CompletableFuture<List<String>> result = new CompletableFuture<>();
+        private Flow.Subscription subscription;
+        private long remaining;
+
+        private CollectingSubscriber(long n) {
+            this.n = n;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            remaining = n;
+            subscription.request(n);
+        }
+
+        @Override
+        public void onNext(String item) {
+            list.add(item);
+            if (--remaining == 0) {
+                remaining = n;
+                subscription.request(n);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            result.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            result.complete(list);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * @(#)WideTableEncoderTest.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+class WideTableEncoderTest {
+    private static final byte[] BASE_32_ALPHABET =
+            "abcdefghijklmnopqrstuvwxyz234567".getBytes(StandardCharsets.ISO_8859_1);
+    private static final byte[] BASE_32_HEX_ALPHABET =
+            "0123456789abcdefghijklmnopqrstuv".getBytes(StandardCharsets.ISO_8859_1);
+    private static final byte[] BASE_64_ALPHABET =
+            "-0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ_abcdefghijklmnopqrstuvwxyz".getBytes(StandardCharsets.ISO_8859_1);
+    private static final byte[] BASE_64_URL_SAFE_ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes(StandardCharsets.ISO_8859_1);
+
+    @TestFactory
+    public Iterable<DynamicTest> dynamicTests_wideEqualsNarrow() {
+        return Arrays.asList(
+                dynamicTest("base32", () -> testWideEqualsNarrow(BASE_32_ALPHABET, 5)),
+                dynamicTest("base64", () -> testWideEqualsNarrow(BASE_64_ALPHABET, 6))
+        );
+    }
+
+    private void testWideEqualsNarrow(byte[] alphabet, int baseShift) {
+        int len = 60 / baseShift;
+        short[] table = WideTableEncoder.createTable(alphabet, baseShift);
+        Random rng = new Random(0);
+        for (int i = 0; i < 10_000; i++) {
+            long value = i < 2 ? -i : rng.nextLong();
+            byte[] expected = new byte[len + 3];
+            byte[] actual = new byte[len + 3];
+            UuidNCName.writeUInt60(expected, 2, len, value, alphabet, baseShift, (1 << baseShift) - 1);
+            WideTableEncoder.write(actual, 2, len, value, table, 2 * baseShift, (1 << (2 * baseShift)) - 1);
+            assertArrayEquals(expected, actual);
+        }
+    }
+
+    /**
+     * The wide tables are only used by {@link UuidNCName} if the system property
+     * {@value WideTableEncoder#PROPERTY_PREFIX} is {@code wide}. The build runs
+     * this test in a separate surefire execution with this property.
+     */
+    @TestFactory
+    public Iterable<DynamicTest> dynamicTests_formatsWideEqualsNarrow() {
+        return Arrays.asList(
+                dynamicTest("NCNAME_32", () -> testFormatWideEqualsNarrow(UuidFormat.NCNAME_32, BASE_32_ALPHABET, 5)),
+                dynamicTest("NCNAME_32_LEX", () -> testFormatWideEqualsNarrow(UuidFormat.NCNAME_32_LEX, BASE_32_HEX_ALPHABET, 5)),
+                dynamicTest("NCNAME_64", () -> testFormatWideEqualsNarrow(UuidFormat.NCNAME_64, BASE_64_URL_SAFE_ALPHABET, 6)),
+                dynamicTest("NCNAME_64_LEX", () -> testFormatWideEqualsNarrow(UuidFormat.NCNAME_64_LEX, BASE_64_ALPHABET, 6))
+        );
+    }
+
+    private void testFormatWideEqualsNarrow(UuidFormat format, byte[] alphabet, int baseShift) {
+        assumeTrue(baseShift == 5 ? WideTableEncoder.WIDE_BASE_32 : WideTableEncoder.WIDE_BASE_64,
+                "the narrow strategy is selected");
+        boolean lex = format == UuidFormat.NCNAME_32_LEX || format == UuidFormat.NCNAME_64_LEX;
+        int len = 60 / baseShift;
+        int mask = (1 << baseShift) - 1;
+        Random rng = new Random(format.ordinal());
+        for (int i = 0; i < 10_000; i++) {
+            UUID uuid = switch (i) {
+                case 0 -> new UUID(0, 0);
+                case 1 -> new UUID(-1, -1);
+                default -> new UUID(rng.nextLong(), rng.nextLong());
+            };
+            long msb = uuid.getMostSignificantBits(), lsb = uuid.getLeastSignificantBits();
+            String actual = UuidNCName.toString(uuid, format);
+
+            // The version and variant characters are written without a table,
+            // the data characters are written like the narrow strategy does
+            byte[] expected = actual.getBytes(StandardCharsets.ISO_8859_1);
+            UuidNCName.writeUInt60(expected, 1, len, UuidNCName.getMsb(msb), alphabet, baseShift, mask);
+            UuidNCName.writeUInt60(expected, 1 + len, len,
+                    lex ? UuidNCName.getLsbLex(lsb) : lsb & 0x0fff_ffffffffffffL, alphabet, baseShift, mask);
+            assertEquals(new String(expected, StandardCharsets.ISO_8859_1), actual);
+            assertEquals(uuid, UuidNCName.fromString(actual, format));
+        }
+    }
+}
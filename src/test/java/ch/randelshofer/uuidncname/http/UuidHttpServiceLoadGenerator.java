@@ -0,0 +1,144 @@
+/*
+ * @(#)UuidHttpServiceLoadGenerator.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname.http;
+
+import ch.randelshofer.uuidncname.UuidFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a load test against a {@link UuidHttpService} on localhost, and prints
+ * the p50 and p99 latency of the requests and the number of minted ids per
+ * second.
+ * <p>
+ * Usage:
+ * <pre>
+ * UuidHttpServiceLoadGenerator [clients [seconds [idsPerRequest [version [format]]]]]
+ * </pre>
+ * The defaults are 64 clients, 10 seconds, 100 ids per request, version 7
+ * and {@link UuidFormat#NCNAME_64_LEX}. Each client runs on its own virtual
+ * thread, and sends requests one after the other over a keep-alive connection.
+ * The first second is a warm-up and is not measured.
+ * <p>
+ * Unless the system property {@code sun.net.httpserver.nodelay} is set,
+ * it is set to {@code true}, because otherwise the response headers and the
+ * response body are delayed by the Nagle algorithm on localhost.
+ */
+public class UuidHttpServiceLoadGenerator {
+    public static void main(String... args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int idsPerRequest = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int version = args.length > 3 ? Integer.parseInt(args[3]) : 7;
+        UuidFormat format = args.length > 4 ? UuidFormat.valueOf(args[4]) : UuidFormat.NCNAME_64_LEX;
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+
+        try (UuidHttpService service = UuidHttpService.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            InetSocketAddress address = service.getAddress();
+            URL url = URI.create("http://" + address.getHostString() + ":" + address.getPort()
+                    + "/mint?version=" + version + "&format=" + format + "&count=" + idsPerRequest).toURL();
+            long warmUpEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+            long end = warmUpEnd + TimeUnit.SECONDS.toNanos(seconds);
+
+            ExecutorService executor = UuidHttpService.newVirtualThreadExecutor();
+            Future<?>[] futures = new Future<?>[clients];
+            Client[] results = new Client[clients];
+            for (int i = 0; i < clients; i++) {
+                Client client = new Client(url, idsPerRequest, warmUpEnd, end);
+                results[i] = client;
+                futures[i] = executor.submit(client);
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+            executor.shutdown();
+
+            int requests = 0;
+            for (Client c : results) {
+                requests += c.count;
+            }
+            long[] latencies = new long[requests];
+            int p = 0;
+            long ids = 0;
+            for (Client c : results) {
+                System.arraycopy(c.latencies, 0, latencies, p, c.count);
+                p += c.count;
+                ids += c.ids;
+            }
+            Arrays.sort(latencies);
+            System.out.printf("clients=%d, seconds=%d, idsPerRequest=%d, version=%d, format=%s%n",
+                    clients, seconds, idsPerRequest, version, format);
+            System.out.printf("requests=%d, p50=%.3f ms, p99=%.3f ms, ids/sec=%.0f%n",
+                    requests, percentile(latencies, 0.50) / 1e6, percentile(latencies, 0.99) / 1e6,
+                    ids / (double) seconds);
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private static class Client implements Runnable {
+        private final URL url;
+        private final int idsPerRequest;
+        private final long warmUpEnd;
+        private final long end;
+        private final byte[] buffer = new byte[64 * 1024];
+        long[] latencies = new long[1024];
+        int count;
+        long ids;
+
+        Client(URL url, int idsPerRequest, long warmUpEnd, long end) {
+            this.url = url;
+            this.idsPerRequest = idsPerRequest;
+            this.warmUpEnd = warmUpEnd;
+            this.end = end;
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (long start = System.nanoTime(); start < end; start = System.nanoTime()) {
+                    request();
+                    long stop = System.nanoTime();
+                    if (start >= warmUpEnd) {
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = stop - start;
+                        ids += idsPerRequest;
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        private void request() throws IOException {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            if (connection.getResponseCode() != 200) {
+                throw new IOException("Unexpected status: " + connection.getResponseCode());
+            }
+            // Read the body completely, so that the connection can be reused
+            try (InputStream in = connection.getInputStream()) {
+                while (in.read(buffer) >= 0) {
+                }
+            }
+        }
+    }
+}
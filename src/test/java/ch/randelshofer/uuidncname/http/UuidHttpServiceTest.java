@@ -0,0 +1,151 @@
+/*
+ * @(#)UuidHttpServiceTest.java
+ * Copyright © 2023 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.uuidncname.http;
+
+import ch.randelshofer.uuidncname.UuidFormat;
+import ch.randelshofer.uuidncname.UuidNCName;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UuidHttpServiceTest {
+    private static UuidHttpService service;
+
+    @BeforeAll
+    public static void startService() throws IOException {
+        service = UuidHttpService.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    }
+
+    @AfterAll
+    public static void stopService() {
+        service.close();
+    }
+
+    @Test
+    public void testMintSingle() throws IOException {
+        for (UuidFormat format : UuidFormat.values()) {
+            List<String> ids = lines(request("GET", "/mint?format=" + format, null, 200));
+            assertEquals(1, ids.size());
+            assertEquals(format.length(), ids.get(0).length());
+            UUID uuid = UuidNCName.fromString(ids.get(0), format);
+            assertEquals(4, uuid.version(), format.toString());
+            assertEquals(2, uuid.variant(), format.toString());
+        }
+    }
+
+    @Test
+    public void testMintBatchVersion7() throws IOException {
+        long before = System.currentTimeMillis();
+        int count = 5000;
+        List<String> ids = lines(request("GET", "/mint?version=7&format=NCNAME_64_LEX&count=" + count, null, 200));
+        long after = System.currentTimeMillis();
+        assertEquals(count, ids.size());
+        Set<String> unique = new HashSet<>(ids);
+        assertEquals(count, unique.size());
+        for (String id : ids) {
+            UUID uuid = UuidNCName.fromString(id, UuidFormat.NCNAME_64_LEX);
+            assertEquals(7, uuid.version());
+            assertEquals(2, uuid.variant());
+            long unixTsMs = uuid.getMostSignificantBits() >>> 16;
+            assertTrue(before <= unixTsMs && unixTsMs <= after, id);
+        }
+    }
+
+    @Test
+    public void testTranscode() throws IOException {
+        Random rng = new Random(0);
+        StringBuilder input = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            UUID uuid = new UUID(rng.nextLong(), rng.nextLong());
+            input.append(UuidNCName.toString(uuid, UuidFormat.NCNAME_58)).append(i % 2 == 0 ? "\r\n" : "\n");
+            expected.add(UuidNCName.toString(uuid, UuidFormat.CANONICAL));
+        }
+        input.setLength(input.length() - 1);
+        assertEquals(expected, lines(request("POST", "/transcode?from=NCNAME_58&to=CANONICAL", input.toString(), 200)));
+    }
+
+    @Test
+    public void testTranscodeDetectFormat() throws IOException {
+        UUID uuid = UUID.fromString("017F22E2-79B0-7CC3-98C4-DC0C0C07398F");
+        String input = UuidNCName.toString(uuid, UuidFormat.NCNAME_32) + "\n\n"
+                + UuidNCName.toString(uuid, UuidFormat.NCNAME_64_LEX) + "\n"
+                + uuid + "\n";
+        String expected = UuidNCName.toString(uuid, UuidFormat.NCNAME_36_LEX);
+        assertEquals(List.of(expected, expected, expected),
+                lines(request("POST", "/transcode?to=NCNAME_36_LEX", input, 200)));
+    }
+
+    @Test
+    public void testErrors() throws IOException {
+        request("GET", "/mint?version=1", null, 400);
+        request("GET", "/mint?count=0", null, 400);
+        request("GET", "/mint?count=" + (UuidHttpService.MAX_COUNT + 1), null, 400);
+        request("GET", "/mint?format=NCNAME_99", null, 400);
+        request("POST", "/mint", "", 405);
+        request("GET", "/transcode?to=NCNAME_64", null, 405);
+        request("POST", "/transcode", "", 400);
+        request("POST", "/transcode?from=NCNAME_64&to=NCNAME_32", "not-an-id\n", 400);
+        request("GET", "/unknown", null, 404);
+    }
+
+    @Test
+    public void testMalformedIdAfterFirstBlockAbortsResponse() {
+        StringBuilder input = new StringBuilder();
+        String id = UuidNCName.toString(new UUID(0, 0), UuidFormat.NCNAME_64);
+        for (int i = 0; i < 100_000; i++) {
+            input.append(id).append('\n');
+        }
+        input.append("not-an-id\n");
+        assertThrows(IOException.class,
+                () -> request("POST", "/transcode?from=NCNAME_64&to=NCNAME_64", input.toString(), 200));
+    }
+
+    private static List<String> lines(String body) {
+        return body.isEmpty() ? List.of() : List.of(body.split("\n"));
+    }
+
+    private static String request(String method, String pathAndQuery, String body, int expectedStatus) throws IOException {
+        InetSocketAddress address = service.getAddress();
+        URL url = URI.create("http://" + address.getHostString() + ":" + address.getPort() + pathAndQuery).toURL();
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try {
+            connection.setRequestMethod(method);
+            if (body != null) {
+                connection.setDoOutput(true);
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(body.getBytes(StandardCharsets.US_ASCII));
+                }
+            }
+            assertEquals(expectedStatus, connection.getResponseCode(), pathAndQuery);
+            try (InputStream in = expectedStatus == 200 ? connection.getInputStream() : connection.getErrorStream()) {
+                return new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+}